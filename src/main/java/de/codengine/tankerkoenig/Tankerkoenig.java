@@ -24,15 +24,18 @@
 
 package de.codengine.tankerkoenig;
 
+import de.codengine.tankerkoenig.budget.RequestBudget;
 import de.codengine.tankerkoenig.client.ClientExecutor;
 import de.codengine.tankerkoenig.client.ClientExecutorFactory;
 import de.codengine.tankerkoenig.client.ClientExecutorFactoryImpl;
 import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.mapper.JsonMapper;
 import de.codengine.tankerkoenig.models.requests.CorrectionRequest;
 import de.codengine.tankerkoenig.models.requests.PricesRequest;
 import de.codengine.tankerkoenig.models.requests.Requester;
 import de.codengine.tankerkoenig.models.requests.StationDetailRequest;
 import de.codengine.tankerkoenig.models.requests.StationListRequest;
+import de.codengine.tankerkoenig.models.requests.StationListResolver;
 
 /**
  * Entry point for creation of the Tankerkoenig API instance.
@@ -58,6 +61,9 @@ public final class Tankerkoenig
    {
       private String apiKey;
       private ClientExecutor clientExecutor;
+      private JsonMapper jsonMapper;
+      private StationListResolver stationListResolver;
+      private RequestBudget requestBudget;
       private final ClientExecutorFactory clientExecutorFactory;
       private final String baseUrl;
 
@@ -119,10 +125,47 @@ public final class Tankerkoenig
          return this;
       }
 
+      /**
+       * Uses the specified JSON mapper, e.g. {@link de.codengine.tankerkoenig.models.mapper.StreamingMapper}
+       * <p>
+       * Default is: {@link GsonMapper}
+       */
+      public ApiBuilder withJsonMapper(final JsonMapper jsonMapper)
+      {
+         this.jsonMapper = jsonMapper;
+         return this;
+      }
+
+      /**
+       * Uses the specified resolver to answer station list requests, e.g. a
+       * {@link de.codengine.tankerkoenig.index.StationIndexResolver} or an
+       * {@link de.codengine.tankerkoenig.cache.AllGasTypesListCache}, which answers every gas type from one request
+       * <p>
+       * Default is: every station list request is sent to the API
+       */
+      public ApiBuilder withStationListResolver(final StationListResolver stationListResolver)
+      {
+         this.stationListResolver = stationListResolver;
+         return this;
+      }
+
+      /**
+       * Counts the calls sent to the API with the specified budget. Calls exceeding the daily limit
+       * fail with a {@link de.codengine.tankerkoenig.exception.RequesterException}.
+       * <p>
+       * Default is: the calls are not counted
+       */
+      public ApiBuilder withRequestBudget(final RequestBudget requestBudget)
+      {
+         this.requestBudget = requestBudget;
+         return this;
+      }
+
       /**
        * Builds the final API instance. If apiKey is null or empty, will throw an {@link IllegalStateException}.
        * <p>
        * If no client executor is explicitly specified, will build the default client executor.
+       * If no JSON mapper is explicitly specified, will use the {@link GsonMapper}.
        */
       public Api build()
       {
@@ -136,7 +179,8 @@ public final class Tankerkoenig
             clientExecutor = clientExecutorFactory.buildDefaultClientExecutor();
          }
 
-         final Requester requester = new Requester(clientExecutor, GsonMapper.getInstance());
+         final Requester requester = new Requester(clientExecutor, jsonMapper != null ? jsonMapper : GsonMapper.getInstance(),
+               stationListResolver, requestBudget);
 
          return new Api(this, baseUrl, requester);
       }
@@ -0,0 +1,407 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.alert;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+import de.codengine.tankerkoenig.geo.GeoCircle;
+import de.codengine.tankerkoenig.geo.GeoGrid;
+import de.codengine.tankerkoenig.geo.GeoUtils;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.Location;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.poll.PriceChange;
+
+/**
+ * Evaluates {@link PriceAlert}s incrementally on price change events.
+ * <p>
+ * The alerts are registered in every cell of a grid which intersects their area. A price change of a
+ * station only evaluates the alerts registered in the cell of the station, instead of every alert.
+ * The alerts are stored in primitive tables and the cells only hold the indexes of the alerts, so
+ * a million alerts fit on one node.
+ * <p>
+ * The changes are usually consumed from a {@link de.codengine.tankerkoenig.poll.PriceChangeStream}, which is
+ * fed by a {@link de.codengine.tankerkoenig.poll.PriceChangeDetector} with the prices of prices.php
+ * results and the gas prices of list.php results for all gas types. As prices.php does not return the
+ * location of the stations, the stations have to be located with {@link #locate(Station)} before,
+ * e.g. from the list.php results. Changes of unknown stations are ignored.
+ * <p>
+ * An alert is triggered if a station is not closed and the price falls below the threshold, which was
+ * not the case before the change. The engine is thread safe and notifies the listeners outside of the lock.
+ */
+public final class AlertEngine
+{
+   private final static double DEFAULT_CELL_SIZE = 0.1;
+   private final static double MAX_RADIUS = 25;
+
+   private final GeoGrid grid;
+   private final Map<String, Integer> alertIndexes = new HashMap<>();
+   private final Deque<Integer> freeIndexes = new ArrayDeque<>();
+   private final Map<Long, Cell> cells = new HashMap<>();
+   private final Map<String, double[]> locations = new HashMap<>();
+   private final List<AlertListener> listeners = new CopyOnWriteArrayList<>();
+   private final ReadWriteLock lock = new ReentrantReadWriteLock();
+   private final AtomicLong evaluations = new AtomicLong();
+   private PriceAlert[] alerts = new PriceAlert[16];
+   private double[] lats = new double[16];
+   private double[] lngs = new double[16];
+   private double[] radii = new double[16];
+   private float[] thresholds = new float[16];
+   private byte[] gasTypes = new byte[16];
+   private int used;
+
+   /**
+    * Creates an engine with a cell size of 0.1 degrees
+    */
+   public AlertEngine()
+   {
+      this(DEFAULT_CELL_SIZE);
+   }
+
+   /**
+    * @param cellSize The edge length of the grid cells in degrees
+    */
+   public AlertEngine(final double cellSize)
+   {
+      this.grid = GeoGrid.of(cellSize);
+   }
+
+   /**
+    * Registers the alert, replacing an alert with the same ID
+    *
+    * @throws IllegalArgumentException Thrown if the radius of the area exceeds 25 km
+    */
+   public void register(final PriceAlert alert)
+   {
+      if (alert == null)
+      {
+         throw new IllegalArgumentException("The alert must not be null");
+      }
+      if (alert.getArea().getRadius() > MAX_RADIUS)
+      {
+         throw new IllegalArgumentException("The radius of the area must not exceed " + MAX_RADIUS + " km");
+      }
+
+      lock.writeLock().lock();
+      try
+      {
+         unregister(alert.getId());
+
+         final int index = freeIndexes.isEmpty() ? used++ : freeIndexes.pop();
+         ensureCapacity(used);
+         final GeoCircle area = alert.getArea();
+         alerts[index] = alert;
+         lats[index] = area.getCenter().getLat();
+         lngs[index] = area.getCenter().getLng();
+         radii[index] = area.getRadius();
+         thresholds[index] = alert.getThreshold();
+         gasTypes[index] = (byte) alert.getGasType().ordinal();
+         alertIndexes.put(alert.getId(), index);
+
+         forEachCell(index, cell -> cells.computeIfAbsent(cell, key -> new Cell()).add(index));
+      }
+      finally
+      {
+         lock.writeLock().unlock();
+      }
+   }
+
+   /**
+    * Removes the alert
+    *
+    * @return False if no alert with the ID was registered
+    */
+   public boolean remove(final String alertId)
+   {
+      lock.writeLock().lock();
+      try
+      {
+         return unregister(alertId);
+      }
+      finally
+      {
+         lock.writeLock().unlock();
+      }
+   }
+
+   /**
+    * Returns the alert with the ID
+    */
+   public Optional<PriceAlert> getAlert(final String alertId)
+   {
+      lock.readLock().lock();
+      try
+      {
+         final Integer index = alertIndexes.get(alertId);
+         return index != null ? Optional.of(alerts[index]) : Optional.empty();
+      }
+      finally
+      {
+         lock.readLock().unlock();
+      }
+   }
+
+   /**
+    * Returns the count of registered alerts
+    */
+   public int size()
+   {
+      lock.readLock().lock();
+      try
+      {
+         return alertIndexes.size();
+      }
+      finally
+      {
+         lock.readLock().unlock();
+      }
+   }
+
+   /**
+    * Records the location of the station, stations without an ID or location are ignored
+    */
+   public void locate(final Station station)
+   {
+      final Location location = station.getLocation();
+      if (station.getId() != null && location != null)
+      {
+         locate(station.getId(), location.getLat(), location.getLng());
+      }
+   }
+
+   /**
+    * Records the locations of the stations
+    *
+    * @see #locate(Station)
+    */
+   public void locateAll(final Collection<Station> stations)
+   {
+      stations.forEach(this::locate);
+   }
+
+   /**
+    * Records the location of the station
+    */
+   public void locate(final String stationId, final double lat, final double lng)
+   {
+      lock.writeLock().lock();
+      try
+      {
+         locations.put(stationId, new double[]{lat, lng});
+      }
+      finally
+      {
+         lock.writeLock().unlock();
+      }
+   }
+
+   /**
+    * Evaluates the alerts whose area contains the changed station and notifies the listeners of the triggered alerts
+    *
+    * @return The count of triggered alerts
+    */
+   public int onChange(final PriceChange change)
+   {
+      final List<PriceAlert> triggered = new ArrayList<>();
+      final float[] prices = new float[GasPrices.GasType.values().length];
+      final float[] previousPrices = new float[prices.length];
+      final boolean closed = change.getStatus().orElse(null) == GasPrices.Status.CLOSED;
+      final boolean previouslyClosed = change.getPreviousStatus().orElse(null) == GasPrices.Status.CLOSED;
+      for (final GasPrices.GasType gasType : GasPrices.GasType.values())
+      {
+         prices[gasType.ordinal()] = closed ? Float.NaN : change.getPrice(gasType).orElse(Float.NaN);
+         previousPrices[gasType.ordinal()] = previouslyClosed ? Float.NaN : change.getPreviousPrice(gasType).orElse(Float.NaN);
+      }
+
+      lock.readLock().lock();
+      try
+      {
+         final double[] location = locations.get(change.getStationId());
+         final Cell cell = location != null ? cells.get(grid.cellOf(location[0], location[1])) : null;
+         if (cell == null)
+         {
+            return 0;
+         }
+
+         for (int i = 0; i < cell.size; i++)
+         {
+            final int index = cell.indexes[i];
+            final float price = prices[gasTypes[index]];
+            final float previousPrice = previousPrices[gasTypes[index]];
+            // NaN compares false, so missing prices never trigger and always allow a trigger
+            if (price < thresholds[index] && !(previousPrice < thresholds[index])
+                  && GeoUtils.distance(lats[index], lngs[index], location[0], location[1]) <= radii[index])
+            {
+               triggered.add(alerts[index]);
+            }
+         }
+         evaluations.addAndGet(cell.size);
+      }
+      finally
+      {
+         lock.readLock().unlock();
+      }
+
+      for (final PriceAlert alert : triggered)
+      {
+         final float price = prices[alert.getGasType().ordinal()];
+         for (final AlertListener listener : listeners)
+         {
+            listener.onAlert(alert, change.getStationId(), price);
+         }
+      }
+      return triggered.size();
+   }
+
+   /**
+    * Returns the count of alerts evaluated against price changes
+    */
+   public long getEvaluations()
+   {
+      return evaluations.get();
+   }
+
+   /**
+    * Adds a listener, which is notified of triggered alerts
+    */
+   public void addListener(final AlertListener listener)
+   {
+      if (listener == null)
+      {
+         throw new IllegalArgumentException("The listener must not be null");
+      }
+      listeners.add(listener);
+   }
+
+   /**
+    * Removes the listener
+    */
+   public void removeListener(final AlertListener listener)
+   {
+      listeners.remove(listener);
+   }
+
+   private boolean unregister(final String alertId)
+   {
+      final Integer index = alertIndexes.remove(alertId);
+      if (index == null)
+      {
+         return false;
+      }
+
+      forEachCell(index, key ->
+      {
+         final Cell cell = cells.get(key);
+         cell.remove(index);
+         if (cell.size == 0)
+         {
+            cells.remove(key);
+         }
+      });
+      alerts[index] = null;
+      freeIndexes.push(index);
+      return true;
+   }
+
+   /**
+    * Calls the consumer for every cell intersecting the area of the alert
+    */
+   private void forEachCell(final int index, final LongConsumer consumer)
+   {
+      grid.forEachIntersecting(lats[index], lngs[index], radii[index], consumer);
+   }
+
+   private void ensureCapacity(final int capacity)
+   {
+      if (capacity <= alerts.length)
+      {
+         return;
+      }
+      final int length = Math.max(capacity, alerts.length * 2);
+      alerts = Arrays.copyOf(alerts, length);
+      lats = Arrays.copyOf(lats, length);
+      lngs = Arrays.copyOf(lngs, length);
+      radii = Arrays.copyOf(radii, length);
+      thresholds = Arrays.copyOf(thresholds, length);
+      gasTypes = Arrays.copyOf(gasTypes, length);
+   }
+
+   /**
+    * The indexes of the alerts of a cell
+    */
+   private static final class Cell
+   {
+      private int[] indexes = new int[4];
+      private int size;
+
+      private void add(final int index)
+      {
+         if (size == indexes.length)
+         {
+            indexes = Arrays.copyOf(indexes, size * 2);
+         }
+         indexes[size++] = index;
+      }
+
+      private void remove(final int index)
+      {
+         for (int i = 0; i < size; i++)
+         {
+            if (indexes[i] == index)
+            {
+               indexes[i] = indexes[--size];
+               return;
+            }
+         }
+      }
+   }
+
+   /**
+    * Receives the triggered alerts
+    */
+   @FunctionalInterface
+   public interface AlertListener
+   {
+      /**
+       * @param alert     The triggered alert
+       * @param stationId The ID of the station, whose price fell below the threshold
+       * @param price     The price of the station
+       */
+      void onAlert(final PriceAlert alert, final String stationId, final float price);
+   }
+}
@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.alert;
+
+import de.codengine.tankerkoenig.geo.GeoCircle;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+
+/**
+ * An alert, which is triggered as soon as the price of a gas type falls below a threshold at a
+ * station within an area, e.g. "E10 below 1.70 € within 5 km of home"
+ */
+public final class PriceAlert
+{
+   private final String id;
+   private final GeoCircle area;
+   private final GasPrices.GasType gasType;
+   private final float threshold;
+
+   private PriceAlert(final String id, final GeoCircle area, final GasPrices.GasType gasType, final float threshold)
+   {
+      this.id = id;
+      this.area = area;
+      this.gasType = gasType;
+      this.threshold = threshold;
+   }
+
+   /**
+    * Creates an alert
+    *
+    * @param id        The unique ID of the alert
+    * @param area      The area of the stations
+    * @param gasType   The watched gas type
+    * @param threshold The price, which has to be undercut
+    * @throws IllegalArgumentException Thrown if an argument is missing or the threshold is not positive
+    */
+   public static PriceAlert of(final String id, final GeoCircle area, final GasPrices.GasType gasType, final float threshold)
+   {
+      if (id == null || id.isEmpty())
+      {
+         throw new IllegalArgumentException("The ID must not be null or empty");
+      }
+      if (area == null || gasType == null)
+      {
+         throw new IllegalArgumentException("The area and the gas type must be set");
+      }
+      if (!(threshold > 0))
+      {
+         throw new IllegalArgumentException("The threshold must be positive");
+      }
+      return new PriceAlert(id, area, gasType, threshold);
+   }
+
+   /**
+    * Returns the unique ID
+    */
+   public String getId()
+   {
+      return id;
+   }
+
+   /**
+    * Returns the area of the stations
+    */
+   public GeoCircle getArea()
+   {
+      return area;
+   }
+
+   /**
+    * Returns the watched gas type
+    */
+   public GasPrices.GasType getGasType()
+   {
+      return gasType;
+   }
+
+   /**
+    * Returns the price, which has to be undercut
+    */
+   public float getThreshold()
+   {
+      return threshold;
+   }
+
+   @Override
+   public boolean equals(final Object o)
+   {
+      if (this == o)
+         return true;
+      if (o == null || getClass() != o.getClass())
+         return false;
+
+      final PriceAlert that = (PriceAlert) o;
+
+      if (Float.compare(that.threshold, threshold) != 0)
+         return false;
+      if (!id.equals(that.id))
+         return false;
+      if (!area.equals(that.area))
+         return false;
+      return gasType == that.gasType;
+   }
+
+   @Override
+   public int hashCode()
+   {
+      int result = id.hashCode();
+      result = 31 * result + area.hashCode();
+      result = 31 * result + gasType.hashCode();
+      result = 31 * result + Float.hashCode(threshold);
+      return result;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "PriceAlert{id='" + id + "', area=" + area + ", gasType=" + gasType + ", threshold=" + threshold + "}";
+   }
+}
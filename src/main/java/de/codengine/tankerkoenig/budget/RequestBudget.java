@@ -0,0 +1,213 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.budget;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Accounts the requests against the daily allowance of an API key.
+ * <p>
+ * The calls are counted per endpoint and reset at the start of every day. Calls exceeding the limit
+ * are refused, see {@link de.codengine.tankerkoenig.Tankerkoenig.ApiBuilder#withRequestBudget(RequestBudget)}.
+ * The consumption is projected over the rest of the day from the rate observed so far, and the rate
+ * which can be sustained until the reset is offered to schedulers, which throttle themselves to it.
+ * <p>
+ * The budget is thread safe.
+ */
+public final class RequestBudget
+{
+   private final static Duration MIN_TIME_LEFT = Duration.ofMinutes(1);
+
+   private final int dailyLimit;
+   private final ZoneId zone;
+   private final Clock clock;
+   private final Map<String, Integer> usage = new TreeMap<>();
+   private final Instant created;
+   private LocalDate day;
+   private int used;
+
+   /**
+    * Creates a budget, which is reset at midnight in Germany
+    *
+    * @param dailyLimit The allowed requests per day
+    */
+   public RequestBudget(final int dailyLimit)
+   {
+      this(dailyLimit, ZoneId.of("Europe/Berlin"), Clock.systemUTC());
+   }
+
+   /**
+    * @param dailyLimit The allowed requests per day
+    * @param zone       The zone of the day boundaries
+    * @param clock      The clock to determine the day
+    */
+   public RequestBudget(final int dailyLimit, final ZoneId zone, final Clock clock)
+   {
+      if (dailyLimit < 1)
+      {
+         throw new IllegalArgumentException("The daily limit has to be at least 1");
+      }
+      if (zone == null || clock == null)
+      {
+         throw new IllegalArgumentException("The zone and the clock must not be null");
+      }
+
+      this.dailyLimit = dailyLimit;
+      this.zone = zone;
+      this.clock = clock;
+      this.created = clock.instant();
+      this.day = clock.instant().atZone(zone).toLocalDate();
+   }
+
+   /**
+    * Counts a call of the endpoint, if the limit of the day has not been reached yet
+    *
+    * @param endpoint The endpoint, e.g. "prices.php"
+    * @return False if the call has to be refused
+    */
+   public synchronized boolean tryAcquire(final String endpoint)
+   {
+      roll();
+      if (used >= dailyLimit)
+      {
+         return false;
+      }
+      used++;
+      usage.merge(endpoint, 1, Integer::sum);
+      return true;
+   }
+
+   /**
+    * Returns the allowed requests per day
+    */
+   public int getDailyLimit()
+   {
+      return dailyLimit;
+   }
+
+   /**
+    * Returns the count of calls of the current day
+    */
+   public synchronized int getUsed()
+   {
+      roll();
+      return used;
+   }
+
+   /**
+    * Returns the count of calls of the endpoint of the current day
+    */
+   public synchronized int getUsed(final String endpoint)
+   {
+      roll();
+      return usage.getOrDefault(endpoint, 0);
+   }
+
+   /**
+    * Returns the count of calls of the current day by endpoint
+    */
+   public synchronized Map<String, Integer> getUsage()
+   {
+      roll();
+      return Collections.unmodifiableMap(new TreeMap<>(usage));
+   }
+
+   /**
+    * Returns the count of calls left for the current day
+    */
+   public synchronized int getRemaining()
+   {
+      roll();
+      return dailyLimit - used;
+   }
+
+   /**
+    * Projects the count of calls at the end of the day, if the calls continue at the rate observed
+    * since the start of the day or the creation of the budget, whichever is later
+    */
+   public synchronized double getProjectedUsage()
+   {
+      roll();
+      final Instant now = clock.instant();
+      final Instant start = day.atStartOfDay(zone).toInstant();
+      final long elapsed = Duration.between(created.isAfter(start) ? created : start, now).toMillis();
+      if (elapsed <= 0)
+      {
+         return used;
+      }
+      return used + (double) used / elapsed * Duration.between(now, nextReset()).toMillis();
+   }
+
+   /**
+    * Determines if the projected usage exceeds the daily limit
+    */
+   public boolean isOverspending()
+   {
+      return getProjectedUsage() > dailyLimit;
+   }
+
+   /**
+    * Returns the calls per hour which can be sustained until the end of the day
+    */
+   public synchronized double getAvailableRate()
+   {
+      roll();
+      final Duration timeLeft = getTimeUntilReset();
+      final Duration period = timeLeft.compareTo(MIN_TIME_LEFT) < 0 ? MIN_TIME_LEFT : timeLeft;
+      return (dailyLimit - used) * 3_600_000.0 / period.toMillis();
+   }
+
+   /**
+    * Returns the time until the budget is reset
+    */
+   public synchronized Duration getTimeUntilReset()
+   {
+      roll();
+      return Duration.between(clock.instant(), nextReset());
+   }
+
+   private Instant nextReset()
+   {
+      return day.plusDays(1).atStartOfDay(zone).toInstant();
+   }
+
+   private void roll()
+   {
+      final LocalDate today = clock.instant().atZone(zone).toLocalDate();
+      if (!today.equals(day))
+      {
+         day = today;
+         used = 0;
+         usage.clear();
+      }
+   }
+}
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListRequest;
+import de.codengine.tankerkoenig.models.requests.StationListResolver;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+
+/**
+ * Shares one list.php request for all gas types between requests with the same search circle,
+ * regardless of the requested gas type and sorting. The result for a gas type and sorting is derived
+ * by {@link StationListResult#getStations(GasRequestType, StationListRequest.SortingRequestType)},
+ * so requesting the price-sorted lists for E5, E10 and diesel costs a single upstream request.
+ * <p>
+ * The least recently used entries are evicted once the maximum count of entries is reached.
+ * The cache is thread safe.
+ */
+public final class AllGasTypesListCache implements StationListResolver
+{
+   private final ExpiringLruCache<StationListQuery, StationListResult> entries;
+
+   /**
+    * Creates a cache with up to 100 entries
+    *
+    * @param maxAge The maximum age of a cached result
+    */
+   public AllGasTypesListCache(final Duration maxAge)
+   {
+      this(maxAge, 100, Clock.systemUTC());
+   }
+
+   /**
+    * @param maxAge     The maximum age of a cached result
+    * @param maxEntries The maximum count of cached results
+    * @param clock      The clock to determine the age of the results
+    */
+   public AllGasTypesListCache(final Duration maxAge, final int maxEntries, final Clock clock)
+   {
+      this.entries = new ExpiringLruCache<>(maxAge, maxEntries, clock);
+   }
+
+   @Override
+   public StationListResult resolve(final StationListQuery query, final Upstream upstream) throws RequesterException
+   {
+      final StationListQuery key = query.withGasRequestType(GasRequestType.ALL);
+
+      final Instant now = entries.now();
+      StationListResult cached = entries.get(key, now);
+      if (cached == null)
+      {
+         cached = upstream.fetch(key);
+         if (!Boolean.TRUE.equals(cached.isOk()))
+         {
+            return cached;
+         }
+         entries.put(key, cached, now);
+      }
+
+      if (query.getGasRequestType() == GasRequestType.ALL)
+      {
+         return cached;
+      }
+      return cached.withStations(cached.getStations(query.getGasRequestType(), query.getSorting()));
+   }
+
+   /**
+    * Returns the count of cached results
+    */
+   public int size()
+   {
+      return entries.size();
+   }
+
+   /**
+    * Removes every cached result
+    */
+   public void clear()
+   {
+      entries.clear();
+   }
+}
@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds values for a maximum age and evicts the least recently used entries once the maximum count
+ * of entries is reached. The methods synchronize on the cache, so callers may synchronize on it to
+ * combine several calls atomically.
+ */
+final class ExpiringLruCache<K, V>
+{
+   private final Duration maxAge;
+   private final Clock clock;
+   private final LruMap<K, V> entries;
+
+   /**
+    * @param maxAge     The maximum age of a cached value
+    * @param maxEntries The maximum count of cached values
+    * @param clock      The clock to determine the age of the values
+    */
+   ExpiringLruCache(final Duration maxAge, final int maxEntries, final Clock clock)
+   {
+      if (maxAge == null || maxAge.isNegative())
+      {
+         throw new IllegalArgumentException("The maximum age must not be null or negative");
+      }
+      if (maxEntries < 1)
+      {
+         throw new IllegalArgumentException("At least one entry has to be cached");
+      }
+      if (clock == null)
+      {
+         throw new IllegalArgumentException("The clock must not be null");
+      }
+
+      this.maxAge = maxAge;
+      this.clock = clock;
+      this.entries = new LruMap<>(maxEntries);
+   }
+
+   /**
+    * Returns the current instant of the clock
+    */
+   Instant now()
+   {
+      return clock.instant();
+   }
+
+   /**
+    * Returns the value of the key, or null if there is none or it is older than the maximum age
+    */
+   synchronized V get(final K key, final Instant now)
+   {
+      final Entry<V> entry = entries.get(key);
+      if (entry == null || entry.fetchedAt.isBefore(now.minus(maxAge)))
+      {
+         return null;
+      }
+      return entry.value;
+   }
+
+   synchronized void put(final K key, final V value, final Instant fetchedAt)
+   {
+      entries.put(key, new Entry<>(value, fetchedAt));
+   }
+
+   synchronized int size()
+   {
+      return entries.size();
+   }
+
+   synchronized void clear()
+   {
+      entries.clear();
+   }
+
+   private static final class Entry<V>
+   {
+      private final V value;
+      private final Instant fetchedAt;
+
+      private Entry(final V value, final Instant fetchedAt)
+      {
+         this.value = value;
+         this.fetchedAt = fetchedAt;
+      }
+   }
+
+   private static final class LruMap<K, V> extends LinkedHashMap<K, Entry<V>>
+   {
+      private final static long serialVersionUID = 1L;
+
+      private final int maxEntries;
+
+      private LruMap(final int maxEntries)
+      {
+         super(16, 0.75f, true);
+         this.maxEntries = maxEntries;
+      }
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<K, Entry<V>> eldest)
+      {
+         return size() > maxEntries;
+      }
+   }
+}
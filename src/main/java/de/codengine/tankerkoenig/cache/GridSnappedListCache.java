@@ -0,0 +1,278 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.geo.GeoGrid;
+import de.codengine.tankerkoenig.geo.GeoPoint;
+import de.codengine.tankerkoenig.geo.GeoUtils;
+import de.codengine.tankerkoenig.index.LocatedStations;
+import de.codengine.tankerkoenig.index.StationListSelector;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListResolver;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+
+/**
+ * Caches station list results by the search center snapped to a grid cell and the search radius
+ * rounded up to a radius bucket, so nearby requests share one upstream request.
+ * <p>
+ * On a miss, list.php is requested for all gas types around the center of the grid cell, with the
+ * radius bucket enlarged by half of the cell diagonal. This superset contains every station of any
+ * query snapped to the same key, which is answered by filtering and sorting the superset for
+ * the exact center and radius. If the enlarged radius would exceed the maximum of 25 km, the superset
+ * is capped at 25 km as long as it still contains the search circle, otherwise the exact search
+ * circle is requested and cached.
+ * <p>
+ * The least recently used entries are evicted once the maximum count of entries is reached.
+ * Concurrent misses of the same key share one upstream request. The cache is thread safe.
+ */
+public final class GridSnappedListCache implements StationListResolver
+{
+   private final static double MAX_RADIUS = 25;
+
+   private final GeoGrid grid;
+   private final double radiusBucket;
+   private final ExpiringLruCache<Key, Superset> entries;
+   private final Map<Key, CompletableFuture<Superset>> fetches = new HashMap<>();
+
+   /**
+    * Creates a cache with a cell size of 0.01 degrees, radius buckets of 5 km and up to 1000 entries
+    *
+    * @param maxAge The maximum age of a cached result
+    */
+   public GridSnappedListCache(final Duration maxAge)
+   {
+      this(0.01, 5, maxAge, 1000, Clock.systemUTC());
+   }
+
+   /**
+    * @param cellSize     The edge length of the grid cells in degrees
+    * @param radiusBucket The size of the radius buckets in km
+    * @param maxAge       The maximum age of a cached result
+    * @param maxEntries   The maximum count of cached results
+    * @param clock        The clock to determine the age of the results
+    */
+   public GridSnappedListCache(final double cellSize, final double radiusBucket, final Duration maxAge, final int maxEntries, final Clock clock)
+   {
+      if (!(radiusBucket > 0) || radiusBucket > MAX_RADIUS)
+      {
+         throw new IllegalArgumentException("The radius bucket has to be between 0 and 25 km");
+      }
+
+      this.entries = new ExpiringLruCache<>(maxAge, maxEntries, clock);
+      this.grid = GeoGrid.of(cellSize);
+      this.radiusBucket = radiusBucket;
+   }
+
+   @Override
+   public StationListResult resolve(final StationListQuery query, final Upstream upstream) throws RequesterException
+   {
+      final Key key = keyOf(query);
+      final Instant now = entries.now();
+      Superset cached;
+      CompletableFuture<Superset> fetch;
+      boolean fetching = false;
+      synchronized (entries)
+      {
+         cached = entries.get(key, now);
+         fetch = cached == null ? fetches.get(key) : null;
+         if (cached == null && fetch == null)
+         {
+            fetch = new CompletableFuture<>();
+            fetches.put(key, fetch);
+            fetching = true;
+         }
+      }
+
+      if (fetching)
+      {
+         cached = fetch(key, query, upstream, now, fetch);
+      }
+      else if (cached == null)
+      {
+         cached = await(fetch);
+      }
+
+      if (cached.stations == null)
+      {
+         // Failed results are returned as is
+         return cached.result;
+      }
+      return cached.result.withStations(StationListSelector.select(cached.stations, query));
+   }
+
+   /**
+    * Returns the count of cached results
+    */
+   public int size()
+   {
+      return entries.size();
+   }
+
+   /**
+    * Removes every cached result
+    */
+   public void clear()
+   {
+      entries.clear();
+   }
+
+   /**
+    * Requests the circle of the key and completes the fetch, so concurrent misses of the key receive the result
+    */
+   private Superset fetch(final Key key, final StationListQuery query, final Upstream upstream, final Instant now,
+         final CompletableFuture<Superset> fetch) throws RequesterException
+   {
+      try
+      {
+         final StationListResult result = upstream.fetch(query.withArea(key.lat, key.lng, key.radius).withGasRequestType(GasRequestType.ALL));
+         final Superset cached = new Superset(result);
+         synchronized (entries)
+         {
+            if (cached.stations != null)
+            {
+               entries.put(key, cached, now);
+            }
+            fetches.remove(key);
+         }
+         fetch.complete(cached);
+         return cached;
+      }
+      catch (RequesterException | RuntimeException e)
+      {
+         synchronized (entries)
+         {
+            fetches.remove(key);
+         }
+         fetch.completeExceptionally(e);
+         throw e;
+      }
+   }
+
+   private static Superset await(final CompletableFuture<Superset> fetch) throws RequesterException
+   {
+      try
+      {
+         return fetch.join();
+      }
+      catch (CompletionException e)
+      {
+         if (e.getCause() instanceof RequesterException)
+         {
+            throw (RequesterException) e.getCause();
+         }
+         throw e;
+      }
+   }
+
+   /**
+    * Returns the circle to request for the query, which contains the search circle
+    */
+   private Key keyOf(final StationListQuery query)
+   {
+      final GeoPoint center = grid.getCenter(grid.cellOf(query.getLat(), query.getLng()));
+      final double centerLat = center.getLat();
+      final double centerLng = center.getLng();
+      final double halfCellSize = grid.getCellSize() / 2;
+      final double halfDiagonal = GeoUtils.distance(centerLat, centerLng, centerLat + halfCellSize, centerLng + halfCellSize);
+      final double radius = Math.ceil(query.getRadius() / radiusBucket) * radiusBucket + halfDiagonal;
+      if (radius <= MAX_RADIUS)
+      {
+         return new Key(centerLat, centerLng, radius);
+      }
+      if (GeoUtils.distance(centerLat, centerLng, query.getLat(), query.getLng()) + query.getRadius() <= MAX_RADIUS)
+      {
+         return new Key(centerLat, centerLng, MAX_RADIUS);
+      }
+      return new Key(query.getLat(), query.getLng(), query.getRadius());
+   }
+
+   /**
+    * The requested search circle
+    */
+   private static final class Key
+   {
+      private final double lat;
+      private final double lng;
+      private final double radius;
+
+      private Key(final double lat, final double lng, final double radius)
+      {
+         this.lat = lat;
+         this.lng = lng;
+         this.radius = radius;
+      }
+
+      @Override
+      public boolean equals(final Object o)
+      {
+         if (this == o)
+            return true;
+         if (o == null || getClass() != o.getClass())
+            return false;
+
+         final Key key = (Key) o;
+
+         if (Double.compare(key.lat, lat) != 0)
+            return false;
+         if (Double.compare(key.lng, lng) != 0)
+            return false;
+         return Double.compare(key.radius, radius) == 0;
+      }
+
+      @Override
+      public int hashCode()
+      {
+         int result = Double.hashCode(lat);
+         result = 31 * result + Double.hashCode(lng);
+         result = 31 * result + Double.hashCode(radius);
+         return result;
+      }
+   }
+
+   /**
+    * The result for the circle of a key, whose stations are null if the request failed
+    */
+   private static final class Superset
+   {
+      private final StationListResult result;
+      private final LocatedStations stations;
+
+      private Superset(final StationListResult result)
+      {
+         this.result = result;
+         this.stations = Boolean.TRUE.equals(result.isOk()) ? LocatedStations.of(result.getStations()) : null;
+      }
+   }
+}
@@ -0,0 +1,259 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.geo.GeoGrid;
+import de.codengine.tankerkoenig.geo.GeoUtils;
+import de.codengine.tankerkoenig.index.LocatedStations;
+import de.codengine.tankerkoenig.index.StationListSelector;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListResolver;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+
+/**
+ * Caches station list results as search circles and answers every query whose search circle
+ * lies completely within the circle of a fresh cached result, by filtering and sorting its stations.
+ * <p>
+ * On a miss, list.php is requested for all gas types around the center of the query with the fetch
+ * radius (at least the radius of the query), so later queries nearby are likely to be contained.
+ * <p>
+ * Cached circles are stored in grid cells by their center, so a lookup only checks the cells
+ * within 25 km of the query center. Results older than the maximum age are never used, and the
+ * oldest results are evicted once the maximum count of entries is reached. The cache is thread safe.
+ */
+public final class SubsumingListCache implements StationListResolver
+{
+   private final static double MAX_RADIUS = 25;
+   private final static GeoGrid GRID = GeoGrid.of(0.25);
+
+   private final double fetchRadius;
+   private final Duration maxAge;
+   private final int maxEntries;
+   private final Clock clock;
+
+   private final Map<Long, List<Circle>> cells = new HashMap<>();
+   private final Deque<Circle> insertionOrder = new ArrayDeque<>();
+
+   /**
+    * Creates a cache with a fetch radius of 25 km and up to 1000 entries
+    *
+    * @param maxAge The maximum age of the prices of a cached result
+    */
+   public SubsumingListCache(final Duration maxAge)
+   {
+      this(MAX_RADIUS, maxAge, 1000, Clock.systemUTC());
+   }
+
+   /**
+    * @param fetchRadius The radius to request on a miss, between 1 and 25 km
+    * @param maxAge      The maximum age of the prices of a cached result
+    * @param maxEntries  The maximum count of cached results
+    * @param clock       The clock to determine the age of the results
+    */
+   public SubsumingListCache(final double fetchRadius, final Duration maxAge, final int maxEntries, final Clock clock)
+   {
+      if (fetchRadius < 1 || fetchRadius > MAX_RADIUS)
+      {
+         throw new IllegalArgumentException("The fetch radius has to be between 1 and 25 km");
+      }
+      if (maxAge == null || maxAge.isNegative())
+      {
+         throw new IllegalArgumentException("The maximum age must not be null or negative");
+      }
+      if (maxEntries < 1)
+      {
+         throw new IllegalArgumentException("At least one entry has to be cached");
+      }
+      if (clock == null)
+      {
+         throw new IllegalArgumentException("The clock must not be null");
+      }
+
+      this.fetchRadius = fetchRadius;
+      this.maxAge = maxAge;
+      this.maxEntries = maxEntries;
+      this.clock = clock;
+   }
+
+   @Override
+   public StationListResult resolve(final StationListQuery query, final Upstream upstream) throws RequesterException
+   {
+      final Instant now = clock.instant();
+      final Circle containing = findContaining(query, now.minus(maxAge));
+      if (containing != null)
+      {
+         return containing.result.withStations(StationListSelector.select(containing.stations, query));
+      }
+
+      final double radius = Math.max(fetchRadius, query.getRadius());
+      final StationListResult result = upstream.fetch(query.withArea(query.getLat(), query.getLng(), radius)
+            .withGasRequestType(GasRequestType.ALL));
+      if (!Boolean.TRUE.equals(result.isOk()))
+      {
+         return result;
+      }
+
+      final Circle circle = new Circle(query.getLat(), query.getLng(), radius, result, now);
+      add(circle);
+      return result.withStations(StationListSelector.select(circle.stations, query));
+   }
+
+   /**
+    * Returns the count of cached results
+    */
+   public synchronized int size()
+   {
+      return insertionOrder.size();
+   }
+
+   /**
+    * Removes every cached result
+    */
+   public synchronized void clear()
+   {
+      cells.clear();
+      insertionOrder.clear();
+   }
+
+   /**
+    * Returns the freshest circle containing the search circle of the query
+    */
+   private synchronized Circle findContaining(final StationListQuery query, final Instant oldest)
+   {
+      final int cellRange = (int) Math.ceil(Math.max(GeoUtils.latitudeDelta(MAX_RADIUS),
+            GeoUtils.longitudeDelta(query.getLat(), MAX_RADIUS)) / GRID.getCellSize());
+      final int latIndex = GRID.latIndex(query.getLat());
+      final int lngIndex = GRID.lngIndex(query.getLng());
+
+      Circle freshest = null;
+      for (int latOffset = -cellRange; latOffset <= cellRange; latOffset++)
+      {
+         for (int lngOffset = -cellRange; lngOffset <= cellRange; lngOffset++)
+         {
+            final List<Circle> circles = cells.get(GeoGrid.cell(latIndex + latOffset, lngIndex + lngOffset));
+            if (circles == null)
+            {
+               continue;
+            }
+
+            for (final Circle circle : circles)
+            {
+               if (!circle.fetchedAt.isBefore(oldest) && (freshest == null || circle.fetchedAt.isAfter(freshest.fetchedAt))
+                     && circle.contains(query))
+               {
+                  freshest = circle;
+               }
+            }
+         }
+      }
+      return freshest;
+   }
+
+   private synchronized void add(final Circle circle)
+   {
+      final long key = GRID.cellOf(circle.lat, circle.lng);
+      cells.computeIfAbsent(key, k -> new ArrayList<>()).add(circle);
+      insertionOrder.addLast(circle);
+
+      while (insertionOrder.size() > maxEntries)
+      {
+         remove(insertionOrder.removeFirst());
+      }
+
+      // Stale circles and circles contained by the new one are obsolete
+      final Instant oldest = circle.fetchedAt.minus(maxAge);
+      for (final Iterator<Circle> iterator = insertionOrder.iterator(); iterator.hasNext(); )
+      {
+         final Circle cached = iterator.next();
+         if (cached.fetchedAt.isBefore(oldest) || (cached != circle && circle.contains(cached)))
+         {
+            iterator.remove();
+            remove(cached);
+         }
+      }
+   }
+
+   private void remove(final Circle circle)
+   {
+      final long key = GRID.cellOf(circle.lat, circle.lng);
+      final List<Circle> circles = cells.get(key);
+      if (circles != null)
+      {
+         circles.remove(circle);
+         if (circles.isEmpty())
+         {
+            cells.remove(key);
+         }
+      }
+   }
+
+   private static final class Circle
+   {
+      private final double lat;
+      private final double lng;
+      private final double radius;
+      private final StationListResult result;
+      private final LocatedStations stations;
+      private final Instant fetchedAt;
+
+      private Circle(final double lat, final double lng, final double radius, final StationListResult result, final Instant fetchedAt)
+      {
+         this.lat = lat;
+         this.lng = lng;
+         this.radius = radius;
+         this.result = result;
+         this.stations = LocatedStations.of(result.getStations());
+         this.fetchedAt = fetchedAt;
+      }
+
+      private boolean contains(final double otherLat, final double otherLng, final double otherRadius)
+      {
+         return GeoUtils.distance(lat, lng, otherLat, otherLng) + otherRadius <= radius;
+      }
+
+      private boolean contains(final StationListQuery query)
+      {
+         return contains(query.getLat(), query.getLng(), query.getRadius());
+      }
+
+      private boolean contains(final Circle circle)
+      {
+         return contains(circle.lat, circle.lng, circle.radius);
+      }
+   }
+}
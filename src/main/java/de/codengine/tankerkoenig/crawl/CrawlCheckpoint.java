@@ -0,0 +1,268 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.crawl;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+
+import de.codengine.tankerkoenig.geo.GeoCircle;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.mapper.Location;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+
+/**
+ * The progress of a crawl: the completed tiles, the collected stations and the number of calls.
+ * <p>
+ * The checkpoint file is a list.php response with an additional "crawl" object, so the
+ * stations are read back by the regular mapper.
+ */
+final class CrawlCheckpoint
+{
+   private final int fingerprint;
+   private final int tileCount;
+   private final BitSet completed;
+   private final Map<String, Station> stations;
+   private int calls;
+
+   private CrawlCheckpoint(final int fingerprint, final int tileCount, final BitSet completed, final Map<String, Station> stations, final int calls)
+   {
+      this.fingerprint = fingerprint;
+      this.tileCount = tileCount;
+      this.completed = completed;
+      this.stations = stations;
+      this.calls = calls;
+   }
+
+   /**
+    * Creates an empty checkpoint for the supplied tiles
+    */
+   static CrawlCheckpoint create(final List<GeoCircle> tiles)
+   {
+      return new CrawlCheckpoint(tiles.hashCode(), tiles.size(), new BitSet(tiles.size()), new TreeMap<>(), 0);
+   }
+
+   /**
+    * Loads the checkpoint from the file
+    *
+    * @throws IOException              Thrown if the file can not be read or parsed
+    * @throws IllegalArgumentException Thrown if the checkpoint was created for other tiles
+    */
+   static CrawlCheckpoint load(final Path file, final List<GeoCircle> tiles) throws IOException
+   {
+      final String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+      try
+      {
+         final JsonObject crawl = new JsonParser().parse(json).getAsJsonObject().getAsJsonObject("crawl");
+         if (crawl == null)
+         {
+            throw new IOException("The file " + file + " is not a crawl checkpoint");
+         }
+         if (crawl.get("fingerprint").getAsInt() != tiles.hashCode() || crawl.get("tiles").getAsInt() != tiles.size())
+         {
+            throw new IllegalArgumentException("The checkpoint " + file + " was created for other tiles");
+         }
+
+         final BitSet completed = new BitSet(tiles.size());
+         for (final JsonElement index : crawl.getAsJsonArray("completed"))
+         {
+            completed.set(index.getAsInt());
+         }
+
+         final Map<String, Station> stations = new TreeMap<>();
+         final StationListResult result = GsonMapper.getInstance().fromJson(json, StationListResult.class);
+         result.getStations().forEach(station -> stations.put(station.getId(), station));
+
+         return new CrawlCheckpoint(tiles.hashCode(), tiles.size(), completed, stations, crawl.get("calls").getAsInt());
+      }
+      catch (JsonParseException | IllegalStateException | NullPointerException e)
+      {
+         throw new IOException("The checkpoint " + file + " could not be parsed", e);
+      }
+   }
+
+   /**
+    * Counts an upstream call
+    */
+   synchronized void countCall()
+   {
+      calls++;
+   }
+
+   /**
+    * Marks the tile as completed and merges its stations, replacing the ones collected before
+    */
+   synchronized void complete(final int tile, final Collection<Station> tileStations)
+   {
+      tileStations.forEach(station -> stations.put(station.getId(), station));
+      completed.set(tile);
+   }
+
+   synchronized boolean isCompleted(final int tile)
+   {
+      return completed.get(tile);
+   }
+
+   synchronized int getCompletedCount()
+   {
+      return completed.cardinality();
+   }
+
+   synchronized int getCalls()
+   {
+      return calls;
+   }
+
+   synchronized List<Station> getStations()
+   {
+      return new ArrayList<>(stations.values());
+   }
+
+   /**
+    * Writes the checkpoint atomically, so a crash while saving keeps the previous checkpoint. Saves are
+    * serialized, so an older snapshot can not replace a newer one.
+    */
+   synchronized void save(final Path file) throws IOException
+   {
+      final String json = toJson();
+      final Path directory = file.toAbsolutePath().getParent();
+      final Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      try
+      {
+         Files.write(temp, json.getBytes(StandardCharsets.UTF_8));
+         try
+         {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+         }
+         catch (AtomicMoveNotSupportedException e)
+         {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+         }
+      }
+      finally
+      {
+         Files.deleteIfExists(temp);
+      }
+   }
+
+   synchronized String toJson() throws IOException
+   {
+      final StringWriter writer = new StringWriter();
+      try (final JsonWriter out = new JsonWriter(writer))
+      {
+         out.setSerializeNulls(false);
+         out.beginObject();
+         out.name("ok").value(true);
+         out.name("status").value("ok");
+
+         out.name("crawl").beginObject();
+         out.name("fingerprint").value(fingerprint);
+         out.name("tiles").value(tileCount);
+         out.name("calls").value(calls);
+         out.name("completed").beginArray();
+         for (int tile = completed.nextSetBit(0); tile >= 0; tile = completed.nextSetBit(tile + 1))
+         {
+            out.value(tile);
+         }
+         out.endArray();
+         out.endObject();
+
+         out.name("stations").beginArray();
+         for (final Station station : stations.values())
+         {
+            writeStation(out, station);
+         }
+         out.endArray();
+         out.endObject();
+      }
+      return writer.toString();
+   }
+
+   /**
+    * Writes the station with the field names of list.php, skipping missing values
+    */
+   private static void writeStation(final JsonWriter out, final Station station) throws IOException
+   {
+      out.beginObject();
+      out.name("id").value(station.getId());
+      out.name("name").value(station.getName().orElse(null));
+      out.name("brand").value(station.getBrand().orElse(null));
+
+      final Location location = station.getLocation();
+      if (location != null)
+      {
+         out.name("street").value(location.getStreetName());
+         out.name("houseNumber").value(location.getHouseNumber().orElse(null));
+         out.name("postCode").value(location.getZipCode());
+         out.name("place").value(location.getCity());
+         out.name("lat").value(location.getLat());
+         out.name("lng").value(location.getLng());
+         out.name("dist").value(location.getDistance().orElse(null));
+      }
+
+      out.name("isOpen").value(station.isOpen());
+      out.name("price").value(station.getPrice().orElse(null));
+      final GasPrices gasPrices = station.getGasPrices().orElse(null);
+      if (gasPrices != null)
+      {
+         for (final GasPrices.GasType gasType : GasPrices.GasType.values())
+         {
+            out.name(toFieldName(gasType)).value(gasPrices.getPrice(gasType).orElse(null));
+         }
+      }
+      out.endObject();
+   }
+
+   private static String toFieldName(final GasPrices.GasType gasType)
+   {
+      switch (gasType)
+      {
+         case E5:
+            return "e5";
+         case E10:
+            return "e10";
+         default:
+            return "diesel";
+      }
+   }
+}
@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.crawl;
+
+import java.util.Collections;
+import java.util.List;
+
+import de.codengine.tankerkoenig.geo.GeoCircle;
+import de.codengine.tankerkoenig.models.mapper.Station;
+
+/**
+ * The outcome of a crawl
+ */
+public final class CrawlReport
+{
+   private final List<Station> stations;
+   private final int tileCount;
+   private final int completedTileCount;
+   private final List<GeoCircle> failedTiles;
+   private final int calls;
+   private final int totalCalls;
+
+   CrawlReport(final List<Station> stations, final int tileCount, final int completedTileCount, final List<GeoCircle> failedTiles,
+         final int calls, final int totalCalls)
+   {
+      this.stations = Collections.unmodifiableList(stations);
+      this.tileCount = tileCount;
+      this.completedTileCount = completedTileCount;
+      this.failedTiles = Collections.unmodifiableList(failedTiles);
+      this.calls = calls;
+      this.totalCalls = totalCalls;
+   }
+
+   /**
+    * Returns the collected stations ordered by their ID, each one only once.
+    * The distance of the stations refers to the center of the tile they were found in.
+    */
+   public List<Station> getStations()
+   {
+      return stations;
+   }
+
+   /**
+    * Returns the number of planned tiles
+    */
+   public int getTileCount()
+   {
+      return tileCount;
+   }
+
+   /**
+    * Returns the number of tiles which were crawled successfully, including the ones
+    * of previous runs
+    */
+   public int getCompletedTileCount()
+   {
+      return completedTileCount;
+   }
+
+   /**
+    * Returns the tiles which failed in this run. They are crawled again when resuming.
+    */
+   public List<GeoCircle> getFailedTiles()
+   {
+      return failedTiles;
+   }
+
+   /**
+    * Returns the share of completed tiles between 0 and 1
+    */
+   public double getCoverage()
+   {
+      return tileCount == 0 ? 1 : (double) completedTileCount / tileCount;
+   }
+
+   /**
+    * Determines if every tile was crawled
+    */
+   public boolean isComplete()
+   {
+      return completedTileCount == tileCount;
+   }
+
+   /**
+    * Returns the number of upstream calls of this run
+    */
+   public int getCalls()
+   {
+      return calls;
+   }
+
+   /**
+    * Returns the number of upstream calls of this and all previous runs of the checkpoint
+    */
+   public int getTotalCalls()
+   {
+      return totalCalls;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "CrawlReport{stations=" + stations.size() + ", tiles=" + completedTileCount + "/" + tileCount + ", failedTiles="
+            + failedTiles.size() + ", calls=" + calls + ", totalCalls=" + totalCalls + "}";
+   }
+}
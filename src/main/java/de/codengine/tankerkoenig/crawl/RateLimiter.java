@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.crawl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Spaces out permits evenly, so requests can be issued from several threads
+ * without exceeding a request rate
+ */
+public final class RateLimiter
+{
+   private final long intervalNanos;
+   private final LongSupplier nanoTime;
+   private final Sleeper sleeper;
+   private long nextPermit = Long.MIN_VALUE;
+
+   /**
+    * Creates a rate limiter
+    *
+    * @param permitsPerSecond The maximum number of permits per second
+    * @throws IllegalArgumentException Thrown if the rate is not positive
+    */
+   public RateLimiter(final double permitsPerSecond)
+   {
+      this(permitsPerSecond, System::nanoTime, TimeUnit.NANOSECONDS::sleep);
+   }
+
+   RateLimiter(final double permitsPerSecond, final LongSupplier nanoTime, final Sleeper sleeper)
+   {
+      if (!(permitsPerSecond > 0))
+      {
+         throw new IllegalArgumentException("The rate has to be positive");
+      }
+      this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+      this.nanoTime = nanoTime;
+      this.sleeper = sleeper;
+   }
+
+   /**
+    * Blocks until the next permit is available
+    *
+    * @throws InterruptedException Thrown if the thread was interrupted while waiting
+    */
+   public void acquire() throws InterruptedException
+   {
+      final long wait;
+      synchronized (this)
+      {
+         final long now = nanoTime.getAsLong();
+         if (nextPermit == Long.MIN_VALUE || nextPermit - now < 0)
+         {
+            nextPermit = now;
+         }
+         wait = nextPermit - now;
+         nextPermit += intervalNanos;
+      }
+
+      if (wait > 0)
+      {
+         sleeper.sleep(wait);
+      }
+   }
+
+   /**
+    * Sleeps for the supplied time
+    */
+   @FunctionalInterface
+   interface Sleeper
+   {
+      void sleep(final long nanos) throws InterruptedException;
+   }
+}
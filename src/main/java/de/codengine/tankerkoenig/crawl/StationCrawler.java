@@ -0,0 +1,296 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.crawl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import de.codengine.tankerkoenig.Tankerkoenig;
+import de.codengine.tankerkoenig.budget.RequestBudget;
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.geo.CircleCover;
+import de.codengine.tankerkoenig.geo.GeoCircle;
+import de.codengine.tankerkoenig.geo.GeoPolygon;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListRequest;
+import de.codengine.tankerkoenig.models.requests.StationListResolver;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+
+/**
+ * Builds a station catalog of a whole area by covering it with overlapping list.php
+ * searches ("tiles"), as the API limits the search radius to 25 km.
+ * <p>
+ * The tiles are requested with bounded parallelism under a rate limit and the stations
+ * are deduplicated by their ID. If a checkpoint file is supplied, the progress is saved
+ * periodically, so a crashed or failed crawl can be resumed by crawling again with the same
+ * tiles and checkpoint file. At most the tiles completed since the last save are requested again.
+ * <p>
+ * If a {@link RequestBudget} is supplied, tiles are only requested while the remaining calls of the day
+ * exceed a reserve, which is kept for other requests. The deferred tiles are reported as failed, so the
+ * crawl can be resumed after the budget has been reset.
+ */
+public final class StationCrawler
+{
+   /**
+    * The bounding box of Germany
+    */
+   public final static GeoPolygon GERMANY = GeoPolygon.rectangle(47.27, 5.86, 55.06, 15.05);
+
+   /**
+    * The maximum search radius of list.php in km
+    */
+   public final static double MAX_RADIUS = 25;
+
+   private final StationListResolver.Upstream upstream;
+   private final int parallelism;
+   private final RateLimiter rateLimiter;
+   private final int checkpointInterval;
+   private final RequestBudget budget;
+   private final int reserve;
+
+   /**
+    * Creates a crawler saving the checkpoint after every 10 tiles
+    *
+    * @param upstream    Requests list.php, see {@link #upstream(Tankerkoenig.Api)}
+    * @param parallelism The maximum number of concurrent requests
+    * @param rateLimiter Limits the request rate
+    */
+   public StationCrawler(final StationListResolver.Upstream upstream, final int parallelism, final RateLimiter rateLimiter)
+   {
+      this(upstream, parallelism, rateLimiter, 10);
+   }
+
+   /**
+    * Creates a crawler
+    *
+    * @param upstream           Requests list.php, see {@link #upstream(Tankerkoenig.Api)}
+    * @param parallelism        The maximum number of concurrent requests
+    * @param rateLimiter        Limits the request rate
+    * @param checkpointInterval The number of completed tiles after which the checkpoint is saved
+    */
+   public StationCrawler(final StationListResolver.Upstream upstream, final int parallelism, final RateLimiter rateLimiter,
+         final int checkpointInterval)
+   {
+      this(upstream, parallelism, rateLimiter, checkpointInterval, null, 0);
+   }
+
+   /**
+    * Creates a crawler, which defers the tiles if the budget runs low
+    *
+    * @param upstream           Requests list.php, see {@link #upstream(Tankerkoenig.Api)}
+    * @param parallelism        The maximum number of concurrent requests
+    * @param rateLimiter        Limits the request rate
+    * @param checkpointInterval The number of completed tiles after which the checkpoint is saved
+    * @param budget             The budget of the API used by the upstream, might be null
+    * @param reserve            The count of calls of the day which are not used for crawling
+    */
+   public StationCrawler(final StationListResolver.Upstream upstream, final int parallelism, final RateLimiter rateLimiter,
+         final int checkpointInterval, final RequestBudget budget, final int reserve)
+   {
+      if (upstream == null || rateLimiter == null)
+      {
+         throw new IllegalArgumentException("The upstream and the rate limiter must not be null");
+      }
+      if (parallelism < 1)
+      {
+         throw new IllegalArgumentException("The parallelism has to be at least 1");
+      }
+      if (checkpointInterval < 1)
+      {
+         throw new IllegalArgumentException("The checkpoint interval has to be at least 1");
+      }
+      if (reserve < 0)
+      {
+         throw new IllegalArgumentException("The reserve must not be negative");
+      }
+      this.upstream = upstream;
+      this.parallelism = parallelism;
+      this.rateLimiter = rateLimiter;
+      this.checkpointInterval = checkpointInterval;
+      this.budget = budget;
+      this.reserve = reserve;
+   }
+
+   /**
+    * Requests list.php for the queries using the supplied API
+    */
+   public static StationListResolver.Upstream upstream(final Tankerkoenig.Api api)
+   {
+      return query -> api.list(query.getLat(), query.getLng())
+            .setSearchRadius(query.getRadius())
+            .setGasRequestType(query.getGasRequestType())
+            .setSorting(query.getSorting())
+            .execute();
+   }
+
+   /**
+    * Plans the tiles covering the area with the maximum radius
+    */
+   public static List<GeoCircle> plan(final GeoPolygon area)
+   {
+      return CircleCover.hexagonal(area, MAX_RADIUS);
+   }
+
+   /**
+    * Crawls the area with the tiles of {@link #plan(GeoPolygon)}
+    *
+    * @see #crawl(List, Path)
+    */
+   public CrawlReport crawl(final GeoPolygon area, final Path checkpoint) throws IOException, InterruptedException
+   {
+      return crawl(plan(area), checkpoint);
+   }
+
+   /**
+    * Crawls the tiles. Failed requests are reported and do not abort the crawl,
+    * while runtime exceptions of the upstream are rethrown.
+    *
+    * @param tiles      The tiles to crawl, with a radius of at most 25 km
+    * @param checkpoint The checkpoint file, which is resumed if it exists. Might be null.
+    * @return The report containing the stations of all completed tiles
+    * @throws IOException              Thrown if the checkpoint could not be read or written
+    * @throws IllegalArgumentException Thrown if a tile exceeds the maximum radius or the checkpoint was created for other tiles
+    * @throws InterruptedException     Thrown if the crawl was interrupted
+    */
+   public CrawlReport crawl(final List<GeoCircle> tiles, final Path checkpoint) throws IOException, InterruptedException
+   {
+      if (tiles.stream().anyMatch(tile -> tile.getRadius() > MAX_RADIUS))
+      {
+         throw new IllegalArgumentException("The radius of the tiles must not exceed " + MAX_RADIUS + " km");
+      }
+
+      final CrawlCheckpoint state = checkpoint != null && Files.exists(checkpoint)
+            ? CrawlCheckpoint.load(checkpoint, tiles)
+            : CrawlCheckpoint.create(tiles);
+      final int previousCalls = state.getCalls();
+      final List<Integer> failedTiles = Collections.synchronizedList(new ArrayList<>());
+      final AtomicInteger unsaved = new AtomicInteger();
+
+      final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+      try
+      {
+         final List<Future<Void>> futures = new ArrayList<>();
+         for (int i = 0; i < tiles.size(); i++)
+         {
+            if (state.isCompleted(i))
+            {
+               continue;
+            }
+
+            final int tile = i;
+            futures.add(executor.submit(() ->
+            {
+               if (crawlTile(tile, tiles.get(tile), state))
+               {
+                  if (checkpoint != null && unsaved.incrementAndGet() % checkpointInterval == 0)
+                  {
+                     state.save(checkpoint);
+                  }
+               }
+               else
+               {
+                  failedTiles.add(tile);
+               }
+               return null;
+            }));
+         }
+
+         for (final Future<Void> future : futures)
+         {
+            future.get();
+         }
+      }
+      catch (ExecutionException e)
+      {
+         if (e.getCause() instanceof IOException)
+         {
+            throw (IOException) e.getCause();
+         }
+         if (e.getCause() instanceof InterruptedException)
+         {
+            throw (InterruptedException) e.getCause();
+         }
+         if (e.getCause() instanceof RuntimeException)
+         {
+            throw (RuntimeException) e.getCause();
+         }
+         throw new IllegalStateException("Crawling failed", e.getCause());
+      }
+      finally
+      {
+         executor.shutdownNow();
+      }
+
+      if (checkpoint != null)
+      {
+         state.save(checkpoint);
+      }
+
+      final List<GeoCircle> failed = failedTiles.stream().sorted().map(tiles::get).collect(Collectors.toList());
+      return new CrawlReport(state.getStations(), tiles.size(), state.getCompletedCount(), failed,
+            state.getCalls() - previousCalls, state.getCalls());
+   }
+
+   /**
+    * Requests the tile and merges the stations. Returns false if the request failed or was deferred.
+    */
+   private boolean crawlTile(final int index, final GeoCircle tile, final CrawlCheckpoint state) throws InterruptedException
+   {
+      final StationListQuery query = StationListQuery.of(tile.getCenter().getLat(), tile.getCenter().getLng(), tile.getRadius(),
+            GasRequestType.ALL, StationListRequest.SortingRequestType.DISTANCE);
+
+      if (budget != null && budget.getRemaining() <= reserve)
+      {
+         return false;
+      }
+      rateLimiter.acquire();
+      state.countCall();
+      try
+      {
+         final StationListResult result = upstream.fetch(query);
+         if (result == null || result.isOk() == null || !result.isOk())
+         {
+            return false;
+         }
+         state.complete(index, result.getStations());
+         return true;
+      }
+      catch (RequesterException e)
+      {
+         return false;
+      }
+   }
+}
@@ -34,4 +34,9 @@ public class ResponseParsingException extends RuntimeException
    {
       super(String.format("%s could not be parsed (original: %s)", typeOfValue, originalValue));
    }
+
+   public ResponseParsingException(final String message, final Throwable cause)
+   {
+      super(message, cause);
+   }
 }
@@ -0,0 +1,166 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Covers areas with circles, e.g. to find every station of an area with
+ * radius limited station list requests
+ */
+public final class CircleCover
+{
+   private final static double SQRT_3 = Math.sqrt(3);
+   private final static double SPACING_FACTOR = 0.99;
+
+   private CircleCover()
+   {
+      throw new UnsupportedOperationException();
+   }
+
+   /**
+    * Covers the polygon with circles of the supplied radius, which are arranged in a hexagonal
+    * lattice. Every point of the polygon lies within at least one of the returned circles.
+    * <p>
+    * The longitude spacing is chosen for the latitude closest to the equator, so the lattice
+    * is slightly denser than required towards the pole.
+    *
+    * @param area   The polygon to cover
+    * @param radius The circle radius in km
+    * @return The circles ordered by rows from south to north and by columns from west to east
+    */
+   public static List<GeoCircle> hexagonal(final GeoPolygon area, final double radius)
+   {
+      validateRadius(radius);
+      return hexagonal(area.getMinLat(), area.getMinLng(), area.getMaxLat(), area.getMaxLng(), radius, area::intersects);
+   }
+
+   /**
+    * Covers every point within the buffer distance of the line with circles of the supplied radius.
+    * <p>
+    * Circles centered on the line are used if the buffer is smaller than the radius, which
+    * requires far less circles than a lattice for narrow corridors. Otherwise, or if it needs
+    * less circles, a hexagonal lattice is used.
+    *
+    * @param line   The center of the corridor
+    * @param buffer The maximum distance to the line in km
+    * @param radius The circle radius in km
+    * @return The circles
+    */
+   public static List<GeoCircle> corridor(final GeoPolyline line, final double buffer, final double radius)
+   {
+      validateRadius(radius);
+      if (!(buffer >= 0))
+      {
+         throw new IllegalArgumentException("The buffer must not be negative");
+      }
+
+      final double latDelta = GeoUtils.latitudeDelta(buffer);
+      final double lngDelta = GeoUtils.longitudeDelta(Math.max(Math.abs(line.getMinLat()), Math.abs(line.getMaxLat())), buffer);
+      final List<GeoCircle> lattice = hexagonal(line.getMinLat() - latDelta, line.getMinLng() - lngDelta, line.getMaxLat() + latDelta,
+            line.getMaxLng() + lngDelta, radius, circle -> line.distanceTo(circle.getCenter().getLat(), circle.getCenter().getLng())
+                  <= buffer + circle.getRadius());
+      if (buffer >= radius * SPACING_FACTOR)
+      {
+         return lattice;
+      }
+
+      final List<GeoCircle> alongLine = alongLine(line, buffer, radius);
+      return alongLine.size() <= lattice.size() ? alongLine : lattice;
+   }
+
+   /**
+    * Places circles on every vertex and in between, spaced so that the circles overlap
+    * by at least the corridor width
+    */
+   private static List<GeoCircle> alongLine(final GeoPolyline line, final double buffer, final double radius)
+   {
+      final double spacing = radius * SPACING_FACTOR;
+      final double step = 2 * Math.sqrt(spacing * spacing - buffer * buffer);
+      final List<GeoPoint> vertices = line.getVertices();
+
+      final List<GeoCircle> circles = new ArrayList<>();
+      circles.add(GeoCircle.of(vertices.get(0), radius));
+      for (int i = 1; i < vertices.size(); i++)
+      {
+         final GeoPoint from = vertices.get(i - 1);
+         final GeoPoint to = vertices.get(i);
+         final int pieces = (int) Math.ceil(from.distanceTo(to) / step);
+         for (int piece = 1; piece <= pieces; piece++)
+         {
+            final double t = (double) piece / pieces;
+            circles.add(GeoCircle.of(GeoPoint.of(from.getLat() + t * (to.getLat() - from.getLat()),
+                  from.getLng() + t * (to.getLng() - from.getLng())), radius));
+         }
+      }
+      return circles;
+   }
+
+   private static List<GeoCircle> hexagonal(final double minLat, final double minLng, final double maxLat, final double maxLng,
+         final double radius, final Predicate<GeoCircle> intersects)
+   {
+      // The spacing leaves a small margin for the deviation of the lattice from the sphere
+      final double spacing = radius * SPACING_FACTOR;
+      final double latStep = GeoUtils.latitudeDelta(1.5 * spacing);
+      final double equatorwardLat = minLat < 0 && maxLat > 0
+            ? 0
+            : Math.max(0, Math.min(Math.abs(minLat), Math.abs(maxLat)) - latStep);
+      final double lngStep = GeoUtils.latitudeDelta(SQRT_3 * spacing) / Math.cos(Math.toRadians(equatorwardLat));
+      final int rows = (int) Math.ceil((maxLat - minLat) / latStep) + 3;
+      final int columns = (int) Math.ceil((maxLng - minLng) / lngStep) + 3;
+
+      final List<GeoCircle> circles = new ArrayList<>();
+      for (int row = 0; row < rows; row++)
+      {
+         final double lat = minLat + (row - 1) * latStep;
+         final double offset = (row & 1) == 0 ? 0 : lngStep / 2;
+         for (int column = 0; column < columns && lat >= -90 && lat <= 90; column++)
+         {
+            final double lng = minLng + (column - 1) * lngStep + offset;
+            if (lng < -180 || lng > 180)
+            {
+               continue;
+            }
+
+            final GeoCircle circle = GeoCircle.of(GeoPoint.of(lat, lng), radius);
+            if (intersects.test(circle))
+            {
+               circles.add(circle);
+            }
+         }
+      }
+      return circles;
+   }
+
+   private static void validateRadius(final double radius)
+   {
+      if (!(radius > 0))
+      {
+         throw new IllegalArgumentException("The radius must be positive");
+      }
+   }
+}
@@ -0,0 +1,174 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.geo;
+
+/**
+ * Computes great circle distances from one position to many coordinates in bulk.
+ * <p>
+ * The sines and cosines of the coordinates are computed once, so the haversine of every
+ * coordinate only requires multiplications and additions, which the JIT compiler can unroll and
+ * vectorize. Radius checks compare the haversine itself and therefore skip the inverse sine.
+ * The distances are accurate to about a meter.
+ */
+public final class DistanceKernel
+{
+   private final double[] sinLat;
+   private final double[] cosLat;
+   private final double[] sinLng;
+   private final double[] cosLng;
+
+   private DistanceKernel(final double[] sinLat, final double[] cosLat, final double[] sinLng, final double[] cosLng)
+   {
+      this.sinLat = sinLat;
+      this.cosLat = cosLat;
+      this.sinLng = sinLng;
+      this.cosLng = cosLng;
+   }
+
+   /**
+    * Creates a kernel for the coordinates in degrees
+    *
+    * @throws IllegalArgumentException Thrown if the arrays differ in length
+    */
+   public static DistanceKernel of(final double[] lats, final double[] lngs)
+   {
+      if (lats.length != lngs.length)
+      {
+         throw new IllegalArgumentException("The latitudes and longitudes must have the same length");
+      }
+
+      final int size = lats.length;
+      final double[] sinLat = new double[size];
+      final double[] cosLat = new double[size];
+      final double[] sinLng = new double[size];
+      final double[] cosLng = new double[size];
+      for (int i = 0; i < size; i++)
+      {
+         final double lat = Math.toRadians(lats[i]);
+         final double lng = Math.toRadians(lngs[i]);
+         sinLat[i] = Math.sin(lat);
+         cosLat[i] = Math.cos(lat);
+         sinLng[i] = Math.sin(lng);
+         cosLng[i] = Math.cos(lng);
+      }
+      return new DistanceKernel(sinLat, cosLat, sinLng, cosLng);
+   }
+
+   /**
+    * Returns the number of coordinates
+    */
+   public int size()
+   {
+      return sinLat.length;
+   }
+
+   /**
+    * Computes the distances in km between every coordinate and the supplied position
+    *
+    * @param distances Receives the distances, must be at least as long as the kernel
+    */
+   public void distances(final double lat, final double lng, final double[] distances)
+   {
+      final double latRadians = Math.toRadians(lat);
+      final double lngRadians = Math.toRadians(lng);
+      final double sinQueryLat = Math.sin(latRadians);
+      final double cosQueryLat = Math.cos(latRadians);
+      final double sinQueryLng = Math.sin(lngRadians);
+      final double cosQueryLng = Math.cos(lngRadians);
+      final int size = sinLat.length;
+      for (int i = 0; i < size; i++)
+      {
+         distances[i] = haversine(i, sinQueryLat, cosQueryLat, sinQueryLng, cosQueryLng);
+      }
+      for (int i = 0; i < size; i++)
+      {
+         distances[i] = toDistance(distances[i]);
+      }
+   }
+
+   /**
+    * Collects the indices and distances of the coordinates within the radius around the position (inclusive)
+    *
+    * @param indices   Receives the indices in ascending order, must be at least as long as the kernel
+    * @param distances Receives the distances in km of the collected indices, must be at least as long as the kernel
+    * @return The number of collected coordinates
+    */
+   public int withinRadius(final double lat, final double lng, final double radius, final int[] indices, final double[] distances)
+   {
+      final double latRadians = Math.toRadians(lat);
+      final double lngRadians = Math.toRadians(lng);
+      final double sinQueryLat = Math.sin(latRadians);
+      final double cosQueryLat = Math.cos(latRadians);
+      final double sinQueryLng = Math.sin(lngRadians);
+      final double cosQueryLng = Math.cos(lngRadians);
+      final double sinHalfAngle = Math.sin(Math.min(Math.PI, radius / GeoUtils.EARTH_RADIUS_KM) / 2);
+      final double maxHaversine = sinHalfAngle * sinHalfAngle;
+
+      int count = 0;
+      final int size = sinLat.length;
+      for (int i = 0; i < size; i++)
+      {
+         final double haversine = haversine(i, sinQueryLat, cosQueryLat, sinQueryLng, cosQueryLng);
+         if (haversine <= maxHaversine)
+         {
+            indices[count] = i;
+            distances[count++] = haversine;
+         }
+      }
+      for (int i = 0; i < count; i++)
+      {
+         distances[i] = toDistance(distances[i]);
+      }
+      return count;
+   }
+
+   /**
+    * Computes the distances in km between every coordinate and the position one by one with
+    * {@link GeoUtils#distance(double, double, double, double)}, which serves as a reference
+    */
+   public static void distances(final double lat, final double lng, final double[] lats, final double[] lngs, final double[] distances)
+   {
+      for (int i = 0; i < lats.length; i++)
+      {
+         distances[i] = GeoUtils.distance(lat, lng, lats[i], lngs[i]);
+      }
+   }
+
+   /**
+    * Returns sin²(Δlat/2) + cos(lat1)·cos(lat2)·sin²(Δlng/2), using sin²(x/2) = (1 - cos(x)) / 2
+    */
+   private double haversine(final int i, final double sinQueryLat, final double cosQueryLat, final double sinQueryLng,
+         final double cosQueryLng)
+   {
+      final double cosDeltaLat = cosQueryLat * cosLat[i] + sinQueryLat * sinLat[i];
+      final double cosDeltaLng = cosQueryLng * cosLng[i] + sinQueryLng * sinLng[i];
+      return 0.5 * (1 - cosDeltaLat) + 0.5 * cosQueryLat * cosLat[i] * (1 - cosDeltaLng);
+   }
+
+   private static double toDistance(final double haversine)
+   {
+      return 2 * GeoUtils.EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.max(0, Math.min(1, haversine))));
+   }
+}
@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.geo;
+
+/**
+ * A circle on the earth surface, e.g. the search area of a station list request
+ */
+public final class GeoCircle
+{
+   private final GeoPoint center;
+   private final double radius;
+
+   private GeoCircle(final GeoPoint center, final double radius)
+   {
+      this.center = center;
+      this.radius = radius;
+   }
+
+   /**
+    * Creates a circle
+    *
+    * @param center The center of the circle
+    * @param radius The radius in km
+    * @throws IllegalArgumentException Thrown if the center is missing or the radius is not positive
+    */
+   public static GeoCircle of(final GeoPoint center, final double radius)
+   {
+      if (center == null)
+      {
+         throw new IllegalArgumentException("The center must be set");
+      }
+      if (!(radius > 0))
+      {
+         throw new IllegalArgumentException("The radius must be positive");
+      }
+      return new GeoCircle(center, radius);
+   }
+
+   /**
+    * Returns the center
+    */
+   public GeoPoint getCenter()
+   {
+      return center;
+   }
+
+   /**
+    * Returns the radius in km
+    */
+   public double getRadius()
+   {
+      return radius;
+   }
+
+   /**
+    * Determines if the supplied coordinate lies within the circle (inclusive)
+    */
+   public boolean contains(final double lat, final double lng)
+   {
+      return GeoUtils.distance(center.getLat(), center.getLng(), lat, lng) <= radius;
+   }
+
+   @Override
+   public boolean equals(final Object o)
+   {
+      if (this == o)
+         return true;
+      if (o == null || getClass() != o.getClass())
+         return false;
+
+      final GeoCircle that = (GeoCircle) o;
+
+      if (Double.compare(that.radius, radius) != 0)
+         return false;
+      return center != null ? center.equals(that.center) : that.center == null;
+   }
+
+   @Override
+   public int hashCode()
+   {
+      int result = center != null ? center.hashCode() : 0;
+      result = 31 * result + Double.hashCode(radius);
+      return result;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "GeoCircle{center=" + center + ", radius=" + radius + "}";
+   }
+}
@@ -0,0 +1,225 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.geo;
+
+import java.util.function.LongConsumer;
+
+/**
+ * A grid of cells with an edge length in degrees, which starts at the south-west corner (-90, -180).
+ * <p>
+ * A cell is identified by a long, which holds the latitude index in the upper and the longitude
+ * index in the lower 32 bits, so cells can be used as keys of maps.
+ */
+public final class GeoGrid
+{
+   private final double cellSize;
+
+   private GeoGrid(final double cellSize)
+   {
+      this.cellSize = cellSize;
+   }
+
+   /**
+    * Creates a grid
+    *
+    * @param cellSize The edge length of the cells in degrees
+    * @throws IllegalArgumentException Thrown if the cell size is not between 0 and 1 degrees
+    */
+   public static GeoGrid of(final double cellSize)
+   {
+      if (!(cellSize > 0) || cellSize > 1)
+      {
+         throw new IllegalArgumentException("The cell size has to be between 0 and 1 degrees");
+      }
+      return new GeoGrid(cellSize);
+   }
+
+   /**
+    * Returns the edge length of the cells in degrees
+    */
+   public double getCellSize()
+   {
+      return cellSize;
+   }
+
+   /**
+    * Returns the latitude index of the cells containing the latitude
+    */
+   public int latIndex(final double lat)
+   {
+      return (int) Math.floor((lat + 90) / cellSize);
+   }
+
+   /**
+    * Returns the longitude index of the cells containing the longitude
+    */
+   public int lngIndex(final double lng)
+   {
+      return (int) Math.floor((lng + 180) / cellSize);
+   }
+
+   /**
+    * Returns the cell containing the coordinate
+    */
+   public long cellOf(final double lat, final double lng)
+   {
+      return cell(latIndex(lat), lngIndex(lng));
+   }
+
+   /**
+    * Returns the cell of the indexes
+    */
+   public static long cell(final int latIndex, final int lngIndex)
+   {
+      return ((long) latIndex << 32) | (lngIndex & 0xFFFFFFFFL);
+   }
+
+   /**
+    * Returns the latitude index of the cell
+    */
+   public static int latIndexOf(final long cell)
+   {
+      return (int) (cell >> 32);
+   }
+
+   /**
+    * Returns the longitude index of the cell
+    */
+   public static int lngIndexOf(final long cell)
+   {
+      return (int) cell;
+   }
+
+   /**
+    * Returns the latitude of the southern edge of the cell
+    */
+   public double getSouth(final long cell)
+   {
+      return latIndexOf(cell) * cellSize - 90;
+   }
+
+   /**
+    * Returns the longitude of the western edge of the cell
+    */
+   public double getWest(final long cell)
+   {
+      return lngIndexOf(cell) * cellSize - 180;
+   }
+
+   /**
+    * Returns the center of the cell
+    */
+   public GeoPoint getCenter(final long cell)
+   {
+      return GeoPoint.of(getSouth(cell) + cellSize / 2, getWest(cell) + cellSize / 2);
+   }
+
+   /**
+    * Determines if the cell intersects the circle, by checking the point of the cell nearest to the center
+    */
+   public boolean intersects(final long cell, final double lat, final double lng, final double radius)
+   {
+      final double south = getSouth(cell);
+      final double west = getWest(cell);
+      final double nearestLat = Math.max(south, Math.min(south + cellSize, lat));
+      final double nearestLng = Math.max(west, Math.min(west + cellSize, lng));
+      return GeoUtils.distance(lat, lng, nearestLat, nearestLng) <= radius;
+   }
+
+   /**
+    * Determines if the cell lies completely within the circle, which is the case if all corners lie within the circle
+    */
+   public boolean isWithin(final long cell, final double lat, final double lng, final double radius)
+   {
+      final double south = getSouth(cell);
+      final double west = getWest(cell);
+      final double north = south + cellSize;
+      final double east = west + cellSize;
+      return GeoUtils.distance(lat, lng, south, west) <= radius
+            && GeoUtils.distance(lat, lng, south, east) <= radius
+            && GeoUtils.distance(lat, lng, north, west) <= radius
+            && GeoUtils.distance(lat, lng, north, east) <= radius;
+   }
+
+   /**
+    * Calls the consumer for every cell within the bounding box of the circle
+    */
+   public void forEachCell(final double lat, final double lng, final double radius, final LongConsumer consumer)
+   {
+      final double latDelta = GeoUtils.latitudeDelta(radius);
+      final double lngDelta = GeoUtils.longitudeDelta(lat, radius);
+      final int minLat = latIndex(Math.max(-90, lat - latDelta));
+      final int maxLat = latIndex(Math.min(90, lat + latDelta));
+      final int minLng = lngIndex(Math.max(-180, lng - lngDelta));
+      final int maxLng = lngIndex(Math.min(180, lng + lngDelta));
+
+      for (int latIndex = minLat; latIndex <= maxLat; latIndex++)
+      {
+         for (int lngIndex = minLng; lngIndex <= maxLng; lngIndex++)
+         {
+            consumer.accept(cell(latIndex, lngIndex));
+         }
+      }
+   }
+
+   /**
+    * Calls the consumer for every cell intersecting the circle
+    */
+   public void forEachIntersecting(final double lat, final double lng, final double radius, final LongConsumer consumer)
+   {
+      forEachCell(lat, lng, radius, cell ->
+      {
+         if (intersects(cell, lat, lng, radius))
+         {
+            consumer.accept(cell);
+         }
+      });
+   }
+
+   @Override
+   public boolean equals(final Object o)
+   {
+      if (this == o)
+         return true;
+      if (o == null || getClass() != o.getClass())
+         return false;
+
+      final GeoGrid that = (GeoGrid) o;
+
+      return Double.compare(that.cellSize, cellSize) == 0;
+   }
+
+   @Override
+   public int hashCode()
+   {
+      return Double.hashCode(cellSize);
+   }
+
+   @Override
+   public String toString()
+   {
+      return "GeoGrid{cellSize=" + cellSize + "}";
+   }
+}
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.geo;
+
+/**
+ * A geographic coordinate in degrees
+ */
+public final class GeoPoint
+{
+   private final double lat;
+   private final double lng;
+
+   private GeoPoint(final double lat, final double lng)
+   {
+      this.lat = lat;
+      this.lng = lng;
+   }
+
+   /**
+    * Creates a point
+    *
+    * @throws IllegalArgumentException Thrown if the coordinate is out of range
+    */
+   public static GeoPoint of(final double lat, final double lng)
+   {
+      if (!(lat >= -90 && lat <= 90) || !(lng >= -180 && lng <= 180))
+      {
+         throw new IllegalArgumentException("Invalid coordinate " + lat + "," + lng);
+      }
+      return new GeoPoint(lat, lng);
+   }
+
+   /**
+    * Returns the latitude
+    */
+   public double getLat()
+   {
+      return lat;
+   }
+
+   /**
+    * Returns the longitude
+    */
+   public double getLng()
+   {
+      return lng;
+   }
+
+   /**
+    * Returns the great circle distance to the supplied point in km
+    */
+   public double distanceTo(final GeoPoint other)
+   {
+      return GeoUtils.distance(lat, lng, other.lat, other.lng);
+   }
+
+   @Override
+   public boolean equals(final Object o)
+   {
+      if (this == o)
+         return true;
+      if (o == null || getClass() != o.getClass())
+         return false;
+
+      final GeoPoint that = (GeoPoint) o;
+
+      if (Double.compare(that.lat, lat) != 0)
+         return false;
+      return Double.compare(that.lng, lng) == 0;
+   }
+
+   @Override
+   public int hashCode()
+   {
+      int result = Double.hashCode(lat);
+      result = 31 * result + Double.hashCode(lng);
+      return result;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "GeoPoint{lat=" + lat + ", lng=" + lng + "}";
+   }
+}
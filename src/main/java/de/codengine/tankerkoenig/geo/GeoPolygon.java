@@ -0,0 +1,212 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A simple polygon given by its vertices in degrees. The polygon is closed implicitly
+ * and must not cross the antimeridian.
+ */
+public final class GeoPolygon
+{
+   private final List<GeoPoint> vertices;
+   private final double[] lats;
+   private final double[] lngs;
+   private final double minLat;
+   private final double maxLat;
+   private final double minLng;
+   private final double maxLng;
+
+   private GeoPolygon(final List<GeoPoint> vertices)
+   {
+      this.vertices = Collections.unmodifiableList(new ArrayList<>(vertices));
+      this.lats = vertices.stream().mapToDouble(GeoPoint::getLat).toArray();
+      this.lngs = vertices.stream().mapToDouble(GeoPoint::getLng).toArray();
+      this.minLat = Arrays.stream(lats).min().getAsDouble();
+      this.maxLat = Arrays.stream(lats).max().getAsDouble();
+      this.minLng = Arrays.stream(lngs).min().getAsDouble();
+      this.maxLng = Arrays.stream(lngs).max().getAsDouble();
+   }
+
+   /**
+    * Creates a polygon
+    *
+    * @throws IllegalArgumentException Thrown if less than three vertices are supplied
+    */
+   public static GeoPolygon of(final List<GeoPoint> vertices)
+   {
+      if (vertices == null || vertices.size() < 3 || vertices.contains(null))
+      {
+         throw new IllegalArgumentException("A polygon requires at least three vertices");
+      }
+      return new GeoPolygon(vertices);
+   }
+
+   /**
+    * Creates a polygon
+    *
+    * @throws IllegalArgumentException Thrown if less than three vertices are supplied
+    */
+   public static GeoPolygon of(final GeoPoint... vertices)
+   {
+      return of(vertices == null ? null : Arrays.asList(vertices));
+   }
+
+   /**
+    * Creates a rectangular polygon from its bounds
+    */
+   public static GeoPolygon rectangle(final double minLat, final double minLng, final double maxLat, final double maxLng)
+   {
+      return of(GeoPoint.of(minLat, minLng), GeoPoint.of(minLat, maxLng), GeoPoint.of(maxLat, maxLng), GeoPoint.of(maxLat, minLng));
+   }
+
+   /**
+    * Returns the vertices
+    */
+   public List<GeoPoint> getVertices()
+   {
+      return vertices;
+   }
+
+   /**
+    * Returns the smallest latitude of all vertices
+    */
+   public double getMinLat()
+   {
+      return minLat;
+   }
+
+   /**
+    * Returns the largest latitude of all vertices
+    */
+   public double getMaxLat()
+   {
+      return maxLat;
+   }
+
+   /**
+    * Returns the smallest longitude of all vertices
+    */
+   public double getMinLng()
+   {
+      return minLng;
+   }
+
+   /**
+    * Returns the largest longitude of all vertices
+    */
+   public double getMaxLng()
+   {
+      return maxLng;
+   }
+
+   /**
+    * Determines if the coordinate lies within the polygon (even-odd rule)
+    */
+   public boolean contains(final double lat, final double lng)
+   {
+      boolean inside = false;
+      for (int i = 0, j = lats.length - 1; i < lats.length; j = i++)
+      {
+         if ((lats[i] > lat) != (lats[j] > lat)
+               && lng < (lngs[j] - lngs[i]) * (lat - lats[i]) / (lats[j] - lats[i]) + lngs[i])
+         {
+            inside = !inside;
+         }
+      }
+      return inside;
+   }
+
+   /**
+    * Returns the distance of the coordinate to the nearest edge in km. The edges are
+    * measured in a local equirectangular projection, which is accurate for distances of
+    * up to a few hundred km.
+    */
+   public double distanceToBoundary(final double lat, final double lng)
+   {
+      final double cos = Math.cos(Math.toRadians(lat));
+      double min = Double.POSITIVE_INFINITY;
+      for (int i = 0, j = lats.length - 1; i < lats.length; j = i++)
+      {
+         final double x1 = (lngs[j] - lng) * cos * GeoUtils.KM_PER_DEGREE;
+         final double y1 = (lats[j] - lat) * GeoUtils.KM_PER_DEGREE;
+         final double x2 = (lngs[i] - lng) * cos * GeoUtils.KM_PER_DEGREE;
+         final double y2 = (lats[i] - lat) * GeoUtils.KM_PER_DEGREE;
+         min = Math.min(min, distanceToSegment(x1, y1, x2, y2));
+      }
+      return min;
+   }
+
+   /**
+    * Determines if the circle and the polygon overlap
+    */
+   public boolean intersects(final GeoCircle circle)
+   {
+      final double lat = circle.getCenter().getLat();
+      final double lng = circle.getCenter().getLng();
+      return contains(lat, lng) || distanceToBoundary(lat, lng) <= circle.getRadius();
+   }
+
+   /**
+    * Distance of the origin to the segment (x1,y1)-(x2,y2)
+    */
+   private static double distanceToSegment(final double x1, final double y1, final double x2, final double y2)
+   {
+      final double dx = x2 - x1;
+      final double dy = y2 - y1;
+      final double lengthSquared = dx * dx + dy * dy;
+      final double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, -(x1 * dx + y1 * dy) / lengthSquared));
+      return Math.hypot(x1 + t * dx, y1 + t * dy);
+   }
+
+   @Override
+   public boolean equals(final Object o)
+   {
+      if (this == o)
+         return true;
+      if (o == null || getClass() != o.getClass())
+         return false;
+
+      final GeoPolygon that = (GeoPolygon) o;
+
+      return vertices.equals(that.vertices);
+   }
+
+   @Override
+   public int hashCode()
+   {
+      return vertices.hashCode();
+   }
+
+   @Override
+   public String toString()
+   {
+      return "GeoPolygon{vertices=" + vertices + "}";
+   }
+}
@@ -0,0 +1,209 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A line through several points given in degrees, e.g. a route. The line must not
+ * cross the antimeridian.
+ */
+public final class GeoPolyline
+{
+   private final List<GeoPoint> vertices;
+   private final double[] lats;
+   private final double[] lngs;
+
+   private GeoPolyline(final List<GeoPoint> vertices)
+   {
+      this.vertices = Collections.unmodifiableList(new ArrayList<>(vertices));
+      this.lats = vertices.stream().mapToDouble(GeoPoint::getLat).toArray();
+      this.lngs = vertices.stream().mapToDouble(GeoPoint::getLng).toArray();
+   }
+
+   /**
+    * Creates a polyline
+    *
+    * @throws IllegalArgumentException Thrown if less than two vertices are supplied
+    */
+   public static GeoPolyline of(final List<GeoPoint> vertices)
+   {
+      if (vertices == null || vertices.size() < 2 || vertices.contains(null))
+      {
+         throw new IllegalArgumentException("A polyline requires at least two vertices");
+      }
+      return new GeoPolyline(vertices);
+   }
+
+   /**
+    * Creates a polyline
+    *
+    * @throws IllegalArgumentException Thrown if less than two vertices are supplied
+    */
+   public static GeoPolyline of(final GeoPoint... vertices)
+   {
+      return of(vertices == null ? null : Arrays.asList(vertices));
+   }
+
+   /**
+    * Returns the vertices
+    */
+   public List<GeoPoint> getVertices()
+   {
+      return vertices;
+   }
+
+   /**
+    * Returns the smallest latitude of all vertices
+    */
+   public double getMinLat()
+   {
+      return Arrays.stream(lats).min().getAsDouble();
+   }
+
+   /**
+    * Returns the largest latitude of all vertices
+    */
+   public double getMaxLat()
+   {
+      return Arrays.stream(lats).max().getAsDouble();
+   }
+
+   /**
+    * Returns the smallest longitude of all vertices
+    */
+   public double getMinLng()
+   {
+      return Arrays.stream(lngs).min().getAsDouble();
+   }
+
+   /**
+    * Returns the largest longitude of all vertices
+    */
+   public double getMaxLng()
+   {
+      return Arrays.stream(lngs).max().getAsDouble();
+   }
+
+   /**
+    * Returns the length in km
+    */
+   public double getLength()
+   {
+      double length = 0;
+      for (int i = 1; i < lats.length; i++)
+      {
+         length += GeoUtils.distance(lats[i - 1], lngs[i - 1], lats[i], lngs[i]);
+      }
+      return length;
+   }
+
+   /**
+    * Returns the distance of the coordinate to the line in km, measured in a local
+    * equirectangular projection
+    */
+   public double distanceTo(final double lat, final double lng)
+   {
+      double min = Double.POSITIVE_INFINITY;
+      for (int i = 1; i < lats.length; i++)
+      {
+         min = Math.min(min, distanceToSegment(i - 1, lat, lng));
+      }
+      return min;
+   }
+
+   /**
+    * Returns the position along the line in km of the point on the line which is nearest to the coordinate
+    */
+   public double positionOf(final double lat, final double lng)
+   {
+      double min = Double.POSITIVE_INFINITY;
+      double position = 0;
+      double start = 0;
+      for (int i = 1; i < lats.length; i++)
+      {
+         final double distance = distanceToSegment(i - 1, lat, lng);
+         final double segmentLength = GeoUtils.distance(lats[i - 1], lngs[i - 1], lats[i], lngs[i]);
+         if (distance < min)
+         {
+            min = distance;
+            position = start + segmentLength * projection(i - 1, lat, lng);
+         }
+         start += segmentLength;
+      }
+      return position;
+   }
+
+   private double distanceToSegment(final int segment, final double lat, final double lng)
+   {
+      final double t = projection(segment, lat, lng);
+      final double cos = Math.cos(Math.toRadians(lat));
+      final double x = (lngs[segment] + t * (lngs[segment + 1] - lngs[segment]) - lng) * cos * GeoUtils.KM_PER_DEGREE;
+      final double y = (lats[segment] + t * (lats[segment + 1] - lats[segment]) - lat) * GeoUtils.KM_PER_DEGREE;
+      return Math.hypot(x, y);
+   }
+
+   /**
+    * Returns the parameter between 0 and 1 of the point on the segment nearest to the coordinate
+    */
+   private double projection(final int segment, final double lat, final double lng)
+   {
+      final double cos = Math.cos(Math.toRadians(lat));
+      final double x1 = (lngs[segment] - lng) * cos;
+      final double y1 = lats[segment] - lat;
+      final double dx = (lngs[segment + 1] - lngs[segment]) * cos;
+      final double dy = lats[segment + 1] - lats[segment];
+      final double lengthSquared = dx * dx + dy * dy;
+      return lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, -(x1 * dx + y1 * dy) / lengthSquared));
+   }
+
+   @Override
+   public boolean equals(final Object o)
+   {
+      if (this == o)
+         return true;
+      if (o == null || getClass() != o.getClass())
+         return false;
+
+      final GeoPolyline that = (GeoPolyline) o;
+
+      return vertices.equals(that.vertices);
+   }
+
+   @Override
+   public int hashCode()
+   {
+      return vertices.hashCode();
+   }
+
+   @Override
+   public String toString()
+   {
+      return "GeoPolyline{vertices=" + vertices + "}";
+   }
+}
@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.geo;
+
+/**
+ * Geographic calculations on a spherical earth model
+ */
+public final class GeoUtils
+{
+   /**
+    * Mean earth radius in km
+    */
+   public final static double EARTH_RADIUS_KM = 6371.0;
+
+   final static double KM_PER_DEGREE = Math.toRadians(EARTH_RADIUS_KM);
+
+   private GeoUtils()
+   {
+      throw new UnsupportedOperationException();
+   }
+
+   /**
+    * Returns the great circle distance between both coordinates in km (haversine formula)
+    */
+   public static double distance(final double lat1, final double lng1, final double lat2, final double lng2)
+   {
+      final double sinDLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+      final double sinDLng = Math.sin(Math.toRadians(lng2 - lng1) / 2);
+      final double h = sinDLat * sinDLat + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinDLng * sinDLng;
+      return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(h)));
+   }
+
+   /**
+    * Rounds the distance to 0.1 km, as done by the API
+    */
+   public static double roundDistance(final double distance)
+   {
+      return Math.round(distance * 10) / 10.0;
+   }
+
+   /**
+    * Returns the latitude difference in degrees covering the supplied distance
+    */
+   public static double latitudeDelta(final double distance)
+   {
+      return distance / KM_PER_DEGREE;
+   }
+
+   /**
+    * Returns the longitude difference in degrees covering at least the supplied distance
+    * at the supplied latitude. Near the poles, the whole longitude range is returned.
+    */
+   public static double longitudeDelta(final double lat, final double distance)
+   {
+      final double maxLat = Math.min(90, Math.abs(lat) + latitudeDelta(distance));
+      final double cos = Math.cos(Math.toRadians(maxLat));
+      return cos <= 1e-9 ? 180 : Math.min(180, distance / (KM_PER_DEGREE * cos));
+   }
+}
@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.history;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads values written by a {@link BitWriter} from a region of a buffer, e.g. a memory mapped segment
+ */
+final class BitReader
+{
+   private final ByteBuffer buffer;
+   private final int offset;
+   private final long limit;
+   private long position;
+
+   /**
+    * @param buffer The buffer, which is read with absolute positions
+    * @param offset The offset of the first byte
+    * @param length The count of bytes
+    */
+   BitReader(final ByteBuffer buffer, final int offset, final int length)
+   {
+      this.buffer = buffer;
+      this.offset = offset;
+      this.limit = (long) length << 3;
+   }
+
+   /**
+    * Reads an unsigned value
+    *
+    * @param bits The count of bits between 0 and 64
+    * @throws IllegalStateException Thrown if the region is exhausted
+    */
+   long read(final int bits)
+   {
+      if (position + bits > limit)
+      {
+         throw new IllegalStateException("The end of the data has been reached");
+      }
+
+      long value = 0;
+      int remaining = bits;
+      while (remaining > 0)
+      {
+         final int current = buffer.get(offset + (int) (position >>> 3)) & 0xFF;
+         final int available = 8 - (int) (position & 7);
+         final int count = Math.min(available, remaining);
+         final int chunk = (current >>> (available - count)) & ((1 << count) - 1);
+         value = (value << count) | chunk;
+         position += count;
+         remaining -= count;
+      }
+      return value;
+   }
+
+   /**
+    * Reads a two's complement value and extends its sign
+    *
+    * @param bits The count of bits between 1 and 64
+    */
+   long readSigned(final int bits)
+   {
+      final long value = read(bits);
+      return bits == 64 ? value : (value << (64 - bits)) >> (64 - bits);
+   }
+
+   /**
+    * Reads a single bit
+    */
+   boolean readBit()
+   {
+      return read(1) == 1;
+   }
+}
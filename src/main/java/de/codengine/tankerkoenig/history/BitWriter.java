@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.history;
+
+import java.util.Arrays;
+
+/**
+ * Writes values of arbitrary bit lengths into a growing byte array, most significant bit first
+ */
+final class BitWriter
+{
+   private byte[] buffer = new byte[64];
+   private long bitCount;
+
+   /**
+    * Writes the lowest bits of the value
+    *
+    * @param value The value
+    * @param bits  The count of bits between 0 and 64
+    */
+   void write(final long value, final int bits)
+   {
+      ensureCapacity(bitCount + bits);
+      int remaining = bits;
+      while (remaining > 0)
+      {
+         final int index = (int) (bitCount >>> 3);
+         final int free = 8 - (int) (bitCount & 7);
+         final int count = Math.min(free, remaining);
+         final int chunk = (int) (value >>> (remaining - count)) & ((1 << count) - 1);
+         buffer[index] |= chunk << (free - count);
+         bitCount += count;
+         remaining -= count;
+      }
+   }
+
+   /**
+    * Writes a single bit
+    */
+   void writeBit(final boolean bit)
+   {
+      write(bit ? 1 : 0, 1);
+   }
+
+   /**
+    * Returns the count of written bits
+    */
+   long getBitCount()
+   {
+      return bitCount;
+   }
+
+   /**
+    * Returns the written bytes, the last byte is padded with zeros
+    */
+   byte[] toByteArray()
+   {
+      return Arrays.copyOf(buffer, (int) ((bitCount + 7) >>> 3));
+   }
+
+   private void ensureCapacity(final long bits)
+   {
+      final int bytes = (int) ((bits + 7) >>> 3);
+      if (bytes > buffer.length)
+      {
+         buffer = Arrays.copyOf(buffer, Math.max(bytes, buffer.length * 2));
+      }
+   }
+}
@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.history;
+
+import java.util.Locale;
+
+/**
+ * The minimum, maximum and average of observed prices
+ */
+public final class PriceAggregate
+{
+   private final float min;
+   private final float max;
+   private final double sum;
+   private final long count;
+
+   PriceAggregate(final float min, final float max, final double sum, final long count)
+   {
+      this.min = min;
+      this.max = max;
+      this.sum = sum;
+      this.count = count;
+   }
+
+   /**
+    * Returns the lowest price
+    */
+   public float getMin()
+   {
+      return min;
+   }
+
+   /**
+    * Returns the highest price
+    */
+   public float getMax()
+   {
+      return max;
+   }
+
+   /**
+    * Returns the average of the observed prices
+    */
+   public double getAverage()
+   {
+      return sum / count;
+   }
+
+   /**
+    * Returns the count of observations
+    */
+   public long getCount()
+   {
+      return count;
+   }
+
+   @Override
+   public boolean equals(final Object o)
+   {
+      if (this == o)
+         return true;
+      if (o == null || getClass() != o.getClass())
+         return false;
+
+      final PriceAggregate that = (PriceAggregate) o;
+
+      if (Float.compare(that.min, min) != 0)
+         return false;
+      if (Float.compare(that.max, max) != 0)
+         return false;
+      if (Double.compare(that.sum, sum) != 0)
+         return false;
+      return count == that.count;
+   }
+
+   @Override
+   public int hashCode()
+   {
+      int result = Float.hashCode(min);
+      result = 31 * result + Float.hashCode(max);
+      result = 31 * result + Double.hashCode(sum);
+      result = 31 * result + Long.hashCode(count);
+      return result;
+   }
+
+   @Override
+   public String toString()
+   {
+      return String.format(Locale.ROOT, "PriceAggregate{min=%.3f, max=%.3f, average=%.4f, count=%d}", min, max, getAverage(), count);
+   }
+}
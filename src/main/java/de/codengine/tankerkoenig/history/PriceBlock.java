@@ -0,0 +1,223 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.history;
+
+/**
+ * Encodes a block of price observations of one series in the style of the Gorilla time series compression.
+ * <p>
+ * The timestamps (epoch seconds) are stored as delta-of-deltas, so regularly polled prices take one bit
+ * per timestamp. As the prices have three decimals, they are stored as integral tenths of a cent, whose
+ * deltas are encoded with variable lengths instead of XORing the floating point representation, so an
+ * unchanged price takes one bit as well. The first timestamp is stored outside of the block.
+ */
+final class PriceBlock
+{
+   private final static float SCALE = 1000f;
+
+   private final BitWriter writer = new BitWriter();
+   private final long firstTime;
+   private long lastTime;
+   private long lastDelta;
+   private int lastPrice;
+   private int count;
+
+   /**
+    * Starts a block with the first observation
+    */
+   PriceBlock(final long time, final int price)
+   {
+      this.firstTime = time;
+      this.lastTime = time;
+      this.lastPrice = price;
+      this.count = 1;
+      writer.write(price, 32);
+   }
+
+   /**
+    * Appends an observation, whose time must not be before the previous one
+    */
+   void append(final long time, final int price)
+   {
+      final long delta = time - lastTime;
+      final long deltaOfDelta = delta - lastDelta;
+      if (deltaOfDelta == 0)
+      {
+         writer.writeBit(false);
+      }
+      else if (fits(deltaOfDelta, 7))
+      {
+         writer.write(0b10, 2);
+         writer.write(deltaOfDelta, 7);
+      }
+      else if (fits(deltaOfDelta, 9))
+      {
+         writer.write(0b110, 3);
+         writer.write(deltaOfDelta, 9);
+      }
+      else if (fits(deltaOfDelta, 12))
+      {
+         writer.write(0b1110, 4);
+         writer.write(deltaOfDelta, 12);
+      }
+      else
+      {
+         writer.write(0b1111, 4);
+         writer.write(deltaOfDelta, 64);
+      }
+
+      final int priceDelta = price - lastPrice;
+      if (priceDelta == 0)
+      {
+         writer.writeBit(false);
+      }
+      else if (fits(priceDelta, 6))
+      {
+         writer.write(0b10, 2);
+         writer.write(priceDelta, 6);
+      }
+      else if (fits(priceDelta, 10))
+      {
+         writer.write(0b110, 3);
+         writer.write(priceDelta, 10);
+      }
+      else
+      {
+         writer.write(0b111, 3);
+         writer.write(priceDelta, 32);
+      }
+
+      lastTime = time;
+      lastDelta = delta;
+      lastPrice = price;
+      count++;
+   }
+
+   long getFirstTime()
+   {
+      return firstTime;
+   }
+
+   long getLastTime()
+   {
+      return lastTime;
+   }
+
+   int getCount()
+   {
+      return count;
+   }
+
+   byte[] toByteArray()
+   {
+      return writer.toByteArray();
+   }
+
+   /**
+    * Decodes the observations of a block
+    *
+    * @param reader    The encoded block
+    * @param count     The count of observations
+    * @param firstTime The time of the first observation
+    * @param consumer  Receives the observations in order
+    */
+   static void decode(final BitReader reader, final int count, final long firstTime, final ObservationConsumer consumer)
+   {
+      long time = firstTime;
+      long delta = 0;
+      int price = (int) reader.readSigned(32);
+      consumer.accept(time, price);
+
+      for (int i = 1; i < count; i++)
+      {
+         if (reader.readBit())
+         {
+            if (!reader.readBit())
+            {
+               delta += reader.readSigned(7);
+            }
+            else if (!reader.readBit())
+            {
+               delta += reader.readSigned(9);
+            }
+            else if (!reader.readBit())
+            {
+               delta += reader.readSigned(12);
+            }
+            else
+            {
+               delta += reader.readSigned(64);
+            }
+         }
+         time += delta;
+
+         if (reader.readBit())
+         {
+            if (!reader.readBit())
+            {
+               price += (int) reader.readSigned(6);
+            }
+            else if (!reader.readBit())
+            {
+               price += (int) reader.readSigned(10);
+            }
+            else
+            {
+               price += (int) reader.readSigned(32);
+            }
+         }
+         consumer.accept(time, price);
+      }
+   }
+
+   /**
+    * Converts a price into integral tenths of a cent
+    */
+   static int toUnits(final float price)
+   {
+      return Math.round(price * SCALE);
+   }
+
+   /**
+    * Converts integral tenths of a cent into a price
+    */
+   static float toPrice(final int units)
+   {
+      return units / SCALE;
+   }
+
+   private static boolean fits(final long value, final int bits)
+   {
+      return value >= -(1L << (bits - 1)) && value < (1L << (bits - 1));
+   }
+
+   /**
+    * Receives decoded observations
+    */
+   @FunctionalInterface
+   interface ObservationConsumer
+   {
+      void accept(final long time, final int price);
+   }
+}
@@ -0,0 +1,821 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.history;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.PricesResult;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+
+/**
+ * Embedded, append-only store of the price history of every station and gas type.
+ * <p>
+ * The observations of a series (station and gas type) are collected in memory and compressed into
+ * blocks of delta-of-delta timestamps and delta prices, see {@link PriceBlock}. Full blocks and all
+ * blocks on {@link #flush()} are appended as checksummed records to segment files, which are rolled
+ * over at a maximum size. Full segments are read memory mapped, which are mapped once as they no longer grow,
+ * while the blocks of the last segment are read from its channel. An in-memory index of the blocks
+ * of every series restricts range queries to the blocks overlapping the range.
+ * <p>
+ * Opening a directory rebuilds the index from the segments. A record torn by a crash at the end of the
+ * last segment is truncated. Observations which have not been flushed are lost on a crash.
+ * <p>
+ * The observations of a series have to be appended in chronological order, as they are polled.
+ * The times are stored in seconds. Listeners, e.g. {@link PriceRollups}, receive every appended observation
+ * in the order of appending. They are notified after the store has been unlocked, so a slow listener does not
+ * block queries and appends, but an append may return before its observations have been delivered by
+ * another appending thread. The store is thread safe.
+ */
+public final class PriceHistory implements Closeable
+{
+   private final static int DEFAULT_BLOCK_SIZE = 256;
+   private final static long DEFAULT_SEGMENT_SIZE = 64L << 20;
+   private final static String SEGMENT_PREFIX = "segment-";
+   private final static String SEGMENT_SUFFIX = ".dat";
+   private final static GasPrices.GasType[] GAS_TYPES = GasPrices.GasType.values();
+
+   private final Path directory;
+   private final int blockSize;
+   private final long segmentSize;
+   private final List<Segment> segments = new ArrayList<>();
+   private final Map<String, Series[]> series = new HashMap<>();
+   private final List<ObservationListener> listeners = new CopyOnWriteArrayList<>();
+   private final Queue<Observation> undelivered = new ArrayDeque<>();
+   private FileChannel channel;
+   private long observations;
+   private boolean delivering;
+   private boolean closed;
+
+   private PriceHistory(final Path directory, final int blockSize, final long segmentSize)
+   {
+      this.directory = directory;
+      this.blockSize = blockSize;
+      this.segmentSize = segmentSize;
+   }
+
+   /**
+    * Opens the history stored in the directory with blocks of 256 observations and segments of 64 MB
+    *
+    * @see #open(Path, int, long)
+    */
+   public static PriceHistory open(final Path directory) throws IOException
+   {
+      return open(directory, DEFAULT_BLOCK_SIZE, DEFAULT_SEGMENT_SIZE);
+   }
+
+   /**
+    * Opens the history stored in the directory, which is created if it does not exist
+    *
+    * @param directory   The directory of the segment files
+    * @param blockSize   The count of observations after which the block of a series is written
+    * @param segmentSize The size in bytes after which a new segment is started
+    * @throws IOException Thrown if the segments could not be read or a segment other than the last is corrupt
+    */
+   public static PriceHistory open(final Path directory, final int blockSize, final long segmentSize) throws IOException
+   {
+      if (directory == null)
+      {
+         throw new IllegalArgumentException("The directory must not be null");
+      }
+      if (blockSize < 2)
+      {
+         throw new IllegalArgumentException("The block size has to be at least 2");
+      }
+      if (segmentSize < 1024 || segmentSize > Integer.MAX_VALUE)
+      {
+         throw new IllegalArgumentException("The segment size has to be between 1 KB and 2 GB");
+      }
+
+      Files.createDirectories(directory);
+      final PriceHistory history = new PriceHistory(directory, blockSize, segmentSize);
+      history.load();
+      return history;
+   }
+
+   /**
+    * Appends the observed price
+    *
+    * @param stationId The ID of the station
+    * @param gasType   The gas type
+    * @param time      The time of the observation
+    * @param price     The observed price
+    * @return False if the observation is older than the last observation of the series
+    * @throws IOException Thrown if a full block could not be written
+    */
+   public boolean append(final String stationId, final GasPrices.GasType gasType, final Instant time, final float price)
+         throws IOException
+   {
+      try
+      {
+         synchronized (this)
+         {
+            return appendPrice(stationId, gasType, time, price);
+         }
+      }
+      finally
+      {
+         deliver();
+      }
+   }
+
+   /**
+    * Appends the available prices of every gas type
+    *
+    * @return The count of appended observations
+    */
+   public int append(final String stationId, final GasPrices gasPrices, final Instant time) throws IOException
+   {
+      try
+      {
+         synchronized (this)
+         {
+            return appendPrices(stationId, gasPrices, time);
+         }
+      }
+      finally
+      {
+         deliver();
+      }
+   }
+
+   /**
+    * Appends the prices of a successful prices.php result
+    *
+    * @return The count of appended observations
+    */
+   public int append(final PricesResult result, final Instant time) throws IOException
+   {
+      if (!Boolean.TRUE.equals(result.isOk()))
+      {
+         return 0;
+      }
+
+      int appended = 0;
+      try
+      {
+         synchronized (this)
+         {
+            for (final Map.Entry<String, GasPrices> entry : result.getGasPrices().entrySet())
+            {
+               appended += appendPrices(entry.getKey(), entry.getValue(), time);
+            }
+         }
+      }
+      finally
+      {
+         deliver();
+      }
+      return appended;
+   }
+
+   /**
+    * Appends the prices of a successful list.php result. Only results for all gas types contain the
+    * gas prices, stations of results for a single gas type are skipped, as the type is unknown.
+    *
+    * @return The count of appended observations
+    */
+   public int append(final StationListResult result, final Instant time) throws IOException
+   {
+      if (!Boolean.TRUE.equals(result.isOk()))
+      {
+         return 0;
+      }
+
+      int appended = 0;
+      try
+      {
+         synchronized (this)
+         {
+            for (final Station station : result.getStations())
+            {
+               final GasPrices gasPrices = station.getGasPrices().orElse(null);
+               if (station.getId() != null && gasPrices != null)
+               {
+                  appended += appendPrices(station.getId(), gasPrices, time);
+               }
+            }
+         }
+      }
+      finally
+      {
+         deliver();
+      }
+      return appended;
+   }
+
+   private boolean appendPrice(final String stationId, final GasPrices.GasType gasType, final Instant time, final float price)
+         throws IOException
+   {
+      if (stationId == null || stationId.isEmpty() || stationId.getBytes(StandardCharsets.UTF_8).length > Short.MAX_VALUE)
+      {
+         throw new IllegalArgumentException("The station ID must not be null, empty or too long");
+      }
+      if (gasType == null || time == null)
+      {
+         throw new IllegalArgumentException("The gas type and the time must not be null");
+      }
+      if (!(price > 0) || Float.isInfinite(price))
+      {
+         throw new IllegalArgumentException("The price has to be positive");
+      }
+      ensureOpen();
+
+      final Series stationSeries = seriesOf(stationId, gasType);
+      final long second = time.getEpochSecond();
+      if (second < stationSeries.lastTime)
+      {
+         return false;
+      }
+
+      final int units = PriceBlock.toUnits(price);
+      if (stationSeries.head == null)
+      {
+         stationSeries.head = new PriceBlock(second, units);
+      }
+      else
+      {
+         stationSeries.head.append(second, units);
+      }
+      stationSeries.lastTime = second;
+      observations++;
+      if (!listeners.isEmpty())
+      {
+         undelivered.add(new Observation(stationId, gasType, second, PriceBlock.toPrice(units)));
+      }
+
+      if (stationSeries.head.getCount() >= blockSize)
+      {
+         writeBlock(stationId, gasType, stationSeries);
+      }
+      return true;
+   }
+
+   private int appendPrices(final String stationId, final GasPrices gasPrices, final Instant time) throws IOException
+   {
+      int appended = 0;
+      for (final GasPrices.GasType gasType : GAS_TYPES)
+      {
+         final Float price = gasPrices.getPrice(gasType).orElse(null);
+         if (price != null && appendPrice(stationId, gasType, time, price))
+         {
+            appended++;
+         }
+      }
+      return appended;
+   }
+
+   /**
+    * Delivers the appended observations to the listeners outside of the lock, unless another thread is delivering them
+    */
+   private void deliver()
+   {
+      synchronized (this)
+      {
+         if (delivering || undelivered.isEmpty())
+         {
+            return;
+         }
+         delivering = true;
+      }
+
+      try
+      {
+         while (true)
+         {
+            final List<Observation> batch;
+            synchronized (this)
+            {
+               if (undelivered.isEmpty())
+               {
+                  delivering = false;
+                  return;
+               }
+               batch = new ArrayList<>(undelivered);
+               undelivered.clear();
+            }
+            for (final Observation observation : batch)
+            {
+               for (final ObservationListener listener : listeners)
+               {
+                  listener.onObservation(observation.stationId, observation.gasType, observation.epochSecond, observation.price);
+               }
+            }
+         }
+      }
+      catch (RuntimeException | Error e)
+      {
+         synchronized (this)
+         {
+            delivering = false;
+         }
+         throw e;
+      }
+   }
+
+   /**
+    * Returns the observations of the series within the time range
+    *
+    * @param from The start of the range (inclusive)
+    * @param to   The end of the range (exclusive)
+    * @throws IOException Thrown if a segment could not be read
+    */
+   public synchronized PriceSeries query(final String stationId, final GasPrices.GasType gasType, final Instant from, final Instant to)
+         throws IOException
+   {
+      if (stationId == null || gasType == null || from == null || to == null)
+      {
+         throw new IllegalArgumentException("The station ID, gas type and range must not be null");
+      }
+      ensureOpen();
+
+      final long fromSecond = from.getEpochSecond() + (from.getNano() > 0 ? 1 : 0);
+      final long toSecond = to.getEpochSecond() + (to.getNano() > 0 ? 1 : 0);
+      final Collector collector = new Collector(fromSecond, toSecond);
+
+      final Series[] stationSeries = series.get(stationId);
+      final Series gasSeries = stationSeries != null ? stationSeries[gasType.ordinal()] : null;
+      if (gasSeries != null)
+      {
+         for (final BlockRef block : gasSeries.blocks)
+         {
+            if (block.lastTime >= fromSecond && block.firstTime < toSecond)
+            {
+               PriceBlock.decode(reader(block), block.count, block.firstTime, collector);
+            }
+         }
+
+         final PriceBlock head = gasSeries.head;
+         if (head != null && head.getLastTime() >= fromSecond && head.getFirstTime() < toSecond)
+         {
+            final byte[] data = head.toByteArray();
+            PriceBlock.decode(new BitReader(ByteBuffer.wrap(data), 0, data.length), head.getCount(), head.getFirstTime(), collector);
+         }
+      }
+      return collector.toSeries(stationId, gasType);
+   }
+
+   /**
+    * Returns the IDs of the stations with at least one series
+    */
+   public synchronized Set<String> getStationIds()
+   {
+      return Collections.unmodifiableSet(new TreeSet<>(series.keySet()));
+   }
+
+   /**
+    * Adds a listener, which is notified of every appended observation after the history has been unlocked
+    */
+   public void addListener(final ObservationListener listener)
+   {
+      if (listener == null)
+      {
+         throw new IllegalArgumentException("The listener must not be null");
+      }
+      listeners.add(listener);
+   }
+
+   /**
+    * Removes the listener
+    */
+   public void removeListener(final ObservationListener listener)
+   {
+      listeners.remove(listener);
+   }
+
+   /**
+    * Writes the collected observations of every series and forces them to the storage device
+    */
+   public synchronized void flush() throws IOException
+   {
+      ensureOpen();
+      for (final Map.Entry<String, Series[]> entry : series.entrySet())
+      {
+         for (final GasPrices.GasType gasType : GAS_TYPES)
+         {
+            final Series gasSeries = entry.getValue()[gasType.ordinal()];
+            if (gasSeries != null && gasSeries.head != null)
+            {
+               writeBlock(entry.getKey(), gasType, gasSeries);
+            }
+         }
+      }
+      channel.force(false);
+   }
+
+   /**
+    * Flushes and closes the history
+    */
+   @Override
+   public synchronized void close() throws IOException
+   {
+      if (closed)
+      {
+         return;
+      }
+      try
+      {
+         flush();
+      }
+      finally
+      {
+         closed = true;
+         channel.close();
+         segments.forEach(segment -> segment.mapped = null);
+      }
+   }
+
+   /**
+    * Returns the count of stored observations
+    */
+   public synchronized long getObservationCount()
+   {
+      return observations;
+   }
+
+   /**
+    * Returns the count of series
+    */
+   public synchronized int getSeriesCount()
+   {
+      int count = 0;
+      for (final Series[] stationSeries : series.values())
+      {
+         for (final Series gasSeries : stationSeries)
+         {
+            count += gasSeries != null ? 1 : 0;
+         }
+      }
+      return count;
+   }
+
+   /**
+    * Returns the count of segment files
+    */
+   public synchronized int getSegmentCount()
+   {
+      return segments.size();
+   }
+
+   /**
+    * Returns the size of the segment files in bytes
+    */
+   public synchronized long getSize()
+   {
+      return segments.stream().mapToLong(segment -> segment.size).sum();
+   }
+
+   private void load() throws IOException
+   {
+      final List<Path> paths = new ArrayList<>();
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX))
+      {
+         stream.forEach(paths::add);
+      }
+      paths.sort(null);
+
+      for (int i = 0; i < paths.size(); i++)
+      {
+         final Segment segment = new Segment(paths.get(i), Files.size(paths.get(i)));
+         segments.add(segment);
+         final long valid = scan(i, segment);
+         if (valid < segment.size)
+         {
+            if (i < paths.size() - 1)
+            {
+               throw new IOException("The segment " + segment.path + " is corrupt at offset " + valid);
+            }
+            try (FileChannel truncating = FileChannel.open(segment.path, StandardOpenOption.WRITE))
+            {
+               truncating.truncate(valid);
+            }
+            segment.size = valid;
+            segment.mapped = null;
+         }
+      }
+
+      if (segments.isEmpty())
+      {
+         segments.add(new Segment(directory.resolve(segmentName(0)), 0));
+      }
+      // The last segment grows, its blocks are read from the channel
+      segments.get(segments.size() - 1).mapped = null;
+      openChannel();
+   }
+
+   /**
+    * Indexes the valid records of the segment
+    *
+    * @return The offset after the last valid record
+    */
+   private long scan(final int index, final Segment segment) throws IOException
+   {
+      final ByteBuffer buffer = map(segment);
+      final CRC32 crc = new CRC32();
+      int position = 0;
+      while (position + 4 <= segment.size)
+      {
+         final int bodyLength = buffer.getInt(position);
+         if (bodyLength < 27 || position + 8L + bodyLength > segment.size)
+         {
+            break;
+         }
+
+         final byte[] body = new byte[bodyLength];
+         final ByteBuffer duplicate = buffer.duplicate();
+         duplicate.position(position + 4);
+         duplicate.get(body);
+         crc.reset();
+         crc.update(body, 0, bodyLength);
+         if ((int) crc.getValue() != buffer.getInt(position + 4 + bodyLength))
+         {
+            break;
+         }
+
+         final ByteBuffer record = ByteBuffer.wrap(body);
+         final byte[] id = new byte[record.getShort() & 0xFFFF];
+         record.get(id);
+         final int gasType = record.get();
+         final BlockRef block = new BlockRef();
+         block.segment = index;
+         block.count = record.getInt();
+         block.firstTime = record.getLong();
+         block.lastTime = record.getLong();
+         block.length = record.getInt();
+         block.offset = position + 4 + record.position();
+         if (gasType < 0 || gasType >= GAS_TYPES.length || record.remaining() != block.length)
+         {
+            break;
+         }
+
+         final Series gasSeries = seriesOf(new String(id, StandardCharsets.UTF_8), GAS_TYPES[gasType]);
+         gasSeries.blocks.add(block);
+         gasSeries.lastTime = Math.max(gasSeries.lastTime, block.lastTime);
+         observations += block.count;
+         position += 8 + bodyLength;
+      }
+      return position;
+   }
+
+   private void writeBlock(final String stationId, final GasPrices.GasType gasType, final Series gasSeries) throws IOException
+   {
+      final PriceBlock head = gasSeries.head;
+      final byte[] id = stationId.getBytes(StandardCharsets.UTF_8);
+      final byte[] data = head.toByteArray();
+      final int bodyLength = 2 + id.length + 1 + 4 + 8 + 8 + 4 + data.length;
+
+      final ByteBuffer record = ByteBuffer.allocate(bodyLength + 8);
+      record.putInt(bodyLength);
+      record.putShort((short) id.length);
+      record.put(id);
+      record.put((byte) gasType.ordinal());
+      record.putInt(head.getCount());
+      record.putLong(head.getFirstTime());
+      record.putLong(head.getLastTime());
+      record.putInt(data.length);
+      final int dataOffset = record.position();
+      record.put(data);
+      final CRC32 crc = new CRC32();
+      crc.update(record.array(), 4, bodyLength);
+      record.putInt((int) crc.getValue());
+      record.flip();
+
+      Segment segment = segments.get(segments.size() - 1);
+      if (segment.size > 0 && segment.size + record.remaining() > segmentSize)
+      {
+         channel.close();
+         segment = new Segment(directory.resolve(segmentName(segments.size())), 0);
+         segments.add(segment);
+         openChannel();
+      }
+
+      final long position = segment.size;
+      while (record.hasRemaining())
+      {
+         channel.write(record, position + record.position());
+      }
+
+      final BlockRef block = new BlockRef();
+      block.segment = segments.size() - 1;
+      block.offset = (int) position + dataOffset;
+      block.length = data.length;
+      block.count = head.getCount();
+      block.firstTime = head.getFirstTime();
+      block.lastTime = head.getLastTime();
+      gasSeries.blocks.add(block);
+      gasSeries.head = null;
+      segment.size += bodyLength + 8;
+   }
+
+   /**
+    * Returns the reader of the data of the block
+    */
+   private BitReader reader(final BlockRef block) throws IOException
+   {
+      if (block.segment < segments.size() - 1)
+      {
+         return new BitReader(map(segments.get(block.segment)), block.offset, block.length);
+      }
+
+      final ByteBuffer buffer = ByteBuffer.allocate(block.length);
+      while (buffer.hasRemaining())
+      {
+         if (channel.read(buffer, block.offset + buffer.position()) < 0)
+         {
+            throw new EOFException("The block at offset " + block.offset + " exceeds the segment");
+         }
+      }
+      return new BitReader(buffer, 0, block.length);
+   }
+
+   /**
+    * Returns the mapped segment, which is mapped once at its current size
+    */
+   private ByteBuffer map(final Segment segment) throws IOException
+   {
+      if (segment.mapped == null)
+      {
+         try (FileChannel reading = FileChannel.open(segment.path, StandardOpenOption.READ))
+         {
+            segment.mapped = reading.map(FileChannel.MapMode.READ_ONLY, 0, segment.size);
+         }
+      }
+      return segment.mapped;
+   }
+
+   private void openChannel() throws IOException
+   {
+      channel = FileChannel.open(segments.get(segments.size() - 1).path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+   }
+
+   private Series seriesOf(final String stationId, final GasPrices.GasType gasType)
+   {
+      final Series[] stationSeries = series.computeIfAbsent(stationId, id -> new Series[GAS_TYPES.length]);
+      if (stationSeries[gasType.ordinal()] == null)
+      {
+         stationSeries[gasType.ordinal()] = new Series();
+      }
+      return stationSeries[gasType.ordinal()];
+   }
+
+   private void ensureOpen()
+   {
+      if (closed)
+      {
+         throw new IllegalStateException("The history is closed");
+      }
+   }
+
+   private static String segmentName(final int index)
+   {
+      return String.format("%s%06d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+   }
+
+   private static final class Segment
+   {
+      private final Path path;
+      private long size;
+      private MappedByteBuffer mapped;
+
+      private Segment(final Path path, final long size)
+      {
+         this.path = path;
+         this.size = size;
+      }
+   }
+
+   private static final class Series
+   {
+      private final List<BlockRef> blocks = new ArrayList<>();
+      private PriceBlock head;
+      private long lastTime = Long.MIN_VALUE;
+   }
+
+   private static final class Observation
+   {
+      private final String stationId;
+      private final GasPrices.GasType gasType;
+      private final long epochSecond;
+      private final float price;
+
+      private Observation(final String stationId, final GasPrices.GasType gasType, final long epochSecond, final float price)
+      {
+         this.stationId = stationId;
+         this.gasType = gasType;
+         this.epochSecond = epochSecond;
+         this.price = price;
+      }
+   }
+
+   private static final class BlockRef
+   {
+      private int segment;
+      private int offset;
+      private int length;
+      private int count;
+      private long firstTime;
+      private long lastTime;
+   }
+
+   /**
+    * Receives the appended observations
+    */
+   @FunctionalInterface
+   public interface ObservationListener
+   {
+      /**
+       * @param stationId   The ID of the station
+       * @param gasType     The gas type
+       * @param epochSecond The time of the observation in epoch seconds
+       * @param price       The stored price
+       */
+      void onObservation(final String stationId, final GasPrices.GasType gasType, final long epochSecond, final float price);
+   }
+
+   /**
+    * Collects the decoded observations within the range
+    */
+   private static final class Collector implements PriceBlock.ObservationConsumer
+   {
+      private final long from;
+      private final long to;
+      private long[] times = new long[16];
+      private float[] prices = new float[16];
+      private int size;
+
+      private Collector(final long from, final long to)
+      {
+         this.from = from;
+         this.to = to;
+      }
+
+      @Override
+      public void accept(final long time, final int price)
+      {
+         if (time < from || time >= to)
+         {
+            return;
+         }
+         if (size == times.length)
+         {
+            times = Arrays.copyOf(times, size * 2);
+            prices = Arrays.copyOf(prices, size * 2);
+         }
+         times[size] = time;
+         prices[size] = PriceBlock.toPrice(price);
+         size++;
+      }
+
+      private PriceSeries toSeries(final String stationId, final GasPrices.GasType gasType)
+      {
+         return new PriceSeries(stationId, gasType, Arrays.copyOf(times, size), Arrays.copyOf(prices, size));
+      }
+   }
+}
@@ -0,0 +1,500 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.history;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.Location;
+import de.codengine.tankerkoenig.models.mapper.State;
+import de.codengine.tankerkoenig.models.mapper.Station;
+
+/**
+ * Pre-aggregated hourly and daily rollups of the price history, which answer aggregate queries
+ * without scanning the raw observations.
+ * <p>
+ * The rollups are maintained incrementally as a {@link PriceHistory.ObservationListener}. Every station
+ * and gas type keeps the minimum, maximum, sum and count of every bucket of a tier in a ring, which
+ * retains a fixed count of the latest buckets. Queries group the stations by a {@link Dimension} and
+ * merge the buckets of the stations in parallel on a fork-join pool. The brand, post code and state of a
+ * station are known once the station has been described, e.g. from list.php or detail.php results.
+ * <p>
+ * The average is the mean of the observations, not weighted by the time a price was valid.
+ * The rollups are kept in memory and can be rebuilt from the history by {@link #replay(PriceHistory, Instant, Instant)}.
+ * <p>
+ * A bucket takes 28 bytes and the rings of a tier are allocated in full by the first observation of a
+ * station and gas type. With the default 168 hourly and 90 daily buckets, every observed station and gas
+ * type takes about 7 KB, so all of the roughly 15,000 German stations with three gas types take about 300 MB.
+ * Fewer retained buckets reduce the footprint proportionally.
+ */
+public final class PriceRollups implements PriceHistory.ObservationListener
+{
+   private final static int DEFAULT_HOURLY_BUCKETS = 7 * 24;
+   private final static int DEFAULT_DAILY_BUCKETS = 90;
+   private final static int SPLIT_THRESHOLD = 256;
+   private final static long TOTAL = 0;
+   private final static GasPrices.GasType[] GAS_TYPES = GasPrices.GasType.values();
+   private final static Tier[] TIERS = Tier.values();
+
+   private final int hourlyBuckets;
+   private final int dailyBuckets;
+   private final ZoneId zone;
+   private final ForkJoinPool pool;
+   private final Map<String, StationRollup> stations = new ConcurrentHashMap<>();
+
+   /**
+    * Creates rollups retaining 7 days of hourly and 90 days of daily buckets of German days,
+    * which are queried on the common pool
+    */
+   public PriceRollups()
+   {
+      this(DEFAULT_HOURLY_BUCKETS, DEFAULT_DAILY_BUCKETS, ZoneId.of("Europe/Berlin"), ForkJoinPool.commonPool());
+   }
+
+   /**
+    * @param hourlyBuckets The count of retained hourly buckets
+    * @param dailyBuckets  The count of retained daily buckets
+    * @param zone          The zone of the day boundaries
+    * @param pool          The pool executing the queries
+    */
+   public PriceRollups(final int hourlyBuckets, final int dailyBuckets, final ZoneId zone, final ForkJoinPool pool)
+   {
+      if (hourlyBuckets < 1 || dailyBuckets < 1)
+      {
+         throw new IllegalArgumentException("The counts of buckets have to be at least 1");
+      }
+      if (zone == null || pool == null)
+      {
+         throw new IllegalArgumentException("The zone and the pool must not be null");
+      }
+
+      this.hourlyBuckets = hourlyBuckets;
+      this.dailyBuckets = dailyBuckets;
+      this.zone = zone;
+      this.pool = pool;
+   }
+
+   /**
+    * Records the brand, post code and state of the station, as far as they are known
+    */
+   public void describe(final Station station)
+   {
+      if (station.getId() == null)
+      {
+         return;
+      }
+
+      final Location location = station.getLocation();
+      final String[] groups = new String[Dimension.values().length];
+      groups[Dimension.STATION.ordinal()] = station.getId();
+      groups[Dimension.BRAND.ordinal()] = station.getBrand().filter(brand -> !brand.trim().isEmpty()).orElse(null);
+      if (location != null)
+      {
+         groups[Dimension.POST_CODE.ordinal()] = location.getZipCode() != null ? String.format(Locale.ROOT, "%05d", location.getZipCode()) : null;
+         groups[Dimension.STATE.ordinal()] = location.getState().map(State::name).orElse(null);
+      }
+      rollupOf(station.getId()).groups = groups;
+   }
+
+   /**
+    * Describes the stations
+    *
+    * @see #describe(Station)
+    */
+   public void describeAll(final Collection<Station> stations)
+   {
+      stations.forEach(this::describe);
+   }
+
+   @Override
+   public void onObservation(final String stationId, final GasPrices.GasType gasType, final long epochSecond, final float price)
+   {
+      final int units = PriceBlock.toUnits(price);
+      final StationRollup rollup = rollupOf(stationId);
+      synchronized (rollup)
+      {
+         for (final Tier tier : TIERS)
+         {
+            rollup.ring(gasType, tier, tier == Tier.HOURLY ? hourlyBuckets : dailyBuckets).add(bucketOf(tier, epochSecond), units);
+         }
+      }
+   }
+
+   /**
+    * Feeds the observations of the history within the time range into the rollups. The range must not
+    * overlap observations, which have been received as listener already.
+    *
+    * @return The count of replayed observations
+    */
+   public long replay(final PriceHistory history, final Instant from, final Instant to) throws IOException
+   {
+      long replayed = 0;
+      for (final String stationId : history.getStationIds())
+      {
+         for (final GasPrices.GasType gasType : GAS_TYPES)
+         {
+            final PriceSeries series = history.query(stationId, gasType, from, to);
+            for (int i = 0; i < series.size(); i++)
+            {
+               onObservation(stationId, gasType, series.getEpochSecond(i), series.getPrice(i));
+            }
+            replayed += series.size();
+         }
+      }
+      return replayed;
+   }
+
+   /**
+    * Aggregates the buckets starting within the time range by group
+    *
+    * @param dimension The dimension of the groups, stations which are not described only have a station group
+    * @param gasType   The gas type
+    * @param tier      The tier of the buckets
+    * @param from      The start of the range (inclusive)
+    * @param to        The end of the range (exclusive)
+    * @return The aggregates by group, ordered by group
+    */
+   public NavigableMap<String, PriceAggregate> aggregate(final Dimension dimension, final GasPrices.GasType gasType, final Tier tier,
+         final Instant from, final Instant to)
+   {
+      final NavigableMap<String, PriceAggregate> aggregates = new TreeMap<>();
+      query(dimension, gasType, tier, from, to, false)
+            .forEach((group, buckets) -> aggregates.put(group, buckets.get(TOTAL).toAggregate()));
+      return aggregates;
+   }
+
+   /**
+    * Aggregates every bucket starting within the time range by group
+    *
+    * @return The aggregates by group and bucket start, ordered by group and time
+    * @see #aggregate(Dimension, GasPrices.GasType, Tier, Instant, Instant)
+    */
+   public NavigableMap<String, NavigableMap<Instant, PriceAggregate>> series(final Dimension dimension, final GasPrices.GasType gasType,
+         final Tier tier, final Instant from, final Instant to)
+   {
+      final NavigableMap<String, NavigableMap<Instant, PriceAggregate>> series = new TreeMap<>();
+      query(dimension, gasType, tier, from, to, true).forEach((group, buckets) ->
+      {
+         final NavigableMap<Instant, PriceAggregate> groupSeries = new TreeMap<>();
+         buckets.forEach((bucket, accumulator) -> groupSeries.put(bucketStart(tier, bucket), accumulator.toAggregate()));
+         series.put(group, groupSeries);
+      });
+      return series;
+   }
+
+   /**
+    * Returns the count of stations with rollups or descriptions
+    */
+   public int size()
+   {
+      return stations.size();
+   }
+
+   private Map<String, Map<Long, Accumulator>> query(final Dimension dimension, final GasPrices.GasType gasType, final Tier tier,
+         final Instant from, final Instant to, final boolean perBucket)
+   {
+      if (dimension == null || gasType == null || tier == null || from == null || to == null)
+      {
+         throw new IllegalArgumentException("The dimension, gas type, tier and range must not be null");
+      }
+
+      final long fromBucket = firstBucketFrom(tier, from);
+      final long toBucket = firstBucketFrom(tier, to);
+      if (fromBucket >= toBucket)
+      {
+         return new HashMap<>();
+      }
+
+      final StationRollup[] snapshot = stations.values().toArray(new StationRollup[0]);
+      return pool.invoke(new QueryTask(snapshot, 0, snapshot.length, dimension, gasType, tier, fromBucket, toBucket, perBucket));
+   }
+
+   private StationRollup rollupOf(final String stationId)
+   {
+      return stations.computeIfAbsent(stationId, StationRollup::new);
+   }
+
+   private long bucketOf(final Tier tier, final long epochSecond)
+   {
+      if (tier == Tier.HOURLY)
+      {
+         return Math.floorDiv(epochSecond, 3600);
+      }
+      return Instant.ofEpochSecond(epochSecond).atZone(zone).toLocalDate().toEpochDay();
+   }
+
+   private Instant bucketStart(final Tier tier, final long bucket)
+   {
+      if (tier == Tier.HOURLY)
+      {
+         return Instant.ofEpochSecond(bucket * 3600);
+      }
+      return LocalDate.ofEpochDay(bucket).atStartOfDay(zone).toInstant();
+   }
+
+   /**
+    * Returns the first bucket starting at or after the instant
+    */
+   private long firstBucketFrom(final Tier tier, final Instant instant)
+   {
+      final long bucket = bucketOf(tier, instant.getEpochSecond());
+      return bucketStart(tier, bucket).isBefore(instant) ? bucket + 1 : bucket;
+   }
+
+   /**
+    * The tier of the rollups
+    */
+   public enum Tier
+   {
+      /**
+       * Buckets of one hour
+       */
+      HOURLY,
+      /**
+       * Buckets of one day
+       */
+      DAILY
+   }
+
+   /**
+    * The dimension the stations are grouped by
+    */
+   public enum Dimension
+   {
+      /**
+       * Every station is a group
+       */
+      STATION,
+      /**
+       * Groups by the brand
+       */
+      BRAND,
+      /**
+       * Groups by the five digit post code
+       */
+      POST_CODE,
+      /**
+       * Groups by the name of the {@link de.codengine.tankerkoenig.models.mapper.State}
+       */
+      STATE
+   }
+
+   private static final class StationRollup
+   {
+      private final Ring[] rings = new Ring[GAS_TYPES.length * TIERS.length];
+      private volatile String[] groups;
+
+      private StationRollup(final String stationId)
+      {
+         final String[] stationGroups = new String[Dimension.values().length];
+         stationGroups[Dimension.STATION.ordinal()] = stationId;
+         this.groups = stationGroups;
+      }
+
+      private Ring ring(final GasPrices.GasType gasType, final Tier tier, final int capacity)
+      {
+         final int index = gasType.ordinal() * TIERS.length + tier.ordinal();
+         if (rings[index] == null)
+         {
+            rings[index] = new Ring(capacity);
+         }
+         return rings[index];
+      }
+   }
+
+   /**
+    * The latest buckets of a station, gas type and tier. The prices are stored in tenths of a cent.
+    */
+   private static final class Ring
+   {
+      private final long[] buckets;
+      private final int[] mins;
+      private final int[] maxs;
+      private final long[] sums;
+      private final int[] counts;
+
+      private Ring(final int capacity)
+      {
+         buckets = new long[capacity];
+         Arrays.fill(buckets, Long.MIN_VALUE);
+         mins = new int[capacity];
+         maxs = new int[capacity];
+         sums = new long[capacity];
+         counts = new int[capacity];
+      }
+
+      private void add(final long bucket, final int units)
+      {
+         final int slot = (int) Math.floorMod(bucket, (long) buckets.length);
+         if (buckets[slot] != bucket)
+         {
+            if (bucket < buckets[slot])
+            {
+               // Older than the retained buckets
+               return;
+            }
+            buckets[slot] = bucket;
+            mins[slot] = units;
+            maxs[slot] = units;
+            sums[slot] = 0;
+            counts[slot] = 0;
+         }
+         mins[slot] = Math.min(mins[slot], units);
+         maxs[slot] = Math.max(maxs[slot], units);
+         sums[slot] += units;
+         counts[slot]++;
+      }
+   }
+
+   /**
+    * Merges the buckets of the stations
+    */
+   private static final class Accumulator
+   {
+      private int min = Integer.MAX_VALUE;
+      private int max = Integer.MIN_VALUE;
+      private long sum;
+      private long count;
+
+      private void add(final int bucketMin, final int bucketMax, final long bucketSum, final long bucketCount)
+      {
+         min = Math.min(min, bucketMin);
+         max = Math.max(max, bucketMax);
+         sum += bucketSum;
+         count += bucketCount;
+      }
+
+      private PriceAggregate toAggregate()
+      {
+         return new PriceAggregate(PriceBlock.toPrice(min), PriceBlock.toPrice(max), sum / (double) PriceBlock.toUnits(1), count);
+      }
+   }
+
+   /**
+    * Aggregates a range of stations, splitting it until the range is small enough
+    */
+   private static final class QueryTask extends RecursiveTask<Map<String, Map<Long, Accumulator>>>
+   {
+      private final static long serialVersionUID = 1L;
+
+      private final StationRollup[] stations;
+      private final int start;
+      private final int end;
+      private final Dimension dimension;
+      private final GasPrices.GasType gasType;
+      private final Tier tier;
+      private final long fromBucket;
+      private final long toBucket;
+      private final boolean perBucket;
+
+      private QueryTask(final StationRollup[] stations, final int start, final int end, final Dimension dimension,
+            final GasPrices.GasType gasType, final Tier tier, final long fromBucket, final long toBucket, final boolean perBucket)
+      {
+         this.stations = stations;
+         this.start = start;
+         this.end = end;
+         this.dimension = dimension;
+         this.gasType = gasType;
+         this.tier = tier;
+         this.fromBucket = fromBucket;
+         this.toBucket = toBucket;
+         this.perBucket = perBucket;
+      }
+
+      @Override
+      protected Map<String, Map<Long, Accumulator>> compute()
+      {
+         if (end - start > SPLIT_THRESHOLD)
+         {
+            final int middle = (start + end) >>> 1;
+            final QueryTask left = new QueryTask(stations, start, middle, dimension, gasType, tier, fromBucket, toBucket, perBucket);
+            final QueryTask right = new QueryTask(stations, middle, end, dimension, gasType, tier, fromBucket, toBucket, perBucket);
+            left.fork();
+            return merge(right.compute(), left.join());
+         }
+
+         final Map<String, Map<Long, Accumulator>> groups = new HashMap<>();
+         final int ringIndex = gasType.ordinal() * TIERS.length + tier.ordinal();
+         for (int i = start; i < end; i++)
+         {
+            final StationRollup station = stations[i];
+            final String group = station.groups[dimension.ordinal()];
+            if (group == null)
+            {
+               continue;
+            }
+
+            synchronized (station)
+            {
+               final Ring ring = station.rings[ringIndex];
+               if (ring == null)
+               {
+                  continue;
+               }
+
+               // Only the retained buckets can be within the range
+               final long first = Math.max(fromBucket, toBucket - ring.buckets.length);
+               for (long bucket = first; bucket < toBucket; bucket++)
+               {
+                  final int slot = (int) Math.floorMod(bucket, (long) ring.buckets.length);
+                  if (ring.buckets[slot] == bucket)
+                  {
+                     groups.computeIfAbsent(group, key -> new HashMap<>())
+                           .computeIfAbsent(perBucket ? bucket : TOTAL, key -> new Accumulator())
+                           .add(ring.mins[slot], ring.maxs[slot], ring.sums[slot], ring.counts[slot]);
+                  }
+               }
+            }
+         }
+         return groups;
+      }
+
+      private static Map<String, Map<Long, Accumulator>> merge(final Map<String, Map<Long, Accumulator>> target,
+            final Map<String, Map<Long, Accumulator>> source)
+      {
+         source.forEach((group, buckets) ->
+         {
+            final Map<Long, Accumulator> targetBuckets = target.computeIfAbsent(group, key -> new HashMap<>());
+            buckets.forEach((bucket, accumulator) -> targetBuckets
+                  .computeIfAbsent(bucket, key -> new Accumulator())
+                  .add(accumulator.min, accumulator.max, accumulator.sum, accumulator.count));
+         });
+         return target;
+      }
+   }
+}
@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.history;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+
+/**
+ * The observed prices of a gas type at a station within a time range, ordered by time
+ */
+public final class PriceSeries
+{
+   private final String stationId;
+   private final GasPrices.GasType gasType;
+   private final long[] times;
+   private final float[] prices;
+
+   PriceSeries(final String stationId, final GasPrices.GasType gasType, final long[] times, final float[] prices)
+   {
+      this.stationId = stationId;
+      this.gasType = gasType;
+      this.times = times;
+      this.prices = prices;
+   }
+
+   /**
+    * Returns the ID of the station
+    */
+   public String getStationId()
+   {
+      return stationId;
+   }
+
+   /**
+    * Returns the gas type
+    */
+   public GasPrices.GasType getGasType()
+   {
+      return gasType;
+   }
+
+   /**
+    * Returns the count of observations
+    */
+   public int size()
+   {
+      return times.length;
+   }
+
+   /**
+    * Determines if there are no observations
+    */
+   public boolean isEmpty()
+   {
+      return times.length == 0;
+   }
+
+   /**
+    * Returns the time of the observation, truncated to seconds
+    */
+   public Instant getTime(final int index)
+   {
+      return Instant.ofEpochSecond(times[index]);
+   }
+
+   /**
+    * Returns the time of the observation in epoch seconds
+    */
+   public long getEpochSecond(final int index)
+   {
+      return times[index];
+   }
+
+   /**
+    * Returns the observed price
+    */
+   public float getPrice(final int index)
+   {
+      return prices[index];
+   }
+
+   @Override
+   public String toString()
+   {
+      return "PriceSeries{stationId='" + stationId + "', gasType=" + gasType + ", size=" + times.length
+            + (times.length > 0 ? ", from=" + getTime(0) + ", to=" + getTime(times.length - 1) : "") + "}";
+   }
+
+   @Override
+   public boolean equals(final Object o)
+   {
+      if (this == o)
+         return true;
+      if (o == null || getClass() != o.getClass())
+         return false;
+
+      final PriceSeries that = (PriceSeries) o;
+
+      if (!stationId.equals(that.stationId))
+         return false;
+      if (gasType != that.gasType)
+         return false;
+      if (!Arrays.equals(times, that.times))
+         return false;
+      return Arrays.equals(prices, that.prices);
+   }
+
+   @Override
+   public int hashCode()
+   {
+      int result = stationId.hashCode();
+      result = 31 * result + gasType.hashCode();
+      result = 31 * result + Arrays.hashCode(times);
+      result = 31 * result + Arrays.hashCode(prices);
+      return result;
+   }
+}
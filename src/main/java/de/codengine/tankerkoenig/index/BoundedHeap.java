@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.index;
+
+/**
+ * Keeps the entries with the smallest keys out of a stream of entries, using a max heap of
+ * fixed capacity over primitive arrays. Ties of the key are decided by the secondary key,
+ * then by the smaller value.
+ */
+final class BoundedHeap
+{
+   private final double[] keys;
+   private final double[] secondaryKeys;
+   private final int[] values;
+   private int size;
+
+   BoundedHeap(final int capacity)
+   {
+      if (capacity < 1)
+      {
+         throw new IllegalArgumentException("The capacity has to be at least 1");
+      }
+      keys = new double[capacity];
+      secondaryKeys = new double[capacity];
+      values = new int[capacity];
+   }
+
+   /**
+    * Offers the entry, which is kept if the heap is not full or if it is smaller than the largest entry
+    */
+   void offer(final double key, final double secondaryKey, final int value)
+   {
+      if (size < keys.length)
+      {
+         set(size, key, secondaryKey, value);
+         siftUp(size++);
+      }
+      else if (compare(key, secondaryKey, value, 0) < 0)
+      {
+         set(0, key, secondaryKey, value);
+         siftDown(0);
+      }
+   }
+
+   int size()
+   {
+      return size;
+   }
+
+   /**
+    * Removes all entries and returns their values ordered from the smallest to the largest key
+    */
+   int[] drainAscending()
+   {
+      final int[] sorted = new int[size];
+      while (size > 0)
+      {
+         sorted[size - 1] = values[0];
+         set(0, keys[size - 1], secondaryKeys[size - 1], values[size - 1]);
+         size--;
+         siftDown(0);
+      }
+      return sorted;
+   }
+
+   private void siftUp(int index)
+   {
+      while (index > 0)
+      {
+         final int parent = (index - 1) >>> 1;
+         if (compare(keys[index], secondaryKeys[index], values[index], parent) <= 0)
+         {
+            return;
+         }
+         swap(index, parent);
+         index = parent;
+      }
+   }
+
+   private void siftDown(int index)
+   {
+      while (true)
+      {
+         final int left = 2 * index + 1;
+         if (left >= size)
+         {
+            return;
+         }
+
+         final int right = left + 1;
+         final int larger = right < size && compare(keys[right], secondaryKeys[right], values[right], left) > 0 ? right : left;
+         if (compare(keys[index], secondaryKeys[index], values[index], larger) >= 0)
+         {
+            return;
+         }
+         swap(index, larger);
+         index = larger;
+      }
+   }
+
+   /**
+    * Compares the entry with the entry at the index
+    */
+   private int compare(final double key, final double secondaryKey, final int value, final int index)
+   {
+      int result = Double.compare(key, keys[index]);
+      if (result == 0)
+      {
+         result = Double.compare(secondaryKey, secondaryKeys[index]);
+      }
+      return result != 0 ? result : Integer.compare(value, values[index]);
+   }
+
+   private void set(final int index, final double key, final double secondaryKey, final int value)
+   {
+      keys[index] = key;
+      secondaryKeys[index] = secondaryKey;
+      values[index] = value;
+   }
+
+   private void swap(final int a, final int b)
+   {
+      final double key = keys[a];
+      final double secondaryKey = secondaryKeys[a];
+      final int value = values[a];
+      set(a, keys[b], secondaryKeys[b], values[b]);
+      set(b, key, secondaryKey, value);
+   }
+}
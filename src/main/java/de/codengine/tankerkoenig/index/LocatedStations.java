@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.codengine.tankerkoenig.geo.DistanceKernel;
+import de.codengine.tankerkoenig.models.mapper.Location;
+import de.codengine.tankerkoenig.models.mapper.Station;
+
+/**
+ * Stations with a location together with a {@link DistanceKernel} over their coordinates,
+ * so repeated distance queries against the same stations are cheap
+ */
+public final class LocatedStations
+{
+   private final List<Station> stations;
+   private final DistanceKernel kernel;
+
+   private LocatedStations(final List<Station> stations, final DistanceKernel kernel)
+   {
+      this.stations = stations;
+      this.kernel = kernel;
+   }
+
+   /**
+    * Creates the kernel for the stations, stations without location are left out
+    */
+   public static LocatedStations of(final Iterable<Station> stations)
+   {
+      final List<Station> located = new ArrayList<>();
+      for (final Station station : stations)
+      {
+         if (station.getLocation() != null)
+         {
+            located.add(station);
+         }
+      }
+
+      final double[] lats = new double[located.size()];
+      final double[] lngs = new double[located.size()];
+      for (int i = 0; i < located.size(); i++)
+      {
+         final Location location = located.get(i).getLocation();
+         lats[i] = location.getLat();
+         lngs[i] = location.getLng();
+      }
+      return new LocatedStations(Collections.unmodifiableList(located), DistanceKernel.of(lats, lngs));
+   }
+
+   /**
+    * Returns the stations, in the same order as the coordinates of the kernel
+    */
+   public List<Station> getStations()
+   {
+      return stations;
+   }
+
+   /**
+    * Returns the kernel over the station coordinates
+    */
+   public DistanceKernel getKernel()
+   {
+      return kernel;
+   }
+
+   /**
+    * Returns the number of stations
+    */
+   public int size()
+   {
+      return stations.size();
+   }
+}
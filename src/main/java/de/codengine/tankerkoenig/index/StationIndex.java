@@ -0,0 +1,272 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.index;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import de.codengine.tankerkoenig.geo.GeoGrid;
+import de.codengine.tankerkoenig.geo.GeoUtils;
+import de.codengine.tankerkoenig.models.mapper.Location;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+
+/**
+ * Grid based spatial index of stations, which answers station list queries locally.
+ * <p>
+ * The index is filled with the results of list requests for all gas types. A grid cell is
+ * covered once it lies completely within the search circle of an added result. Queries can only
+ * be answered if every cell intersecting the search circle is covered and was updated within
+ * the maximum age, so the prices are not stale.
+ * <p>
+ * The index is thread safe.
+ */
+public final class StationIndex
+{
+   private final static double DEFAULT_CELL_SIZE = 0.02;
+   private final static double MAX_RADIUS = 25;
+
+   private final Duration maxAge;
+   private final GeoGrid grid;
+   private final Clock clock;
+
+   private final Map<Long, Map<String, Station>> cells = new HashMap<>();
+   private final Map<String, Long> stationCells = new HashMap<>();
+   private final Map<Long, Instant> coveredCells = new HashMap<>();
+   private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+   /**
+    * Creates an index with a cell size of 0.02 degrees
+    *
+    * @param maxAge The maximum age of the prices to answer queries
+    */
+   public StationIndex(final Duration maxAge)
+   {
+      this(maxAge, DEFAULT_CELL_SIZE, Clock.systemUTC());
+   }
+
+   /**
+    * @param maxAge   The maximum age of the prices to answer queries
+    * @param cellSize The edge length of the grid cells in degrees
+    * @param clock    The clock to determine the age of the prices
+    */
+   public StationIndex(final Duration maxAge, final double cellSize, final Clock clock)
+   {
+      if (maxAge == null || maxAge.isNegative())
+      {
+         throw new IllegalArgumentException("The maximum age must not be null or negative");
+      }
+      if (clock == null)
+      {
+         throw new IllegalArgumentException("The clock must not be null");
+      }
+
+      this.maxAge = maxAge;
+      this.grid = GeoGrid.of(cellSize);
+      this.clock = clock;
+   }
+
+   /**
+    * Adds the stations of a list result for all gas types. Stations within the search circle
+    * which are no longer contained in the result are removed.
+    *
+    * @param lat      The latitude of the search center
+    * @param lng      The longitude of the search center
+    * @param radius   The search radius in km
+    * @param stations The stations of the result
+    */
+   public void add(final double lat, final double lng, final double radius, final Collection<Station> stations)
+   {
+      final Instant now = clock.instant();
+      final Set<String> ids = new HashSet<>();
+
+      lock.writeLock().lock();
+      try
+      {
+         for (final Station station : stations)
+         {
+            final Location location = station.getLocation();
+            if (station.getId() == null || location == null)
+            {
+               continue;
+            }
+
+            ids.add(station.getId());
+            remove(station.getId());
+            final long cell = grid.cellOf(location.getLat(), location.getLng());
+            cells.computeIfAbsent(cell, key -> new HashMap<>()).put(station.getId(), station);
+            stationCells.put(station.getId(), cell);
+         }
+
+         for (final long cell : cellsAround(lat, lng, radius))
+         {
+            removeMissing(cell, lat, lng, radius, ids);
+            if (grid.isWithin(cell, lat, lng, radius))
+            {
+               coveredCells.put(cell, now);
+            }
+         }
+      }
+      finally
+      {
+         lock.writeLock().unlock();
+      }
+   }
+
+   /**
+    * Returns the radius a search circle has to be requested and added with, so every cell intersecting
+    * the circle of the supplied radius is covered afterwards. The radius is enlarged by the diagonal of a
+    * cell and capped at the maximum of 25 km, so cells at the border of wider circles stay uncovered.
+    */
+   public double getCoveringRadius(final double radius)
+   {
+      return Math.min(MAX_RADIUS, radius + GeoUtils.distance(0, 0, grid.getCellSize(), grid.getCellSize()));
+   }
+
+   /**
+    * Answers the query, if the search circle is covered by fresh results
+    *
+    * @return The stations as they would be returned by list.php, or empty if the query can not be answered
+    */
+   public Optional<List<Station>> query(final StationListQuery query)
+   {
+      return candidates(query.getLat(), query.getLng(), query.getRadius())
+            .map(candidates -> StationListSelector.select(candidates, query));
+   }
+
+   /**
+    * Creates a ranker for the top-K queries within the search circle, if the circle is covered by
+    * fresh results. The ranker is a snapshot and may contain stations just outside the circle,
+    * so the queries should be limited to the radius.
+    */
+   public Optional<StationRanker> ranker(final double lat, final double lng, final double radius)
+   {
+      return candidates(lat, lng, radius).map(StationRanker::of);
+   }
+
+   private Optional<List<Station>> candidates(final double lat, final double lng, final double radius)
+   {
+      final Instant oldest = clock.instant().minus(maxAge);
+      final List<Station> candidates = new ArrayList<>();
+
+      lock.readLock().lock();
+      try
+      {
+         for (final long cell : cellsAround(lat, lng, radius))
+         {
+            if (!grid.intersects(cell, lat, lng, radius))
+            {
+               continue;
+            }
+
+            final Instant covered = coveredCells.get(cell);
+            if (covered == null || covered.isBefore(oldest))
+            {
+               return Optional.empty();
+            }
+
+            final Map<String, Station> cellStations = cells.get(cell);
+            if (cellStations != null)
+            {
+               candidates.addAll(cellStations.values());
+            }
+         }
+      }
+      finally
+      {
+         lock.readLock().unlock();
+      }
+
+      return Optional.of(candidates);
+   }
+
+   /**
+    * Returns the count of indexed stations
+    */
+   public int size()
+   {
+      lock.readLock().lock();
+      try
+      {
+         return stationCells.size();
+      }
+      finally
+      {
+         lock.readLock().unlock();
+      }
+   }
+
+   private void remove(final String id)
+   {
+      final Long cell = stationCells.remove(id);
+      if (cell != null)
+      {
+         final Map<String, Station> cellStations = cells.get(cell);
+         cellStations.remove(id);
+         if (cellStations.isEmpty())
+         {
+            cells.remove(cell);
+         }
+      }
+   }
+
+   private void removeMissing(final long cell, final double lat, final double lng, final double radius, final Set<String> ids)
+   {
+      final Map<String, Station> cellStations = cells.get(cell);
+      if (cellStations == null)
+      {
+         return;
+      }
+
+      final List<String> missing = new ArrayList<>();
+      for (final Station station : cellStations.values())
+      {
+         final Location location = station.getLocation();
+         if (!ids.contains(station.getId()) && GeoUtils.distance(lat, lng, location.getLat(), location.getLng()) <= radius)
+         {
+            missing.add(station.getId());
+         }
+      }
+      missing.forEach(this::remove);
+   }
+
+   private List<Long> cellsAround(final double lat, final double lng, final double radius)
+   {
+      final List<Long> around = new ArrayList<>();
+      grid.forEachCell(lat, lng, radius, around::add);
+      return around;
+   }
+}
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.index;
+
+import java.util.List;
+import java.util.Optional;
+
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListResolver;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+
+/**
+ * Answers station list requests from a {@link StationIndex}. If the index can not answer a query,
+ * list.php is requested for all gas types in a search circle enlarged by the diagonal of an index cell,
+ * so the result covers every cell of the circle and later queries of the area for any gas type and
+ * sorting can be answered locally.
+ */
+public final class StationIndexResolver implements StationListResolver
+{
+   private final StationIndex index;
+   private volatile StationListResult template;
+
+   public StationIndexResolver(final StationIndex index)
+   {
+      if (index == null)
+      {
+         throw new IllegalArgumentException("The index must not be null");
+      }
+      this.index = index;
+   }
+
+   @Override
+   public StationListResult resolve(final StationListQuery query, final Upstream upstream) throws RequesterException
+   {
+      final StationListResult currentTemplate = template;
+      if (currentTemplate != null)
+      {
+         final Optional<List<Station>> stations = index.query(query);
+         if (stations.isPresent())
+         {
+            return currentTemplate.withStations(stations.get());
+         }
+      }
+
+      final double radius = index.getCoveringRadius(query.getRadius());
+      final StationListResult result = upstream.fetch(query.withArea(query.getLat(), query.getLng(), radius)
+            .withGasRequestType(GasRequestType.ALL));
+      if (!Boolean.TRUE.equals(result.isOk()))
+      {
+         return result;
+      }
+
+      index.add(query.getLat(), query.getLng(), radius, result.getStations());
+      template = result;
+      return result.withStations(StationListSelector.select(result.getStations(), query));
+   }
+
+   /**
+    * Returns the underlying index
+    */
+   public StationIndex getIndex()
+   {
+      return index;
+   }
+}
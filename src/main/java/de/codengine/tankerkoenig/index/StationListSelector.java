@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import de.codengine.tankerkoenig.geo.GeoUtils;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListRequest;
+
+/**
+ * Selects the stations matching a {@link StationListQuery} from a superset of stations with
+ * the semantics of list.php: Stations within the radius, with the distance to the center
+ * (rounded to 0.1 km) and the price of the requested gas type, sorted by distance or price.
+ * Stations without price are sorted last.
+ */
+public final class StationListSelector
+{
+   private final static Comparator<Entry> byDistance = Comparator.comparingDouble((Entry entry) -> entry.distance)
+         .thenComparing(entry -> entry.station.getId(), Comparator.nullsLast(Comparator.naturalOrder()));
+   private final static Comparator<Entry> byPrice = Comparator.comparing((Entry entry) -> entry.station.getPrice().orElse(null),
+         Comparator.nullsLast(Comparator.naturalOrder()))
+         .thenComparing(byDistance);
+
+   private StationListSelector()
+   {
+      throw new UnsupportedOperationException();
+   }
+
+   /**
+    * Selects the stations for the query. The supplied stations must contain all gas prices,
+    * as contained in a result of a list request for all gas types.
+    */
+   public static List<Station> select(final Iterable<Station> stations, final StationListQuery query)
+   {
+      return select(LocatedStations.of(stations), query);
+   }
+
+   /**
+    * Selects the stations for the query using the precomputed distance kernel
+    *
+    * @see #select(Iterable, StationListQuery)
+    */
+   public static List<Station> select(final LocatedStations stations, final StationListQuery query)
+   {
+      final int[] indices = new int[stations.size()];
+      final double[] distances = new double[stations.size()];
+      final int count = stations.getKernel().withinRadius(query.getLat(), query.getLng(), query.getRadius(), indices, distances);
+
+      final List<Entry> entries = new ArrayList<>(count);
+      for (int i = 0; i < count; i++)
+      {
+         final Station station = stations.getStations().get(indices[i]);
+         entries.add(new Entry(station.toListEntry(GeoUtils.roundDistance(distances[i]), query.getGasRequestType()), distances[i]));
+      }
+
+      final boolean sortByPrice = query.getGasRequestType() != GasRequestType.ALL
+            && query.getSorting() == StationListRequest.SortingRequestType.PRICE;
+      entries.sort(sortByPrice ? byPrice : byDistance);
+
+      final List<Station> selected = new ArrayList<>(entries.size());
+      for (final Entry entry : entries)
+      {
+         selected.add(entry.station);
+      }
+      return selected;
+   }
+
+   private static final class Entry
+   {
+      private final Station station;
+      private final double distance;
+
+      private Entry(final Station station, final double distance)
+      {
+         this.station = station;
+         this.distance = distance;
+      }
+   }
+}
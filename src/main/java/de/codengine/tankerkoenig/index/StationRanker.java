@@ -0,0 +1,187 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.codengine.tankerkoenig.geo.GeoUtils;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+
+/**
+ * Answers top-K queries over a set of stations, e.g. the stations of a cached result or of the
+ * {@link StationIndex}: the nearest stations, the cheapest stations for a gas type and the stations
+ * with the lowest price including a distance penalty.
+ * <p>
+ * The prices are copied into primitive columns and only the best K candidates are kept in a
+ * bounded heap, so the candidates are never sorted completely. The returned stations are list
+ * entries with the distance to the supplied position.
+ */
+public final class StationRanker
+{
+   private final LocatedStations stations;
+   private final float[][] prices;
+   private final boolean[] open;
+
+   private StationRanker(final LocatedStations stations, final float[][] prices, final boolean[] open)
+   {
+      this.stations = stations;
+      this.prices = prices;
+      this.open = open;
+   }
+
+   /**
+    * Creates a ranker for the stations, which must contain all gas prices.
+    * Stations without location are left out.
+    */
+   public static StationRanker of(final Iterable<Station> stations)
+   {
+      return of(LocatedStations.of(stations));
+   }
+
+   /**
+    * Creates a ranker for the stations, which must contain all gas prices
+    */
+   public static StationRanker of(final LocatedStations stations)
+   {
+      final GasPrices.GasType[] gasTypes = GasPrices.GasType.values();
+      final float[][] prices = new float[gasTypes.length][stations.size()];
+      final boolean[] open = new boolean[stations.size()];
+      for (int i = 0; i < stations.size(); i++)
+      {
+         final Station station = stations.getStations().get(i);
+         final GasPrices gasPrices = station.getGasPrices().orElse(null);
+         for (final GasPrices.GasType gasType : gasTypes)
+         {
+            prices[gasType.ordinal()][i] = gasPrices == null ? Float.NaN : gasPrices.getPrice(gasType).orElse(Float.NaN);
+         }
+         open[i] = station.isOpen();
+      }
+      return new StationRanker(stations, prices, open);
+   }
+
+   /**
+    * Returns the number of ranked stations
+    */
+   public int size()
+   {
+      return stations.size();
+   }
+
+   /**
+    * Returns the K stations nearest to the position, with all gas prices
+    *
+    * @param k The maximum number of returned stations
+    */
+   public List<Station> nearest(final double lat, final double lng, final int k)
+   {
+      validateCount(k);
+
+      final double[] distances = new double[stations.size()];
+      stations.getKernel().distances(lat, lng, distances);
+
+      final BoundedHeap heap = new BoundedHeap(k);
+      for (int i = 0; i < distances.length; i++)
+      {
+         heap.offer(distances[i], 0, i);
+      }
+      return toListEntries(heap.drainAscending(), distances, GasRequestType.ALL);
+   }
+
+   /**
+    * Returns the K cheapest open stations for the gas type within the radius, ties are
+    * decided by the distance
+    *
+    * @param k The maximum number of returned stations
+    */
+   public List<Station> cheapest(final double lat, final double lng, final double radius, final GasPrices.GasType gasType, final int k)
+   {
+      return lowestCost(lat, lng, radius, gasType, 0, k);
+   }
+
+   /**
+    * Returns the K open stations for the gas type within the radius with the lowest cost,
+    * which is the price plus the distance penalty per km
+    *
+    * @param distancePenalty The penalty per km of distance, e.g. 0.005 for half a cent per km
+    * @param k               The maximum number of returned stations
+    */
+   public List<Station> lowestCost(final double lat, final double lng, final double radius, final GasPrices.GasType gasType,
+         final double distancePenalty, final int k)
+   {
+      if (gasType == null)
+      {
+         throw new IllegalArgumentException("The gas type must not be null");
+      }
+      if (radius <= 0)
+      {
+         throw new IllegalArgumentException("The radius has to be greater than 0");
+      }
+      if (distancePenalty < 0 || Double.isNaN(distancePenalty))
+      {
+         throw new IllegalArgumentException("The distance penalty has to be at least 0");
+      }
+      validateCount(k);
+
+      final int[] candidates = new int[stations.size()];
+      final double[] candidateDistances = new double[stations.size()];
+      final int count = stations.getKernel().withinRadius(lat, lng, radius, candidates, candidateDistances);
+
+      final float[] gasPrices = prices[gasType.ordinal()];
+      final BoundedHeap heap = new BoundedHeap(k);
+      final double[] distances = new double[stations.size()];
+      for (int i = 0; i < count; i++)
+      {
+         final int index = candidates[i];
+         final float price = gasPrices[index];
+         if (open[index] && !Float.isNaN(price))
+         {
+            distances[index] = candidateDistances[i];
+            heap.offer(price + distancePenalty * candidateDistances[i], candidateDistances[i], index);
+         }
+      }
+      return toListEntries(heap.drainAscending(), distances, GasRequestType.valueOf(gasType.name()));
+   }
+
+   private static void validateCount(final int k)
+   {
+      if (k < 1)
+      {
+         throw new IllegalArgumentException("The count has to be at least 1");
+      }
+   }
+
+   private List<Station> toListEntries(final int[] indices, final double[] distances, final GasRequestType gasRequestType)
+   {
+      final List<Station> entries = new ArrayList<>(indices.length);
+      for (final int index : indices)
+      {
+         entries.add(stations.getStations().get(index).toListEntry(GeoUtils.roundDistance(distances[index]), gasRequestType));
+      }
+      return entries;
+   }
+}
@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Streaming adapter for {@link GasPrices} which only maps the gas types of the
+ * supplied {@link Projection} and skips every other value
+ */
+final class GasPricesTypeAdapter extends TypeAdapter<GasPrices>
+{
+   private final Projection projection;
+
+   GasPricesTypeAdapter(final Projection projection)
+   {
+      this.projection = projection;
+   }
+
+   @Override
+   public void write(final JsonWriter out, final GasPrices value) throws IOException
+   {
+      throw new UnsupportedOperationException("Gas prices can only be read");
+   }
+
+   @Override
+   public GasPrices read(final JsonReader in) throws IOException
+   {
+      if (in.peek() == JsonToken.NULL)
+      {
+         in.nextNull();
+         return null;
+      }
+
+      final Map<GasPrices.GasType, Float> prices = new EnumMap<>(GasPrices.GasType.class);
+      GasPrices.Status status = null;
+
+      in.beginObject();
+      while (in.hasNext())
+      {
+         final String name = in.nextName();
+         if ("status".equals(name))
+         {
+            status = JsonReaderUtil.toStatus(JsonReaderUtil.nextString(in));
+            continue;
+         }
+
+         final GasPrices.GasType gasType = toGasType(name);
+         if (gasType != null && projection.includes(gasType))
+         {
+            final Float price = JsonReaderUtil.nextFloat(in);
+            if (price != null)
+            {
+               prices.put(gasType, price);
+            }
+         }
+         else
+         {
+            in.skipValue();
+         }
+      }
+      in.endObject();
+
+      return new GasPrices(Collections.unmodifiableMap(prices), status);
+   }
+
+   static GasPrices.GasType toGasType(final String name)
+   {
+      switch (name)
+      {
+         case "e5":
+            return GasPrices.GasType.E5;
+         case "e10":
+            return GasPrices.GasType.E10;
+         case "diesel":
+            return GasPrices.GasType.DIESEL;
+         default:
+            return null;
+      }
+   }
+}
@@ -24,6 +24,9 @@
 
 package de.codengine.tankerkoenig.models.mapper;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -34,6 +37,7 @@ import com.google.gson.GsonBuilder;
 public final class GsonMapper implements JsonMapper
 {
    private final static Gson gson;
+   private final static Map<Projection, Gson> projectedGson = new ConcurrentHashMap<>();
 
    static
    {
@@ -42,6 +46,7 @@ public final class GsonMapper implements JsonMapper
             .registerTypeAdapter(OpeningTime.class, new OpeningTimeDeserializer())
             .registerTypeAdapter(Station.class, new StationDeserializer())
             .registerTypeAdapter(GasPrices.class, new GasPricesDeserializer())
+            .registerTypeAdapter(StationColumns.class, new StationColumnsTypeAdapter())
             .create();
    }
 
@@ -69,4 +74,36 @@ public final class GsonMapper implements JsonMapper
    {
       return gson.fromJson(json, resultClass);
    }
+
+   /**
+    * Converts the supplied JSON string to the result class. Stations and gas prices are
+    * read by streaming adapters which skip every value that is not part of the projection.
+    *
+    * @param json        The json string
+    * @param resultClass The expected result class
+    * @param projection  The fields to map
+    * @param <T>         The type of the return object
+    * @return Returns the mapped result object
+    */
+   @Override
+   public <T> T fromJson(final String json, final Class<T> resultClass, final Projection projection)
+   {
+      if (projection == null || projection.isComplete())
+      {
+         return fromJson(json, resultClass);
+      }
+
+      return projectedGson.computeIfAbsent(projection, GsonMapper::createProjectedGson)
+            .fromJson(json, resultClass);
+   }
+
+   private static Gson createProjectedGson(final Projection projection)
+   {
+      return new GsonBuilder()
+            .setFieldNamingPolicy(FieldNamingPolicy.IDENTITY)
+            .registerTypeAdapter(Station.class, new StationTypeAdapter(projection))
+            .registerTypeAdapter(GasPrices.class, new GasPricesTypeAdapter(projection))
+            .registerTypeAdapter(StationColumns.class, new StationColumnsTypeAdapter())
+            .create();
+   }
 }
@@ -55,8 +55,17 @@ final class GsonMapperUtil
       return nullSafeGet(JsonElement::getAsBoolean, jObject, key, defaultValue);
    }
 
+   /**
+    * Returns the float value, or the default value if the value is missing, null or a boolean
+    * (the API returns false for unavailable prices)
+    */
    static Float getAsFloat(final JsonObject jObject, final String key, final Float defaultValue)
    {
+      final JsonElement value = jObject.get(key);
+      if (value != null && value.isJsonPrimitive() && value.getAsJsonPrimitive().isBoolean())
+      {
+         return defaultValue;
+      }
       return nullSafeGet(JsonElement::getAsFloat, jObject, key, defaultValue);
    }
 
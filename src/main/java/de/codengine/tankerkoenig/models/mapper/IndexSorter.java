@@ -0,0 +1,191 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+/**
+ * Allocation-free in-place sorting of index arrays by primitive key columns.
+ * NaN keys are sorted last, equal keys are ordered by their position.
+ */
+final class IndexSorter
+{
+   private final static int INSERTION_SORT_THRESHOLD = 16;
+
+   private IndexSorter()
+   {
+      throw new UnsupportedOperationException();
+   }
+
+   static void sort(final int[] index, final int count, final double[] keys)
+   {
+      sort(index, 0, count - 1, keys);
+   }
+
+   static void sort(final int[] index, final int count, final float[] keys)
+   {
+      sort(index, 0, count - 1, keys);
+   }
+
+   private static void sort(final int[] index, int low, int high, final double[] keys)
+   {
+      while (high - low >= INSERTION_SORT_THRESHOLD)
+      {
+         final int pivot = pivot(index, low, high, keys);
+         final double pivotKey = key(keys, pivot);
+         int i = low;
+         int j = high;
+         while (i <= j)
+         {
+            while (less(key(keys, index[i]), index[i], pivotKey, pivot))
+               i++;
+            while (less(pivotKey, pivot, key(keys, index[j]), index[j]))
+               j--;
+            if (i <= j)
+               swap(index, i++, j--);
+         }
+
+         // Recurse into the smaller partition to bound the stack depth
+         if (j - low < high - i)
+         {
+            sort(index, low, j, keys);
+            low = i;
+         }
+         else
+         {
+            sort(index, i, high, keys);
+            high = j;
+         }
+      }
+
+      for (int i = low + 1; i <= high; i++)
+      {
+         final int value = index[i];
+         final double valueKey = key(keys, value);
+         int j = i - 1;
+         while (j >= low && less(valueKey, value, key(keys, index[j]), index[j]))
+         {
+            index[j + 1] = index[j];
+            j--;
+         }
+         index[j + 1] = value;
+      }
+   }
+
+   private static void sort(final int[] index, int low, int high, final float[] keys)
+   {
+      while (high - low >= INSERTION_SORT_THRESHOLD)
+      {
+         final int pivot = pivot(index, low, high, keys);
+         final double pivotKey = key(keys, pivot);
+         int i = low;
+         int j = high;
+         while (i <= j)
+         {
+            while (less(key(keys, index[i]), index[i], pivotKey, pivot))
+               i++;
+            while (less(pivotKey, pivot, key(keys, index[j]), index[j]))
+               j--;
+            if (i <= j)
+               swap(index, i++, j--);
+         }
+
+         if (j - low < high - i)
+         {
+            sort(index, low, j, keys);
+            low = i;
+         }
+         else
+         {
+            sort(index, i, high, keys);
+            high = j;
+         }
+      }
+
+      for (int i = low + 1; i <= high; i++)
+      {
+         final int value = index[i];
+         final double valueKey = key(keys, value);
+         int j = i - 1;
+         while (j >= low && less(valueKey, value, key(keys, index[j]), index[j]))
+         {
+            index[j + 1] = index[j];
+            j--;
+         }
+         index[j + 1] = value;
+      }
+   }
+
+   private static int pivot(final int[] index, final int low, final int high, final double[] keys)
+   {
+      final int a = index[low];
+      final int b = index[(low + high) >>> 1];
+      final int c = index[high];
+      return median(a, key(keys, a), b, key(keys, b), c, key(keys, c));
+   }
+
+   private static int pivot(final int[] index, final int low, final int high, final float[] keys)
+   {
+      final int a = index[low];
+      final int b = index[(low + high) >>> 1];
+      final int c = index[high];
+      return median(a, key(keys, a), b, key(keys, b), c, key(keys, c));
+   }
+
+   private static int median(final int a, final double keyA, final int b, final double keyB, final int c, final double keyC)
+   {
+      if (less(keyA, a, keyB, b))
+      {
+         if (less(keyB, b, keyC, c))
+            return b;
+         return less(keyA, a, keyC, c) ? c : a;
+      }
+      if (less(keyA, a, keyC, c))
+         return a;
+      return less(keyB, b, keyC, c) ? c : b;
+   }
+
+   private static double key(final double[] keys, final int position)
+   {
+      final double key = keys[position];
+      return key != key ? Double.POSITIVE_INFINITY : key;
+   }
+
+   private static double key(final float[] keys, final int position)
+   {
+      final float key = keys[position];
+      return key != key ? Double.POSITIVE_INFINITY : key;
+   }
+
+   private static boolean less(final double keyA, final int a, final double keyB, final int b)
+   {
+      return keyA < keyB || (keyA == keyB && a < b);
+   }
+
+   private static void swap(final int[] index, final int i, final int j)
+   {
+      final int value = index[i];
+      index[i] = index[j];
+      index[j] = value;
+   }
+}
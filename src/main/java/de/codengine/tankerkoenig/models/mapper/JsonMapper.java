@@ -31,4 +31,14 @@ package de.codengine.tankerkoenig.models.mapper;
 public interface JsonMapper
 {
    <T> T fromJson(final String json, final Class<T> resultClass);
+
+   /**
+    * Converts the supplied JSON string to the result class, only mapping the fields
+    * of the supplied {@link Projection}. Mappers which do not support projections
+    * will map every field.
+    */
+   default <T> T fromJson(final String json, final Class<T> resultClass, final Projection projection)
+   {
+      return fromJson(json, resultClass);
+   }
 }
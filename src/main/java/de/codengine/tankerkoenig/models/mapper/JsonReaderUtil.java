@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+import java.io.IOException;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+final class JsonReaderUtil
+{
+   private JsonReaderUtil()
+   {
+      throw new UnsupportedOperationException();
+   }
+
+   static String nextString(final JsonReader reader) throws IOException
+   {
+      final JsonToken token = reader.peek();
+      if (token == JsonToken.NULL)
+      {
+         reader.nextNull();
+         return null;
+      }
+      if (token == JsonToken.BOOLEAN)
+      {
+         return Boolean.toString(reader.nextBoolean());
+      }
+      return reader.nextString();
+   }
+
+   static Boolean nextBoolean(final JsonReader reader) throws IOException
+   {
+      final JsonToken token = reader.peek();
+      if (token == JsonToken.NULL)
+      {
+         reader.nextNull();
+         return null;
+      }
+      if (token == JsonToken.STRING)
+      {
+         return Boolean.parseBoolean(reader.nextString());
+      }
+      return reader.nextBoolean();
+   }
+
+   static Double nextDouble(final JsonReader reader) throws IOException
+   {
+      final String value = nextNumberString(reader);
+      return value == null ? null : Double.valueOf(value);
+   }
+
+   static Float nextFloat(final JsonReader reader) throws IOException
+   {
+      final String value = nextNumberString(reader);
+      return value == null ? null : Float.valueOf(value);
+   }
+
+   static Integer nextInteger(final JsonReader reader) throws IOException
+   {
+      final String value = nextNumberString(reader);
+      return value == null ? null : Integer.valueOf(value);
+   }
+
+   /**
+    * Returns the next number as string, or null if the value is null, a boolean
+    * (the API returns false for unavailable prices) or an empty string
+    */
+   private static String nextNumberString(final JsonReader reader) throws IOException
+   {
+      final JsonToken token = reader.peek();
+      switch (token)
+      {
+         case NULL:
+            reader.nextNull();
+            return null;
+         case BOOLEAN:
+            reader.nextBoolean();
+            return null;
+         case NUMBER:
+         case STRING:
+            final String value = reader.nextString().trim();
+            return value.isEmpty() ? null : value;
+         default:
+            reader.skipValue();
+            return null;
+      }
+   }
+
+   static GasPrices.Status toStatus(final String value)
+   {
+      if (value == null)
+      {
+         return null;
+      }
+
+      switch (value)
+      {
+         case "open":
+            return GasPrices.Status.OPEN;
+         case "closed":
+            return GasPrices.Status.CLOSED;
+         case "not found":
+            return GasPrices.Status.NOT_FOUND;
+         default:
+            return null;
+      }
+   }
+
+   static State toState(final String value)
+   {
+      if (value == null)
+      {
+         return null;
+      }
+
+      for (final State state : State.values())
+      {
+         if (state.name().equals(value))
+         {
+            return state;
+         }
+      }
+      return null;
+   }
+}
@@ -100,6 +100,23 @@ public final class Location
       this.distance = distance;
    }
 
+   /**
+    * Returns a copy of this location with the supplied distance
+    */
+   Location withDistance(final Double distance)
+   {
+      final Location location = new Location();
+      location.lat = lat;
+      location.lng = lng;
+      location.distance = distance;
+      location.streetName = streetName;
+      location.houseNumber = houseNumber;
+      location.zipCode = zipCode;
+      location.city = city;
+      location.state = state;
+      return location;
+   }
+
    /**
     * Returns the street name of the {@link Station}
     */
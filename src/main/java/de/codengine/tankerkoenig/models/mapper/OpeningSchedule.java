@@ -0,0 +1,305 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Evaluates the opening status of a {@link Station} at a given local date time.
+ * <p>
+ * The regular {@link OpeningTime}s and the {@link OpeningTimeOverride}s are compiled once into
+ * primitive interval tables, so evaluating the status does not involve any string parsing.
+ * <p>
+ * Overrides take precedence over "whole day" which takes precedence over the regular opening times.
+ * As no holiday calendar is available, holidays are treated like regular days of the week.
+ */
+public final class OpeningSchedule
+{
+   private final static int MINUTES_PER_DAY = 24 * 60;
+   private final static int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+   private final boolean wholeDay;
+   private final int[] weeklyStarts;
+   private final int[] weeklyEnds;
+   private final long[] overrideStarts;
+   private final long[] overrideEnds;
+   private final boolean[] overrideOpen;
+
+   private OpeningSchedule(final boolean wholeDay, final int[] weeklyStarts, final int[] weeklyEnds,
+         final long[] overrideStarts, final long[] overrideEnds, final boolean[] overrideOpen)
+   {
+      this.wholeDay = wholeDay;
+      this.weeklyStarts = weeklyStarts;
+      this.weeklyEnds = weeklyEnds;
+      this.overrideStarts = overrideStarts;
+      this.overrideEnds = overrideEnds;
+      this.overrideOpen = overrideOpen;
+   }
+
+   /**
+    * Compiles the schedule. Opening times which could not be parsed (no days or unparsable times)
+    * are ignored.
+    */
+   static OpeningSchedule of(final Boolean wholeDay, final List<OpeningTime> openingTimes, final List<OpeningTimeOverride> overrides)
+   {
+      final List<int[]> intervals = new ArrayList<>();
+      if (openingTimes != null)
+      {
+         openingTimes.forEach(openingTime -> addWeeklyIntervals(openingTime, intervals));
+      }
+      final List<int[]> merged = mergeIntervals(intervals);
+
+      final int[] weeklyStarts = new int[merged.size()];
+      final int[] weeklyEnds = new int[merged.size()];
+      for (int i = 0; i < merged.size(); i++)
+      {
+         weeklyStarts[i] = merged.get(i)[0];
+         weeklyEnds[i] = merged.get(i)[1];
+      }
+
+      final List<OpeningTimeOverride> sortedOverrides = overrides == null ? Collections.emptyList() : new ArrayList<>(overrides);
+      sortedOverrides.sort(Comparator.comparing(OpeningTimeOverride::getStart));
+
+      final long[] overrideStarts = new long[sortedOverrides.size()];
+      final long[] overrideEnds = new long[sortedOverrides.size()];
+      final boolean[] overrideOpen = new boolean[sortedOverrides.size()];
+      for (int i = 0; i < sortedOverrides.size(); i++)
+      {
+         final OpeningTimeOverride override = sortedOverrides.get(i);
+         overrideStarts[i] = toLocalSeconds(override.getStart());
+         overrideEnds[i] = toLocalSeconds(override.getEnd());
+         overrideOpen[i] = override.isOpen();
+      }
+
+      return new OpeningSchedule(wholeDay != null && wholeDay, weeklyStarts, weeklyEnds, overrideStarts, overrideEnds, overrideOpen);
+   }
+
+   /**
+    * Returns the opening status at the supplied local date time (Europe/Berlin)
+    */
+   public Status getStatus(final LocalDateTime dateTime)
+   {
+      final long seconds = toLocalSeconds(dateTime);
+      for (int i = 0; i < overrideStarts.length && overrideStarts[i] <= seconds; i++)
+      {
+         if (seconds < overrideEnds[i])
+         {
+            return overrideOpen[i] ? Status.OPEN : Status.CLOSED;
+         }
+      }
+
+      if (wholeDay)
+      {
+         return Status.OPEN;
+      }
+
+      if (weeklyStarts.length == 0)
+      {
+         return Status.UNKNOWN;
+      }
+
+      final int minuteOfWeek = minuteOfWeek(dateTime);
+      int index = Arrays.binarySearch(weeklyStarts, minuteOfWeek);
+      if (index < 0)
+      {
+         index = -index - 2;
+      }
+      return index >= 0 && minuteOfWeek < weeklyEnds[index] ? Status.OPEN : Status.CLOSED;
+   }
+
+   /**
+    * Determines if the station is opened at the supplied local date time (Europe/Berlin).
+    * An unknown status is treated as closed.
+    */
+   public boolean isOpen(final LocalDateTime dateTime)
+   {
+      return getStatus(dateTime) == Status.OPEN;
+   }
+
+   /**
+    * Returns the first local date time (Europe/Berlin) after the supplied one, at which the station is not
+    * closed, i.e. opened or with an unknown status. As the status only changes at the bounds of the opening
+    * times and overrides, only these bounds are evaluated.
+    *
+    * @param from  The local date time to search from (exclusive)
+    * @param until The local date time to search to (inclusive)
+    * @return The local date time or empty if the station is closed until then
+    */
+   public Optional<LocalDateTime> nextNotClosed(final LocalDateTime from, final LocalDateTime until)
+   {
+      final long fromSeconds = toLocalSeconds(from);
+      final long untilSeconds = toLocalSeconds(until);
+      final List<Long> bounds = new ArrayList<>();
+      for (int i = 0; i < overrideStarts.length; i++)
+      {
+         bounds.add(overrideStarts[i]);
+         bounds.add(overrideEnds[i]);
+      }
+      if (!wholeDay)
+      {
+         final LocalDateTime firstWeek = from.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+         for (long week = toLocalSeconds(firstWeek); week <= untilSeconds; week += MINUTES_PER_WEEK * 60L)
+         {
+            for (int i = 0; i < weeklyStarts.length; i++)
+            {
+               bounds.add(week + weeklyStarts[i] * 60L);
+               bounds.add(week + weeklyEnds[i] * 60L);
+            }
+         }
+      }
+      Collections.sort(bounds);
+
+      for (final long bound : bounds)
+      {
+         if (bound > fromSeconds && bound <= untilSeconds)
+         {
+            final LocalDateTime dateTime = LocalDateTime.ofEpochSecond(bound, 0, ZoneOffset.UTC);
+            if (getStatus(dateTime) != Status.CLOSED)
+            {
+               return Optional.of(dateTime);
+            }
+         }
+      }
+      return Optional.empty();
+   }
+
+   private static void addWeeklyIntervals(final OpeningTime openingTime, final List<int[]> intervals)
+   {
+      final Set<DayOfWeek> days = openingTime.getDays().orElse(null);
+      final int start = parseMinuteOfDay(openingTime.getStart(), false);
+      final int end = parseMinuteOfDay(openingTime.getEnd(), true);
+      if (days == null || start < 0 || end < 0)
+      {
+         return;
+      }
+
+      for (final DayOfWeek day : days)
+      {
+         final int dayOffset = (day.getValue() - 1) * MINUTES_PER_DAY;
+         if (end > start)
+         {
+            intervals.add(new int[]{dayOffset + start, dayOffset + end});
+         }
+         else
+         {
+            // Opened over midnight, which might also wrap around the end of the week
+            intervals.add(new int[]{dayOffset + start, dayOffset + MINUTES_PER_DAY});
+            final int nextDayOffset = (dayOffset + MINUTES_PER_DAY) % MINUTES_PER_WEEK;
+            if (end > 0)
+            {
+               intervals.add(new int[]{nextDayOffset, nextDayOffset + end});
+            }
+         }
+      }
+   }
+
+   private static List<int[]> mergeIntervals(final List<int[]> intervals)
+   {
+      intervals.sort(Comparator.comparingInt(interval -> interval[0]));
+      final List<int[]> merged = new ArrayList<>();
+      for (final int[] interval : intervals)
+      {
+         final int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+         if (last != null && interval[0] <= last[1])
+         {
+            last[1] = Math.max(last[1], interval[1]);
+         }
+         else
+         {
+            merged.add(new int[]{interval[0], interval[1]});
+         }
+      }
+      return merged;
+   }
+
+   /**
+    * Parses a time of the format HH:mm[:ss] into the minute of the day. An end of 23:59 or 24:00
+    * is treated as the end of the day. Returns -1 if the time could not be parsed.
+    */
+   static int parseMinuteOfDay(final String time, final boolean isEnd)
+   {
+      if (time == null || time.isEmpty())
+      {
+         return -1;
+      }
+
+      if (time.startsWith("24:00"))
+      {
+         return MINUTES_PER_DAY;
+      }
+
+      try
+      {
+         final LocalTime localTime = LocalTime.parse(time);
+         final int minuteOfDay = localTime.getHour() * 60 + localTime.getMinute();
+         return isEnd && minuteOfDay == MINUTES_PER_DAY - 1 ? MINUTES_PER_DAY : minuteOfDay;
+      }
+      catch (DateTimeParseException e)
+      {
+         return -1;
+      }
+   }
+
+   private static int minuteOfWeek(final LocalDateTime dateTime)
+   {
+      return (dateTime.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY + dateTime.getHour() * 60 + dateTime.getMinute();
+   }
+
+   private static long toLocalSeconds(final LocalDateTime dateTime)
+   {
+      return dateTime.toEpochSecond(ZoneOffset.UTC);
+   }
+
+   /**
+    * The evaluated opening status
+    */
+   public enum Status
+   {
+      /**
+       * The station is opened
+       */
+      OPEN,
+      /**
+       * The station is closed
+       */
+      CLOSED,
+      /**
+       * There is not enough information to determine the status
+       */
+      UNKNOWN
+   }
+}
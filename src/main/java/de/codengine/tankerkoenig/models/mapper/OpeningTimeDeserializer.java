@@ -55,6 +55,11 @@ final class OpeningTimeDeserializer implements JsonDeserializer<OpeningTime>
       final String end = getAsString(jObject, "end");
       final String text = getAsString(jObject, "text");
 
+      return createOpeningTime(text, start, end);
+   }
+
+   static OpeningTime createOpeningTime(final String text, final String start, final String end)
+   {
       Set<DayOfWeekWithHoliday> days = null;
       boolean includesHolidays = false;
 
@@ -0,0 +1,181 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Represents a temporary change of the opening times of a {@link Station}, which
+ * is parsed from the overriding opening times, e.g.
+ * "13.01.2016, 08:00:00 - 13.01.2016, 19:00:00: geöffnet"
+ * <p>
+ * Start and end are local date times (Europe/Berlin) as delivered by the API.
+ */
+public final class OpeningTimeOverride
+{
+   private final static Pattern overridePattern = Pattern.compile(
+         "\\s*(\\d{1,2}\\.\\d{1,2}\\.\\d{4}),\\s*(\\d{1,2}:\\d{2}(?::\\d{2})?)\\s*-\\s*(\\d{1,2}\\.\\d{1,2}\\.\\d{4}),\\s*(\\d{1,2}:\\d{2}(?::\\d{2})?)\\s*:\\s*(.*)");
+   private final static DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("d.M.yyyy H:mm[:ss]");
+
+   private final String text;
+   private final LocalDateTime start;
+   private final LocalDateTime end;
+   private final boolean open;
+
+   OpeningTimeOverride(final String text, final LocalDateTime start, final LocalDateTime end, final boolean open)
+   {
+      this.text = text;
+      this.start = start;
+      this.end = end;
+      this.open = open;
+   }
+
+   /**
+    * Parses an overriding opening time. Returns an empty optional if the text does not
+    * match the expected structure or contains an unknown status
+    */
+   static Optional<OpeningTimeOverride> parse(final String text)
+   {
+      if (text == null)
+      {
+         return Optional.empty();
+      }
+
+      final Matcher matcher = overridePattern.matcher(text);
+      if (!matcher.matches())
+      {
+         return Optional.empty();
+      }
+
+      final Boolean open = parseStatus(matcher.group(5));
+      if (open == null)
+      {
+         return Optional.empty();
+      }
+
+      try
+      {
+         final LocalDateTime start = LocalDateTime.parse(matcher.group(1) + " " + matcher.group(2), dateTimeFormatter);
+         final LocalDateTime end = LocalDateTime.parse(matcher.group(3) + " " + matcher.group(4), dateTimeFormatter);
+         if (end.isBefore(start))
+         {
+            return Optional.empty();
+         }
+         return Optional.of(new OpeningTimeOverride(text, start, end, open));
+      }
+      catch (DateTimeParseException e)
+      {
+         return Optional.empty();
+      }
+   }
+
+   private static Boolean parseStatus(final String status)
+   {
+      final String normalized = status.trim().toLowerCase();
+      if (normalized.startsWith("geöffnet") || normalized.startsWith("geoeffnet") || normalized.startsWith("offen"))
+      {
+         return true;
+      }
+      if (normalized.startsWith("geschlossen"))
+      {
+         return false;
+      }
+      return null;
+   }
+
+   /**
+    * Returns the original string of the overriding opening time
+    */
+   public String getText()
+   {
+      return text;
+   }
+
+   /**
+    * Returns the local date time the override starts at (inclusive)
+    */
+   public LocalDateTime getStart()
+   {
+      return start;
+   }
+
+   /**
+    * Returns the local date time the override ends at (exclusive)
+    */
+   public LocalDateTime getEnd()
+   {
+      return end;
+   }
+
+   /**
+    * Determines if the station is opened (true) or closed (false) during the override
+    */
+   public boolean isOpen()
+   {
+      return open;
+   }
+
+   /**
+    * Determines if the supplied local date time lies within the override
+    */
+   public boolean covers(final LocalDateTime dateTime)
+   {
+      return !dateTime.isBefore(start) && dateTime.isBefore(end);
+   }
+
+   @Override
+   public boolean equals(final Object o)
+   {
+      if (this == o)
+         return true;
+      if (o == null || getClass() != o.getClass())
+         return false;
+
+      final OpeningTimeOverride that = (OpeningTimeOverride) o;
+
+      if (isOpen() != that.isOpen())
+         return false;
+      if (getText() != null ? !getText().equals(that.getText()) : that.getText() != null)
+         return false;
+      if (getStart() != null ? !getStart().equals(that.getStart()) : that.getStart() != null)
+         return false;
+      return getEnd() != null ? getEnd().equals(that.getEnd()) : that.getEnd() == null;
+   }
+
+   @Override
+   public int hashCode()
+   {
+      int result = getText() != null ? getText().hashCode() : 0;
+      result = 31 * result + (getStart() != null ? getStart().hashCode() : 0);
+      result = 31 * result + (getEnd() != null ? getEnd().hashCode() : 0);
+      result = 31 * result + Boolean.hashCode(isOpen());
+      return result;
+   }
+}
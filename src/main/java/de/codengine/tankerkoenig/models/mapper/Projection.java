@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Defines which fields of a response should be mapped. Fields which are not part of
+ * the projection are skipped by the mapper without being materialized and will be
+ * unavailable at the resulting objects.
+ * <p>
+ * For {@link Station}s, the {@link StationField}s define the mapped fields. For {@link GasPrices},
+ * only the selected {@link GasPrices.GasType}s will be mapped, the status is always available.
+ */
+public final class Projection
+{
+   /**
+    * The complete projection, which maps every available field
+    */
+   public final static Projection ALL = new Projection(EnumSet.allOf(StationField.class), EnumSet.allOf(GasPrices.GasType.class));
+
+   private final EnumSet<StationField> fields;
+   private final EnumSet<GasPrices.GasType> gasTypes;
+
+   private Projection(final EnumSet<StationField> fields, final EnumSet<GasPrices.GasType> gasTypes)
+   {
+      this.fields = fields;
+      this.gasTypes = gasTypes;
+   }
+
+   /**
+    * Creates a projection of the supplied station fields including all gas types
+    */
+   public static Projection of(final StationField... fields)
+   {
+      final EnumSet<StationField> fieldSet = EnumSet.noneOf(StationField.class);
+      fieldSet.addAll(Arrays.asList(fields));
+      return new Projection(fieldSet, EnumSet.allOf(GasPrices.GasType.class));
+   }
+
+   /**
+    * Returns a copy of this projection which only includes the supplied gas types
+    */
+   public Projection withGasTypes(final GasPrices.GasType... gasTypes)
+   {
+      final EnumSet<GasPrices.GasType> gasTypeSet = EnumSet.noneOf(GasPrices.GasType.class);
+      gasTypeSet.addAll(Arrays.asList(gasTypes));
+      return new Projection(EnumSet.copyOf(fields), gasTypeSet);
+   }
+
+   /**
+    * Determines if the station field is part of the projection
+    */
+   public boolean includes(final StationField field)
+   {
+      return fields.contains(field);
+   }
+
+   /**
+    * Determines if the gas type is part of the projection
+    */
+   public boolean includes(final GasPrices.GasType gasType)
+   {
+      return gasTypes.contains(gasType);
+   }
+
+   /**
+    * Returns the unmodifyable set of projected station fields
+    */
+   public Set<StationField> getFields()
+   {
+      return Collections.unmodifiableSet(fields);
+   }
+
+   /**
+    * Returns the unmodifyable set of projected gas types
+    */
+   public Set<GasPrices.GasType> getGasTypes()
+   {
+      return Collections.unmodifiableSet(gasTypes);
+   }
+
+   /**
+    * Determines if every field is part of the projection
+    */
+   public boolean isComplete()
+   {
+      return fields.size() == StationField.values().length && gasTypes.size() == GasPrices.GasType.values().length;
+   }
+
+   @Override
+   public boolean equals(final Object o)
+   {
+      if (this == o)
+         return true;
+      if (o == null || getClass() != o.getClass())
+         return false;
+
+      final Projection that = (Projection) o;
+
+      return fields.equals(that.fields) && gasTypes.equals(that.gasTypes);
+   }
+
+   @Override
+   public int hashCode()
+   {
+      return 31 * fields.hashCode() + gasTypes.hashCode();
+   }
+}
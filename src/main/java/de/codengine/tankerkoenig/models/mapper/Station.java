@@ -58,6 +58,8 @@ public final class Station
 
    private List<OpeningTime> openingTimes;
    private List<String> overridingOpeningTimes;
+   private List<OpeningTimeOverride> openingTimeOverrides;
+   private OpeningSchedule openingSchedule;
    private Boolean wholeDay;
 
    Station()
@@ -194,6 +196,43 @@ public final class Station
       this.overridingOpeningTimes = overridingOpeningTimes;
    }
 
+   /**
+    * Returns an unmodifyable list of the overriding opening times which could be parsed
+    * into structured date time intervals. Unparsable overrides are only available
+    * as raw strings at {@link #getOverridingOpeningTimes()}
+    * <p>
+    * Will only be available with {@link StationDetailResult}
+    */
+   public Optional<List<OpeningTimeOverride>> getOpeningTimeOverrides()
+   {
+      if (openingTimeOverrides == null || openingTimeOverrides.isEmpty())
+      {
+         return Optional.empty();
+      }
+      return Optional.of(openingTimeOverrides);
+   }
+
+   void setOpeningTimeOverrides(final List<OpeningTimeOverride> openingTimeOverrides)
+   {
+      this.openingTimeOverrides = openingTimeOverrides;
+   }
+
+   /**
+    * Returns the precompiled opening schedule, which merges the opening times, the whole day flag
+    * and the overrides and evaluates the opening status for any local date time.
+    * <p>
+    * Will only be available with {@link StationDetailResult}
+    */
+   public Optional<OpeningSchedule> getOpeningSchedule()
+   {
+      return Optional.ofNullable(openingSchedule);
+   }
+
+   void setOpeningSchedule(final OpeningSchedule openingSchedule)
+   {
+      this.openingSchedule = openingSchedule;
+   }
+
    /**
     * Defines if the station is opened the whole day.
     * Not Present is equivalent to "false"
@@ -223,6 +262,40 @@ public final class Station
       this.price = price;
    }
 
+   /**
+    * Creates a copy of this station as it would be contained in the result of a {@link StationListRequest}
+    * with the supplied distance and gas request type. For a specific gas type, the price is taken
+    * from the gas prices of this station.
+    *
+    * @param distance       The distance to the search center in km
+    * @param gasRequestType The requested gas type
+    */
+   public Station toListEntry(final double distance, final GasRequestType gasRequestType)
+   {
+      final Station station = new Station();
+      station.id = id;
+      station.name = name;
+      station.location = location != null ? location.withDistance(distance) : null;
+      station.brand = brand;
+      station.isOpen = isOpen;
+      station.openingTimes = openingTimes;
+      station.overridingOpeningTimes = overridingOpeningTimes;
+      station.openingTimeOverrides = openingTimeOverrides;
+      station.openingSchedule = openingSchedule;
+      station.wholeDay = wholeDay;
+
+      if (gasRequestType == GasRequestType.ALL)
+      {
+         station.gasPrices = gasPrices;
+      }
+      else
+      {
+         final GasPrices.GasType gasType = GasPrices.GasType.valueOf(gasRequestType.name());
+         station.price = gasPrices != null ? gasPrices.getPrice(gasType).orElse(null) : null;
+      }
+      return station;
+   }
+
    @Override
    public boolean equals(final Object o)
    {
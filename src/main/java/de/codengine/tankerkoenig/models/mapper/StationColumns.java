@@ -0,0 +1,228 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+import de.codengine.tankerkoenig.geo.GeoUtils;
+
+/**
+ * Struct-of-arrays view of a station list, which is produced directly by the mapper
+ * without creating {@link Station} objects.
+ * <p>
+ * The station at position i is described by the i-th element of every column. Unavailable
+ * numeric values are represented by NaN. The arrays returned by the getters are the
+ * internal columns and must not be modified.
+ * <p>
+ * Filtering and sorting operate on index arrays supplied by the caller (see {@link #newIndex()}),
+ * which are modified in place, so no allocation is needed for ranking.
+ */
+public final class StationColumns
+{
+   private final int size;
+   private final String[] ids;
+   private final double[] latitudes;
+   private final double[] longitudes;
+   private final double[] distances;
+   private final float[] prices;
+   private final float[][] gasPrices;
+   private final boolean[] open;
+
+   StationColumns(final int size, final String[] ids, final double[] latitudes, final double[] longitudes, final double[] distances,
+         final float[] prices, final float[][] gasPrices, final boolean[] open)
+   {
+      this.size = size;
+      this.ids = ids;
+      this.latitudes = latitudes;
+      this.longitudes = longitudes;
+      this.distances = distances;
+      this.prices = prices;
+      this.gasPrices = gasPrices;
+      this.open = open;
+   }
+
+   /**
+    * Returns empty columns
+    */
+   public static StationColumns empty()
+   {
+      final float[][] gasPrices = new float[GasPrices.GasType.values().length][0];
+      return new StationColumns(0, new String[0], new double[0], new double[0], new double[0], new float[0], gasPrices, new boolean[0]);
+   }
+
+   /**
+    * Returns the count of stations
+    */
+   public int size()
+   {
+      return size;
+   }
+
+   /**
+    * Returns the station ID column
+    */
+   public String[] getIds()
+   {
+      return ids;
+   }
+
+   /**
+    * Returns the latitude column
+    */
+   public double[] getLatitudes()
+   {
+      return latitudes;
+   }
+
+   /**
+    * Returns the longitude column
+    */
+   public double[] getLongitudes()
+   {
+      return longitudes;
+   }
+
+   /**
+    * Returns the column of distances to the search center in km
+    */
+   public double[] getDistances()
+   {
+      return distances;
+   }
+
+   /**
+    * Returns the column of prices for the requested gas type, which is only
+    * filled if a specific gas type was requested
+    */
+   public float[] getPrices()
+   {
+      return prices;
+   }
+
+   /**
+    * Returns the price column for the gas type, which is only filled
+    * if all gas types were requested
+    */
+   public float[] getPrices(final GasPrices.GasType gasType)
+   {
+      return gasPrices[gasType.ordinal()];
+   }
+
+   /**
+    * Returns the column of open flags
+    */
+   public boolean[] getOpenFlags()
+   {
+      return open;
+   }
+
+   /**
+    * Creates an index array containing the positions 0 to size - 1
+    */
+   public int[] newIndex()
+   {
+      final int[] index = new int[size];
+      for (int i = 0; i < size; i++)
+      {
+         index[i] = i;
+      }
+      return index;
+   }
+
+   /**
+    * Keeps only the open stations of the first count entries of the index
+    *
+    * @return The count of remaining entries, which are moved to the front of the index
+    */
+   public int filterOpen(final int[] index, final int count)
+   {
+      int kept = 0;
+      for (int i = 0; i < count; i++)
+      {
+         final int position = index[i];
+         if (open[position])
+         {
+            index[kept++] = position;
+         }
+      }
+      return kept;
+   }
+
+   /**
+    * Keeps only the stations whose price for the column is available and not above the maximum price
+    *
+    * @param column   The price column, e.g. {@link #getPrices(GasPrices.GasType)}
+    * @param maxPrice The maximum price, use {@link Float#POSITIVE_INFINITY} to keep every available price
+    * @return The count of remaining entries, which are moved to the front of the index
+    */
+   public int filterMaxPrice(final float[] column, final float maxPrice, final int[] index, final int count)
+   {
+      int kept = 0;
+      for (int i = 0; i < count; i++)
+      {
+         final int position = index[i];
+         if (column[position] <= maxPrice)
+         {
+            index[kept++] = position;
+         }
+      }
+      return kept;
+   }
+
+   /**
+    * Keeps only the stations within the radius around the supplied center
+    *
+    * @return The count of remaining entries, which are moved to the front of the index
+    */
+   public int filterWithinRadius(final double lat, final double lng, final double radiusKm, final int[] index, final int count)
+   {
+      int kept = 0;
+      for (int i = 0; i < count; i++)
+      {
+         final int position = index[i];
+         if (GeoUtils.distance(lat, lng, latitudes[position], longitudes[position]) <= radiusKm)
+         {
+            index[kept++] = position;
+         }
+      }
+      return kept;
+   }
+
+   /**
+    * Sorts the first count entries of the index by distance, unavailable distances last
+    */
+   public void sortByDistance(final int[] index, final int count)
+   {
+      IndexSorter.sort(index, count, distances);
+   }
+
+   /**
+    * Sorts the first count entries of the index by the price column, unavailable prices last
+    *
+    * @param column The price column, e.g. {@link #getPrices(GasPrices.GasType)}
+    */
+   public void sortByPrice(final float[] column, final int[] index, final int count)
+   {
+      IndexSorter.sort(index, count, column);
+   }
+}
@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Streaming adapter which reads a station list array directly into {@link StationColumns}
+ */
+final class StationColumnsTypeAdapter extends TypeAdapter<StationColumns>
+{
+   private final static int INITIAL_CAPACITY = 16;
+
+   @Override
+   public void write(final JsonWriter out, final StationColumns value) throws IOException
+   {
+      throw new UnsupportedOperationException("Station columns can only be read");
+   }
+
+   @Override
+   public StationColumns read(final JsonReader in) throws IOException
+   {
+      if (in.peek() == JsonToken.NULL)
+      {
+         in.nextNull();
+         return null;
+      }
+
+      final int gasTypeCount = GasPrices.GasType.values().length;
+      int capacity = INITIAL_CAPACITY;
+      String[] ids = new String[capacity];
+      double[] latitudes = new double[capacity];
+      double[] longitudes = new double[capacity];
+      double[] distances = new double[capacity];
+      float[] prices = new float[capacity];
+      float[][] gasPrices = new float[gasTypeCount][capacity];
+      boolean[] open = new boolean[capacity];
+      int size = 0;
+
+      in.beginArray();
+      while (in.hasNext())
+      {
+         if (size == capacity)
+         {
+            capacity *= 2;
+            ids = Arrays.copyOf(ids, capacity);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            distances = Arrays.copyOf(distances, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            for (int type = 0; type < gasTypeCount; type++)
+            {
+               gasPrices[type] = Arrays.copyOf(gasPrices[type], capacity);
+            }
+            open = Arrays.copyOf(open, capacity);
+         }
+
+         latitudes[size] = Double.NaN;
+         longitudes[size] = Double.NaN;
+         distances[size] = Double.NaN;
+         prices[size] = Float.NaN;
+         for (int type = 0; type < gasTypeCount; type++)
+         {
+            gasPrices[type][size] = Float.NaN;
+         }
+         open[size] = false;
+
+         in.beginObject();
+         while (in.hasNext())
+         {
+            final String name = in.nextName();
+            switch (name)
+            {
+               case "id":
+                  ids[size] = JsonReaderUtil.nextString(in);
+                  break;
+               case "lat":
+                  latitudes[size] = nextDouble(in);
+                  break;
+               case "lng":
+                  longitudes[size] = nextDouble(in);
+                  break;
+               case "dist":
+                  distances[size] = nextDouble(in);
+                  break;
+               case "price":
+                  prices[size] = nextFloat(in);
+                  break;
+               case "isOpen":
+                  final Boolean isOpen = JsonReaderUtil.nextBoolean(in);
+                  open[size] = isOpen != null && isOpen;
+                  break;
+               default:
+                  final GasPrices.GasType gasType = GasPricesTypeAdapter.toGasType(name);
+                  if (gasType != null)
+                  {
+                     gasPrices[gasType.ordinal()][size] = nextFloat(in);
+                  }
+                  else
+                  {
+                     in.skipValue();
+                  }
+            }
+         }
+         in.endObject();
+         size++;
+      }
+      in.endArray();
+
+      final float[][] trimmedGasPrices = new float[gasTypeCount][];
+      for (int type = 0; type < gasTypeCount; type++)
+      {
+         trimmedGasPrices[type] = Arrays.copyOf(gasPrices[type], size);
+      }
+
+      return new StationColumns(size, Arrays.copyOf(ids, size), Arrays.copyOf(latitudes, size), Arrays.copyOf(longitudes, size),
+            Arrays.copyOf(distances, size), Arrays.copyOf(prices, size), trimmedGasPrices, Arrays.copyOf(open, size));
+   }
+
+   private static double nextDouble(final JsonReader in) throws IOException
+   {
+      final Double value = JsonReaderUtil.nextDouble(in);
+      return value == null ? Double.NaN : value;
+   }
+
+   private static float nextFloat(final JsonReader in) throws IOException
+   {
+      final Float value = JsonReaderUtil.nextFloat(in);
+      return value == null ? Float.NaN : value;
+   }
+}
@@ -69,12 +69,43 @@ final class StationDeserializer implements JsonDeserializer<Station>
       }
 
       final List<String> overridesList = mapOverrides(context, jObject);
+      applyOverrides(station, overridesList);
+      applyOpeningSchedule(station);
+
+      return station;
+   }
+
+   static void applyOverrides(final Station station, final List<String> overridesList)
+   {
       if (overridesList != null && !overridesList.isEmpty())
       {
          station.setOverridingOpeningTimes(Collections.unmodifiableList(overridesList));
+         station.setOpeningTimeOverrides(Collections.unmodifiableList(parseOverrides(overridesList)));
       }
+   }
 
-      return station;
+   static void applyOpeningSchedule(final Station station)
+   {
+      if (hasScheduleInformation(station))
+      {
+         station.setOpeningSchedule(OpeningSchedule.of(station.isWholeDay().orElse(null),
+               station.getOpeningTimes().orElse(null), station.getOpeningTimeOverrides().orElse(null)));
+      }
+   }
+
+   private static boolean hasScheduleInformation(final Station station)
+   {
+      return station.isWholeDay().isPresent() || station.getOpeningTimes().isPresent() || station.getOpeningTimeOverrides().isPresent();
+   }
+
+   private static List<OpeningTimeOverride> parseOverrides(final List<String> overrides)
+   {
+      final List<OpeningTimeOverride> parsed = new ArrayList<>();
+      for (final String override : overrides)
+      {
+         OpeningTimeOverride.parse(override).ifPresent(parsed::add);
+      }
+      return parsed;
    }
 
    private static List<String> mapOverrides(final JsonDeserializationContext context, final JsonObject jObject)
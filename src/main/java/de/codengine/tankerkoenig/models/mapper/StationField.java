@@ -0,0 +1,64 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+/**
+ * The fields of a {@link Station} which can be selected by a {@link Projection}
+ */
+public enum StationField
+{
+   /**
+    * The stations unique ID
+    */
+   ID,
+   /**
+    * The stations name
+    */
+   NAME,
+   /**
+    * The stations brand
+    */
+   BRAND,
+   /**
+    * Latitude, longitude and distance of the {@link Location}
+    */
+   LOCATION,
+   /**
+    * Street, house number, zip code, city and state of the {@link Location}
+    */
+   ADDRESS,
+   /**
+    * The stations open flag
+    */
+   OPEN,
+   /**
+    * The price of the requested gas type or the {@link GasPrices}
+    */
+   PRICES,
+   /**
+    * Opening times, overriding opening times and the whole day flag
+    */
+   OPENING_TIMES
+}
@@ -0,0 +1,296 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Streaming adapter for {@link Station}s. Values which are not part of the supplied
+ * {@link Projection} are skipped without being materialized.
+ * <p>
+ * The location will only be available if {@link StationField#LOCATION} or {@link StationField#ADDRESS}
+ * is projected.
+ */
+final class StationTypeAdapter extends TypeAdapter<Station>
+{
+   private final Projection projection;
+   private final boolean mapsLocation;
+
+   StationTypeAdapter(final Projection projection)
+   {
+      this.projection = projection;
+      this.mapsLocation = projection.includes(StationField.LOCATION) || projection.includes(StationField.ADDRESS);
+   }
+
+   @Override
+   public void write(final JsonWriter out, final Station value) throws IOException
+   {
+      throw new UnsupportedOperationException("Stations can only be read");
+   }
+
+   @Override
+   public Station read(final JsonReader in) throws IOException
+   {
+      if (in.peek() == JsonToken.NULL)
+      {
+         in.nextNull();
+         return null;
+      }
+
+      final Station station = new Station();
+      final Location location = mapsLocation ? new Location() : null;
+      final Map<GasPrices.GasType, Float> prices = new EnumMap<>(GasPrices.GasType.class);
+      List<OpeningTime> openingTimes = null;
+      List<String> overrides = null;
+
+      in.beginObject();
+      while (in.hasNext())
+      {
+         final String name = in.nextName();
+         final StationField field = toField(name);
+         if (field == null || !projection.includes(field))
+         {
+            in.skipValue();
+            continue;
+         }
+
+         switch (name)
+         {
+            case "id":
+               station.setId(JsonReaderUtil.nextString(in));
+               break;
+            case "name":
+               station.setName(JsonReaderUtil.nextString(in));
+               break;
+            case "brand":
+               station.setBrand(JsonReaderUtil.nextString(in));
+               break;
+            case "isOpen":
+               final Boolean open = JsonReaderUtil.nextBoolean(in);
+               station.setOpen(open != null && open);
+               break;
+            case "wholeDay":
+               station.setWholeDay(JsonReaderUtil.nextBoolean(in));
+               break;
+            case "price":
+               station.setPrice(JsonReaderUtil.nextFloat(in));
+               break;
+            case "e5":
+            case "e10":
+            case "diesel":
+               readPrice(in, GasPricesTypeAdapter.toGasType(name), prices);
+               break;
+            case "openingTimes":
+               openingTimes = readOpeningTimes(in);
+               break;
+            case "overrides":
+               overrides = readStrings(in);
+               break;
+            default:
+               readLocationValue(in, name, location);
+               break;
+         }
+      }
+      in.endObject();
+
+      station.setLocation(location);
+      if (!prices.isEmpty())
+      {
+         station.setGasPrices(new GasPrices(Collections.unmodifiableMap(prices), null));
+      }
+      if (openingTimes != null && !openingTimes.isEmpty())
+      {
+         station.setOpeningTimes(Collections.unmodifiableList(openingTimes));
+      }
+      StationDeserializer.applyOverrides(station, overrides);
+      StationDeserializer.applyOpeningSchedule(station);
+
+      return station;
+   }
+
+   private void readPrice(final JsonReader in, final GasPrices.GasType gasType, final Map<GasPrices.GasType, Float> prices) throws IOException
+   {
+      if (!projection.includes(gasType))
+      {
+         in.skipValue();
+         return;
+      }
+
+      final Float price = JsonReaderUtil.nextFloat(in);
+      if (price != null)
+      {
+         prices.put(gasType, price);
+      }
+   }
+
+   private static void readLocationValue(final JsonReader in, final String name, final Location location) throws IOException
+   {
+      switch (name)
+      {
+         case "lat":
+            final Double lat = JsonReaderUtil.nextDouble(in);
+            location.setLat(lat == null ? 0 : lat);
+            break;
+         case "lng":
+            final Double lng = JsonReaderUtil.nextDouble(in);
+            location.setLng(lng == null ? 0 : lng);
+            break;
+         case "dist":
+            location.setDistance(JsonReaderUtil.nextDouble(in));
+            break;
+         case "street":
+            location.setStreetName(JsonReaderUtil.nextString(in));
+            break;
+         case "houseNumber":
+            location.setHouseNumber(JsonReaderUtil.nextString(in));
+            break;
+         case "postCode":
+            location.setZipCode(JsonReaderUtil.nextInteger(in));
+            break;
+         case "place":
+            location.setCity(JsonReaderUtil.nextString(in));
+            break;
+         case "state":
+            location.setState(JsonReaderUtil.toState(JsonReaderUtil.nextString(in)));
+            break;
+         default:
+            in.skipValue();
+            break;
+      }
+   }
+
+   private static List<OpeningTime> readOpeningTimes(final JsonReader in) throws IOException
+   {
+      if (in.peek() != JsonToken.BEGIN_ARRAY)
+      {
+         in.skipValue();
+         return null;
+      }
+
+      final List<OpeningTime> openingTimes = new ArrayList<>();
+      in.beginArray();
+      while (in.hasNext())
+      {
+         if (in.peek() != JsonToken.BEGIN_OBJECT)
+         {
+            in.skipValue();
+            continue;
+         }
+
+         String text = null;
+         String start = null;
+         String end = null;
+
+         in.beginObject();
+         while (in.hasNext())
+         {
+            switch (in.nextName())
+            {
+               case "text":
+                  text = JsonReaderUtil.nextString(in);
+                  break;
+               case "start":
+                  start = JsonReaderUtil.nextString(in);
+                  break;
+               case "end":
+                  end = JsonReaderUtil.nextString(in);
+                  break;
+               default:
+                  in.skipValue();
+                  break;
+            }
+         }
+         in.endObject();
+
+         openingTimes.add(OpeningTimeDeserializer.createOpeningTime(text, start, end));
+      }
+      in.endArray();
+      return openingTimes;
+   }
+
+   private static List<String> readStrings(final JsonReader in) throws IOException
+   {
+      if (in.peek() != JsonToken.BEGIN_ARRAY)
+      {
+         in.skipValue();
+         return null;
+      }
+
+      final List<String> values = new ArrayList<>();
+      in.beginArray();
+      while (in.hasNext())
+      {
+         values.add(JsonReaderUtil.nextString(in));
+      }
+      in.endArray();
+      return values;
+   }
+
+   static StationField toField(final String name)
+   {
+      switch (name)
+      {
+         case "id":
+            return StationField.ID;
+         case "name":
+            return StationField.NAME;
+         case "brand":
+            return StationField.BRAND;
+         case "lat":
+         case "lng":
+         case "dist":
+            return StationField.LOCATION;
+         case "street":
+         case "houseNumber":
+         case "postCode":
+         case "place":
+         case "state":
+            return StationField.ADDRESS;
+         case "isOpen":
+            return StationField.OPEN;
+         case "price":
+         case "e5":
+         case "e10":
+         case "diesel":
+            return StationField.PRICES;
+         case "openingTimes":
+         case "overrides":
+         case "wholeDay":
+            return StationField.OPENING_TIMES;
+         default:
+            return null;
+      }
+   }
+}
@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+import de.codengine.tankerkoenig.exception.ResponseParsingException;
+import de.codengine.tankerkoenig.models.requests.ResultTypeAdapters;
+
+/**
+ * JSON Mapper which reads the results with hand-written streaming adapters.
+ * <p>
+ * In contrast to {@link GsonMapper}, no reflection is involved, which
+ * reduces the time until the first result is mapped. Only the result classes
+ * of the requests are supported.
+ */
+public final class StreamingMapper implements JsonMapper
+{
+   private final static Map<Class<?>, TypeAdapter<?>> adapters = createAdapters(Projection.ALL);
+   private final static Map<Projection, Map<Class<?>, TypeAdapter<?>>> projectedAdapters = new ConcurrentHashMap<>();
+
+   private final static StreamingMapper ourInstance = new StreamingMapper();
+
+   private StreamingMapper()
+   {
+   }
+
+   public static StreamingMapper getInstance()
+   {
+      return ourInstance;
+   }
+
+   /**
+    * Converts the supplied JSON string to the result class
+    *
+    * @param json        The json string
+    * @param resultClass The expected result class
+    * @param <T>         The type of the return object
+    * @return Returns the mapped result object, or null if the json string is null
+    * @throws IllegalArgumentException  If the result class is not supported
+    * @throws ResponseParsingException If the json string could not be parsed
+    */
+   @Override
+   public <T> T fromJson(final String json, final Class<T> resultClass)
+   {
+      return read(json, resultClass, adapters);
+   }
+
+   /**
+    * Converts the supplied JSON string to the result class, skipping every value
+    * that is not part of the projection
+    *
+    * @param json        The json string
+    * @param resultClass The expected result class
+    * @param projection  The fields to map
+    * @param <T>         The type of the return object
+    * @return Returns the mapped result object, or null if the json string is null
+    * @throws IllegalArgumentException  If the result class is not supported
+    * @throws ResponseParsingException If the json string could not be parsed
+    */
+   @Override
+   public <T> T fromJson(final String json, final Class<T> resultClass, final Projection projection)
+   {
+      if (projection == null || projection.isComplete())
+      {
+         return fromJson(json, resultClass);
+      }
+
+      return read(json, resultClass, projectedAdapters.computeIfAbsent(projection, StreamingMapper::createAdapters));
+   }
+
+   private static <T> T read(final String json, final Class<T> resultClass, final Map<Class<?>, TypeAdapter<?>> adapters)
+   {
+      final TypeAdapter<?> adapter = adapters.get(resultClass);
+      if (adapter == null)
+      {
+         throw new IllegalArgumentException("The result class " + resultClass.getName() + " is not supported");
+      }
+
+      if (json == null)
+      {
+         return null;
+      }
+
+      try
+      {
+         final JsonReader reader = new JsonReader(new StringReader(json));
+         reader.setLenient(true);
+         return resultClass.cast(adapter.read(reader));
+      }
+      catch (IOException | IllegalStateException | NumberFormatException e)
+      {
+         throw new ResponseParsingException("The response could not be parsed to " + resultClass.getSimpleName(), e);
+      }
+   }
+
+   private static Map<Class<?>, TypeAdapter<?>> createAdapters(final Projection projection)
+   {
+      return ResultTypeAdapters.create(new StationTypeAdapter(projection),
+            new GasPricesTypeAdapter(projection),
+            new StationColumnsTypeAdapter());
+   }
+}
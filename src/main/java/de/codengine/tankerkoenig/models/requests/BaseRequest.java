@@ -27,6 +27,7 @@ package de.codengine.tankerkoenig.models.requests;
 import java.util.Map;
 
 import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.models.mapper.Projection;
 
 abstract class BaseRequest<R extends Result> implements Request<R>
 {
@@ -63,6 +64,15 @@ abstract class BaseRequest<R extends Result> implements Request<R>
 
    abstract Class<R> getResultClass();
 
+   /**
+    * Returns the fields which should be mapped from the response.
+    * By default, every field is mapped
+    */
+   Projection getProjection()
+   {
+      return Projection.ALL;
+   }
+
    String getApiKey()
    {
       return apiKey;
@@ -72,4 +82,9 @@ abstract class BaseRequest<R extends Result> implements Request<R>
    {
       return baseUrl;
    }
+
+   Requester getRequester()
+   {
+      return requester;
+   }
 }
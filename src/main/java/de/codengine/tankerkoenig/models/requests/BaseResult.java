@@ -91,4 +91,29 @@ abstract class BaseResult implements Result
    {
       return ok;
    }
+
+   void setStatus(final ResponseStatus status)
+   {
+      this.status = status;
+   }
+
+   void setMessage(final String message)
+   {
+      this.message = message;
+   }
+
+   void setLicense(final String license)
+   {
+      this.license = license;
+   }
+
+   void setData(final String data)
+   {
+      this.data = data;
+   }
+
+   void setOk(final Boolean ok)
+   {
+      this.ok = ok;
+   }
 }
@@ -31,6 +31,9 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.Projection;
+
 /**
  * Request for gas prices.
  * Between 1 and 10 station IDs can and must be supplied, or the request will fail.
@@ -39,6 +42,7 @@ public final class PricesRequest extends BaseRequest<PricesResult>
 {
    private final static String ENDPOINT = "prices.php";
    private final Set<String> stationIds = new LinkedHashSet<>();
+   private Projection projection = Projection.ALL;
 
    public PricesRequest(final String apiKey, final String baseUrl, final Requester requester)
    {
@@ -83,6 +87,24 @@ public final class PricesRequest extends BaseRequest<PricesResult>
       return this;
    }
 
+   /**
+    * Restricts the mapping of the gas prices to the supplied gas types. The status
+    * is always mapped.
+    * <p>
+    * Default is: all gas types
+    */
+   public PricesRequest project(final GasPrices.GasType... gasTypes)
+   {
+      this.projection = Projection.ALL.withGasTypes(gasTypes);
+      return this;
+   }
+
+   @Override
+   Projection getProjection()
+   {
+      return projection;
+   }
+
    @Override
    String getEndpoint()
    {
@@ -58,4 +58,9 @@ public final class PricesResult extends BaseResult
    {
       return Optional.ofNullable(gasPrices.get(id));
    }
+
+   void setGasPrices(final Map<String, GasPrices> gasPrices)
+   {
+      this.gasPrices = gasPrices;
+   }
 }
@@ -26,11 +26,13 @@ package de.codengine.tankerkoenig.models.requests;
 
 import java.util.Map;
 
+import de.codengine.tankerkoenig.budget.RequestBudget;
 import de.codengine.tankerkoenig.client.ClientExecutor;
 import de.codengine.tankerkoenig.exception.ClientExecutorException;
 import de.codengine.tankerkoenig.exception.RequestParamException;
 import de.codengine.tankerkoenig.exception.RequesterException;
 import de.codengine.tankerkoenig.models.mapper.JsonMapper;
+import de.codengine.tankerkoenig.models.mapper.Projection;
 
 /**
  * The requester is responsible for the execution of the request
@@ -42,14 +44,64 @@ public class Requester
 {
    private final JsonMapper jsonMapper;
    private final ClientExecutor clientExecutor;
+   private final StationListResolver stationListResolver;
+   private final RequestBudget requestBudget;
 
    public Requester(final ClientExecutor clientExecutor, final JsonMapper jsonMapper)
+   {
+      this(clientExecutor, jsonMapper, null);
+   }
+
+   /**
+    * @param stationListResolver Answers station list requests which map every field, might be null
+    */
+   public Requester(final ClientExecutor clientExecutor, final JsonMapper jsonMapper, final StationListResolver stationListResolver)
+   {
+      this(clientExecutor, jsonMapper, stationListResolver, null);
+   }
+
+   /**
+    * @param stationListResolver Answers station list requests which map every field, might be null
+    * @param requestBudget       Counts the calls sent to the API and refuses calls exceeding the daily limit, might be null
+    */
+   public Requester(final ClientExecutor clientExecutor, final JsonMapper jsonMapper, final StationListResolver stationListResolver,
+         final RequestBudget requestBudget)
    {
       this.clientExecutor = clientExecutor;
       this.jsonMapper = jsonMapper;
+      this.stationListResolver = stationListResolver;
+      this.requestBudget = requestBudget;
    }
 
    <RESULT extends Result> RESULT execute(final BaseRequest<RESULT> request, final Class<RESULT> resultClass) throws RequesterException
+   {
+      if (stationListResolver != null && request instanceof StationListRequest && isComplete(request.getProjection()))
+      {
+         return resultClass.cast(resolve((StationListRequest) request));
+      }
+
+      return executeUpstream(request, resultClass);
+   }
+
+   private StationListResult resolve(final StationListRequest request) throws RequesterException
+   {
+      validate(request);
+      try
+      {
+         return stationListResolver.resolve(request.toQuery(),
+               query -> executeUpstream(request.forQuery(query), StationListResult.class));
+      }
+      catch (RequesterException e)
+      {
+         throw e;
+      }
+      catch (Exception e)
+      {
+         throw new RequesterException("An unhandled exception was thrown", e);
+      }
+   }
+
+   private static void validate(final BaseRequest<?> request) throws RequesterException
    {
       try
       {
@@ -59,6 +111,21 @@ public class Requester
       {
          throw new RequesterException("An exception was thrown during request validation", e);
       }
+   }
+
+   private static boolean isComplete(final Projection projection)
+   {
+      return projection == null || projection.isComplete();
+   }
+
+   private <RESULT extends Result> RESULT executeUpstream(final BaseRequest<RESULT> request, final Class<RESULT> resultClass) throws RequesterException
+   {
+      validate(request);
+
+      if (requestBudget != null && !requestBudget.tryAcquire(request.getEndpoint()))
+      {
+         throw new RequesterException("The daily request budget is exhausted", null);
+      }
 
       final Map<String, Object> requestParameters = request.getRequestParameters();
       requestParameters.put("apikey", request.getApiKey());
@@ -84,7 +151,13 @@ public class Requester
                throw new UnsupportedOperationException("The request method " + request.getMethod() + " is not supported");
          }
 
-         return jsonMapper.fromJson(result, resultClass);
+         final Projection projection = request.getProjection();
+         if (isComplete(projection))
+         {
+            return jsonMapper.fromJson(result, resultClass);
+         }
+
+         return jsonMapper.fromJson(result, resultClass, projection);
       }
       catch (ClientExecutorException e)
       {
@@ -0,0 +1,280 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.requests;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.mapper.StationColumns;
+
+/**
+ * Creates hand-written streaming adapters for every result class, which neither
+ * rely on reflection nor on a {@link com.google.gson.Gson} instance.
+ * The values of the results are read by the supplied adapters.
+ */
+public final class ResultTypeAdapters
+{
+   private ResultTypeAdapters()
+   {
+      throw new UnsupportedOperationException();
+   }
+
+   /**
+    * Creates the adapters for all result classes
+    *
+    * @param stationAdapter   Reads a single station
+    * @param gasPricesAdapter Reads the gas prices of a single station
+    * @param columnsAdapter   Reads a station list array into columns
+    * @return An unmodifiable map of the adapters, using the result class as key
+    */
+   public static Map<Class<?>, TypeAdapter<?>> create(final TypeAdapter<Station> stationAdapter,
+         final TypeAdapter<GasPrices> gasPricesAdapter,
+         final TypeAdapter<StationColumns> columnsAdapter)
+   {
+      final Map<Class<?>, TypeAdapter<?>> adapters = new HashMap<>();
+      adapters.put(StationListResult.class, new ResultTypeAdapter<StationListResult>(StationListResult::new)
+      {
+         @Override
+         boolean readValue(final String name, final JsonReader in, final StationListResult result) throws IOException
+         {
+            if (!"stations".equals(name))
+            {
+               return false;
+            }
+            result.setStations(readList(in, stationAdapter));
+            return true;
+         }
+      });
+      adapters.put(StationColumnsResult.class, new ResultTypeAdapter<StationColumnsResult>(StationColumnsResult::new)
+      {
+         @Override
+         boolean readValue(final String name, final JsonReader in, final StationColumnsResult result) throws IOException
+         {
+            if (!"stations".equals(name))
+            {
+               return false;
+            }
+            result.setColumns(columnsAdapter.read(in));
+            return true;
+         }
+      });
+      adapters.put(StationDetailResult.class, new ResultTypeAdapter<StationDetailResult>(StationDetailResult::new)
+      {
+         @Override
+         boolean readValue(final String name, final JsonReader in, final StationDetailResult result) throws IOException
+         {
+            if (!"station".equals(name))
+            {
+               return false;
+            }
+            result.setStation(stationAdapter.read(in));
+            return true;
+         }
+      });
+      adapters.put(PricesResult.class, new ResultTypeAdapter<PricesResult>(PricesResult::new)
+      {
+         @Override
+         boolean readValue(final String name, final JsonReader in, final PricesResult result) throws IOException
+         {
+            if (!"prices".equals(name))
+            {
+               return false;
+            }
+            result.setGasPrices(readMap(in, gasPricesAdapter));
+            return true;
+         }
+      });
+      adapters.put(CorrectionResult.class, new ResultTypeAdapter<CorrectionResult>(CorrectionResult::new)
+      {
+         @Override
+         boolean readValue(final String name, final JsonReader in, final CorrectionResult result)
+         {
+            return false;
+         }
+      });
+      return Collections.unmodifiableMap(adapters);
+   }
+
+   private static <T> List<T> readList(final JsonReader in, final TypeAdapter<T> adapter) throws IOException
+   {
+      if (in.peek() == JsonToken.NULL)
+      {
+         in.nextNull();
+         return null;
+      }
+
+      final List<T> values = new ArrayList<>();
+      in.beginArray();
+      while (in.hasNext())
+      {
+         values.add(adapter.read(in));
+      }
+      in.endArray();
+      return values;
+   }
+
+   private static <T> Map<String, T> readMap(final JsonReader in, final TypeAdapter<T> adapter) throws IOException
+   {
+      if (in.peek() == JsonToken.NULL)
+      {
+         in.nextNull();
+         return null;
+      }
+
+      final Map<String, T> values = new LinkedHashMap<>();
+      in.beginObject();
+      while (in.hasNext())
+      {
+         values.put(in.nextName(), adapter.read(in));
+      }
+      in.endObject();
+      return values;
+   }
+
+   private static String nextString(final JsonReader in) throws IOException
+   {
+      if (in.peek() == JsonToken.NULL)
+      {
+         in.nextNull();
+         return null;
+      }
+      return in.nextString();
+   }
+
+   private static Boolean nextBoolean(final JsonReader in) throws IOException
+   {
+      final JsonToken token = in.peek();
+      if (token == JsonToken.NULL)
+      {
+         in.nextNull();
+         return null;
+      }
+      if (token == JsonToken.STRING)
+      {
+         return Boolean.parseBoolean(in.nextString());
+      }
+      return in.nextBoolean();
+   }
+
+   static Result.ResponseStatus toResponseStatus(final String value)
+   {
+      if (value == null)
+      {
+         return null;
+      }
+
+      switch (value)
+      {
+         case "ok":
+            return Result.ResponseStatus.OK;
+         case "error":
+            return Result.ResponseStatus.ERROR;
+         default:
+            return null;
+      }
+   }
+
+   /**
+    * Reads the fields of {@link BaseResult} and delegates every other field
+    * to {@link #readValue(String, JsonReader, BaseResult)}
+    */
+   abstract static class ResultTypeAdapter<R extends BaseResult> extends TypeAdapter<R>
+   {
+      private final Supplier<R> resultFactory;
+
+      ResultTypeAdapter(final Supplier<R> resultFactory)
+      {
+         this.resultFactory = resultFactory;
+      }
+
+      /**
+       * Reads the value of the field into the result
+       *
+       * @return false if the field is unknown and has not been consumed
+       */
+      abstract boolean readValue(final String name, final JsonReader in, final R result) throws IOException;
+
+      @Override
+      public void write(final JsonWriter out, final R value) throws IOException
+      {
+         throw new UnsupportedOperationException("Results can only be read");
+      }
+
+      @Override
+      public R read(final JsonReader in) throws IOException
+      {
+         if (in.peek() == JsonToken.NULL)
+         {
+            in.nextNull();
+            return null;
+         }
+
+         final R result = resultFactory.get();
+         in.beginObject();
+         while (in.hasNext())
+         {
+            final String name = in.nextName();
+            switch (name)
+            {
+               case "ok":
+                  result.setOk(nextBoolean(in));
+                  break;
+               case "status":
+                  result.setStatus(toResponseStatus(nextString(in)));
+                  break;
+               case "message":
+                  result.setMessage(nextString(in));
+                  break;
+               case "license":
+                  result.setLicense(nextString(in));
+                  break;
+               case "data":
+                  result.setData(nextString(in));
+                  break;
+               default:
+                  if (!readValue(name, in, result))
+                  {
+                     in.skipValue();
+                  }
+            }
+         }
+         in.endObject();
+         return result;
+      }
+   }
+}
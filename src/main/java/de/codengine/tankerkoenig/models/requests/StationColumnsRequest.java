@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.requests;
+
+import java.util.Map;
+
+/**
+ * Request to obtain a list of stations as {@link StationColumnsResult}. The parameters
+ * are taken from the {@link StationListRequest} this request was created by.
+ *
+ * @see StationListRequest#columnar()
+ */
+public final class StationColumnsRequest extends BaseRequest<StationColumnsResult>
+{
+   private final StationListRequest listRequest;
+
+   StationColumnsRequest(final StationListRequest listRequest)
+   {
+      super(listRequest.getApiKey(), listRequest.getBaseUrl(), listRequest.getRequester());
+      this.listRequest = listRequest;
+   }
+
+   @Override
+   Method getMethod()
+   {
+      return listRequest.getMethod();
+   }
+
+   @Override
+   Class<StationColumnsResult> getResultClass()
+   {
+      return StationColumnsResult.class;
+   }
+
+   @Override
+   String getEndpoint()
+   {
+      return listRequest.getEndpoint();
+   }
+
+   @Override
+   void validate()
+   {
+      listRequest.validate();
+   }
+
+   @Override
+   Map<String, Object> getRequestParameters()
+   {
+      return listRequest.getRequestParameters();
+   }
+}
@@ -42,4 +42,9 @@ public final class StationDetailResult extends BaseResult
    {
       return station;
    }
+
+   void setStation(final Station station)
+   {
+      this.station = station;
+   }
 }
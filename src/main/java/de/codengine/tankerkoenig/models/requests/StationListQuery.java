@@ -0,0 +1,156 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.requests;
+
+/**
+ * The parameters of a {@link StationListRequest}, which are used to answer
+ * station list requests locally by a {@link StationListResolver}.
+ * <p>
+ * The requested sorting is kept, so it applies again once a single gas type is requested. The sorting
+ * returned and compared is the effective one, which is always DISTANCE if all gas types are requested.
+ */
+public final class StationListQuery
+{
+   private final double lat;
+   private final double lng;
+   private final double radius;
+   private final GasRequestType gasRequestType;
+   private final StationListRequest.SortingRequestType sorting;
+
+   private StationListQuery(final double lat, final double lng, final double radius, final GasRequestType gasRequestType,
+         final StationListRequest.SortingRequestType sorting)
+   {
+      this.lat = lat;
+      this.lng = lng;
+      this.radius = radius;
+      this.gasRequestType = gasRequestType;
+      this.sorting = sorting;
+   }
+
+   /**
+    * Creates a query. The parameters are validated like {@link StationListRequest}
+    * parameters once the query is executed upstream.
+    */
+   public static StationListQuery of(final double lat, final double lng, final double radius, final GasRequestType gasRequestType,
+         final StationListRequest.SortingRequestType sorting)
+   {
+      return new StationListQuery(lat, lng, radius, gasRequestType, sorting);
+   }
+
+   /**
+    * Returns a copy of this query with another center and radius
+    */
+   public StationListQuery withArea(final double lat, final double lng, final double radius)
+   {
+      return new StationListQuery(lat, lng, radius, gasRequestType, sorting);
+   }
+
+   /**
+    * Returns a copy of this query with another gas request type
+    */
+   public StationListQuery withGasRequestType(final GasRequestType gasRequestType)
+   {
+      return new StationListQuery(lat, lng, radius, gasRequestType, sorting);
+   }
+
+   /**
+    * Returns the latitude of the search center
+    */
+   public double getLat()
+   {
+      return lat;
+   }
+
+   /**
+    * Returns the longitude of the search center
+    */
+   public double getLng()
+   {
+      return lng;
+   }
+
+   /**
+    * Returns the search radius in km
+    */
+   public double getRadius()
+   {
+      return radius;
+   }
+
+   /**
+    * Returns the requested gas type
+    */
+   public GasRequestType getGasRequestType()
+   {
+      return gasRequestType;
+   }
+
+   /**
+    * Returns the effective sorting
+    */
+   public StationListRequest.SortingRequestType getSorting()
+   {
+      return gasRequestType == GasRequestType.ALL ? StationListRequest.SortingRequestType.DISTANCE : sorting;
+   }
+
+   @Override
+   public boolean equals(final Object o)
+   {
+      if (this == o)
+         return true;
+      if (o == null || getClass() != o.getClass())
+         return false;
+
+      final StationListQuery that = (StationListQuery) o;
+
+      if (Double.compare(that.lat, lat) != 0)
+         return false;
+      if (Double.compare(that.lng, lng) != 0)
+         return false;
+      if (Double.compare(that.radius, radius) != 0)
+         return false;
+      if (gasRequestType != that.gasRequestType)
+         return false;
+      return getSorting() == that.getSorting();
+   }
+
+   @Override
+   public int hashCode()
+   {
+      int result = Double.hashCode(lat);
+      result = 31 * result + Double.hashCode(lng);
+      result = 31 * result + Double.hashCode(radius);
+      result = 31 * result + (gasRequestType != null ? gasRequestType.hashCode() : 0);
+      result = 31 * result + (getSorting() != null ? getSorting().hashCode() : 0);
+      return result;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "StationListQuery{lat=" + lat + ", lng=" + lng + ", radius=" + radius + ", gasRequestType=" + gasRequestType
+            + ", sorting=" + getSorting() + "}";
+   }
+}
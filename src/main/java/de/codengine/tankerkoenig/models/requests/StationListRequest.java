@@ -26,6 +26,9 @@ package de.codengine.tankerkoenig.models.requests;
 
 import java.util.Map;
 
+import de.codengine.tankerkoenig.models.mapper.Projection;
+import de.codengine.tankerkoenig.models.mapper.StationField;
+
 /**
  * Request to obtain a list of stations. The search is based around the coordinates,
  * which are mandatory and must be in the specified boundaries.
@@ -38,6 +41,7 @@ public final class StationListRequest extends BaseRequest<StationListResult>
    private double searchRadius = 5;
    private GasRequestType gasRequestType = GasRequestType.ALL;
    private SortingRequestType sorting = SortingRequestType.DISTANCE;
+   private Projection projection = Projection.ALL;
 
    public StationListRequest(final String apiKey, final String baseUrl, final Requester requester)
    {
@@ -92,6 +96,64 @@ public final class StationListRequest extends BaseRequest<StationListResult>
       return this;
    }
 
+   /**
+    * Restricts the mapping of the stations to the supplied fields. Every other value
+    * of the response is skipped, which reduces parsing time and memory.
+    * <p>
+    * Default is: every field
+    */
+   public StationListRequest project(final StationField... fields)
+   {
+      return project(Projection.of(fields));
+   }
+
+   /**
+    * Restricts the mapping of the stations to the supplied projection.
+    * <p>
+    * Default is: {@link Projection#ALL}
+    */
+   public StationListRequest project(final Projection projection)
+   {
+      this.projection = projection;
+      return this;
+   }
+
+   /**
+    * Creates a request with the same parameters, whose result is mapped into
+    * {@link de.codengine.tankerkoenig.models.mapper.StationColumns} instead of
+    * station objects. Later changes of this request are reflected by the columnar request.
+    */
+   public StationColumnsRequest columnar()
+   {
+      return new StationColumnsRequest(this);
+   }
+
+   /**
+    * Returns the query of this request, which is passed to a {@link StationListResolver}
+    */
+   StationListQuery toQuery()
+   {
+      return StationListQuery.of(lat, lng, searchRadius, gasRequestType, sorting);
+   }
+
+   /**
+    * Creates a request for the supplied query, using the API key and base URL of this request
+    */
+   StationListRequest forQuery(final StationListQuery query)
+   {
+      return new StationListRequest(getApiKey(), getBaseUrl(), getRequester())
+            .setCoordinates(query.getLat(), query.getLng())
+            .setSearchRadius(query.getRadius())
+            .setGasRequestType(query.getGasRequestType())
+            .setSorting(query.getSorting());
+   }
+
+   @Override
+   Projection getProjection()
+   {
+      return projection;
+   }
+
    @Override
    Method getMethod()
    {
@@ -120,6 +182,7 @@ public final class StationListRequest extends BaseRequest<StationListResult>
       RequestParamValidator.minMax(searchRadius, 1, 25, "Radius");
       RequestParamValidator.notNull(gasRequestType, "Gas Request Type");
       RequestParamValidator.notNull(sorting, "Sorting");
+      RequestParamValidator.notNull(projection, "Projection");
    }
 
    @Override
@@ -0,0 +1,58 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.requests;
+
+import de.codengine.tankerkoenig.exception.RequesterException;
+
+/**
+ * Answers {@link StationListRequest}s, e.g. from a local index or cache, instead of
+ * requesting list.php for every request.
+ * <p>
+ * Only requests mapping every field are passed to the resolver.
+ *
+ * @see de.codengine.tankerkoenig.Tankerkoenig.ApiBuilder#withStationListResolver(StationListResolver)
+ */
+@FunctionalInterface
+public interface StationListResolver
+{
+   /**
+    * Resolves the query
+    *
+    * @param query    The query of the executed request
+    * @param upstream Requests list.php for any query, which might differ from the resolved one
+    * @return The result for the query
+    * @throws RequesterException Thrown by the upstream request
+    */
+   StationListResult resolve(final StationListQuery query, final Upstream upstream) throws RequesterException;
+
+   /**
+    * Requests list.php for the supplied query
+    */
+   @FunctionalInterface
+   interface Upstream
+   {
+      StationListResult fetch(final StationListQuery query) throws RequesterException;
+   }
+}
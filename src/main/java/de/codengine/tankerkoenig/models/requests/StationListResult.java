@@ -24,9 +24,14 @@
 
 package de.codengine.tankerkoenig.models.requests;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
+import de.codengine.tankerkoenig.models.mapper.Location;
 import de.codengine.tankerkoenig.models.mapper.Station;
 
 /**
@@ -36,6 +41,12 @@ import de.codengine.tankerkoenig.models.mapper.Station;
  */
 public final class StationListResult extends BaseResult
 {
+   private final static Comparator<Station> byPrice = Comparator.comparing((Station station) -> station.getPrice().orElse(null),
+         Comparator.nullsLast(Comparator.naturalOrder()))
+         .thenComparingDouble(StationListResult::distanceOf);
+
+   private final Map<StationListRequest.SortingRequestType, Map<GasRequestType, List<Station>>> views =
+         new EnumMap<>(StationListRequest.SortingRequestType.class);
    private List<Station> stations;
 
    /**
@@ -45,4 +56,70 @@ public final class StationListResult extends BaseResult
    {
       return Collections.unmodifiableList(stations);
    }
+
+   /**
+    * Returns the stations as list.php would return them for the gas type and sorting. This result
+    * has to be requested for all gas types, so one request answers every gas type and sorting.
+    * <p>
+    * The views are computed once per gas type and sorting. Stations without price are sorted last.
+    */
+   public List<Station> getStations(final GasRequestType gasRequestType, final StationListRequest.SortingRequestType sorting)
+   {
+      if (gasRequestType == null || sorting == null)
+      {
+         throw new IllegalArgumentException("The gas request type and sorting must not be null");
+      }
+      if (gasRequestType == GasRequestType.ALL)
+      {
+         return getStations();
+      }
+
+      synchronized (views)
+      {
+         return views.computeIfAbsent(sorting, key -> new EnumMap<>(GasRequestType.class))
+               .computeIfAbsent(gasRequestType, key -> createView(gasRequestType, sorting));
+      }
+   }
+
+   private List<Station> createView(final GasRequestType gasRequestType, final StationListRequest.SortingRequestType sorting)
+   {
+      final List<Station> view = new ArrayList<>(stations.size());
+      for (final Station station : stations)
+      {
+         view.add(station.toListEntry(distanceOf(station), gasRequestType));
+      }
+
+      if (sorting == StationListRequest.SortingRequestType.PRICE)
+      {
+         view.sort(byPrice);
+      }
+      return Collections.unmodifiableList(view);
+   }
+
+   private static double distanceOf(final Station station)
+   {
+      final Location location = station.getLocation();
+      return location != null ? location.getDistance().orElse(0.0) : 0;
+   }
+
+   /**
+    * Returns a copy of this result containing the supplied stations instead,
+    * which is used to answer requests locally
+    */
+   public StationListResult withStations(final List<Station> stations)
+   {
+      final StationListResult result = new StationListResult();
+      result.setOk(isOk());
+      result.setStatus(getStatus().orElse(null));
+      result.setMessage(getMessage().orElse(null));
+      result.setLicense(getLicense().orElse(null));
+      result.setData(getData().orElse(null));
+      result.setStations(new ArrayList<>(stations));
+      return result;
+   }
+
+   void setStations(final List<Station> stations)
+   {
+      this.stations = stations;
+   }
 }
@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.planner;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The steps a {@link QueryPlanner} executes to answer a {@link StationQuery},
+ * with the estimated count of upstream calls per step
+ */
+public final class QueryPlan
+{
+   private final StationQuery query;
+   private final List<Step> steps;
+
+   QueryPlan(final StationQuery query, final List<Step> steps)
+   {
+      this.query = query;
+      this.steps = Collections.unmodifiableList(steps);
+   }
+
+   /**
+    * Returns the planned query
+    */
+   public StationQuery getQuery()
+   {
+      return query;
+   }
+
+   /**
+    * Returns the steps in the order of execution
+    */
+   public List<Step> getSteps()
+   {
+      return steps;
+   }
+
+   /**
+    * Returns the estimated count of upstream calls. Detail calls are estimated by the limit
+    * of an area query, which is the maximum.
+    */
+   public int getEstimatedCalls()
+   {
+      int calls = 0;
+      for (final Step step : steps)
+      {
+         calls += step.getCalls();
+      }
+      return calls;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "QueryPlan{" +
+            "steps=" + steps +
+            ", estimatedCalls=" + getEstimatedCalls() +
+            '}';
+   }
+
+   /**
+    * The types of steps
+    */
+   public enum StepType
+   {
+      /**
+       * The stations around the position are taken from the index, which falls back to
+       * {@link #LIST_ALL} if the index has expired by the time the plan is executed
+       */
+      INDEX,
+      /**
+       * list.php is requested for all gas types
+       */
+      LIST_ALL,
+      /**
+       * list.php is requested for the gas type of the query
+       */
+      LIST_SINGLE,
+      /**
+       * prices.php is requested in batches of up to 10 stations
+       */
+      PRICES,
+      /**
+       * detail.php is requested per station, which is not cached
+       */
+      DETAIL
+   }
+
+   /**
+    * A step of the plan
+    */
+   public static final class Step
+   {
+      private final StepType type;
+      private final int calls;
+
+      Step(final StepType type, final int calls)
+      {
+         this.type = type;
+         this.calls = calls;
+      }
+
+      /**
+       * Returns the type of the step
+       */
+      public StepType getType()
+      {
+         return type;
+      }
+
+      /**
+       * Returns the estimated count of upstream calls
+       */
+      public int getCalls()
+      {
+         return calls;
+      }
+
+      @Override
+      public String toString()
+      {
+         return type + " x" + calls;
+      }
+   }
+}
@@ -0,0 +1,596 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.planner;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.codengine.tankerkoenig.Tankerkoenig;
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.index.StationIndex;
+import de.codengine.tankerkoenig.index.StationListSelector;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.Location;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.PricesResult;
+import de.codengine.tankerkoenig.models.requests.Result;
+import de.codengine.tankerkoenig.models.requests.StationDetailResult;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListRequest;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+
+/**
+ * Answers {@link StationQuery}s with as few upstream calls as possible.
+ * <p>
+ * Area queries are answered by the {@link StationIndex} if it covers the search circle with fresh
+ * results, else by one list.php call. list.php is requested for all gas types if the query has no
+ * gas type or the result can be added to the index, else only for the gas type of the query.
+ * Looked up stations are priced by prices.php in batches of 10. detail.php is only requested for
+ * opening times of the returned stations, as details are cached. If the opening times of looked up
+ * stations are requested, the planner chooses between requesting the details of every station and
+ * pricing them first to request the details of the returned stations only.
+ * <p>
+ * The calls of a step are executed concurrently.
+ */
+public final class QueryPlanner
+{
+   private final static int PRICES_BATCH_SIZE = 10;
+
+   private final Upstream upstream;
+   private final Executor executor;
+   private final StationIndex index;
+   private final Duration detailMaxAge;
+   private final Clock clock;
+   private final Map<String, CachedDetail> details = new ConcurrentHashMap<>();
+
+   /**
+    * Creates a planner without index, which caches details for a day
+    */
+   public QueryPlanner(final Upstream upstream, final Executor executor)
+   {
+      this(upstream, executor, null, Duration.ofDays(1), Clock.systemUTC());
+   }
+
+   /**
+    * @param upstream     Requests the API
+    * @param executor     Executes the upstream calls
+    * @param index        Answers area queries and is filled by list.php results for all gas types, might be null
+    * @param detailMaxAge The maximum age of cached details
+    * @param clock        The clock to determine the age of the details
+    */
+   public QueryPlanner(final Upstream upstream, final Executor executor, final StationIndex index, final Duration detailMaxAge,
+         final Clock clock)
+   {
+      if (upstream == null || executor == null)
+      {
+         throw new IllegalArgumentException("The upstream and the executor must not be null");
+      }
+      if (detailMaxAge == null || detailMaxAge.isNegative())
+      {
+         throw new IllegalArgumentException("The maximum age must not be null or negative");
+      }
+      if (clock == null)
+      {
+         throw new IllegalArgumentException("The clock must not be null");
+      }
+
+      this.upstream = upstream;
+      this.executor = executor;
+      this.index = index;
+      this.detailMaxAge = detailMaxAge;
+      this.clock = clock;
+   }
+
+   /**
+    * Requests the API for the calls of the planner
+    */
+   public static Upstream upstream(final Tankerkoenig.Api api)
+   {
+      return new Upstream()
+      {
+         @Override
+         public StationListResult list(final StationListQuery query) throws RequesterException
+         {
+            return api.list(query.getLat(), query.getLng())
+                  .setSearchRadius(query.getRadius())
+                  .setGasRequestType(query.getGasRequestType())
+                  .setSorting(query.getSorting())
+                  .execute();
+         }
+
+         @Override
+         public PricesResult prices(final Collection<String> stationIds) throws RequesterException
+         {
+            return api.prices().addIds(stationIds).execute();
+         }
+
+         @Override
+         public StationDetailResult detail(final String stationId) throws RequesterException
+         {
+            return api.detail(stationId).execute();
+         }
+      };
+   }
+
+   /**
+    * Plans the query, consulting the index and the cached details
+    *
+    * @throws IllegalArgumentException Thrown if the query orders by price without gas type or requests
+    *                                  the opening times of an area without limit
+    */
+   public QueryPlan plan(final StationQuery query)
+   {
+      if (query == null)
+      {
+         throw new IllegalArgumentException("The query must not be null");
+      }
+      if (query.getOrder() == StationQuery.Order.PRICE && !query.getGasType().isPresent())
+      {
+         throw new IllegalArgumentException("Ordering by price requires a gas type");
+      }
+
+      final List<QueryPlan.Step> steps = new ArrayList<>();
+      if (query.isArea())
+      {
+         if (query.isOpeningTimes() && query.getLimit() == Integer.MAX_VALUE)
+         {
+            throw new IllegalArgumentException("The opening times of an area require a limit");
+         }
+
+         if (index != null && index.query(toListQuery(query, GasRequestType.ALL)).isPresent())
+         {
+            steps.add(new QueryPlan.Step(QueryPlan.StepType.INDEX, 0));
+         }
+         else
+         {
+            final boolean all = index != null || !query.getGasType().isPresent();
+            steps.add(new QueryPlan.Step(all ? QueryPlan.StepType.LIST_ALL : QueryPlan.StepType.LIST_SINGLE, 1));
+         }
+
+         if (query.isOpeningTimes())
+         {
+            steps.add(new QueryPlan.Step(QueryPlan.StepType.DETAIL, query.getLimit()));
+         }
+         return new QueryPlan(query, steps);
+      }
+
+      final int count = query.getStationIds().size();
+      if (!query.isOpeningTimes())
+      {
+         steps.add(new QueryPlan.Step(QueryPlan.StepType.PRICES, batches(count)));
+         return new QueryPlan(query, steps);
+      }
+
+      final Instant now = clock.instant();
+      final int uncached = (int) query.getStationIds().stream().filter(id -> !getCachedDetail(id, now).isPresent()).count();
+      final int detailsFirst = uncached + batches(count - uncached);
+      final int pricesFirst = batches(count) + Math.min(query.getLimit(), uncached);
+      if (uncached > 0 && detailsFirst <= pricesFirst)
+      {
+         steps.add(new QueryPlan.Step(QueryPlan.StepType.DETAIL, uncached));
+         if (count > uncached)
+         {
+            steps.add(new QueryPlan.Step(QueryPlan.StepType.PRICES, batches(count - uncached)));
+         }
+      }
+      else
+      {
+         steps.add(new QueryPlan.Step(QueryPlan.StepType.PRICES, batches(count)));
+         if (uncached > 0)
+         {
+            steps.add(new QueryPlan.Step(QueryPlan.StepType.DETAIL, Math.min(query.getLimit(), uncached)));
+         }
+      }
+      return new QueryPlan(query, steps);
+   }
+
+   /**
+    * Plans and executes the query
+    *
+    * @see #plan(StationQuery)
+    * @see #execute(QueryPlan)
+    */
+   public CompletableFuture<QueryResult> query(final StationQuery query)
+   {
+      return execute(plan(query));
+   }
+
+   /**
+    * Executes the plan. The future completes once every step is executed, failed calls are
+    * reported by the result.
+    */
+   public CompletableFuture<QueryResult> execute(final QueryPlan plan)
+   {
+      if (plan == null)
+      {
+         throw new IllegalArgumentException("The plan must not be null");
+      }
+
+      final StationQuery query = plan.getQuery();
+      final Execution execution = new Execution();
+      final CompletableFuture<List<QueryStation>> candidates;
+      final boolean detailsFirst = plan.getSteps().get(0).getType() == QueryPlan.StepType.DETAIL;
+      if (query.isArea())
+      {
+         candidates = fetchArea(plan, execution);
+      }
+      else if (detailsFirst)
+      {
+         candidates = fetchDetailed(query, execution);
+      }
+      else
+      {
+         candidates = fetchPrices(query, execution);
+      }
+
+      return candidates
+            .thenApply(stations -> select(stations, query))
+            .thenCompose(selected -> query.isOpeningTimes() && !detailsFirst
+                  ? addDetails(selected, execution)
+                  : CompletableFuture.completedFuture(selected))
+            .thenApply(stations -> new QueryResult(plan, stations, execution.calls.get(), execution.failedCalls.get()));
+   }
+
+   /**
+    * Returns the count of cached details
+    */
+   public int getCachedDetailCount()
+   {
+      return details.size();
+   }
+
+   private CompletableFuture<List<QueryStation>> fetchArea(final QueryPlan plan, final Execution execution)
+   {
+      final StationQuery query = plan.getQuery();
+      final GasPrices.GasType gasType = query.getGasType().orElse(null);
+      final QueryPlan.StepType type = plan.getSteps().get(0).getType();
+      if (type == QueryPlan.StepType.INDEX)
+      {
+         // The index is consulted again, as it might have expired since planning
+         final Optional<List<Station>> indexed = index.query(toListQuery(query, GasRequestType.ALL));
+         if (indexed.isPresent())
+         {
+            return CompletableFuture.completedFuture(toQueryStations(indexed.get(), gasType));
+         }
+      }
+
+      final boolean all = type != QueryPlan.StepType.LIST_SINGLE;
+      final StationListQuery listQuery = toListQuery(query, all ? GasRequestType.ALL : GasRequestType.valueOf(gasType.name()));
+      if (all && index != null)
+      {
+         // Requests the enlarged circle, so the index covers the area for repeated queries
+         final double radius = index.getCoveringRadius(query.getRadius());
+         return call(() -> upstream.list(listQuery.withArea(query.getLat(), query.getLng(), radius)), execution).thenApply(result ->
+         {
+            if (result == null)
+            {
+               return new ArrayList<>();
+            }
+            index.add(query.getLat(), query.getLng(), radius, result.getStations());
+            return toQueryStations(StationListSelector.select(result.getStations(), listQuery), gasType);
+         });
+      }
+
+      return call(() -> upstream.list(listQuery), execution).thenApply(result ->
+      {
+         if (result == null)
+         {
+            return new ArrayList<>();
+         }
+         return toQueryStations(result.getStations(), gasType);
+      });
+   }
+
+   private CompletableFuture<List<QueryStation>> fetchPrices(final StationQuery query, final Execution execution)
+   {
+      final Instant now = clock.instant();
+      return fetchGasPrices(query.getStationIds(), execution).thenApply(gasPrices ->
+      {
+         final List<QueryStation> stations = new ArrayList<>();
+         for (final String id : query.getStationIds())
+         {
+            final QueryStation station = toQueryStation(id, getCachedDetail(id, now).orElse(null), gasPrices.get(id), query);
+            if (station != null)
+            {
+               stations.add(station);
+            }
+         }
+         return stations;
+      });
+   }
+
+   private CompletableFuture<List<QueryStation>> fetchDetailed(final StationQuery query, final Execution execution)
+   {
+      final Instant now = clock.instant();
+      final Map<String, Station> cached = new HashMap<>();
+      final List<String> uncached = new ArrayList<>();
+      for (final String id : query.getStationIds())
+      {
+         final Optional<Station> detail = getCachedDetail(id, now);
+         if (detail.isPresent())
+         {
+            cached.put(id, detail.get());
+         }
+         else
+         {
+            uncached.add(id);
+         }
+      }
+
+      final List<CompletableFuture<Station>> fetched = new ArrayList<>();
+      for (final String id : uncached)
+      {
+         fetched.add(fetchDetail(id, execution));
+      }
+      final CompletableFuture<Map<String, GasPrices>> gasPrices = fetchGasPrices(new ArrayList<>(cached.keySet()), execution);
+
+      return CompletableFuture.allOf(fetched.toArray(new CompletableFuture<?>[0])).thenCombine(gasPrices, (ignored, prices) ->
+      {
+         final Map<String, Station> detailed = new HashMap<>();
+         for (int i = 0; i < uncached.size(); i++)
+         {
+            detailed.put(uncached.get(i), fetched.get(i).join());
+         }
+
+         final List<QueryStation> stations = new ArrayList<>();
+         for (final String id : query.getStationIds())
+         {
+            final Station detail = detailed.get(id);
+            final QueryStation station = detail != null
+                  ? new QueryStation(id, detail, priceOf(detail, query.getGasType().orElse(null)), detail.isOpen(), null)
+                  : toQueryStation(id, cached.get(id), prices.get(id), query);
+            if (station != null)
+            {
+               stations.add(station);
+            }
+         }
+         return stations;
+      });
+   }
+
+   private CompletableFuture<List<QueryStation>> addDetails(final List<QueryStation> stations, final Execution execution)
+   {
+      final Instant now = clock.instant();
+      final List<CompletableFuture<QueryStation>> detailed = new ArrayList<>();
+      for (final QueryStation station : stations)
+      {
+         final Optional<Station> cached = getCachedDetail(station.getId(), now);
+         detailed.add(cached.isPresent()
+               ? CompletableFuture.completedFuture(station.withStation(cached.get()))
+               : fetchDetail(station.getId(), execution).thenApply(detail -> detail != null ? station.withStation(detail) : station));
+      }
+
+      return CompletableFuture.allOf(detailed.toArray(new CompletableFuture<?>[0])).thenApply(ignored ->
+      {
+         final List<QueryStation> result = new ArrayList<>(detailed.size());
+         for (final CompletableFuture<QueryStation> station : detailed)
+         {
+            result.add(station.join());
+         }
+         return result;
+      });
+   }
+
+   private CompletableFuture<Map<String, GasPrices>> fetchGasPrices(final List<String> stationIds, final Execution execution)
+   {
+      final List<CompletableFuture<PricesResult>> batches = new ArrayList<>();
+      for (int i = 0; i < stationIds.size(); i += PRICES_BATCH_SIZE)
+      {
+         final List<String> batch = stationIds.subList(i, Math.min(i + PRICES_BATCH_SIZE, stationIds.size()));
+         batches.add(call(() -> upstream.prices(batch), execution));
+      }
+
+      return CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0])).thenApply(ignored ->
+      {
+         final Map<String, GasPrices> gasPrices = new HashMap<>();
+         for (final CompletableFuture<PricesResult> batch : batches)
+         {
+            final PricesResult result = batch.join();
+            if (result != null)
+            {
+               gasPrices.putAll(result.getGasPrices());
+            }
+         }
+         return gasPrices;
+      });
+   }
+
+   private CompletableFuture<Station> fetchDetail(final String id, final Execution execution)
+   {
+      return call(() -> upstream.detail(id), execution).thenApply(result ->
+      {
+         if (result == null || result.getStation() == null)
+         {
+            return null;
+         }
+         details.put(id, new CachedDetail(result.getStation(), clock.instant()));
+         return result.getStation();
+      });
+   }
+
+   /**
+    * Runs the call on the executor. Exceptions and failed results are counted and completed as null.
+    */
+   private <R extends Result> CompletableFuture<R> call(final Call<R> call, final Execution execution)
+   {
+      return CompletableFuture.supplyAsync(() ->
+      {
+         execution.calls.incrementAndGet();
+         try
+         {
+            final R result = call.execute();
+            if (Boolean.TRUE.equals(result.isOk()))
+            {
+               return result;
+            }
+         }
+         catch (RequesterException e)
+         {
+            // Reported as failed call
+         }
+         execution.failedCalls.incrementAndGet();
+         return null;
+      }, executor);
+   }
+
+   private Optional<Station> getCachedDetail(final String id, final Instant now)
+   {
+      final CachedDetail cached = details.get(id);
+      if (cached == null || cached.fetchedAt.isBefore(now.minus(detailMaxAge)))
+      {
+         return Optional.empty();
+      }
+      return Optional.of(cached.station);
+   }
+
+   private static List<QueryStation> select(final List<QueryStation> stations, final StationQuery query)
+   {
+      final List<QueryStation> selected = new ArrayList<>();
+      for (final QueryStation station : stations)
+      {
+         if ((!query.isOpenOnly() || station.isOpen()) && (!query.getGasType().isPresent() || station.getPrice().isPresent()))
+         {
+            selected.add(station);
+         }
+      }
+
+      final Comparator<QueryStation> byDistance = Comparator.comparing(station -> station.getDistance().orElse(0.0));
+      if (query.getOrder() == StationQuery.Order.PRICE)
+      {
+         selected.sort(Comparator.comparing((QueryStation station) -> station.getPrice().get()).thenComparing(byDistance));
+      }
+      else if (query.isArea())
+      {
+         selected.sort(byDistance);
+      }
+      return selected.size() > query.getLimit() ? new ArrayList<>(selected.subList(0, query.getLimit())) : selected;
+   }
+
+   private static List<QueryStation> toQueryStations(final List<Station> stations, final GasPrices.GasType gasType)
+   {
+      final List<QueryStation> queryStations = new ArrayList<>(stations.size());
+      for (final Station station : stations)
+      {
+         final Location location = station.getLocation();
+         final Double distance = location != null ? location.getDistance().orElse(null) : null;
+         queryStations.add(new QueryStation(station.getId(), station, priceOf(station, gasType), station.isOpen(), distance));
+      }
+      return queryStations;
+   }
+
+   /**
+    * Creates the station for a looked up ID, null if the station was not priced or not found
+    */
+   private static QueryStation toQueryStation(final String id, final Station station, final GasPrices gasPrices, final StationQuery query)
+   {
+      if (gasPrices == null || gasPrices.getStatus() == GasPrices.Status.NOT_FOUND)
+      {
+         return null;
+      }
+      final Float price = query.getGasType().flatMap(gasPrices::getPrice).orElse(null);
+      return new QueryStation(id, station, price, gasPrices.getStatus() == GasPrices.Status.OPEN, null);
+   }
+
+   private static Float priceOf(final Station station, final GasPrices.GasType gasType)
+   {
+      if (gasType == null)
+      {
+         return null;
+      }
+      final Optional<GasPrices> gasPrices = station.getGasPrices();
+      return gasPrices.isPresent() ? gasPrices.get().getPrice(gasType).orElse(null) : station.getPrice().orElse(null);
+   }
+
+   private static StationListQuery toListQuery(final StationQuery query, final GasRequestType gasRequestType)
+   {
+      final StationListRequest.SortingRequestType sorting = query.getOrder() == StationQuery.Order.PRICE
+            ? StationListRequest.SortingRequestType.PRICE
+            : StationListRequest.SortingRequestType.DISTANCE;
+      return StationListQuery.of(query.getLat(), query.getLng(), query.getRadius(), gasRequestType, sorting);
+   }
+
+   private static int batches(final int count)
+   {
+      return (count + PRICES_BATCH_SIZE - 1) / PRICES_BATCH_SIZE;
+   }
+
+   /**
+    * Requests the API
+    */
+   public interface Upstream
+   {
+      /**
+       * Requests list.php
+       */
+      StationListResult list(final StationListQuery query) throws RequesterException;
+
+      /**
+       * Requests prices.php for up to 10 stations
+       */
+      PricesResult prices(final Collection<String> stationIds) throws RequesterException;
+
+      /**
+       * Requests detail.php
+       */
+      StationDetailResult detail(final String stationId) throws RequesterException;
+   }
+
+   @FunctionalInterface
+   private interface Call<R extends Result>
+   {
+      R execute() throws RequesterException;
+   }
+
+   private static final class Execution
+   {
+      private final AtomicInteger calls = new AtomicInteger();
+      private final AtomicInteger failedCalls = new AtomicInteger();
+   }
+
+   private static final class CachedDetail
+   {
+      private final Station station;
+      private final Instant fetchedAt;
+
+      private CachedDetail(final Station station, final Instant fetchedAt)
+      {
+         this.station = station;
+         this.fetchedAt = fetchedAt;
+      }
+   }
+}
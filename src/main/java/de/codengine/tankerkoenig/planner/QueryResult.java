@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.planner;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of an executed {@link QueryPlan}. Failed upstream calls are reported instead of failing
+ * the query, so the result might be incomplete.
+ */
+public final class QueryResult
+{
+   private final QueryPlan plan;
+   private final List<QueryStation> stations;
+   private final int calls;
+   private final int failedCalls;
+
+   QueryResult(final QueryPlan plan, final List<QueryStation> stations, final int calls, final int failedCalls)
+   {
+      this.plan = plan;
+      this.stations = Collections.unmodifiableList(stations);
+      this.calls = calls;
+      this.failedCalls = failedCalls;
+   }
+
+   /**
+    * Returns the executed plan
+    */
+   public QueryPlan getPlan()
+   {
+      return plan;
+   }
+
+   /**
+    * Returns the stations in the order of the query
+    */
+   public List<QueryStation> getStations()
+   {
+      return stations;
+   }
+
+   /**
+    * Returns the count of executed upstream calls
+    */
+   public int getCalls()
+   {
+      return calls;
+   }
+
+   /**
+    * Returns the count of upstream calls which threw an exception or returned a failed result
+    */
+   public int getFailedCalls()
+   {
+      return failedCalls;
+   }
+
+   /**
+    * Determines if every upstream call succeeded
+    */
+   public boolean isComplete()
+   {
+      return failedCalls == 0;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "QueryResult{" +
+            "stations=" + stations.size() +
+            ", calls=" + calls +
+            ", failedCalls=" + failedCalls +
+            ", plan=" + plan +
+            '}';
+   }
+}
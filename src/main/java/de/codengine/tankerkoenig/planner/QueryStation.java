@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.planner;
+
+import java.util.Optional;
+
+import de.codengine.tankerkoenig.models.mapper.Station;
+
+/**
+ * A station returned by a {@link QueryPlanner}
+ */
+public final class QueryStation
+{
+   private final String id;
+   private final Station station;
+   private final Float price;
+   private final boolean open;
+   private final Double distance;
+
+   QueryStation(final String id, final Station station, final Float price, final boolean open, final Double distance)
+   {
+      this.id = id;
+      this.station = station;
+      this.price = price;
+      this.open = open;
+      this.distance = distance;
+   }
+
+   /**
+    * Returns a copy of this station with the supplied station data, e.g. the station details
+    */
+   QueryStation withStation(final Station station)
+   {
+      return new QueryStation(id, station, price, open, distance);
+   }
+
+   /**
+    * Returns the station ID
+    */
+   public String getId()
+   {
+      return id;
+   }
+
+   /**
+    * Returns the station data as requested by list.php or detail.php. Unavailable if only the
+    * price of a looked up station was requested.
+    */
+   public Optional<Station> getStation()
+   {
+      return Optional.ofNullable(station);
+   }
+
+   /**
+    * Returns the current price of the gas type of the query
+    */
+   public Optional<Float> getPrice()
+   {
+      return Optional.ofNullable(price);
+   }
+
+   /**
+    * Determines if the station is opened
+    */
+   public boolean isOpen()
+   {
+      return open;
+   }
+
+   /**
+    * Returns the distance to the search center in km, unavailable for looked up stations
+    */
+   public Optional<Double> getDistance()
+   {
+      return Optional.ofNullable(distance);
+   }
+
+   @Override
+   public String toString()
+   {
+      return "QueryStation{" +
+            "id='" + id + '\'' +
+            ", price=" + price +
+            ", open=" + open +
+            ", distance=" + distance +
+            '}';
+   }
+}
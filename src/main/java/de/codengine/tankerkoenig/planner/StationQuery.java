@@ -0,0 +1,277 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.planner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+
+/**
+ * A declarative station query, which is planned and executed by a {@link QueryPlanner}, e.g.
+ * "the 5 cheapest open stations for diesel within 10 km, with opening times".
+ * <p>
+ * A query either searches the stations around a position or looks up the supplied station IDs.
+ */
+public final class StationQuery
+{
+   private final double lat;
+   private final double lng;
+   private final double radius;
+   private final List<String> stationIds;
+   private final GasPrices.GasType gasType;
+   private final Order order;
+   private final boolean openOnly;
+   private final int limit;
+   private final boolean openingTimes;
+
+   private StationQuery(final double lat, final double lng, final double radius, final List<String> stationIds,
+         final GasPrices.GasType gasType, final Order order, final boolean openOnly, final int limit, final boolean openingTimes)
+   {
+      this.lat = lat;
+      this.lng = lng;
+      this.radius = radius;
+      this.stationIds = stationIds;
+      this.gasType = gasType;
+      this.order = order;
+      this.openOnly = openOnly;
+      this.limit = limit;
+      this.openingTimes = openingTimes;
+   }
+
+   /**
+    * Creates a query for the stations around the position, ordered by distance
+    *
+    * @param lat    Must be between -90 and 90
+    * @param lng    Must be between -180 and 180
+    * @param radius The search radius, which has to be between 1 and 25 km
+    */
+   public static StationQuery around(final double lat, final double lng, final double radius)
+   {
+      if (!(lat >= -90 && lat <= 90) || !(lng >= -180 && lng <= 180))
+      {
+         throw new IllegalArgumentException("The position has to be within the valid coordinate range");
+      }
+      if (!(radius >= 1 && radius <= 25))
+      {
+         throw new IllegalArgumentException("The radius has to be between 1 and 25 km");
+      }
+      return new StationQuery(lat, lng, radius, Collections.emptyList(), null, Order.DISTANCE, false, Integer.MAX_VALUE, false);
+   }
+
+   /**
+    * Creates a query for the supplied stations, in the order of the IDs
+    */
+   public static StationQuery ofStations(final String... stationIds)
+   {
+      return ofStations(Arrays.asList(stationIds));
+   }
+
+   /**
+    * Creates a query for the supplied stations, in the order of the IDs. Duplicate IDs are ignored.
+    */
+   public static StationQuery ofStations(final Collection<String> stationIds)
+   {
+      if (stationIds == null || stationIds.isEmpty())
+      {
+         throw new IllegalArgumentException("At least one station ID has to be supplied");
+      }
+
+      final Set<String> ids = new LinkedHashSet<>();
+      for (final String id : stationIds)
+      {
+         if (id == null || id.isEmpty())
+         {
+            throw new IllegalArgumentException("The station IDs must not be null or empty");
+         }
+         ids.add(id);
+      }
+      return new StationQuery(Double.NaN, Double.NaN, Double.NaN, Collections.unmodifiableList(new ArrayList<>(ids)), null,
+            Order.DISTANCE, false, Integer.MAX_VALUE, false);
+   }
+
+   /**
+    * Returns a copy of this query for the gas type, which leaves out stations without a price for it
+    */
+   public StationQuery withGasType(final GasPrices.GasType gasType)
+   {
+      return new StationQuery(lat, lng, radius, stationIds, gasType, order, openOnly, limit, openingTimes);
+   }
+
+   /**
+    * Returns a copy of this query with another order. Ordering by price requires a gas type.
+    */
+   public StationQuery withOrder(final Order order)
+   {
+      if (order == null)
+      {
+         throw new IllegalArgumentException("The order must not be null");
+      }
+      return new StationQuery(lat, lng, radius, stationIds, gasType, order, openOnly, limit, openingTimes);
+   }
+
+   /**
+    * Returns a copy of this query which leaves out closed stations if true is supplied
+    */
+   public StationQuery withOpenOnly(final boolean openOnly)
+   {
+      return new StationQuery(lat, lng, radius, stationIds, gasType, order, openOnly, limit, openingTimes);
+   }
+
+   /**
+    * Returns a copy of this query returning at most the supplied number of stations
+    */
+   public StationQuery withLimit(final int limit)
+   {
+      if (limit < 1)
+      {
+         throw new IllegalArgumentException("The limit has to be at least 1");
+      }
+      return new StationQuery(lat, lng, radius, stationIds, gasType, order, openOnly, limit, openingTimes);
+   }
+
+   /**
+    * Returns a copy of this query which returns the stations with opening times if true is supplied.
+    * The opening times are only available by station details, so an area query requires a limit.
+    */
+   public StationQuery withOpeningTimes(final boolean openingTimes)
+   {
+      return new StationQuery(lat, lng, radius, stationIds, gasType, order, openOnly, limit, openingTimes);
+   }
+
+   /**
+    * Determines if the query searches the stations around a position, else it looks up station IDs
+    */
+   public boolean isArea()
+   {
+      return stationIds.isEmpty();
+   }
+
+   /**
+    * Returns the latitude of the search center, NaN if the query looks up station IDs
+    */
+   public double getLat()
+   {
+      return lat;
+   }
+
+   /**
+    * Returns the longitude of the search center, NaN if the query looks up station IDs
+    */
+   public double getLng()
+   {
+      return lng;
+   }
+
+   /**
+    * Returns the search radius in km, NaN if the query looks up station IDs
+    */
+   public double getRadius()
+   {
+      return radius;
+   }
+
+   /**
+    * Returns the looked up station IDs, which is empty for an area query
+    */
+   public List<String> getStationIds()
+   {
+      return stationIds;
+   }
+
+   /**
+    * Returns the gas type whose price is requested
+    */
+   public Optional<GasPrices.GasType> getGasType()
+   {
+      return Optional.ofNullable(gasType);
+   }
+
+   /**
+    * Returns the order of the stations
+    */
+   public Order getOrder()
+   {
+      return order;
+   }
+
+   /**
+    * Determines if closed stations are left out
+    */
+   public boolean isOpenOnly()
+   {
+      return openOnly;
+   }
+
+   /**
+    * Returns the maximum number of stations, {@link Integer#MAX_VALUE} if unlimited
+    */
+   public int getLimit()
+   {
+      return limit;
+   }
+
+   /**
+    * Determines if the stations are returned with opening times
+    */
+   public boolean isOpeningTimes()
+   {
+      return openingTimes;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "StationQuery{" +
+            (isArea() ? "lat=" + lat + ", lng=" + lng + ", radius=" + radius : "stationIds=" + stationIds) +
+            ", gasType=" + gasType +
+            ", order=" + order +
+            ", openOnly=" + openOnly +
+            ", limit=" + limit +
+            ", openingTimes=" + openingTimes +
+            '}';
+   }
+
+   /**
+    * The order of the returned stations
+    */
+   public enum Order
+   {
+      /**
+       * The nearest stations first. Stations looked up by ID keep the order of the IDs.
+       */
+      DISTANCE,
+      /**
+       * The cheapest stations first, ties are ordered by distance
+       */
+      PRICE
+   }
+}
@@ -0,0 +1,271 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+
+/**
+ * Learns the change rate of every station by hour of day and distributes a fixed budget of polls
+ * among the stations, so volatile stations are polled more often than stations with rare changes.
+ * <p>
+ * A station is polled with a frequency proportional to the square root of its change rate at the
+ * current hour, which minimizes the expected count of missed changes for a fixed budget. The rate of
+ * an hour is estimated from decayed counts of changes and observed hours, smoothed towards the mean
+ * rate of the station, which is smoothed towards a prior of 4 changes per day. The polls of every hour
+ * of day are normalized by the sum of the square roots of the rates of all stations at that hour, so
+ * the stations share exactly the budget. Limiting the intervals to the maximum interval adds polls
+ * for quiet stations, which may exceed the budget, while the minimum interval only removes polls.
+ */
+public final class AdaptiveSchedule implements PollingSchedule
+{
+   private final static int HOURS = 24;
+   private final static double DECAY = 0.95;
+   private final static double PRIOR_CHANGES = 0.5;
+   private final static double PRIOR_HOURS = 3;
+   private final static double MEAN_WEIGHT_HOURS = 1;
+   private final static int NO_FINGERPRINT = 0;
+
+   private final double pollsPerHour;
+   private final Duration minInterval;
+   private final Duration maxInterval;
+   private final ZoneId zone;
+   private final Map<String, Integer> rows = new HashMap<>();
+   private final Deque<Integer> freeRows = new ArrayDeque<>();
+   private float[] changes = new float[16 * HOURS];
+   private float[] hours = new float[16 * HOURS];
+   private long[] lastObserved = new long[16];
+   private int[] fingerprints = new int[16];
+   private double[] sqrtMeanRates = new double[16];
+   private double[] sqrtRates = new double[16 * HOURS];
+   private final double[] sqrtRateSums = new double[HOURS];
+
+   /**
+    * Creates a schedule with intervals between 1 minute and 6 hours for stations in Germany
+    *
+    * @param pollsPerHour The budget of station polls per hour, e.g. 10 stations per prices.php call
+    */
+   public AdaptiveSchedule(final double pollsPerHour)
+   {
+      this(pollsPerHour, Duration.ofMinutes(1), Duration.ofHours(6), ZoneId.of("Europe/Berlin"));
+   }
+
+   /**
+    * @param pollsPerHour The budget of station polls per hour, e.g. 10 stations per prices.php call
+    * @param minInterval  The minimum interval of a station
+    * @param maxInterval  The maximum interval of a station
+    * @param zone         The zone of the hours of day
+    */
+   public AdaptiveSchedule(final double pollsPerHour, final Duration minInterval, final Duration maxInterval, final ZoneId zone)
+   {
+      if (!(pollsPerHour > 0))
+      {
+         throw new IllegalArgumentException("The polls per hour have to be greater than 0");
+      }
+      if (minInterval == null || maxInterval == null || minInterval.isNegative() || minInterval.isZero()
+            || maxInterval.compareTo(minInterval) < 0)
+      {
+         throw new IllegalArgumentException("The intervals have to be positive and the maximum must not be less than the minimum");
+      }
+      if (zone == null)
+      {
+         throw new IllegalArgumentException("The zone must not be null");
+      }
+
+      this.pollsPerHour = pollsPerHour;
+      this.minInterval = minInterval;
+      this.maxInterval = maxInterval;
+      this.zone = zone;
+   }
+
+   @Override
+   public synchronized Duration nextPoll(final String stationId, final Instant now)
+   {
+      final int row = rowOf(stationId);
+      final int hour = hourOf(now);
+
+      // The station gets the share sqrt(rate) / sum(sqrt(rate)) of the budget of the hour
+      final double intervalHours = sqrtRateSums[hour] / (pollsPerHour * sqrtRates[row * HOURS + hour]);
+      final Duration interval = Duration.ofMillis((long) (intervalHours * 3_600_000));
+      if (interval.compareTo(minInterval) < 0)
+      {
+         return minInterval;
+      }
+      return interval.compareTo(maxInterval) > 0 ? maxInterval : interval;
+   }
+
+   @Override
+   public synchronized void observe(final String stationId, final GasPrices gasPrices, final Instant now)
+   {
+      final int row = rowOf(stationId);
+      final int fingerprint = fingerprintOf(gasPrices);
+      final long observed = now.toEpochMilli();
+      if (fingerprints[row] != NO_FINGERPRINT && observed > lastObserved[row])
+      {
+         final int index = row * HOURS + hourOf(now);
+         changes[index] = (float) (changes[index] * DECAY + (fingerprint != fingerprints[row] ? 1 : 0));
+         hours[index] = (float) (hours[index] * DECAY + (observed - lastObserved[row]) / 3_600_000.0);
+         updateMeanRate(row);
+         updateRates(row);
+      }
+      fingerprints[row] = fingerprint;
+      lastObserved[row] = observed;
+   }
+
+   @Override
+   public synchronized void remove(final String stationId)
+   {
+      final Integer row = rows.remove(stationId);
+      if (row != null)
+      {
+         for (int hour = 0; hour < HOURS; hour++)
+         {
+            sqrtRateSums[hour] -= sqrtRates[row * HOURS + hour];
+         }
+         freeRows.push(row);
+      }
+   }
+
+   /**
+    * Returns the estimated changes per hour of the station at the hour of day of the instant
+    */
+   public synchronized double getChangesPerHour(final String stationId, final Instant at)
+   {
+      final Integer row = rows.get(stationId);
+      return row == null ? PRIOR_CHANGES / PRIOR_HOURS : rate(row, hourOf(at));
+   }
+
+   /**
+    * Returns the count of known stations
+    */
+   public synchronized int size()
+   {
+      return rows.size();
+   }
+
+   private double rate(final int row, final int hour)
+   {
+      final double meanRate = sqrtMeanRates[row] * sqrtMeanRates[row];
+      final int index = row * HOURS + hour;
+      return (changes[index] + MEAN_WEIGHT_HOURS * meanRate) / (hours[index] + MEAN_WEIGHT_HOURS);
+   }
+
+   private void updateMeanRate(final int row)
+   {
+      double totalChanges = PRIOR_CHANGES;
+      double totalHours = PRIOR_HOURS;
+      for (int i = row * HOURS; i < (row + 1) * HOURS; i++)
+      {
+         totalChanges += changes[i];
+         totalHours += hours[i];
+      }
+
+      sqrtMeanRates[row] = Math.sqrt(totalChanges / totalHours);
+   }
+
+   /**
+    * Updates the square roots of the rates of every hour and their sums over the stations
+    */
+   private void updateRates(final int row)
+   {
+      for (int hour = 0; hour < HOURS; hour++)
+      {
+         final int index = row * HOURS + hour;
+         final double sqrtRate = Math.sqrt(rate(row, hour));
+         sqrtRateSums[hour] += sqrtRate - sqrtRates[index];
+         sqrtRates[index] = sqrtRate;
+      }
+   }
+
+   private int rowOf(final String stationId)
+   {
+      final Integer existing = rows.get(stationId);
+      if (existing != null)
+      {
+         return existing;
+      }
+
+      final int row;
+      if (!freeRows.isEmpty())
+      {
+         row = freeRows.pop();
+      }
+      else
+      {
+         row = rows.size();
+         ensureCapacity(row + 1);
+      }
+
+      Arrays.fill(changes, row * HOURS, (row + 1) * HOURS, 0);
+      Arrays.fill(hours, row * HOURS, (row + 1) * HOURS, 0);
+      fingerprints[row] = NO_FINGERPRINT;
+      lastObserved[row] = 0;
+      Arrays.fill(sqrtRates, row * HOURS, (row + 1) * HOURS, 0);
+      sqrtMeanRates[row] = Math.sqrt(PRIOR_CHANGES / PRIOR_HOURS);
+      updateRates(row);
+      rows.put(stationId, row);
+      return row;
+   }
+
+   private void ensureCapacity(final int rowCount)
+   {
+      if (rowCount > fingerprints.length)
+      {
+         final int capacity = Math.max(rowCount, fingerprints.length * 2);
+         changes = Arrays.copyOf(changes, capacity * HOURS);
+         hours = Arrays.copyOf(hours, capacity * HOURS);
+         lastObserved = Arrays.copyOf(lastObserved, capacity);
+         fingerprints = Arrays.copyOf(fingerprints, capacity);
+         sqrtMeanRates = Arrays.copyOf(sqrtMeanRates, capacity);
+         sqrtRates = Arrays.copyOf(sqrtRates, capacity * HOURS);
+      }
+   }
+
+   private int hourOf(final Instant instant)
+   {
+      return instant.atZone(zone).getHour();
+   }
+
+   /**
+    * Returns a hash of the prices and status, which is never {@link #NO_FINGERPRINT}
+    */
+   private static int fingerprintOf(final GasPrices gasPrices)
+   {
+      int fingerprint = gasPrices.getStatus() == null ? 0 : gasPrices.getStatus().ordinal() + 1;
+      for (final GasPrices.GasType gasType : GasPrices.GasType.values())
+      {
+         fingerprint = 31 * fingerprint + gasPrices.getPrice(gasType).map(Float::floatToIntBits).orElse(0);
+      }
+      return fingerprint == NO_FINGERPRINT ? 1 : fingerprint;
+   }
+}
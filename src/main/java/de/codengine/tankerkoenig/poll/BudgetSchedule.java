@@ -0,0 +1,228 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import de.codengine.tankerkoenig.budget.RequestBudget;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+
+/**
+ * Decorates a schedule, so the polls never consume more calls than the {@link RequestBudget} can
+ * sustain until the end of the day.
+ * <p>
+ * The schedule claims a share of the rate available in the budget, which adapts as the budget is
+ * consumed by the poller and any other requests. The polls are distributed among the watched stations
+ * in proportion to the square root of their views, which minimizes the staleness of the prices as
+ * seen by the viewers. Views of stations which are not watched (yet) are kept, but do not claim any polls.
+ * The views are halved every half-life, so the popularity can shift. The interval of the decorated
+ * schedule is kept if it is longer.
+ * <p>
+ * The rate is converted to station polls assuming calls of 10 stations, which holds as the {@link PricePoller}
+ * fills its calls with the stations due next without raising their rate of polls.
+ */
+public final class BudgetSchedule implements PollingSchedule
+{
+   private final static int STATIONS_PER_CALL = 10;
+
+   private final PollingSchedule delegate;
+   private final RequestBudget budget;
+   private final double share;
+   private final Duration halfLife;
+   private final Map<String, Entry> entries = new HashMap<>();
+   private double sqrtWeightSum;
+   private Instant lastHalving;
+
+   /**
+    * Creates a schedule with a half-life of the views of one day
+    *
+    * @param delegate The schedule determining the intervals within the budget
+    * @param budget   The budget of the API used by the poller
+    * @param share    The share of the available rate, which might be used for polling
+    */
+   public BudgetSchedule(final PollingSchedule delegate, final RequestBudget budget, final double share)
+   {
+      this(delegate, budget, share, Duration.ofDays(1));
+   }
+
+   /**
+    * @param delegate The schedule determining the intervals within the budget
+    * @param budget   The budget of the API used by the poller
+    * @param share    The share of the available rate, which might be used for polling
+    * @param halfLife The time after which the views are halved
+    */
+   public BudgetSchedule(final PollingSchedule delegate, final RequestBudget budget, final double share, final Duration halfLife)
+   {
+      if (delegate == null || budget == null)
+      {
+         throw new IllegalArgumentException("The schedule and the budget must not be null");
+      }
+      if (!(share > 0) || share > 1)
+      {
+         throw new IllegalArgumentException("The share has to be greater than 0 and at most 1");
+      }
+      if (halfLife == null || halfLife.isNegative() || halfLife.isZero())
+      {
+         throw new IllegalArgumentException("The half-life has to be positive");
+      }
+
+      this.delegate = delegate;
+      this.budget = budget;
+      this.share = share;
+      this.halfLife = halfLife;
+   }
+
+   /**
+    * Records a view of the station, which raises its share of the polls
+    */
+   public synchronized void view(final String stationId, final Instant now)
+   {
+      if (lastHalving == null)
+      {
+         lastHalving = now;
+      }
+      else if (!now.isBefore(lastHalving.plus(halfLife)))
+      {
+         halveViews();
+         lastHalving = now;
+      }
+
+      final Entry entry = entries.computeIfAbsent(stationId, id -> new Entry());
+      if (entry.watched)
+      {
+         sqrtWeightSum += entry.sqrtWeight(1) - entry.sqrtWeight(0);
+      }
+      entry.views++;
+   }
+
+   /**
+    * Returns the current (halved) views of the station
+    */
+   public synchronized double getViews(final String stationId)
+   {
+      final Entry entry = entries.get(stationId);
+      return entry != null ? entry.views : 0;
+   }
+
+   @Override
+   public Duration nextPoll(final String stationId, final Instant now)
+   {
+      final Duration interval = delegate.nextPoll(stationId, now);
+      final Duration limited = budgetInterval(stationId);
+      return limited.compareTo(interval) > 0 ? limited : interval;
+   }
+
+   @Override
+   public void observe(final String stationId, final GasPrices gasPrices, final Instant now)
+   {
+      delegate.observe(stationId, gasPrices, now);
+   }
+
+   @Override
+   public void remove(final String stationId)
+   {
+      synchronized (this)
+      {
+         final Entry entry = entries.remove(stationId);
+         if (entry != null && entry.watched)
+         {
+            sqrtWeightSum -= entry.sqrtWeight(0);
+         }
+      }
+      delegate.remove(stationId);
+   }
+
+   /**
+    * Returns the interval, at which the station gets its share of the available station polls
+    */
+   private Duration budgetInterval(final String stationId)
+   {
+      final double pollsPerHour = budget.getAvailableRate() * share * STATIONS_PER_CALL;
+      final double sqrtWeight;
+      final double sum;
+      synchronized (this)
+      {
+         sqrtWeight = watch(stationId).sqrtWeight(0);
+         sum = sqrtWeightSum;
+      }
+
+      final Duration timeUntilReset = budget.getTimeUntilReset();
+      if (!(pollsPerHour > 0))
+      {
+         return timeUntilReset;
+      }
+      final Duration interval = Duration.ofMillis((long) (sum / (pollsPerHour * sqrtWeight) * 3_600_000));
+      return interval.compareTo(timeUntilReset) > 0 ? timeUntilReset : interval;
+   }
+
+   private Entry watch(final String stationId)
+   {
+      final Entry entry = entries.computeIfAbsent(stationId, id -> new Entry());
+      if (!entry.watched)
+      {
+         entry.watched = true;
+         sqrtWeightSum += entry.sqrtWeight(0);
+      }
+      return entry;
+   }
+
+   private void halveViews()
+   {
+      sqrtWeightSum = 0;
+      final Iterator<Entry> iterator = entries.values().iterator();
+      while (iterator.hasNext())
+      {
+         final Entry entry = iterator.next();
+         entry.views /= 2;
+         if (entry.watched)
+         {
+            sqrtWeightSum += entry.sqrtWeight(0);
+         }
+         else if (entry.views < 1)
+         {
+            // Forget rarely viewed stations which are not watched
+            iterator.remove();
+         }
+      }
+   }
+
+   private static final class Entry
+   {
+      private double views;
+      private boolean watched;
+
+      /**
+       * Returns the square root of the weight with the additional views, every station has a weight of at least 1
+       */
+      private double sqrtWeight(final double additionalViews)
+      {
+         return Math.sqrt(1 + views + additionalViews);
+      }
+   }
+}
@@ -0,0 +1,187 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.OpeningSchedule;
+import de.codengine.tankerkoenig.models.mapper.Station;
+
+/**
+ * Pauses the polling of closed stations, as prices.php only reports them as
+ * {@link GasPrices.Status#CLOSED}, and polls open stations as scheduled by the delegate.
+ * <p>
+ * If the opening times of a station are registered, a station predicted to be closed is polled
+ * again once it is predicted to open. A station whose last observed status is closed while it is
+ * predicted to be open or whose opening times are unknown is polled with a back-off interval, as
+ * it might be closed for the night or a holiday. The avoided polls are estimated by the intervals
+ * of the delegate.
+ */
+public final class OpeningHoursSchedule implements PollingSchedule
+{
+   private final static Duration MAX_PAUSE = Duration.ofDays(7);
+
+   private final PollingSchedule delegate;
+   private final Duration closedBackoff;
+   private final ZoneId zone;
+   private final Map<String, OpeningSchedule> openingSchedules = new HashMap<>();
+   private final Map<String, GasPrices.Status> observedStatuses = new HashMap<>();
+   private double avoidedPolls;
+
+   /**
+    * Creates a schedule with a back-off of 30 minutes for stations in Germany
+    */
+   public OpeningHoursSchedule(final PollingSchedule delegate)
+   {
+      this(delegate, Duration.ofMinutes(30), ZoneId.of("Europe/Berlin"));
+   }
+
+   /**
+    * @param delegate      Schedules the polls of open stations
+    * @param closedBackoff The minimum interval of stations observed closed
+    * @param zone          The zone of the opening times
+    */
+   public OpeningHoursSchedule(final PollingSchedule delegate, final Duration closedBackoff, final ZoneId zone)
+   {
+      if (delegate == null || zone == null)
+      {
+         throw new IllegalArgumentException("The delegate and the zone must not be null");
+      }
+      if (closedBackoff == null || closedBackoff.isNegative())
+      {
+         throw new IllegalArgumentException("The back-off must not be null or negative");
+      }
+      this.delegate = delegate;
+      this.closedBackoff = closedBackoff;
+      this.zone = zone;
+   }
+
+   /**
+    * Registers the opening times of the station, e.g. of a {@link de.codengine.tankerkoenig.models.requests.StationDetailResult}
+    *
+    * @return False if the station has no opening times
+    */
+   public synchronized boolean register(final Station station)
+   {
+      final OpeningSchedule openingSchedule = station.getOpeningSchedule().orElse(null);
+      if (openingSchedule == null)
+      {
+         return false;
+      }
+      openingSchedules.put(station.getId(), openingSchedule);
+      return true;
+   }
+
+   @Override
+   public Duration nextPoll(final String stationId, final Instant now)
+   {
+      final Duration interval = delegate.nextPoll(stationId, now);
+      final Duration pause;
+      synchronized (this)
+      {
+         pause = pause(stationId, now);
+         if (pause.compareTo(interval) > 0)
+         {
+            avoidedPolls += (double) pause.toMillis() / interval.toMillis() - 1;
+         }
+      }
+      return pause.compareTo(interval) > 0 ? pause : interval;
+   }
+
+   @Override
+   public void observe(final String stationId, final GasPrices gasPrices, final Instant now)
+   {
+      synchronized (this)
+      {
+         observedStatuses.put(stationId, gasPrices.getStatus());
+      }
+      delegate.observe(stationId, gasPrices, now);
+   }
+
+   @Override
+   public void remove(final String stationId)
+   {
+      synchronized (this)
+      {
+         openingSchedules.remove(stationId);
+         observedStatuses.remove(stationId);
+      }
+      delegate.remove(stationId);
+   }
+
+   /**
+    * Returns the estimated count of avoided station polls. A prices.php call polls up to 10 stations.
+    */
+   public synchronized long getAvoidedPolls()
+   {
+      return (long) avoidedPolls;
+   }
+
+   /**
+    * Returns the estimated count of avoided prices.php calls of 10 stations each
+    */
+   public synchronized long getAvoidedCalls()
+   {
+      return (long) (avoidedPolls / 10);
+   }
+
+   /**
+    * Returns the predicted opening status of the station at the instant, unknown if no opening
+    * times are registered
+    */
+   public synchronized OpeningSchedule.Status predict(final String stationId, final Instant at)
+   {
+      final OpeningSchedule openingSchedule = openingSchedules.get(stationId);
+      return openingSchedule == null ? OpeningSchedule.Status.UNKNOWN : openingSchedule.getStatus(LocalDateTime.ofInstant(at, zone));
+   }
+
+   /**
+    * Returns the minimum delay until the next poll of the station, which is zero for open stations. A station
+    * predicted to be closed is paused until its status is predicted to be open or unknown.
+    */
+   private Duration pause(final String stationId, final Instant now)
+   {
+      final OpeningSchedule openingSchedule = openingSchedules.get(stationId);
+      final OpeningSchedule.Status predicted = predict(stationId, now);
+      if (predicted == OpeningSchedule.Status.CLOSED)
+      {
+         // The opening times are local, the pause is measured in the zone to respect daylight saving time
+         final ZonedDateTime start = now.atZone(zone);
+         final Instant end = openingSchedule.nextNotClosed(start.toLocalDateTime(), start.toLocalDateTime().plus(MAX_PAUSE))
+               .map(next -> ZonedDateTime.ofLocal(next, zone, start.getOffset()).toInstant())
+               .orElse(now.plus(MAX_PAUSE));
+         return Duration.between(now, end);
+      }
+
+      return observedStatuses.get(stationId) == GasPrices.Status.CLOSED ? closedBackoff : Duration.ZERO;
+   }
+}
@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+
+/**
+ * Determines when the {@link PricePoller} polls a station next. A schedule may learn from the
+ * observed prices, which are passed to it before the listeners are notified.
+ * <p>
+ * Schedules are called concurrently and have to be thread safe.
+ */
+public interface PollingSchedule
+{
+   /**
+    * Returns the delay until the next poll of the station
+    *
+    * @param stationId The ID of the watched station
+    * @param now       The current instant
+    */
+   Duration nextPoll(final String stationId, final Instant now);
+
+   /**
+    * Observes the polled prices of the station
+    */
+   default void observe(final String stationId, final GasPrices gasPrices, final Instant now)
+   {
+   }
+
+   /**
+    * Releases the state of a station which is no longer watched
+    */
+   default void remove(final String stationId)
+   {
+   }
+
+   /**
+    * Creates a schedule polling every station in the same interval
+    */
+   static PollingSchedule fixed(final Duration interval)
+   {
+      if (interval == null || interval.isNegative() || interval.isZero())
+      {
+         throw new IllegalArgumentException("The interval has to be positive");
+      }
+      return (stationId, now) -> interval;
+   }
+}
@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import java.util.Optional;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+
+/**
+ * A change of the gas prices or the status of a polled station, emitted by the
+ * {@link PriceChangeDetector}. The first observation of a station has no previous state.
+ */
+public final class PriceChange
+{
+   private final String stationId;
+   private final float[] previousPrices;
+   private final float[] prices;
+   private final GasPrices.Status previousStatus;
+   private final GasPrices.Status status;
+
+   /**
+    * @param previousPrices The previous prices by gas type ordinal, NaN if unavailable, null on the first observation
+    * @param prices         The prices by gas type ordinal, NaN if unavailable
+    */
+   PriceChange(final String stationId, final float[] previousPrices, final float[] prices, final GasPrices.Status previousStatus,
+         final GasPrices.Status status)
+   {
+      this.stationId = stationId;
+      this.previousPrices = previousPrices;
+      this.prices = prices;
+      this.previousStatus = previousStatus;
+      this.status = status;
+   }
+
+   /**
+    * Returns the ID of the station
+    */
+   public String getStationId()
+   {
+      return stationId;
+   }
+
+   /**
+    * Determines if this is the first observation of the station
+    */
+   public boolean isFirstObservation()
+   {
+      return previousPrices == null;
+   }
+
+   /**
+    * Returns the previous price of the gas type, if available
+    */
+   public Optional<Float> getPreviousPrice(final GasPrices.GasType gasType)
+   {
+      return previousPrices == null ? Optional.empty() : toOptional(previousPrices[gasType.ordinal()]);
+   }
+
+   /**
+    * Returns the price of the gas type, if available
+    */
+   public Optional<Float> getPrice(final GasPrices.GasType gasType)
+   {
+      return toOptional(prices[gasType.ordinal()]);
+   }
+
+   /**
+    * Determines if the price of the gas type changed, which includes prices becoming (un)available
+    */
+   public boolean isPriceChanged(final GasPrices.GasType gasType)
+   {
+      return previousPrices == null || Float.floatToIntBits(previousPrices[gasType.ordinal()]) != Float.floatToIntBits(prices[gasType.ordinal()]);
+   }
+
+   /**
+    * Returns the previous status, unavailable on the first observation or if no status was delivered
+    */
+   public Optional<GasPrices.Status> getPreviousStatus()
+   {
+      return Optional.ofNullable(previousStatus);
+   }
+
+   /**
+    * Returns the status, unavailable if no status was delivered
+    */
+   public Optional<GasPrices.Status> getStatus()
+   {
+      return Optional.ofNullable(status);
+   }
+
+   /**
+    * Determines if the status changed, e.g. the station opened or closed
+    */
+   public boolean isStatusChanged()
+   {
+      return previousPrices == null || previousStatus != status;
+   }
+
+   private static Optional<Float> toOptional(final float price)
+   {
+      return Float.isNaN(price) ? Optional.empty() : Optional.of(price);
+   }
+
+   @Override
+   public String toString()
+   {
+      final StringBuilder builder = new StringBuilder("PriceChange{stationId='").append(stationId).append('\'');
+      for (final GasPrices.GasType gasType : GasPrices.GasType.values())
+      {
+         if (isPriceChanged(gasType))
+         {
+            builder.append(", ").append(gasType).append('=').append(getPreviousPrice(gasType).orElse(null))
+                  .append("->").append(getPrice(gasType).orElse(null));
+         }
+      }
+      if (isStatusChanged())
+      {
+         builder.append(", status=").append(previousStatus).append("->").append(status);
+      }
+      return builder.append('}').toString();
+   }
+}
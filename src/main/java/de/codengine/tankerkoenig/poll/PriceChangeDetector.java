@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+
+/**
+ * Compares polled gas prices with the last known state of the station and publishes a
+ * {@link PriceChange} to the stream only if a price or the status changed.
+ * <p>
+ * The last known state is kept in a primitive table with a row per station, which holds the
+ * prices by gas type and the status ordinal. The detector is thread safe and publishes from one
+ * thread at a time, as required by the {@link PriceChangeStream}.
+ */
+public final class PriceChangeDetector implements PriceListener
+{
+   private final static int GAS_TYPES = GasPrices.GasType.values().length;
+   private final static GasPrices.Status[] STATUSES = GasPrices.Status.values();
+   private final static byte NO_STATUS = -1;
+
+   private final PriceChangeStream stream;
+   private final Map<String, Integer> rows = new HashMap<>();
+   private float[] prices = new float[16 * GAS_TYPES];
+   private byte[] statuses = new byte[16];
+   private long observations;
+
+   public PriceChangeDetector(final PriceChangeStream stream)
+   {
+      if (stream == null)
+      {
+         throw new IllegalArgumentException("The stream must not be null");
+      }
+      this.stream = stream;
+   }
+
+   @Override
+   public synchronized void onPrices(final String stationId, final GasPrices gasPrices)
+   {
+      observations++;
+      final float[] observed = new float[GAS_TYPES];
+      for (final GasPrices.GasType gasType : GasPrices.GasType.values())
+      {
+         observed[gasType.ordinal()] = gasPrices.getPrice(gasType).orElse(Float.NaN);
+      }
+      final GasPrices.Status status = gasPrices.getStatus();
+      final byte observedStatus = status == null ? NO_STATUS : (byte) status.ordinal();
+
+      final Integer row = rows.get(stationId);
+      if (row == null)
+      {
+         final int newRow = rows.size();
+         ensureCapacity(newRow + 1);
+         rows.put(stationId, newRow);
+         store(newRow, observed, observedStatus);
+         stream.publish(new PriceChange(stationId, null, observed, null, status));
+         return;
+      }
+
+      final int offset = row * GAS_TYPES;
+      boolean changed = statuses[row] != observedStatus;
+      for (int i = 0; i < GAS_TYPES && !changed; i++)
+      {
+         changed = Float.floatToIntBits(prices[offset + i]) != Float.floatToIntBits(observed[i]);
+      }
+      if (!changed)
+      {
+         return;
+      }
+
+      final float[] previous = Arrays.copyOfRange(prices, offset, offset + GAS_TYPES);
+      final byte previousStatus = statuses[row];
+      store(row, observed, observedStatus);
+      stream.publish(new PriceChange(stationId, previous, observed, previousStatus == NO_STATUS ? null : STATUSES[previousStatus], status));
+   }
+
+   /**
+    * Returns the count of stations with a known state
+    */
+   public synchronized int size()
+   {
+      return rows.size();
+   }
+
+   /**
+    * Returns the count of compared observations
+    */
+   public synchronized long getObservations()
+   {
+      return observations;
+   }
+
+   private void store(final int row, final float[] observed, final byte status)
+   {
+      System.arraycopy(observed, 0, prices, row * GAS_TYPES, GAS_TYPES);
+      statuses[row] = status;
+   }
+
+   private void ensureCapacity(final int rowCount)
+   {
+      if (rowCount > statuses.length)
+      {
+         final int capacity = Math.max(rowCount, statuses.length * 2);
+         prices = Arrays.copyOf(prices, capacity * GAS_TYPES);
+         statuses = Arrays.copyOf(statuses, capacity);
+      }
+   }
+}
@@ -0,0 +1,169 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A lock-free ring buffer of {@link PriceChange}s, which is read by any number of subscriptions.
+ * <p>
+ * The producer never waits for the subscriptions: Once a subscription lags behind by more than the
+ * capacity, the overwritten changes are skipped and counted as lost. Changes have to be published
+ * by one thread at a time, e.g. by the {@link PriceChangeDetector}. Subscriptions may be read by
+ * another thread each.
+ */
+public final class PriceChangeStream
+{
+   private final AtomicReferenceArray<Slot> slots;
+   private final int mask;
+   private final AtomicLong published = new AtomicLong();
+
+   /**
+    * @param capacity The minimum count of buffered changes, which is rounded up to a power of two
+    */
+   public PriceChangeStream(final int capacity)
+   {
+      if (capacity < 1 || capacity > 1 << 30)
+      {
+         throw new IllegalArgumentException("The capacity has to be between 1 and 2^30");
+      }
+      final int powerOfTwo = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+      slots = new AtomicReferenceArray<>(powerOfTwo);
+      mask = powerOfTwo - 1;
+   }
+
+   /**
+    * Publishes the change to every subscription
+    */
+   public void publish(final PriceChange change)
+   {
+      if (change == null)
+      {
+         throw new IllegalArgumentException("The change must not be null");
+      }
+      final long sequence = published.get();
+      slots.set((int) (sequence & mask), new Slot(sequence, change));
+      published.set(sequence + 1);
+   }
+
+   /**
+    * Creates a subscription, which receives every change published from now on
+    */
+   public Subscription subscribe()
+   {
+      return new Subscription(published.get());
+   }
+
+   /**
+    * Returns the count of published changes
+    */
+   public long getPublished()
+   {
+      return published.get();
+   }
+
+   /**
+    * Returns the count of buffered changes
+    */
+   public int getCapacity()
+   {
+      return slots.length();
+   }
+
+   /**
+    * Reads the changes of the stream in the order of publishing
+    */
+   public final class Subscription
+   {
+      private long next;
+      private long lost;
+
+      private Subscription(final long next)
+      {
+         this.next = next;
+      }
+
+      /**
+       * Returns the next change, or null if every published change was read
+       */
+      public PriceChange poll()
+      {
+         while (next < published.get())
+         {
+            final Slot slot = slots.get((int) (next & mask));
+            if (slot != null && slot.sequence == next)
+            {
+               next++;
+               return slot.change;
+            }
+
+            // Overwritten by the producer, continue with the oldest buffered change
+            final long oldest = Math.max(next + 1, published.get() - slots.length() + 1);
+            lost += oldest - next;
+            next = oldest;
+         }
+         return null;
+      }
+
+      /**
+       * Passes every unread change to the consumer
+       *
+       * @return The count of passed changes
+       */
+      public int drain(final Consumer<PriceChange> consumer)
+      {
+         int count = 0;
+         PriceChange change;
+         while ((change = poll()) != null)
+         {
+            consumer.accept(change);
+            count++;
+         }
+         return count;
+      }
+
+      /**
+       * Returns the count of changes which were overwritten before they were read
+       */
+      public long getLost()
+      {
+         return lost;
+      }
+   }
+
+   private static final class Slot
+   {
+      private final long sequence;
+      private final PriceChange change;
+
+      private Slot(final long sequence, final PriceChange change)
+      {
+         this.sequence = sequence;
+         this.change = change;
+      }
+   }
+}
@@ -0,0 +1,435 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.codengine.tankerkoenig.Tankerkoenig;
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.requests.PricesResult;
+
+/**
+ * Keeps the prices of a watchlist of stations fresh by polling prices.php.
+ * <p>
+ * The interval of every station is determined by the {@link PollingSchedule}, e.g. once per fixed
+ * interval. The stations are scheduled in a {@link TimingWheel} with a random offset within the first
+ * interval and a random jitter on every reschedule, so the calls are spread evenly over the interval
+ * instead of bursting. The stations due at a tick are packed into calls of 10 stations, which are executed
+ * by the executor. A call which is not full is filled up with the stations due next, which are polled early
+ * instead of requiring a call of their own, so a watchlist needs about one call per 10 stations and interval.
+ * Stations polled early keep their next poll relative to the tick they were due at, so their rate of polls is
+ * not increased. The polled prices are passed to the schedule and delivered to the listeners, unless the station
+ * has been removed meanwhile.
+ * <p>
+ * The poller is driven by {@link #tick()}, e.g. by {@link #start(ScheduledExecutorService)}.
+ * The poller is thread safe.
+ */
+public final class PricePoller
+{
+   private final static int BATCH_SIZE = 10;
+   private final static int DEFAULT_SLOT_COUNT = 4096;
+
+   private final Upstream upstream;
+   private final Executor executor;
+   private final PollingSchedule schedule;
+   private final Duration tickDuration;
+   private final double jitter;
+   private final Random random;
+   private final Clock clock;
+   private final TimingWheel<String> wheel;
+   private final Map<String, Watch> scheduled = new HashMap<>();
+   private final List<PriceListener> listeners = new CopyOnWriteArrayList<>();
+   private final AtomicLong calls = new AtomicLong();
+   private final AtomicLong failedCalls = new AtomicLong();
+
+   /**
+    * Creates a poller with ticks of one second and a jitter of 10%, which executes the calls
+    * on the thread of the tick
+    *
+    * @param interval The interval every station is polled in
+    */
+   public PricePoller(final Upstream upstream, final Duration interval)
+   {
+      this(upstream, Runnable::run, interval, Duration.ofSeconds(1), 0.1, new Random());
+   }
+
+   /**
+    * @param upstream     Requests prices.php
+    * @param executor     Executes the calls and notifies the listeners
+    * @param interval     The interval every station is polled in
+    * @param tickDuration The duration of a tick, which has to divide the interval into at least 1 tick
+    * @param jitter       The maximum deviation of the interval as fraction, between 0 and 0.5
+    * @param random       Determines the offsets and jitter
+    */
+   public PricePoller(final Upstream upstream, final Executor executor, final Duration interval, final Duration tickDuration,
+         final double jitter, final Random random)
+   {
+      this(upstream, executor, PollingSchedule.fixed(validateInterval(interval, tickDuration)), tickDuration, jitter, random,
+            Clock.systemUTC(), (int) Math.min(interval.toNanos() / tickDuration.toNanos(), 1 << 16));
+   }
+
+   /**
+    * @param upstream     Requests prices.php
+    * @param executor     Executes the calls and notifies the listeners
+    * @param schedule     Determines the interval of every station
+    * @param tickDuration The duration of a tick, the minimum interval
+    * @param jitter       The maximum deviation of the interval as fraction, between 0 and 0.5
+    * @param random       Determines the offsets and jitter
+    * @param clock        The clock passed to the schedule
+    */
+   public PricePoller(final Upstream upstream, final Executor executor, final PollingSchedule schedule, final Duration tickDuration,
+         final double jitter, final Random random, final Clock clock)
+   {
+      this(upstream, executor, schedule, tickDuration, jitter, random, clock, DEFAULT_SLOT_COUNT);
+   }
+
+   private PricePoller(final Upstream upstream, final Executor executor, final PollingSchedule schedule, final Duration tickDuration,
+         final double jitter, final Random random, final Clock clock, final int slotCount)
+   {
+      if (upstream == null || executor == null || schedule == null || random == null || clock == null)
+      {
+         throw new IllegalArgumentException("The upstream, executor, schedule, random and clock must not be null");
+      }
+      if (tickDuration == null || tickDuration.isNegative() || tickDuration.isZero())
+      {
+         throw new IllegalArgumentException("The tick duration has to be positive");
+      }
+      if (!(jitter >= 0 && jitter <= 0.5))
+      {
+         throw new IllegalArgumentException("The jitter has to be between 0 and 0.5");
+      }
+
+      this.upstream = upstream;
+      this.executor = executor;
+      this.schedule = schedule;
+      this.tickDuration = tickDuration;
+      this.jitter = jitter;
+      this.random = random;
+      this.clock = clock;
+      this.wheel = new TimingWheel<>(slotCount);
+   }
+
+   /**
+    * Requests prices.php using the supplied API
+    */
+   public static Upstream upstream(final Tankerkoenig.Api api)
+   {
+      return stationIds -> api.prices().addIds(stationIds).execute();
+   }
+
+   /**
+    * Adds the station to the watchlist, which is polled within the next interval
+    *
+    * @return False if the station was already watched
+    */
+   public boolean add(final String stationId)
+   {
+      if (stationId == null || stationId.isEmpty())
+      {
+         throw new IllegalArgumentException("The station ID must not be null or empty");
+      }
+
+      synchronized (wheel)
+      {
+         if (scheduled.containsKey(stationId))
+         {
+            return false;
+         }
+         final long intervalTicks = toTicks(schedule.nextPoll(stationId, clock.instant()));
+         schedule(stationId, 1 + (long) (random.nextDouble() * intervalTicks), intervalTicks);
+         return true;
+      }
+   }
+
+   /**
+    * Adds the stations to the watchlist
+    *
+    * @see #add(String)
+    */
+   public void addAll(final Collection<String> stationIds)
+   {
+      stationIds.forEach(this::add);
+   }
+
+   /**
+    * Removes the station from the watchlist
+    *
+    * @return False if the station was not watched
+    */
+   public boolean remove(final String stationId)
+   {
+      synchronized (wheel)
+      {
+         final Watch watch = scheduled.remove(stationId);
+         if (watch == null)
+         {
+            return false;
+         }
+         watch.timeout.cancel();
+         schedule.remove(stationId);
+         return true;
+      }
+   }
+
+   /**
+    * Determines if the station is watched
+    */
+   public boolean contains(final String stationId)
+   {
+      synchronized (wheel)
+      {
+         return scheduled.containsKey(stationId);
+      }
+   }
+
+   /**
+    * Returns the count of watched stations
+    */
+   public int size()
+   {
+      synchronized (wheel)
+      {
+         return scheduled.size();
+      }
+   }
+
+   /**
+    * Adds a listener, which is notified on the executor
+    */
+   public void addListener(final PriceListener listener)
+   {
+      if (listener == null)
+      {
+         throw new IllegalArgumentException("The listener must not be null");
+      }
+      listeners.add(listener);
+   }
+
+   /**
+    * Removes the listener
+    */
+   public void removeListener(final PriceListener listener)
+   {
+      listeners.remove(listener);
+   }
+
+   /**
+    * Advances the poller by one tick, polling the stations which are due
+    *
+    * @return The count of calls passed to the executor
+    */
+   public int tick()
+   {
+      final Instant now = clock.instant();
+      final List<List<String>> batches = new ArrayList<>();
+      synchronized (wheel)
+      {
+         final List<String> due = wheel.tick();
+         for (int i = 0; i < due.size(); i += BATCH_SIZE)
+         {
+            final List<String> batch = new ArrayList<>(due.subList(i, Math.min(i + BATCH_SIZE, due.size())));
+            if (batch.size() < BATCH_SIZE)
+            {
+               batch.addAll(wheel.removeNext(BATCH_SIZE - batch.size(), fillTicks(batch)));
+            }
+            batches.add(batch);
+         }
+         for (final List<String> batch : batches)
+         {
+            reschedule(batch, now);
+         }
+      }
+
+      for (final List<String> batch : batches)
+      {
+         executor.execute(() -> poll(batch));
+      }
+      return batches.size();
+   }
+
+   /**
+    * Ticks the poller at the rate of the tick duration on the supplied scheduler
+    *
+    * @return The future to stop the poller
+    */
+   public ScheduledFuture<?> start(final ScheduledExecutorService scheduler)
+   {
+      final long nanos = tickDuration.toNanos();
+      return scheduler.scheduleAtFixedRate(this::tick, nanos, nanos, TimeUnit.NANOSECONDS);
+   }
+
+   /**
+    * Returns the count of executed calls
+    */
+   public long getCalls()
+   {
+      return calls.get();
+   }
+
+   /**
+    * Returns the count of calls which threw an exception or returned a failed result
+    */
+   public long getFailedCalls()
+   {
+      return failedCalls.get();
+   }
+
+   private void poll(final List<String> stationIds)
+   {
+      calls.incrementAndGet();
+      final PricesResult result;
+      try
+      {
+         result = upstream.fetch(stationIds);
+      }
+      catch (RequesterException e)
+      {
+         failedCalls.incrementAndGet();
+         return;
+      }
+
+      if (!Boolean.TRUE.equals(result.isOk()))
+      {
+         failedCalls.incrementAndGet();
+         return;
+      }
+
+      final Instant now = clock.instant();
+      final Map<String, GasPrices> polled = new LinkedHashMap<>();
+      synchronized (wheel)
+      {
+         for (final String stationId : stationIds)
+         {
+            final GasPrices gasPrices = result.getGasPrice(stationId).orElse(null);
+            // Stations removed during the call are neither observed nor delivered
+            if (gasPrices != null && scheduled.containsKey(stationId))
+            {
+               schedule.observe(stationId, gasPrices, now);
+               polled.put(stationId, gasPrices);
+            }
+         }
+      }
+
+      for (final Map.Entry<String, GasPrices> entry : polled.entrySet())
+      {
+         for (final PriceListener listener : listeners)
+         {
+            listener.onPrices(entry.getKey(), entry.getValue());
+         }
+      }
+   }
+
+   /**
+    * Reschedules the stations of a call relative to the tick they were due at
+    */
+   private void reschedule(final List<String> batch, final Instant now)
+   {
+      for (final String stationId : batch)
+      {
+         final long early = scheduled.get(stationId).due - wheel.getTick();
+         final long intervalTicks = toTicks(schedule.nextPoll(stationId, now));
+         schedule(stationId, early + nextDelay(intervalTicks), intervalTicks);
+      }
+   }
+
+   private void schedule(final String stationId, final long delay, final long intervalTicks)
+   {
+      scheduled.put(stationId, new Watch(wheel.schedule(stationId, delay), wheel.getTick() + delay, intervalTicks));
+   }
+
+   private long nextDelay(final long intervalTicks)
+   {
+      final long deviation = Math.round((random.nextDouble() * 2 - 1) * jitter * intervalTicks);
+      return Math.max(1, intervalTicks + deviation);
+   }
+
+   /**
+    * Returns the count of ticks within which stations may be polled early to fill the call, which is the
+    * time for 10 stations to fall due, so the calls remain spread over the shortest interval of the stations
+    */
+   private long fillTicks(final List<String> batch)
+   {
+      long minInterval = Long.MAX_VALUE;
+      for (final String stationId : batch)
+      {
+         minInterval = Math.min(minInterval, scheduled.get(stationId).intervalTicks);
+      }
+      return Math.min(minInterval, (minInterval * BATCH_SIZE + scheduled.size() - 1) / scheduled.size());
+   }
+
+   private long toTicks(final Duration interval)
+   {
+      return Math.max(1, interval.toNanos() / tickDuration.toNanos());
+   }
+
+   private static Duration validateInterval(final Duration interval, final Duration tickDuration)
+   {
+      if (interval == null || tickDuration == null || tickDuration.isNegative() || tickDuration.isZero()
+            || interval.compareTo(tickDuration) < 0)
+      {
+         throw new IllegalArgumentException("The interval has to be at least one positive tick duration");
+      }
+      return interval;
+   }
+
+   private static final class Watch
+   {
+      private final TimingWheel.Timeout timeout;
+      private final long due;
+      private final long intervalTicks;
+
+      private Watch(final TimingWheel.Timeout timeout, final long due, final long intervalTicks)
+      {
+         this.timeout = timeout;
+         this.due = due;
+         this.intervalTicks = intervalTicks;
+      }
+   }
+
+   /**
+    * Requests prices.php for up to 10 stations
+    */
+   @FunctionalInterface
+   public interface Upstream
+   {
+      PricesResult fetch(final Collection<String> stationIds) throws RequesterException;
+   }
+}
@@ -0,0 +1,342 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.requests.PricesResult;
+
+/**
+ * Registers the stations users are subscribed to, so stations subscribed by several users are
+ * refreshed only once.
+ * <p>
+ * Besides the subscriptions of every user, the registry maintains the inverted index of the
+ * subscribers of every station. The prices of a station are fanned out to all of its subscribers,
+ * and the calls are batched over the deduplicated set of subscribed stations. If the registry
+ * drives a {@link PricePoller}, a station is watched as long as it has at least one subscriber. The poller
+ * then batches the deduplicated stations, filling its calls with the stations due next, so it needs about
+ * {@link #getCallsPerRefresh()} calls per interval, just like {@link #refresh(PricePoller.Upstream)}.
+ * <p>
+ * The registry is thread safe. The listeners are notified outside of the lock.
+ */
+public final class SubscriptionRegistry implements PriceListener
+{
+   private final static int BATCH_SIZE = 10;
+
+   private final PricePoller poller;
+   private final Map<String, Set<String>> subscriptions = new HashMap<>();
+   private final Map<String, Set<String>> subscribers = new HashMap<>();
+   private final List<SubscriberListener> listeners = new CopyOnWriteArrayList<>();
+   private int subscriptionCount;
+
+   /**
+    * Creates a registry, which is refreshed by {@link #refresh(PricePoller.Upstream)}
+    */
+   public SubscriptionRegistry()
+   {
+      this.poller = null;
+   }
+
+   private SubscriptionRegistry(final PricePoller poller)
+   {
+      this.poller = poller;
+   }
+
+   /**
+    * Creates a registry, which maintains the watchlist of the poller and receives its prices
+    */
+   public static SubscriptionRegistry forPoller(final PricePoller poller)
+   {
+      if (poller == null)
+      {
+         throw new IllegalArgumentException("The poller must not be null");
+      }
+      final SubscriptionRegistry registry = new SubscriptionRegistry(poller);
+      poller.addListener(registry);
+      return registry;
+   }
+
+   /**
+    * Subscribes the user to the station
+    *
+    * @return False if the user was already subscribed
+    */
+   public synchronized boolean subscribe(final String userId, final String stationId)
+   {
+      if (userId == null || stationId == null || stationId.isEmpty())
+      {
+         throw new IllegalArgumentException("The user and station ID must not be null or empty");
+      }
+
+      if (!subscriptions.computeIfAbsent(userId, id -> new LinkedHashSet<>()).add(stationId))
+      {
+         return false;
+      }
+
+      final Set<String> stationSubscribers = subscribers.computeIfAbsent(stationId, id -> new LinkedHashSet<>());
+      stationSubscribers.add(userId);
+      subscriptionCount++;
+      if (poller != null && stationSubscribers.size() == 1)
+      {
+         poller.add(stationId);
+      }
+      return true;
+   }
+
+   /**
+    * Subscribes the user to the stations
+    *
+    * @see #subscribe(String, String)
+    */
+   public synchronized void subscribeAll(final String userId, final Collection<String> stationIds)
+   {
+      stationIds.forEach(stationId -> subscribe(userId, stationId));
+   }
+
+   /**
+    * Unsubscribes the user from the station
+    *
+    * @return False if the user was not subscribed
+    */
+   public synchronized boolean unsubscribe(final String userId, final String stationId)
+   {
+      final Set<String> userSubscriptions = subscriptions.get(userId);
+      if (userSubscriptions == null || !userSubscriptions.remove(stationId))
+      {
+         return false;
+      }
+      if (userSubscriptions.isEmpty())
+      {
+         subscriptions.remove(userId);
+      }
+
+      final Set<String> stationSubscribers = subscribers.get(stationId);
+      stationSubscribers.remove(userId);
+      subscriptionCount--;
+      if (stationSubscribers.isEmpty())
+      {
+         subscribers.remove(stationId);
+         if (poller != null)
+         {
+            poller.remove(stationId);
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Removes all subscriptions of the user
+    *
+    * @return The count of removed subscriptions
+    */
+   public synchronized int unsubscribeAll(final String userId)
+   {
+      final Set<String> userSubscriptions = subscriptions.get(userId);
+      if (userSubscriptions == null)
+      {
+         return 0;
+      }
+
+      final List<String> stationIds = new ArrayList<>(userSubscriptions);
+      stationIds.forEach(stationId -> unsubscribe(userId, stationId));
+      return stationIds.size();
+   }
+
+   /**
+    * Returns the stations the user is subscribed to
+    */
+   public synchronized Set<String> getSubscriptions(final String userId)
+   {
+      final Set<String> userSubscriptions = subscriptions.get(userId);
+      return userSubscriptions != null ? Collections.unmodifiableSet(new LinkedHashSet<>(userSubscriptions)) : Collections.emptySet();
+   }
+
+   /**
+    * Returns the users subscribed to the station
+    */
+   public synchronized Set<String> getSubscribers(final String stationId)
+   {
+      final Set<String> stationSubscribers = subscribers.get(stationId);
+      return stationSubscribers != null ? Collections.unmodifiableSet(new LinkedHashSet<>(stationSubscribers)) : Collections.emptySet();
+   }
+
+   /**
+    * Returns the count of users with at least one subscription
+    */
+   public synchronized int getUserCount()
+   {
+      return subscriptions.size();
+   }
+
+   /**
+    * Returns the count of distinct subscribed stations
+    */
+   public synchronized int getStationCount()
+   {
+      return subscribers.size();
+   }
+
+   /**
+    * Returns the count of subscriptions of all users
+    */
+   public synchronized int getSubscriptionCount()
+   {
+      return subscriptionCount;
+   }
+
+   /**
+    * Returns the count of calls to refresh every subscribed station once
+    */
+   public synchronized int getCallsPerRefresh()
+   {
+      return calls(subscribers.size());
+   }
+
+   /**
+    * Returns the count of calls to refresh the subscriptions of every user separately
+    */
+   public synchronized int getCallsPerRefreshWithoutDeduplication()
+   {
+      int calls = 0;
+      for (final Set<String> userSubscriptions : subscriptions.values())
+      {
+         calls += calls(userSubscriptions.size());
+      }
+      return calls;
+   }
+
+   /**
+    * Packs the deduplicated set of subscribed stations into batches of up to 10 stations, ordered by ID
+    */
+   public synchronized List<List<String>> batches()
+   {
+      final List<String> stationIds = new ArrayList<>(new TreeSet<>(subscribers.keySet()));
+      final List<List<String>> batches = new ArrayList<>(calls(stationIds.size()));
+      for (int i = 0; i < stationIds.size(); i += BATCH_SIZE)
+      {
+         batches.add(Collections.unmodifiableList(new ArrayList<>(stationIds.subList(i, Math.min(i + BATCH_SIZE, stationIds.size())))));
+      }
+      return batches;
+   }
+
+   /**
+    * Refreshes every subscribed station once and notifies the subscribers
+    *
+    * @return The count of executed calls
+    * @throws RequesterException Thrown if a call failed, the stations of the previous calls have been notified
+    */
+   public int refresh(final PricePoller.Upstream upstream) throws RequesterException
+   {
+      final List<List<String>> batches = batches();
+      for (final List<String> batch : batches)
+      {
+         final PricesResult result = upstream.fetch(batch);
+         if (Boolean.TRUE.equals(result.isOk()))
+         {
+            for (final String stationId : batch)
+            {
+               result.getGasPrice(stationId).ifPresent(gasPrices -> onPrices(stationId, gasPrices));
+            }
+         }
+      }
+      return batches.size();
+   }
+
+   /**
+    * Fans the prices out to the subscribers of the station
+    */
+   @Override
+   public void onPrices(final String stationId, final GasPrices gasPrices)
+   {
+      final String[] userIds;
+      synchronized (this)
+      {
+         final Set<String> stationSubscribers = subscribers.get(stationId);
+         if (stationSubscribers == null)
+         {
+            return;
+         }
+         userIds = stationSubscribers.toArray(new String[0]);
+      }
+
+      for (final SubscriberListener listener : listeners)
+      {
+         for (final String userId : userIds)
+         {
+            listener.onPrices(userId, stationId, gasPrices);
+         }
+      }
+   }
+
+   /**
+    * Adds a listener, which is notified for every subscriber of a refreshed station
+    */
+   public void addListener(final SubscriberListener listener)
+   {
+      if (listener == null)
+      {
+         throw new IllegalArgumentException("The listener must not be null");
+      }
+      listeners.add(listener);
+   }
+
+   /**
+    * Removes the listener
+    */
+   public void removeListener(final SubscriberListener listener)
+   {
+      listeners.remove(listener);
+   }
+
+   private static int calls(final int stations)
+   {
+      return (stations + BATCH_SIZE - 1) / BATCH_SIZE;
+   }
+
+   /**
+    * Receives the gas prices of a station for one of its subscribers
+    */
+   @FunctionalInterface
+   public interface SubscriberListener
+   {
+      /**
+       * @param userId    The ID of the subscribed user
+       * @param stationId The ID of the refreshed station
+       * @param gasPrices The refreshed gas prices
+       */
+      void onPrices(final String userId, final String stationId, final GasPrices gasPrices);
+   }
+}
@@ -0,0 +1,225 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hashed timing wheel, which schedules items a number of ticks ahead. Scheduling and cancelling
+ * cost O(1) and a tick only visits the entries of one slot, so a large number of scheduled items
+ * does not slow down the ticks as long as there are enough slots.
+ * <p>
+ * The wheel is not thread safe.
+ *
+ * @param <T> The type of the scheduled items
+ */
+public final class TimingWheel<T>
+{
+   private final Entry<T>[] slots;
+   private final int mask;
+   private long tick;
+   private int size;
+
+   /**
+    * @param slotCount The minimum count of slots, which is rounded up to a power of two
+    */
+   public TimingWheel(final int slotCount)
+   {
+      if (slotCount < 1 || slotCount > 1 << 30)
+      {
+         throw new IllegalArgumentException("The slot count has to be between 1 and 2^30");
+      }
+      final int powerOfTwo = Integer.highestOneBit(slotCount) == slotCount ? slotCount : Integer.highestOneBit(slotCount) << 1;
+      @SuppressWarnings("unchecked")
+      final Entry<T>[] slots = (Entry<T>[]) new Entry<?>[powerOfTwo];
+      this.slots = slots;
+      mask = powerOfTwo - 1;
+   }
+
+   /**
+    * Schedules the item, which is returned by the tick the supplied count of ticks ahead
+    *
+    * @param ticks At least 1, the next tick
+    * @return The handle to cancel the item
+    */
+   public Timeout schedule(final T item, final long ticks)
+   {
+      if (ticks < 1)
+      {
+         throw new IllegalArgumentException("The item has to be scheduled at least 1 tick ahead");
+      }
+
+      final long due = tick + ticks;
+      final Entry<T> entry = new Entry<>(this, item, (ticks - 1) / slots.length, (int) (due & mask));
+      entry.next = slots[entry.slot];
+      if (entry.next != null)
+      {
+         entry.next.previous = entry;
+      }
+      slots[entry.slot] = entry;
+      size++;
+      return entry;
+   }
+
+   /**
+    * Advances the wheel by one tick and returns the items which are due
+    */
+   public List<T> tick()
+   {
+      tick++;
+      final List<T> due = new ArrayList<>();
+      Entry<T> entry = slots[(int) (tick & mask)];
+      while (entry != null)
+      {
+         final Entry<T> next = entry.next;
+         if (entry.rounds == 0)
+         {
+            remove(entry);
+            due.add(entry.item);
+         }
+         else
+         {
+            entry.rounds--;
+         }
+         entry = next;
+      }
+      return due;
+   }
+
+   /**
+    * Removes the items which are due next, at most the supplied count of items due within the supplied count of ticks
+    *
+    * @return The removed items, the earliest first
+    */
+   public List<T> removeNext(final int count, final long ticks)
+   {
+      final List<T> removed = new ArrayList<>();
+      final long last = tick + Math.min(ticks, slots.length);
+      for (long next = tick + 1; next <= last && removed.size() < count; next++)
+      {
+         // Within one revolution, the entries without remaining rounds are due at the tick of their slot
+         Entry<T> entry = slots[(int) (next & mask)];
+         while (entry != null && removed.size() < count)
+         {
+            final Entry<T> following = entry.next;
+            if (entry.rounds == 0)
+            {
+               remove(entry);
+               removed.add(entry.item);
+            }
+            entry = following;
+         }
+      }
+      return removed;
+   }
+
+   /**
+    * Returns the count of ticks since the creation of the wheel
+    */
+   public long getTick()
+   {
+      return tick;
+   }
+
+   /**
+    * Returns the count of scheduled items
+    */
+   public int size()
+   {
+      return size;
+   }
+
+   /**
+    * Returns the count of slots
+    */
+   public int getSlotCount()
+   {
+      return slots.length;
+   }
+
+   private void remove(final Entry<T> entry)
+   {
+      if (entry.previous != null)
+      {
+         entry.previous.next = entry.next;
+      }
+      else
+      {
+         slots[entry.slot] = entry.next;
+      }
+      if (entry.next != null)
+      {
+         entry.next.previous = entry.previous;
+      }
+      entry.previous = null;
+      entry.next = null;
+      entry.removed = true;
+      size--;
+   }
+
+   /**
+    * The handle of a scheduled item
+    */
+   public interface Timeout
+   {
+      /**
+       * Cancels the item, if it is still scheduled
+       *
+       * @return True if the item was cancelled, false if it was already returned or cancelled
+       */
+      boolean cancel();
+   }
+
+   private static final class Entry<T> implements Timeout
+   {
+      private final TimingWheel<T> wheel;
+      private final T item;
+      private final int slot;
+      private long rounds;
+      private boolean removed;
+      private Entry<T> previous;
+      private Entry<T> next;
+
+      private Entry(final TimingWheel<T> wheel, final T item, final long rounds, final int slot)
+      {
+         this.wheel = wheel;
+         this.item = item;
+         this.rounds = rounds;
+         this.slot = slot;
+      }
+
+      @Override
+      public boolean cancel()
+      {
+         if (removed)
+         {
+            return false;
+         }
+         wheel.remove(this);
+         return true;
+      }
+   }
+}
@@ -0,0 +1,226 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiPredicate;
+
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.geo.CircleCover;
+import de.codengine.tankerkoenig.geo.GeoCircle;
+import de.codengine.tankerkoenig.geo.GeoPolygon;
+import de.codengine.tankerkoenig.geo.GeoPolyline;
+import de.codengine.tankerkoenig.geo.GeoUtils;
+import de.codengine.tankerkoenig.models.mapper.Location;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListRequest;
+import de.codengine.tankerkoenig.models.requests.StationListResolver;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+
+/**
+ * Searches the stations of a polygon or of a corridor around a line with as few station
+ * list requests as possible.
+ * <p>
+ * The area is covered with circles of the maximum radius (see {@link CircleCover}). Circles
+ * touching only cells which are known to be without stations are left out. If the stations per
+ * call are limited, the radius is reduced according to the highest density within the area.
+ * Every response is fed into the {@link StationDensity}, so later plans benefit from it.
+ */
+public final class AreaSearch
+{
+   /**
+    * The maximum search radius of list.php in km
+    */
+   public final static double MAX_RADIUS = 25;
+
+   /**
+    * The smallest radius used when limiting the stations per call
+    */
+   public final static double MIN_RADIUS = 1;
+
+   private final StationListResolver.Upstream upstream;
+   private final StationDensity density;
+   private final int maxStationsPerCall;
+
+   /**
+    * Creates a search without limiting the stations per call
+    *
+    * @param upstream Requests list.php, e.g. {@link de.codengine.tankerkoenig.crawl.StationCrawler#upstream}
+    * @param density  The learned station density, which might be shared between searches
+    */
+   public AreaSearch(final StationListResolver.Upstream upstream, final StationDensity density)
+   {
+      this(upstream, density, Integer.MAX_VALUE);
+   }
+
+   /**
+    * Creates a search
+    *
+    * @param upstream           Requests list.php
+    * @param density            The learned station density, which might be shared between searches
+    * @param maxStationsPerCall The number of stations a single call should return at most
+    */
+   public AreaSearch(final StationListResolver.Upstream upstream, final StationDensity density, final int maxStationsPerCall)
+   {
+      if (upstream == null || density == null)
+      {
+         throw new IllegalArgumentException("The upstream and the density must not be null");
+      }
+      if (maxStationsPerCall < 1)
+      {
+         throw new IllegalArgumentException("The stations per call have to be at least 1");
+      }
+      this.upstream = upstream;
+      this.density = density;
+      this.maxStationsPerCall = maxStationsPerCall;
+   }
+
+   /**
+    * Plans the searches covering the polygon
+    */
+   public SearchPlan plan(final GeoPolygon area)
+   {
+      final double radius = radius(area.getMinLat(), area.getMinLng(), area.getMaxLat(), area.getMaxLng());
+      return plan(CircleCover.hexagonal(area, radius), area::contains);
+   }
+
+   /**
+    * Plans the searches covering every point within the buffer distance of the line
+    *
+    * @param line   The center of the corridor, e.g. a route
+    * @param buffer The maximum distance to the line in km
+    */
+   public SearchPlan plan(final GeoPolyline line, final double buffer)
+   {
+      final double latDelta = GeoUtils.latitudeDelta(buffer);
+      final double lngDelta = GeoUtils.longitudeDelta(Math.max(Math.abs(line.getMinLat()), Math.abs(line.getMaxLat())), buffer);
+      final double radius = radius(line.getMinLat() - latDelta, line.getMinLng() - lngDelta, line.getMaxLat() + latDelta,
+            line.getMaxLng() + lngDelta);
+      return plan(CircleCover.corridor(line, buffer, radius), (lat, lng) -> line.distanceTo(lat, lng) <= buffer);
+   }
+
+   /**
+    * Searches the polygon
+    *
+    * @see #plan(GeoPolygon)
+    * @see #execute(SearchPlan)
+    */
+   public AreaSearchResult search(final GeoPolygon area)
+   {
+      return execute(plan(area));
+   }
+
+   /**
+    * Searches the corridor around the line
+    *
+    * @see #plan(GeoPolyline, double)
+    * @see #execute(SearchPlan)
+    */
+   public AreaSearchResult search(final GeoPolyline line, final double buffer)
+   {
+      return execute(plan(line, buffer));
+   }
+
+   /**
+    * Executes the searches of the plan one after another and merges the stations within the area.
+    * Failed calls are reported in the result and don't abort the search.
+    */
+   public AreaSearchResult execute(final SearchPlan plan)
+   {
+      final Map<String, Station> stations = new TreeMap<>();
+      final List<GeoCircle> failedCircles = new ArrayList<>();
+      for (final GeoCircle circle : plan.getCircles())
+      {
+         final StationListQuery query = StationListQuery.of(circle.getCenter().getLat(), circle.getCenter().getLng(), circle.getRadius(),
+               GasRequestType.ALL, StationListRequest.SortingRequestType.DISTANCE);
+         final StationListResult result = fetch(query);
+         if (result == null)
+         {
+            failedCircles.add(circle);
+            continue;
+         }
+
+         for (final Station station : result.getStations())
+         {
+            final Location location = station.getLocation();
+            if (location != null && plan.covers(location.getLat(), location.getLng()))
+            {
+               stations.putIfAbsent(station.getId(), station);
+            }
+         }
+      }
+      return new AreaSearchResult(new ArrayList<>(stations.values()), plan.getCircles().size(), failedCircles);
+   }
+
+   /**
+    * Returns the result of the query, or null if the call failed
+    */
+   private StationListResult fetch(final StationListQuery query)
+   {
+      try
+      {
+         final StationListResult result = upstream.fetch(query);
+         density.observe(query, result);
+         return result == null || result.isOk() == null || !result.isOk() ? null : result;
+      }
+      catch (RequesterException e)
+      {
+         return null;
+      }
+   }
+
+   private SearchPlan plan(final List<GeoCircle> circles, final BiPredicate<Double, Double> area)
+   {
+      final List<GeoCircle> planned = new ArrayList<>(circles.size());
+      for (final GeoCircle circle : circles)
+      {
+         if (!density.isKnownEmpty(circle))
+         {
+            planned.add(circle);
+         }
+      }
+      return new SearchPlan(planned, circles.size() - planned.size(), area);
+   }
+
+   /**
+    * Chooses the largest radius whose circles are expected to contain at most the
+    * maximum stations per call at the highest density within the bounds
+    */
+   private double radius(final double minLat, final double minLng, final double maxLat, final double maxLng)
+   {
+      final double maxDensity = density.getMaxDensity(minLat, minLng, maxLat, maxLng);
+      if (maxStationsPerCall == Integer.MAX_VALUE || maxDensity == 0)
+      {
+         return MAX_RADIUS;
+      }
+      final double radius = Math.sqrt(maxStationsPerCall / (Math.PI * maxDensity));
+      return Math.max(MIN_RADIUS, Math.min(MAX_RADIUS, radius));
+   }
+}
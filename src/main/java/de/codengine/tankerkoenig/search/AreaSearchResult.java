@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.search;
+
+import java.util.Collections;
+import java.util.List;
+
+import de.codengine.tankerkoenig.geo.GeoCircle;
+import de.codengine.tankerkoenig.models.mapper.Station;
+
+/**
+ * The merged result of an executed {@link SearchPlan}
+ */
+public final class AreaSearchResult
+{
+   private final List<Station> stations;
+   private final int calls;
+   private final List<GeoCircle> failedCircles;
+
+   AreaSearchResult(final List<Station> stations, final int calls, final List<GeoCircle> failedCircles)
+   {
+      this.stations = Collections.unmodifiableList(stations);
+      this.calls = calls;
+      this.failedCircles = Collections.unmodifiableList(failedCircles);
+   }
+
+   /**
+    * Returns the stations within the searched area ordered by their ID, each one only once.
+    * The distance of the stations refers to the center of the circle they were found in.
+    */
+   public List<Station> getStations()
+   {
+      return stations;
+   }
+
+   /**
+    * Returns the number of upstream calls
+    */
+   public int getCalls()
+   {
+      return calls;
+   }
+
+   /**
+    * Returns the circles whose call failed or whose response was not ok, so their stations might be missing
+    */
+   public List<GeoCircle> getFailedCircles()
+   {
+      return failedCircles;
+   }
+
+   /**
+    * Determines if every circle was searched successfully
+    */
+   public boolean isComplete()
+   {
+      return failedCircles.isEmpty();
+   }
+}
@@ -0,0 +1,156 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.search;
+
+import de.codengine.tankerkoenig.geo.GeoPolyline;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+
+/**
+ * The parameters of a {@link RouteSearch}
+ */
+public final class RouteQuery
+{
+   private final GeoPolyline route;
+   private final double buffer;
+   private final GasPrices.GasType gasType;
+   private final double detourPenalty;
+   private final boolean openOnly;
+   private final int limit;
+
+   private RouteQuery(final GeoPolyline route, final double buffer, final GasPrices.GasType gasType, final double detourPenalty,
+         final boolean openOnly, final int limit)
+   {
+      this.route = route;
+      this.buffer = buffer;
+      this.gasType = gasType;
+      this.detourPenalty = detourPenalty;
+      this.openOnly = openOnly;
+      this.limit = limit;
+   }
+
+   /**
+    * Creates a query for the open stations within the buffer distance of the route, ranked by price
+    *
+    * @param route   The route
+    * @param buffer  The maximum distance to the route in km
+    * @param gasType The gas type whose price is ranked
+    * @throws IllegalArgumentException Thrown if the route or the gas type are missing or the buffer is invalid
+    */
+   public static RouteQuery of(final GeoPolyline route, final double buffer, final GasPrices.GasType gasType)
+   {
+      if (route == null || gasType == null)
+      {
+         throw new IllegalArgumentException("The route and the gas type must not be null");
+      }
+      if (!(buffer >= 0 && buffer <= AreaSearch.MAX_RADIUS))
+      {
+         throw new IllegalArgumentException("The buffer has to be between 0 and 25 km");
+      }
+      return new RouteQuery(route, buffer, gasType, 0, true, Integer.MAX_VALUE);
+   }
+
+   /**
+    * Returns a copy of this query adding the penalty per km of detour to the price.
+    * The detour is the way to the station and back to the route.
+    *
+    * @param detourPenalty The penalty in the currency of the price per km, e.g. 0.01 per km
+    */
+   public RouteQuery withDetourPenalty(final double detourPenalty)
+   {
+      if (!(detourPenalty >= 0))
+      {
+         throw new IllegalArgumentException("The detour penalty must not be negative");
+      }
+      return new RouteQuery(route, buffer, gasType, detourPenalty, openOnly, limit);
+   }
+
+   /**
+    * Returns a copy of this query which includes closed stations as well if false is supplied
+    */
+   public RouteQuery withOpenOnly(final boolean openOnly)
+   {
+      return new RouteQuery(route, buffer, gasType, detourPenalty, openOnly, limit);
+   }
+
+   /**
+    * Returns a copy of this query ranking at most the supplied number of stations
+    */
+   public RouteQuery withLimit(final int limit)
+   {
+      if (limit < 1)
+      {
+         throw new IllegalArgumentException("The limit has to be at least 1");
+      }
+      return new RouteQuery(route, buffer, gasType, detourPenalty, openOnly, limit);
+   }
+
+   /**
+    * Returns the route
+    */
+   public GeoPolyline getRoute()
+   {
+      return route;
+   }
+
+   /**
+    * Returns the maximum distance to the route in km
+    */
+   public double getBuffer()
+   {
+      return buffer;
+   }
+
+   /**
+    * Returns the gas type whose price is ranked
+    */
+   public GasPrices.GasType getGasType()
+   {
+      return gasType;
+   }
+
+   /**
+    * Returns the penalty per km of detour
+    */
+   public double getDetourPenalty()
+   {
+      return detourPenalty;
+   }
+
+   /**
+    * Determines if only open stations are ranked
+    */
+   public boolean isOpenOnly()
+   {
+      return openOnly;
+   }
+
+   /**
+    * Returns the maximum number of ranked stations
+    */
+   public int getLimit()
+   {
+      return limit;
+   }
+}
@@ -0,0 +1,197 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.geo.GeoCircle;
+import de.codengine.tankerkoenig.models.mapper.Location;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListRequest;
+import de.codengine.tankerkoenig.models.requests.StationListResolver;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+
+/**
+ * Searches the cheapest stations along a route.
+ * <p>
+ * The corridor around the route is planned by {@link AreaSearch} and the calls are executed
+ * concurrently on the supplied executor. Distance to the route and detour are computed locally
+ * as beeline distances. The ranking is published after every finished call, so the first results
+ * can be shown before the search is finished.
+ */
+public final class RouteSearch
+{
+   private final static Comparator<RouteStation> RANKING = Comparator.comparingDouble(RouteStation::getCost)
+         .thenComparingDouble(RouteStation::getDistanceToRoute)
+         .thenComparing(routeStation -> routeStation.getStation().getId());
+
+   private final StationListResolver.Upstream upstream;
+   private final StationDensity density;
+   private final AreaSearch planner;
+   private final Executor executor;
+
+   /**
+    * Creates a route search
+    *
+    * @param upstream Requests list.php
+    * @param density  The learned station density, which might be shared between searches
+    * @param executor Executes the upstream calls, its parallelism limits the concurrent calls
+    */
+   public RouteSearch(final StationListResolver.Upstream upstream, final StationDensity density, final Executor executor)
+   {
+      if (executor == null)
+      {
+         throw new IllegalArgumentException("The executor must not be null");
+      }
+      this.planner = new AreaSearch(upstream, density);
+      this.upstream = upstream;
+      this.density = density;
+      this.executor = executor;
+   }
+
+   /**
+    * Searches the stations along the route
+    *
+    * @see #search(RouteQuery, Consumer)
+    */
+   public CompletableFuture<RouteSearchResult> search(final RouteQuery query)
+   {
+      return search(query, result ->
+      {
+      });
+   }
+
+   /**
+    * Searches the stations along the route. Failed calls are reported in the result,
+    * runtime exceptions of the upstream complete the future exceptionally.
+    *
+    * @param query    The route query
+    * @param listener Receives the ranking after every finished call. It is called by one thread at a time
+    *                 and should return quickly.
+    * @return The final ranking
+    */
+   public CompletableFuture<RouteSearchResult> search(final RouteQuery query, final Consumer<RouteSearchResult> listener)
+   {
+      final List<GeoCircle> circles = planner.plan(query.getRoute(), query.getBuffer()).getCircles();
+      final Ranking ranking = new Ranking(query, circles.size(), listener);
+
+      final CompletableFuture<?>[] calls = circles.stream()
+            .map(circle -> CompletableFuture.runAsync(() -> ranking.add(circle, fetch(circle)), executor))
+            .toArray(CompletableFuture[]::new);
+      return CompletableFuture.allOf(calls).thenApply(ignored -> ranking.toResult());
+   }
+
+   /**
+    * Returns the result of the circle, or null if the call failed
+    */
+   private StationListResult fetch(final GeoCircle circle)
+   {
+      final StationListQuery query = StationListQuery.of(circle.getCenter().getLat(), circle.getCenter().getLng(), circle.getRadius(),
+            GasRequestType.ALL, StationListRequest.SortingRequestType.DISTANCE);
+      try
+      {
+         final StationListResult result = upstream.fetch(query);
+         density.observe(query, result);
+         return result == null || result.isOk() == null || !result.isOk() ? null : result;
+      }
+      catch (RequesterException e)
+      {
+         return null;
+      }
+   }
+
+   /**
+    * The candidates collected so far
+    */
+   private final static class Ranking
+   {
+      private final RouteQuery query;
+      private final int totalCalls;
+      private final Consumer<RouteSearchResult> listener;
+      private final Map<String, RouteStation> candidates = new HashMap<>();
+      private final List<GeoCircle> failedCircles = new ArrayList<>();
+      private int completedCalls;
+
+      private Ranking(final RouteQuery query, final int totalCalls, final Consumer<RouteSearchResult> listener)
+      {
+         this.query = query;
+         this.totalCalls = totalCalls;
+         this.listener = listener;
+      }
+
+      private synchronized void add(final GeoCircle circle, final StationListResult result)
+      {
+         if (result == null)
+         {
+            failedCircles.add(circle);
+         }
+         else
+         {
+            result.getStations().forEach(this::addCandidate);
+         }
+         completedCalls++;
+         listener.accept(toResult());
+      }
+
+      private void addCandidate(final Station station)
+      {
+         final Location location = station.getLocation();
+         if (location == null || candidates.containsKey(station.getId()) || (query.isOpenOnly() && !station.isOpen()))
+         {
+            return;
+         }
+
+         final Float price = station.getGasPrices().flatMap(gasPrices -> gasPrices.getPrice(query.getGasType())).orElse(null);
+         final double distance = query.getRoute().distanceTo(location.getLat(), location.getLng());
+         if (price == null || distance > query.getBuffer())
+         {
+            return;
+         }
+
+         final double position = query.getRoute().positionOf(location.getLat(), location.getLng());
+         candidates.put(station.getId(), new RouteStation(station, distance, position, price, price + query.getDetourPenalty() * 2 * distance));
+      }
+
+      private synchronized RouteSearchResult toResult()
+      {
+         final List<RouteStation> stations = candidates.values().stream()
+               .sorted(RANKING)
+               .limit(query.getLimit())
+               .collect(Collectors.toList());
+         return new RouteSearchResult(stations, completedCalls, totalCalls, new ArrayList<>(failedCircles));
+      }
+   }
+}
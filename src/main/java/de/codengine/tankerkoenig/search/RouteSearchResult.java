@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.search;
+
+import java.util.Collections;
+import java.util.List;
+
+import de.codengine.tankerkoenig.geo.GeoCircle;
+
+/**
+ * The ranked stations of a {@link RouteSearch}, which is either the final result or an
+ * intermediate one while the search is running
+ */
+public final class RouteSearchResult
+{
+   private final List<RouteStation> stations;
+   private final int completedCalls;
+   private final int totalCalls;
+   private final List<GeoCircle> failedCircles;
+
+   RouteSearchResult(final List<RouteStation> stations, final int completedCalls, final int totalCalls, final List<GeoCircle> failedCircles)
+   {
+      this.stations = Collections.unmodifiableList(stations);
+      this.completedCalls = completedCalls;
+      this.totalCalls = totalCalls;
+      this.failedCircles = Collections.unmodifiableList(failedCircles);
+   }
+
+   /**
+    * Returns the stations ranked by their cost, then by their distance to the route
+    */
+   public List<RouteStation> getStations()
+   {
+      return stations;
+   }
+
+   /**
+    * Returns the number of finished upstream calls, including failed ones
+    */
+   public int getCompletedCalls()
+   {
+      return completedCalls;
+   }
+
+   /**
+    * Returns the number of planned upstream calls
+    */
+   public int getTotalCalls()
+   {
+      return totalCalls;
+   }
+
+   /**
+    * Returns the circles whose call failed, so their stations might be missing
+    */
+   public List<GeoCircle> getFailedCircles()
+   {
+      return failedCircles;
+   }
+
+   /**
+    * Determines if every planned call has finished
+    */
+   public boolean isFinished()
+   {
+      return completedCalls == totalCalls;
+   }
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.search;
+
+import de.codengine.tankerkoenig.models.mapper.Station;
+
+/**
+ * A station found along a route, with its distance to the route and the resulting cost
+ */
+public final class RouteStation
+{
+   private final Station station;
+   private final double distanceToRoute;
+   private final double routePosition;
+   private final float price;
+   private final double cost;
+
+   RouteStation(final Station station, final double distanceToRoute, final double routePosition, final float price, final double cost)
+   {
+      this.station = station;
+      this.distanceToRoute = distanceToRoute;
+      this.routePosition = routePosition;
+      this.price = price;
+      this.cost = cost;
+   }
+
+   /**
+    * Returns the station
+    */
+   public Station getStation()
+   {
+      return station;
+   }
+
+   /**
+    * Returns the beeline distance to the route in km
+    */
+   public double getDistanceToRoute()
+   {
+      return distanceToRoute;
+   }
+
+   /**
+    * Returns the position of the nearest route point in km from the start of the route
+    */
+   public double getRoutePosition()
+   {
+      return routePosition;
+   }
+
+   /**
+    * Returns the detour in km, which is the way to the station and back to the route
+    */
+   public double getDetour()
+   {
+      return 2 * distanceToRoute;
+   }
+
+   /**
+    * Returns the price of the queried gas type
+    */
+   public float getPrice()
+   {
+      return price;
+   }
+
+   /**
+    * Returns the price including the detour penalty, which is used for ranking
+    */
+   public double getCost()
+   {
+      return cost;
+   }
+
+   @Override
+   public String toString()
+   {
+      return "RouteStation{id=" + station.getId() + ", distanceToRoute=" + distanceToRoute + ", routePosition=" + routePosition
+            + ", price=" + price + ", cost=" + cost + "}";
+   }
+}
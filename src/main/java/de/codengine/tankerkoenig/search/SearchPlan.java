@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.search;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+import de.codengine.tankerkoenig.geo.GeoCircle;
+
+/**
+ * The station list searches covering an area, created by {@link AreaSearch}
+ */
+public final class SearchPlan
+{
+   private final List<GeoCircle> circles;
+   private final int skippedCircleCount;
+   private final BiPredicate<Double, Double> area;
+
+   SearchPlan(final List<GeoCircle> circles, final int skippedCircleCount, final BiPredicate<Double, Double> area)
+   {
+      this.circles = Collections.unmodifiableList(circles);
+      this.skippedCircleCount = skippedCircleCount;
+      this.area = area;
+   }
+
+   /**
+    * Returns the search circles, each one requiring an upstream call
+    */
+   public List<GeoCircle> getCircles()
+   {
+      return circles;
+   }
+
+   /**
+    * Returns the number of circles which were left out, as they only cover areas known to be without stations
+    */
+   public int getSkippedCircleCount()
+   {
+      return skippedCircleCount;
+   }
+
+   /**
+    * Returns the search radius of the circles in km
+    */
+   public double getRadius()
+   {
+      return circles.isEmpty() ? 0 : circles.get(0).getRadius();
+   }
+
+   /**
+    * Determines if the coordinate lies within the searched area
+    */
+   public boolean covers(final double lat, final double lng)
+   {
+      return area.test(lat, lng);
+   }
+
+   @Override
+   public String toString()
+   {
+      return "SearchPlan{circles=" + circles.size() + ", skippedCircles=" + skippedCircleCount + ", radius=" + getRadius() + "}";
+   }
+}
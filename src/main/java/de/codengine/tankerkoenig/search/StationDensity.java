@@ -0,0 +1,174 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.search;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+
+import de.codengine.tankerkoenig.geo.GeoCircle;
+import de.codengine.tankerkoenig.geo.GeoGrid;
+import de.codengine.tankerkoenig.geo.GeoUtils;
+import de.codengine.tankerkoenig.models.mapper.Location;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+
+/**
+ * Station density learned from station list responses, stored in grid cells.
+ * <p>
+ * A cell is observed once it lies completely within the search circle of a successful
+ * response, newer observations replace older ones.
+ */
+public final class StationDensity
+{
+   private final GeoGrid grid;
+   private final Map<Long, Integer> counts = new HashMap<>();
+
+   /**
+    * Creates a density map with cells of 0.05 degrees
+    */
+   public StationDensity()
+   {
+      this(0.05);
+   }
+
+   /**
+    * Creates a density map
+    *
+    * @param cellSize The cell size in degrees
+    */
+   public StationDensity(final double cellSize)
+   {
+      this.grid = GeoGrid.of(cellSize);
+   }
+
+   /**
+    * Learns the station counts of the cells within the search circle of the query.
+    * Failed results are ignored.
+    */
+   public void observe(final StationListQuery query, final StationListResult result)
+   {
+      if (result == null || result.isOk() == null || !result.isOk())
+      {
+         return;
+      }
+
+      final Map<Long, Integer> observed = new HashMap<>();
+      grid.forEachCell(query.getLat(), query.getLng(), query.getRadius(), cell ->
+      {
+         if (grid.isWithin(cell, query.getLat(), query.getLng(), query.getRadius()))
+         {
+            observed.put(cell, 0);
+         }
+      });
+
+      for (final Station station : result.getStations())
+      {
+         final Location location = station.getLocation();
+         if (location != null)
+         {
+            observed.computeIfPresent(grid.cellOf(location.getLat(), location.getLng()), (key, count) -> count + 1);
+         }
+      }
+
+      synchronized (this)
+      {
+         counts.putAll(observed);
+      }
+   }
+
+   /**
+    * Returns the observed stations per km² of the cell containing the coordinate,
+    * or an empty optional if the cell was not observed yet
+    */
+   public synchronized OptionalDouble getDensity(final double lat, final double lng)
+   {
+      final long cell = grid.cellOf(lat, lng);
+      final Integer count = counts.get(cell);
+      return count == null ? OptionalDouble.empty() : OptionalDouble.of(count / cellArea(cell));
+   }
+
+   /**
+    * Returns the highest observed density in stations per km² within the bounds, or 0 if
+    * no cell within the bounds was observed
+    */
+   public synchronized double getMaxDensity(final double minLat, final double minLng, final double maxLat, final double maxLng)
+   {
+      double max = 0;
+      for (int latIndex = grid.latIndex(minLat); latIndex <= grid.latIndex(maxLat); latIndex++)
+      {
+         for (int lngIndex = grid.lngIndex(minLng); lngIndex <= grid.lngIndex(maxLng); lngIndex++)
+         {
+            final long cell = GeoGrid.cell(latIndex, lngIndex);
+            final Integer count = counts.get(cell);
+            if (count != null)
+            {
+               max = Math.max(max, count / cellArea(cell));
+            }
+         }
+      }
+      return max;
+   }
+
+   /**
+    * Determines if every cell touched by the circle was observed without any station
+    */
+   public synchronized boolean isKnownEmpty(final GeoCircle circle)
+   {
+      final double lat = circle.getCenter().getLat();
+      final double lng = circle.getCenter().getLng();
+      final double latDelta = GeoUtils.latitudeDelta(circle.getRadius());
+      final double lngDelta = GeoUtils.longitudeDelta(lat, circle.getRadius());
+      for (int latIndex = grid.latIndex(lat - latDelta); latIndex <= grid.latIndex(lat + latDelta); latIndex++)
+      {
+         for (int lngIndex = grid.lngIndex(lng - lngDelta); lngIndex <= grid.lngIndex(lng + lngDelta); lngIndex++)
+         {
+            final Integer count = counts.get(GeoGrid.cell(latIndex, lngIndex));
+            if (count == null || count > 0)
+            {
+               return false;
+            }
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Returns the number of observed cells
+    */
+   public synchronized int size()
+   {
+      return counts.size();
+   }
+
+   private double cellArea(final long cell)
+   {
+      final double south = grid.getSouth(cell);
+      final double centerLat = south + grid.getCellSize() / 2;
+      return GeoUtils.distance(south, 0, south + grid.getCellSize(), 0)
+            * GeoUtils.distance(centerLat, 0, centerLat, grid.getCellSize());
+   }
+}
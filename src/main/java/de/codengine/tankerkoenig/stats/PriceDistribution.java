@@ -0,0 +1,263 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.stats;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Mergeable distribution of prices, which answers quantile and rank queries without sorting the prices.
+ * <p>
+ * The prices are counted in bins of a tenth of a cent, which is the resolution the API delivers, so the
+ * distribution is exact. The bins only span the range of the counted prices, which is a few hundred bins
+ * for the prices of a region. Unlike streaming quantile sketches, prices can be removed again, so the
+ * distribution follows the current prices of the stations. Distributions are merged by adding the counts.
+ * <p>
+ * The cumulative counts are built on the first query after a modification, after which quantiles are
+ * looked up by a binary search over the bins and ranks in constant time. The distribution is not thread safe.
+ */
+public final class PriceDistribution
+{
+   private final static float SCALE = 1000f;
+
+   private int offset;
+   private int[] counts = new int[0];
+   private long count;
+   private long[] cumulative;
+
+   /**
+    * Creates an empty distribution
+    */
+   public PriceDistribution()
+   {
+   }
+
+   private PriceDistribution(final PriceDistribution distribution)
+   {
+      this.offset = distribution.offset;
+      this.counts = distribution.counts.clone();
+      this.count = distribution.count;
+   }
+
+   /**
+    * Counts the price
+    *
+    * @throws IllegalArgumentException Thrown if the price is not positive
+    */
+   public void add(final float price)
+   {
+      final int units = toUnits(price);
+      ensureRange(units);
+      counts[units - offset]++;
+      count++;
+      cumulative = null;
+   }
+
+   /**
+    * Removes a counted price
+    *
+    * @return False if the price has not been counted
+    */
+   public boolean remove(final float price)
+   {
+      final int units = toUnits(price);
+      if (units < offset || units >= offset + counts.length || counts[units - offset] == 0)
+      {
+         return false;
+      }
+      counts[units - offset]--;
+      count--;
+      cumulative = null;
+      return true;
+   }
+
+   /**
+    * Adds the counts of the distribution
+    */
+   public void merge(final PriceDistribution distribution)
+   {
+      if (distribution.count == 0)
+      {
+         return;
+      }
+      ensureRange(distribution.offset);
+      ensureRange(distribution.offset + distribution.counts.length - 1);
+      for (int i = 0; i < distribution.counts.length; i++)
+      {
+         counts[distribution.offset - offset + i] += distribution.counts[i];
+      }
+      count += distribution.count;
+      cumulative = null;
+   }
+
+   /**
+    * Returns an independent copy of the distribution
+    */
+   public PriceDistribution copy()
+   {
+      return new PriceDistribution(this);
+   }
+
+   /**
+    * Returns the count of prices
+    */
+   public long getCount()
+   {
+      return count;
+   }
+
+   /**
+    * Determines if no prices are counted
+    */
+   public boolean isEmpty()
+   {
+      return count == 0;
+   }
+
+   /**
+    * Returns the lowest price, such that at least the share of prices is lower or equal, e.g. 0.5 for the median
+    *
+    * @param share The share between 0 and 1
+    * @return The price or NaN if the distribution is empty
+    */
+   public float getQuantile(final double share)
+   {
+      if (!(share >= 0 && share <= 1))
+      {
+         throw new IllegalArgumentException("The share has to be between 0 and 1");
+      }
+      if (count == 0)
+      {
+         return Float.NaN;
+      }
+
+      final long[] sums = cumulative();
+      final long rank = Math.max(1, (long) Math.ceil(share * count));
+      int index = Arrays.binarySearch(sums, rank);
+      if (index < 0)
+      {
+         index = -index - 1;
+      }
+      else
+      {
+         // Bins without prices repeat the sum, the first one holds the price
+         while (index > 0 && sums[index - 1] == rank)
+         {
+            index--;
+         }
+      }
+      return toPrice(offset + index);
+   }
+
+   /**
+    * Returns the share of prices, which are lower than or equal to the price. A share of at most 0.1 means the
+    * price is among the cheapest 10%.
+    *
+    * @return The share between 0 and 1 or NaN if the distribution is empty
+    */
+   public double getRank(final float price)
+   {
+      if (count == 0)
+      {
+         return Double.NaN;
+      }
+
+      final int units = toUnits(price);
+      if (units < offset)
+      {
+         return 0;
+      }
+      if (units >= offset + counts.length)
+      {
+         return 1;
+      }
+      return cumulative()[units - offset] / (double) count;
+   }
+
+   @Override
+   public String toString()
+   {
+      if (count == 0)
+      {
+         return "PriceDistribution{count=0}";
+      }
+      return String.format(Locale.ROOT, "PriceDistribution{count=%d, min=%.3f, median=%.3f, max=%.3f}",
+            count, getQuantile(0), getQuantile(0.5), getQuantile(1));
+   }
+
+   private long[] cumulative()
+   {
+      if (cumulative == null)
+      {
+         final long[] sums = new long[counts.length];
+         long sum = 0;
+         for (int i = 0; i < counts.length; i++)
+         {
+            sum += counts[i];
+            sums[i] = sum;
+         }
+         cumulative = sums;
+      }
+      return cumulative;
+   }
+
+   /**
+    * Grows the bins to contain the units, keeping some headroom for neighboring prices
+    */
+   private void ensureRange(final int units)
+   {
+      if (counts.length == 0)
+      {
+         offset = units;
+         counts = new int[1];
+      }
+      else if (units < offset)
+      {
+         final int grown = Math.max(offset - units, counts.length / 2);
+         final int[] moved = new int[counts.length + grown];
+         System.arraycopy(counts, 0, moved, grown, counts.length);
+         counts = moved;
+         offset -= grown;
+      }
+      else if (units >= offset + counts.length)
+      {
+         counts = Arrays.copyOf(counts, Math.max(units - offset + 1, counts.length + counts.length / 2));
+      }
+   }
+
+   private static int toUnits(final float price)
+   {
+      if (!(price > 0) || Float.isInfinite(price))
+      {
+         throw new IllegalArgumentException("The price has to be positive");
+      }
+      return Math.round(price * SCALE);
+   }
+
+   private static float toPrice(final int units)
+   {
+      return units / SCALE;
+   }
+}
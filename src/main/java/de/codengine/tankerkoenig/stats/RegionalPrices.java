@@ -0,0 +1,284 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.stats;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import de.codengine.tankerkoenig.geo.GeoCircle;
+import de.codengine.tankerkoenig.geo.GeoGrid;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.Location;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.poll.PriceChange;
+
+/**
+ * Maintains the {@link PriceDistribution}s of the current prices per grid cell and gas type, e.g. to tell
+ * if a station is among the cheapest 10% of an area without sorting the prices of the area.
+ * <p>
+ * The distributions are updated incrementally from price change events, usually consumed from a
+ * {@link de.codengine.tankerkoenig.poll.PriceChangeStream}. Every station contributes its current prices to
+ * the cell it is located in, closed stations do not contribute. As prices.php does not return the location
+ * of the stations, the stations have to be located with {@link #locate(Station)}, e.g. from list.php results.
+ * Prices of stations, which are not located yet, are kept until the stations are located.
+ * <p>
+ * The distribution of an area merges the distributions of the cells intersecting the area, so it also
+ * contains the stations of these cells just outside the area. The returned distributions are copies, which
+ * answer any count of quantile and rank queries without holding the lock. The class is thread safe.
+ */
+public final class RegionalPrices
+{
+   private final static double DEFAULT_CELL_SIZE = 0.1;
+   private final static GasPrices.GasType[] GAS_TYPES = GasPrices.GasType.values();
+
+   private final GeoGrid grid;
+   private final Map<String, StationPrices> stations = new HashMap<>();
+   private final Map<Long, PriceDistribution[]> cells = new HashMap<>();
+   private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+   /**
+    * Creates the distributions with a cell size of 0.1 degrees
+    */
+   public RegionalPrices()
+   {
+      this(DEFAULT_CELL_SIZE);
+   }
+
+   /**
+    * @param cellSize The edge length of the grid cells in degrees
+    */
+   public RegionalPrices(final double cellSize)
+   {
+      this.grid = GeoGrid.of(cellSize);
+   }
+
+   /**
+    * Records the location of the station, stations without an ID or location are ignored
+    */
+   public void locate(final Station station)
+   {
+      final Location location = station.getLocation();
+      if (station.getId() != null && location != null)
+      {
+         locate(station.getId(), location.getLat(), location.getLng());
+      }
+   }
+
+   /**
+    * Records the locations of the stations
+    *
+    * @see #locate(Station)
+    */
+   public void locateAll(final Collection<Station> stations)
+   {
+      stations.forEach(this::locate);
+   }
+
+   /**
+    * Records the location of the station, moving its prices to the cell of the location
+    */
+   public void locate(final String stationId, final double lat, final double lng)
+   {
+      lock.writeLock().lock();
+      try
+      {
+         final StationPrices station = stations.computeIfAbsent(stationId, key -> new StationPrices());
+         final long cell = grid.cellOf(lat, lng);
+         if (station.located && station.cell == cell)
+         {
+            return;
+         }
+
+         withdraw(station);
+         station.cell = cell;
+         station.located = true;
+         contribute(station);
+      }
+      finally
+      {
+         lock.writeLock().unlock();
+      }
+   }
+
+   /**
+    * Replaces the prices the station contributes with the prices of the change
+    */
+   public void onChange(final PriceChange change)
+   {
+      final boolean closed = change.getStatus().orElse(null) == GasPrices.Status.CLOSED;
+
+      lock.writeLock().lock();
+      try
+      {
+         final StationPrices station = stations.computeIfAbsent(change.getStationId(), key -> new StationPrices());
+         withdraw(station);
+         for (final GasPrices.GasType gasType : GAS_TYPES)
+         {
+            station.prices[gasType.ordinal()] = closed ? Float.NaN : change.getPrice(gasType).filter(price -> price > 0).orElse(Float.NaN);
+         }
+         contribute(station);
+      }
+      finally
+      {
+         lock.writeLock().unlock();
+      }
+   }
+
+   /**
+    * Returns the distribution of the prices of the cell containing the location
+    */
+   public PriceDistribution getDistribution(final GasPrices.GasType gasType, final double lat, final double lng)
+   {
+      if (gasType == null)
+      {
+         throw new IllegalArgumentException("The gas type must not be null");
+      }
+
+      lock.readLock().lock();
+      try
+      {
+         final PriceDistribution[] distributions = cells.get(grid.cellOf(lat, lng));
+         return distributions != null ? distributions[gasType.ordinal()].copy() : new PriceDistribution();
+      }
+      finally
+      {
+         lock.readLock().unlock();
+      }
+   }
+
+   /**
+    * Returns the merged distribution of the prices of the cells intersecting the area
+    */
+   public PriceDistribution getDistribution(final GasPrices.GasType gasType, final GeoCircle area)
+   {
+      if (gasType == null || area == null)
+      {
+         throw new IllegalArgumentException("The gas type and the area must not be null");
+      }
+
+      final PriceDistribution merged = new PriceDistribution();
+      lock.readLock().lock();
+      try
+      {
+         grid.forEachIntersecting(area.getCenter().getLat(), area.getCenter().getLng(), area.getRadius(), cell ->
+         {
+            final PriceDistribution[] distributions = cells.get(cell);
+            if (distributions != null)
+            {
+               merged.merge(distributions[gasType.ordinal()]);
+            }
+         });
+      }
+      finally
+      {
+         lock.readLock().unlock();
+      }
+      return merged;
+   }
+
+   /**
+    * Returns the count of stations with prices or locations
+    */
+   public int size()
+   {
+      lock.readLock().lock();
+      try
+      {
+         return stations.size();
+      }
+      finally
+      {
+         lock.readLock().unlock();
+      }
+   }
+
+   private void contribute(final StationPrices station)
+   {
+      if (!station.located)
+      {
+         return;
+      }
+
+      PriceDistribution[] distributions = cells.get(station.cell);
+      for (int i = 0; i < GAS_TYPES.length; i++)
+      {
+         if (!Float.isNaN(station.prices[i]))
+         {
+            if (distributions == null)
+            {
+               distributions = new PriceDistribution[GAS_TYPES.length];
+               for (int j = 0; j < distributions.length; j++)
+               {
+                  distributions[j] = new PriceDistribution();
+               }
+               cells.put(station.cell, distributions);
+            }
+            distributions[i].add(station.prices[i]);
+         }
+      }
+   }
+
+   private void withdraw(final StationPrices station)
+   {
+      final PriceDistribution[] distributions = station.located ? cells.get(station.cell) : null;
+      if (distributions == null)
+      {
+         return;
+      }
+
+      boolean empty = true;
+      for (int i = 0; i < GAS_TYPES.length; i++)
+      {
+         if (!Float.isNaN(station.prices[i]))
+         {
+            distributions[i].remove(station.prices[i]);
+         }
+         empty &= distributions[i].isEmpty();
+      }
+      if (empty)
+      {
+         cells.remove(station.cell);
+      }
+   }
+
+   /**
+    * The cell and the current prices of a station, missing prices are NaN
+    */
+   private static final class StationPrices
+   {
+      private final float[] prices = new float[GAS_TYPES.length];
+      private long cell;
+      private boolean located;
+
+      private StationPrices()
+      {
+         Arrays.fill(prices, Float.NaN);
+      }
+   }
+}
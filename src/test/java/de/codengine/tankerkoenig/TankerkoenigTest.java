@@ -41,6 +41,7 @@ import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
 import java.util.Objects;
 import java.util.function.Function;
 
@@ -51,9 +52,14 @@ import de.codengine.tankerkoenig.client.ClientExecutorFactory;
 import de.codengine.tankerkoenig.client.OkHttp3ClientExecutor;
 import de.codengine.tankerkoenig.exception.ClientExecutorException;
 import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.index.StationIndex;
+import de.codengine.tankerkoenig.index.StationIndexResolver;
 import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.JsonMapper;
+import de.codengine.tankerkoenig.models.mapper.StreamingMapper;
 import de.codengine.tankerkoenig.models.requests.CorrectionRequest;
 import de.codengine.tankerkoenig.models.requests.CorrectionResult;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
 import de.codengine.tankerkoenig.models.requests.PricesRequest;
 import de.codengine.tankerkoenig.models.requests.PricesResult;
 import de.codengine.tankerkoenig.models.requests.Request;
@@ -247,6 +253,50 @@ public class TankerkoenigTest
       verifyNoMoreInteractions(clientExecutor);
    }
 
+   @Test
+   public void usesCustomJsonMapper() throws IOException
+   {
+      final String detailContent = ResourceLoader.readString("detail.json");
+
+      ClientExecutor clientExecutor = mock(ClientExecutor.class);
+      when(clientExecutor.get(any(), any())).thenReturn(detailContent);
+      JsonMapper jsonMapper = mock(JsonMapper.class);
+      when(jsonMapper.fromJson(any(), any())).thenAnswer(invocation -> StreamingMapper.getInstance()
+            .fromJson(invocation.getArgument(0), invocation.getArgument(1)));
+
+      final Tankerkoenig.Api api = new Tankerkoenig.ApiBuilder()
+            .withClientExecutor(clientExecutor)
+            .withJsonMapper(jsonMapper)
+            .withApiKey("123")
+            .build();
+
+      final StationDetailResult result = api.detail("5").execute();
+      assertThat(result.getStation().getId()).isEqualTo("51d4b660-a095-1aa0-e100-80009459e03a");
+
+      verify(jsonMapper, times(1)).fromJson(detailContent, StationDetailResult.class);
+      verifyNoMoreInteractions(jsonMapper);
+   }
+
+   @Test
+   public void usesStationListResolver() throws IOException
+   {
+      ClientExecutor clientExecutor = mock(ClientExecutor.class);
+      when(clientExecutor.get(any(), any())).thenReturn(ResourceLoader.readString("list_all_prices.json"));
+
+      final Tankerkoenig.Api api = new Tankerkoenig.ApiBuilder()
+            .withClientExecutor(clientExecutor)
+            .withStationListResolver(new StationIndexResolver(new StationIndex(Duration.ofMinutes(5))))
+            .withApiKey("123")
+            .build();
+
+      final StationListResult result = api.list(52.52, 13.45).setSearchRadius(10).execute();
+      assertThat(result.getStations()).hasSize(2);
+      assertThat(result.getStations().get(0).getId()).isEqualTo("1c4f126b-1f3c-4b38-9692-05c400ea8e61");
+
+      api.list(52.52, 13.45).setSearchRadius(2).setGasRequestType(GasRequestType.E5).execute();
+      verify(clientExecutor, times(1)).get(any(), any());
+   }
+
    @Test
    public void emptyApiKeyThrowsException() throws IOException
    {
@@ -0,0 +1,173 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.alert;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.geo.GeoCircle;
+import de.codengine.tankerkoenig.geo.GeoPoint;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.requests.PricesResult;
+import de.codengine.tankerkoenig.poll.PriceChangeDetector;
+import de.codengine.tankerkoenig.poll.PriceChangeStream;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class AlertEngineTest
+{
+   private AlertEngine engine;
+   private PriceChangeDetector detector;
+   private PriceChangeStream.Subscription subscription;
+   private List<String> triggered;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      engine = new AlertEngine();
+      final PriceChangeStream stream = new PriceChangeStream(64);
+      subscription = stream.subscribe();
+      detector = new PriceChangeDetector(stream);
+      triggered = new ArrayList<>();
+      engine.addListener((alert, stationId, price) -> triggered.add(String.format(Locale.ROOT, "%s:%s:%.2f", alert.getId(), stationId, price)));
+
+      // Home in Berlin, the station "near" is 3 km and the station "far" 11 km away
+      engine.register(PriceAlert.of("home", GeoCircle.of(GeoPoint.of(52.5, 13.4), 5), GasPrices.GasType.E10, 1.7f));
+      engine.register(PriceAlert.of("diesel", GeoCircle.of(GeoPoint.of(52.5, 13.4), 25), GasPrices.GasType.DIESEL, 1.2f));
+      engine.locateAll(StationFixtures.create()
+            .with("near", 52.527, 13.4, 1.8f, 1.75f, 1.3f)
+            .with("far", 52.6, 13.4, 1.8f, 1.75f, 1.3f)
+            .toStations());
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(AlertEngine.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> new AlertEngine(0)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new AlertEngine(2)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> engine.register(null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> engine.register(PriceAlert.of("wide", GeoCircle.of(GeoPoint.of(52.5, 13.4), 26), GasPrices.GasType.E5, 1.5f)))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> engine.addListener(null)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void triggersAlertsOfAreaContainingStation()
+   {
+      observe("near", "open", 1.8, 1.75, 1.3);
+      observe("far", "open", 1.8, 1.65, 1.1);
+      assertThat(triggered).containsExactly("diesel:far:1.10");
+
+      observe("near", "open", 1.8, 1.69, 1.3);
+      assertThat(triggered).containsExactly("diesel:far:1.10", "home:near:1.69");
+   }
+
+   @Test
+   public void triggersOnlyWhenThresholdIsUndercut()
+   {
+      observe("near", "open", 1.8, 1.65, 1.3);
+      observe("near", "open", 1.8, 1.6, 1.3);
+      observe("near", "open", 1.8, 1.75, 1.3);
+      observe("near", "open", 1.8, 1.6, 1.3);
+      assertThat(triggered).containsExactly("home:near:1.65", "home:near:1.60");
+
+      // Reopening below the threshold triggers again
+      observe("near", "closed", 1.8, 1.6, 1.3);
+      observe("near", "open", 1.8, 1.6, 1.3);
+      assertThat(triggered).containsExactly("home:near:1.65", "home:near:1.60", "home:near:1.60");
+   }
+
+   @Test
+   public void ignoresUnknownStations()
+   {
+      observe("unknown", "open", 1.0, 1.0, 1.0);
+      assertThat(triggered).isEmpty();
+      assertThat(engine.getEvaluations()).isEqualTo(0);
+   }
+
+   @Test
+   public void replacesAndRemovesAlerts()
+   {
+      engine.register(PriceAlert.of("home", GeoCircle.of(GeoPoint.of(52.5, 13.4), 5), GasPrices.GasType.E10, 1.8f));
+      assertThat(engine.size()).isEqualTo(2);
+      assertThat(engine.getAlert("home").get().getThreshold()).isEqualTo(1.8f);
+
+      observe("near", "open", 1.8, 1.75, 1.3);
+      assertThat(triggered).containsExactly("home:near:1.75");
+
+      assertThat(engine.remove("home")).isTrue();
+      assertThat(engine.remove("home")).isFalse();
+      assertThat(engine.getAlert("home")).isEmpty();
+      assertThat(engine.size()).isEqualTo(1);
+
+      observe("near", "open", 1.8, 1.75, 1.0);
+      assertThat(triggered).containsExactly("home:near:1.75", "diesel:near:1.00");
+   }
+
+   @Test
+   public void evaluatesOnlyAlertsOfCell()
+   {
+      final AlertEngine large = new AlertEngine();
+      final Random random = new Random(42);
+      for (int i = 0; i < 10_000; i++)
+      {
+         final GeoPoint center = GeoPoint.of(47.5 + random.nextDouble() * 7.5, 6 + random.nextDouble() * 9);
+         large.register(PriceAlert.of("alert" + i, GeoCircle.of(center, 5), GasPrices.GasType.E10, 1.7f));
+      }
+      large.locate("near", 52.527, 13.4);
+      detector.onPrices("near", prices("near", "open", 1.8, 1.6, 1.3));
+      subscription.drain(large::onChange);
+
+      assertThat(large.size()).isEqualTo(10_000);
+      assertThat(large.getEvaluations()).isBetween(1L, 100L);
+   }
+
+   private void observe(final String stationId, final String status, final double e5, final double e10, final double diesel)
+   {
+      detector.onPrices(stationId, prices(stationId, status, e5, e10, diesel));
+      subscription.drain(engine::onChange);
+   }
+
+   private static GasPrices prices(final String stationId, final String status, final double e5, final double e10, final double diesel)
+   {
+      final String json = String.format(Locale.ROOT, "{\"ok\":true,\"prices\":{\"%s\":{\"status\":\"%s\",\"e5\":%.3f,\"e10\":%.3f,\"diesel\":%.3f}}}",
+            stationId, status, e5, e10, diesel);
+      return GsonMapper.getInstance().fromJson(json, PricesResult.class).getGasPrice(stationId).get();
+   }
+}
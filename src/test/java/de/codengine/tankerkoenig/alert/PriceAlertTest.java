@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.alert;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.geo.GeoCircle;
+import de.codengine.tankerkoenig.geo.GeoPoint;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+public class PriceAlertTest
+{
+   private final static GeoCircle HOME = GeoCircle.of(GeoPoint.of(52.5, 13.4), 5);
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(PriceAlert.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> PriceAlert.of(null, HOME, GasPrices.GasType.E10, 1.7f)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> PriceAlert.of("", HOME, GasPrices.GasType.E10, 1.7f)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> PriceAlert.of("a", null, GasPrices.GasType.E10, 1.7f)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> PriceAlert.of("a", HOME, null, 1.7f)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> PriceAlert.of("a", HOME, GasPrices.GasType.E10, 0)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> PriceAlert.of("a", HOME, GasPrices.GasType.E10, Float.NaN)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void of()
+   {
+      final PriceAlert alert = PriceAlert.of("a", HOME, GasPrices.GasType.E10, 1.7f);
+      assertThat(alert.getId()).isEqualTo("a");
+      assertThat(alert.getArea()).isEqualTo(HOME);
+      assertThat(alert.getGasType()).isEqualTo(GasPrices.GasType.E10);
+      assertThat(alert.getThreshold()).isEqualTo(1.7f);
+      assertThat(alert).hasToString("PriceAlert{id='a', area=GeoCircle{center=" + HOME.getCenter() + ", radius=5.0}, gasType=E10, threshold=1.7}");
+   }
+
+   @Test
+   public void equalsAndHashCode()
+   {
+      EqualsVerifier.forClass(PriceAlert.class).withNonnullFields("id", "area", "gasType").verify();
+   }
+}
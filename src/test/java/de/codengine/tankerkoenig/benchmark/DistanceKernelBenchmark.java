@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import de.codengine.tankerkoenig.geo.DistanceKernel;
+import de.codengine.tankerkoenig.geo.GeoUtils;
+
+/**
+ * Compares the scalar haversine loop with the bulk {@link DistanceKernel} when computing the
+ * distances from one position to every station, and when selecting the stations within 10 km.
+ * <p>
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=de.codengine.tankerkoenig.benchmark.DistanceKernelBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceKernelBenchmark
+{
+   @Param({"500", "15000"})
+   public int stationCount;
+
+   private double[] lats;
+   private double[] lngs;
+   private DistanceKernel kernel;
+   private double[] distances;
+   private int[] indices;
+
+   @Setup
+   public void setUp()
+   {
+      final Random random = new Random(stationCount);
+      lats = new double[stationCount];
+      lngs = new double[stationCount];
+      for (int i = 0; i < stationCount; i++)
+      {
+         lats[i] = 47.3 + random.nextDouble() * 7.7;
+         lngs[i] = 5.9 + random.nextDouble() * 9.1;
+      }
+      kernel = DistanceKernel.of(lats, lngs);
+      distances = new double[stationCount];
+      indices = new int[stationCount];
+   }
+
+   @Benchmark
+   public double[] scalarDistances()
+   {
+      DistanceKernel.distances(52.52, 13.40, lats, lngs, distances);
+      return distances;
+   }
+
+   @Benchmark
+   public double[] kernelDistances()
+   {
+      kernel.distances(52.52, 13.40, distances);
+      return distances;
+   }
+
+   @Benchmark
+   public int scalarWithinRadius()
+   {
+      int count = 0;
+      for (int i = 0; i < stationCount; i++)
+      {
+         if (GeoUtils.distance(52.52, 13.40, lats[i], lngs[i]) <= 10)
+         {
+            indices[count++] = i;
+         }
+      }
+      return count;
+   }
+
+   @Benchmark
+   public int kernelWithinRadius()
+   {
+      return kernel.withinRadius(52.52, 13.40, 10, indices, distances);
+   }
+
+   @Benchmark
+   public DistanceKernel kernelSetup()
+   {
+      return DistanceKernel.of(lats, lngs);
+   }
+
+   public static void main(final String[] args) throws RunnerException
+   {
+      new Runner(new OptionsBuilder()
+            .include(DistanceKernelBenchmark.class.getSimpleName())
+            .build()).run();
+   }
+}
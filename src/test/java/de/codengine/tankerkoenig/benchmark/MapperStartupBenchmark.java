@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.mapper.StreamingMapper;
+import de.codengine.tankerkoenig.models.requests.StationDetailResult;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+import de.codengine.tankerkoenig.utils.ResourceLoader;
+
+/**
+ * Measures the time to the first mapped result in a fresh JVM, including the initialization
+ * of the mapper, which dominates the cold start of short-lived processes.
+ * <p>
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=de.codengine.tankerkoenig.benchmark.MapperStartupBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class MapperStartupBenchmark
+{
+   private String listContent;
+   private String detailContent;
+
+   @Setup
+   public void setUp() throws IOException
+   {
+      listContent = ResourceLoader.readString("list_all_prices.json");
+      detailContent = ResourceLoader.readString("detail.json");
+   }
+
+   @Benchmark
+   public Object gsonFirstList()
+   {
+      return GsonMapper.getInstance().fromJson(listContent, StationListResult.class);
+   }
+
+   @Benchmark
+   public Object streamingFirstList()
+   {
+      return StreamingMapper.getInstance().fromJson(listContent, StationListResult.class);
+   }
+
+   @Benchmark
+   public Object gsonFirstDetail()
+   {
+      return GsonMapper.getInstance().fromJson(detailContent, StationDetailResult.class);
+   }
+
+   @Benchmark
+   public Object streamingFirstDetail()
+   {
+      return StreamingMapper.getInstance().fromJson(detailContent, StationDetailResult.class);
+   }
+
+   public static void main(final String[] args) throws RunnerException
+   {
+      new Runner(new OptionsBuilder()
+            .include(MapperStartupBenchmark.class.getSimpleName())
+            .build()).run();
+   }
+}
@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.benchmark;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.mapper.JsonMapper;
+import de.codengine.tankerkoenig.models.mapper.Projection;
+import de.codengine.tankerkoenig.models.mapper.StationField;
+import de.codengine.tankerkoenig.models.mapper.StreamingMapper;
+import de.codengine.tankerkoenig.models.requests.StationColumnsResult;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+
+/**
+ * Compares the throughput of the JSON mappers for station lists of different sizes.
+ * <p>
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=de.codengine.tankerkoenig.benchmark.MapperThroughputBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperThroughputBenchmark
+{
+   private final static Projection PRICE_PROJECTION = Projection.of(StationField.ID, StationField.PRICES);
+
+   @Param({"gson", "streaming"})
+   public String mapperName;
+
+   @Param({"10", "500"})
+   public int stationCount;
+
+   private JsonMapper mapper;
+   private String listContent;
+
+   @Setup
+   public void setUp()
+   {
+      mapper = "gson".equals(mapperName) ? GsonMapper.getInstance() : StreamingMapper.getInstance();
+      listContent = createList(stationCount);
+   }
+
+   @Benchmark
+   public Object list()
+   {
+      return mapper.fromJson(listContent, StationListResult.class);
+   }
+
+   @Benchmark
+   public Object projectedList()
+   {
+      return mapper.fromJson(listContent, StationListResult.class, PRICE_PROJECTION);
+   }
+
+   @Benchmark
+   public Object columns()
+   {
+      return mapper.fromJson(listContent, StationColumnsResult.class);
+   }
+
+   private static String createList(final int stationCount)
+   {
+      final Random random = new Random(stationCount);
+      final StringBuilder json = new StringBuilder("{\"ok\":true,\"license\":\"CC BY 4.0\",\"data\":\"MTS-K\",\"status\":\"ok\",\"stations\":[");
+      for (int i = 0; i < stationCount; i++)
+      {
+         json.append(i == 0 ? "" : ",")
+               .append(String.format(Locale.ROOT, "{\"id\":\"%08d-a095-1aa0-e100-80009459e03a\",\"name\":\"Station %d\",\"brand\":\"JET\","
+                           + "\"street\":\"Herzbergstr.\",\"place\":\"Berlin\",\"lat\":%.6f,\"lng\":%.6f,\"dist\":%.1f,"
+                           + "\"diesel\":%.3f,\"e5\":%.3f,\"e10\":%s,\"isOpen\":%b,\"houseNumber\":\"%d\",\"postCode\":10365}",
+                     i, i, 52.4 + random.nextDouble() * 0.2, 13.3 + random.nextDouble() * 0.2, random.nextDouble() * 25,
+                     1.1 + random.nextDouble() * 0.3, 1.3 + random.nextDouble() * 0.3,
+                     random.nextInt(10) == 0 ? "false" : String.format(Locale.ROOT, "%.3f", 1.25 + random.nextDouble() * 0.3),
+                     random.nextBoolean(), i % 100));
+      }
+      return json.append("]}").toString();
+   }
+
+   public static void main(final String[] args) throws RunnerException
+   {
+      new Runner(new OptionsBuilder()
+            .include(MapperThroughputBenchmark.class.getSimpleName())
+            .build()).run();
+   }
+}
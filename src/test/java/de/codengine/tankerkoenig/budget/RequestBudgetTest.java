@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.budget;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.utils.MutableClock;
+
+public class RequestBudgetTest
+{
+   private final static ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+   private MutableClock clock;
+   private RequestBudget budget;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      // 06:00 in Berlin
+      clock = new MutableClock(Instant.parse("2017-06-01T04:00:00Z"));
+      budget = new RequestBudget(100, BERLIN, clock);
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(RequestBudget.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> new RequestBudget(0)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new RequestBudget(1, null, Clock.systemUTC())).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new RequestBudget(1, BERLIN, null)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void countsCallsPerEndpoint()
+   {
+      for (int i = 0; i < 3; i++)
+      {
+         assertThat(budget.tryAcquire("prices.php")).isTrue();
+      }
+      assertThat(budget.tryAcquire("list.php")).isTrue();
+
+      assertThat(budget.getDailyLimit()).isEqualTo(100);
+      assertThat(budget.getUsed()).isEqualTo(4);
+      assertThat(budget.getUsed("prices.php")).isEqualTo(3);
+      assertThat(budget.getUsed("detail.php")).isEqualTo(0);
+      assertThat(budget.getUsage()).containsExactly(entry("list.php", 1), entry("prices.php", 3));
+      assertThat(budget.getRemaining()).isEqualTo(96);
+   }
+
+   @Test
+   public void refusesCallsExceedingLimit()
+   {
+      for (int i = 0; i < 100; i++)
+      {
+         assertThat(budget.tryAcquire("prices.php")).isTrue();
+      }
+      assertThat(budget.tryAcquire("prices.php")).isFalse();
+      assertThat(budget.getUsed()).isEqualTo(100);
+      assertThat(budget.getRemaining()).isEqualTo(0);
+      assertThat(budget.getAvailableRate()).isEqualTo(0);
+   }
+
+   @Test
+   public void resetsAtMidnight()
+   {
+      for (int i = 0; i < 100; i++)
+      {
+         budget.tryAcquire("prices.php");
+      }
+      assertThat(budget.getTimeUntilReset()).isEqualTo(Duration.ofHours(18));
+
+      clock.advance(Duration.ofHours(18).minusSeconds(1));
+      assertThat(budget.tryAcquire("prices.php")).isFalse();
+
+      clock.advance(Duration.ofSeconds(1));
+      assertThat(budget.getUsed()).isEqualTo(0);
+      assertThat(budget.getUsage()).isEmpty();
+      assertThat(budget.getTimeUntilReset()).isEqualTo(Duration.ofDays(1));
+      assertThat(budget.tryAcquire("prices.php")).isTrue();
+   }
+
+   @Test
+   public void projectsUsage()
+   {
+      assertThat(budget.getProjectedUsage()).isEqualTo(0);
+
+      // 20 calls within 3 hours since the creation project to 20 more calls for the remaining 15 hours
+      for (int i = 0; i < 20; i++)
+      {
+         budget.tryAcquire("prices.php");
+      }
+      clock.advance(Duration.ofHours(3));
+      assertThat(budget.getProjectedUsage()).isCloseTo(120, within(1e-9));
+      assertThat(budget.isOverspending()).isTrue();
+
+      clock.advance(Duration.ofHours(3));
+      assertThat(budget.getProjectedUsage()).isCloseTo(60, within(1e-9));
+      assertThat(budget.isOverspending()).isFalse();
+
+      // A new day is projected from its start
+      clock.advance(Duration.ofHours(18));
+      budget.tryAcquire("prices.php");
+      assertThat(budget.getProjectedUsage()).isCloseTo(4, within(1e-9));
+   }
+
+   @Test
+   public void offersSustainableRate()
+   {
+      assertThat(budget.getAvailableRate()).isCloseTo(100 / 18.0, within(1e-9));
+      for (int i = 0; i < 10; i++)
+      {
+         budget.tryAcquire("prices.php");
+      }
+      clock.advance(Duration.ofHours(12));
+      assertThat(budget.getAvailableRate()).isCloseTo(90 / 6.0, within(1e-9));
+
+      // The rate does not explode right before the reset
+      clock.advance(Duration.ofHours(6).minusSeconds(1));
+      assertThat(budget.getAvailableRate()).isCloseTo(90 * 60.0, within(1e-9));
+   }
+}
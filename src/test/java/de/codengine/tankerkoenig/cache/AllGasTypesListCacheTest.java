@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListRequest;
+import de.codengine.tankerkoenig.models.requests.StationListResolver;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+import de.codengine.tankerkoenig.utils.MutableClock;
+import de.codengine.tankerkoenig.utils.ResourceLoader;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class AllGasTypesListCacheTest
+{
+   private MutableClock clock;
+   private AllGasTypesListCache cache;
+   private List<StationListQuery> upstreamQueries;
+   private StationListResolver.Upstream upstream;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      clock = new MutableClock(Instant.parse("2017-06-01T10:00:00Z"));
+      cache = new AllGasTypesListCache(Duration.ofMinutes(5), 2, clock);
+      upstreamQueries = new ArrayList<>();
+      upstream = query ->
+      {
+         upstreamQueries.add(query);
+         return StationFixtures.create()
+               .with("a", 52.52, 13.40, 1.5f, 1.4f, 1.1f)
+               .with("b", 52.538, 13.40, 1.4f, 1.3f, 1.2f)
+               .with("c", 52.56, 13.40, 1.3f, null, 1.1f)
+               .toResult();
+      };
+   }
+
+   @After
+   public void tearDown() throws Exception
+   {
+      clock = null;
+      cache = null;
+      upstreamQueries = null;
+      upstream = null;
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(AllGasTypesListCache.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> new AllGasTypesListCache(null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new AllGasTypesListCache(Duration.ofMinutes(-1))).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new AllGasTypesListCache(Duration.ZERO, 0, clock)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new AllGasTypesListCache(Duration.ZERO, 1, null)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void answersEveryGasTypeFromOneRequest() throws RequesterException
+   {
+      final StationListResult e5 = cache.resolve(query(GasRequestType.E5, StationListRequest.SortingRequestType.PRICE), upstream);
+      final StationListResult e10 = cache.resolve(query(GasRequestType.E10, StationListRequest.SortingRequestType.PRICE), upstream);
+      final StationListResult diesel = cache.resolve(query(GasRequestType.DIESEL, StationListRequest.SortingRequestType.DISTANCE), upstream);
+      final StationListResult all = cache.resolve(query(GasRequestType.ALL, StationListRequest.SortingRequestType.DISTANCE), upstream);
+
+      assertThat(upstreamQueries).containsExactly(query(GasRequestType.ALL, StationListRequest.SortingRequestType.DISTANCE));
+      assertThat(cache.size()).isEqualTo(1);
+
+      assertThat(e5.getStations()).extracting(Station::getId).containsExactly("c", "b", "a");
+      assertThat(e5.getStations().get(0).getPrice()).hasValue(1.3f);
+      assertThat(e10.getStations()).extracting(Station::getId).containsExactly("b", "a", "c");
+      assertThat(diesel.getStations()).extracting(Station::getId).containsExactly("a", "b", "c");
+      assertThat(all.getStations()).extracting(Station::getId).containsExactly("a", "b", "c");
+      assertThat(all.getStations().get(0).getGasPrices()).isPresent();
+   }
+
+   @Test
+   public void refetchesStaleResults() throws RequesterException
+   {
+      cache.resolve(query(GasRequestType.E5, StationListRequest.SortingRequestType.PRICE), upstream);
+      clock.advance(Duration.ofMinutes(5));
+      cache.resolve(query(GasRequestType.E10, StationListRequest.SortingRequestType.PRICE), upstream);
+      assertThat(upstreamQueries).hasSize(1);
+
+      clock.advance(Duration.ofSeconds(1));
+      cache.resolve(query(GasRequestType.E10, StationListRequest.SortingRequestType.PRICE), upstream);
+      assertThat(upstreamQueries).hasSize(2);
+   }
+
+   @Test
+   public void evictsLeastRecentlyUsedEntries() throws RequesterException
+   {
+      cache.resolve(query(GasRequestType.E5, StationListRequest.SortingRequestType.PRICE), upstream);
+      cache.resolve(query(GasRequestType.E5, StationListRequest.SortingRequestType.PRICE).withArea(52.6, 13.4, 5), upstream);
+      cache.resolve(query(GasRequestType.E5, StationListRequest.SortingRequestType.PRICE).withArea(52.7, 13.4, 5), upstream);
+      assertThat(cache.size()).isEqualTo(2);
+
+      cache.resolve(query(GasRequestType.E5, StationListRequest.SortingRequestType.PRICE), upstream);
+      assertThat(upstreamQueries).hasSize(4);
+
+      cache.clear();
+      assertThat(cache.size()).isEqualTo(0);
+   }
+
+   @Test
+   public void doesNotCacheFailedResults() throws RequesterException, IOException
+   {
+      final StationListResult failed = GsonMapper.getInstance().fromJson(ResourceLoader.readString("fail_response.json"), StationListResult.class);
+      final StationListResult result = cache.resolve(query(GasRequestType.E5, StationListRequest.SortingRequestType.PRICE), query ->
+      {
+         upstreamQueries.add(query);
+         return failed;
+      });
+
+      assertThat(result).isSameAs(failed);
+      assertThat(cache.size()).isEqualTo(0);
+   }
+
+   private static StationListQuery query(final GasRequestType gasRequestType, final StationListRequest.SortingRequestType sorting)
+   {
+      return StationListQuery.of(52.52, 13.40, 5, gasRequestType, sorting);
+   }
+}
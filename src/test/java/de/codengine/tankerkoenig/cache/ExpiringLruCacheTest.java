@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.utils.MutableClock;
+
+public class ExpiringLruCacheTest
+{
+   private final MutableClock clock = new MutableClock(Instant.parse("2017-06-01T10:00:00Z"));
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(ExpiringLruCache.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> new ExpiringLruCache<String, String>(null, 1, clock)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new ExpiringLruCache<String, String>(Duration.ofMinutes(-1), 1, clock))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new ExpiringLruCache<String, String>(Duration.ofMinutes(5), 0, clock))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new ExpiringLruCache<String, String>(Duration.ofMinutes(5), 1, null))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void expiresValues()
+   {
+      final ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(Duration.ofMinutes(5), 2, clock);
+      cache.put("a", "A", cache.now());
+      assertThat(cache.get("a", cache.now())).isEqualTo("A");
+
+      clock.advance(Duration.ofMinutes(5));
+      assertThat(cache.get("a", cache.now())).isEqualTo("A");
+
+      clock.advance(Duration.ofSeconds(1));
+      assertThat(cache.get("a", cache.now())).isNull();
+      assertThat(cache.get("b", cache.now())).isNull();
+   }
+
+   @Test
+   public void evictsLeastRecentlyUsed()
+   {
+      final ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(Duration.ofMinutes(5), 2, clock);
+      cache.put("a", "A", cache.now());
+      cache.put("b", "B", cache.now());
+      assertThat(cache.get("a", cache.now())).isEqualTo("A");
+
+      cache.put("c", "C", cache.now());
+      assertThat(cache.size()).isEqualTo(2);
+      assertThat(cache.get("a", cache.now())).isEqualTo("A");
+      assertThat(cache.get("b", cache.now())).isNull();
+      assertThat(cache.get("c", cache.now())).isEqualTo("C");
+
+      cache.clear();
+      assertThat(cache.size()).isZero();
+   }
+}
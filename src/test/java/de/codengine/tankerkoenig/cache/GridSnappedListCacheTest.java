@@ -0,0 +1,283 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.geo.GeoUtils;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListRequest;
+import de.codengine.tankerkoenig.models.requests.StationListResolver;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+import de.codengine.tankerkoenig.utils.MutableClock;
+import de.codengine.tankerkoenig.utils.ResourceLoader;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class GridSnappedListCacheTest
+{
+   private MutableClock clock;
+   private GridSnappedListCache cache;
+   private List<StationListQuery> upstreamQueries;
+   private StationListResolver.Upstream upstream;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      clock = new MutableClock(Instant.parse("2017-06-01T10:00:00Z"));
+      cache = new GridSnappedListCache(0.01, 5, Duration.ofMinutes(5), 2, clock);
+      upstreamQueries = new ArrayList<>();
+      upstream = query ->
+      {
+         upstreamQueries.add(query);
+         return StationFixtures.create()
+               .with("a", 52.52, 13.40, 1.5f, 1.4f, 1.1f)
+               .with("b", 52.538, 13.40, 1.4f, 1.3f, 1.2f)
+               .with("c", 52.56, 13.40, 1.3f, 1.2f, 1.1f)
+               .toResult();
+      };
+   }
+
+   @After
+   public void tearDown() throws Exception
+   {
+      clock = null;
+      cache = null;
+      upstreamQueries = null;
+      upstream = null;
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(GridSnappedListCache.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> new GridSnappedListCache(0, 5, Duration.ZERO, 1, clock)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new GridSnappedListCache(0.01, 0, Duration.ZERO, 1, clock)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new GridSnappedListCache(0.01, 26, Duration.ZERO, 1, clock)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new GridSnappedListCache(0.01, 5, null, 1, clock)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new GridSnappedListCache(0.01, 5, Duration.ZERO, 0, clock)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new GridSnappedListCache(0.01, 5, Duration.ZERO, 1, null)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void fetchesSupersetAroundCellCenter() throws RequesterException
+   {
+      cache.resolve(query(52.5213, 13.4012, 3), upstream);
+
+      assertThat(upstreamQueries).hasSize(1);
+      final StationListQuery superset = upstreamQueries.get(0);
+      assertThat(superset.getLat()).isCloseTo(52.525, within(1e-9));
+      assertThat(superset.getLng()).isCloseTo(13.405, within(1e-9));
+      assertThat(superset.getGasRequestType()).isEqualTo(GasRequestType.ALL);
+
+      final double halfDiagonal = GeoUtils.distance(52.525, 13.405, 52.53, 13.41);
+      assertThat(superset.getRadius()).isCloseTo(5 + halfDiagonal, within(1e-9));
+   }
+
+   @Test
+   public void nearbyQueriesShareOneRequest() throws RequesterException
+   {
+      final StationListResult first = cache.resolve(query(52.5213, 13.4012, 3), upstream);
+      final StationListResult second = cache.resolve(query(52.5217, 13.4018, 4), upstream);
+
+      assertThat(upstreamQueries).hasSize(1);
+      assertThat(cache.size()).isEqualTo(1);
+      assertThat(ids(first.getStations())).containsExactly("a", "b");
+      assertThat(ids(second.getStations())).containsExactly("a", "b");
+      assertThat(first.getStations().get(0).getLocation().getDistance()).hasValue(0.2);
+      assertThat(first.isOk()).isTrue();
+      assertThat(first.getLicense()).hasValue("CC BY 4.0");
+   }
+
+   @Test
+   public void answersAnyGasTypeAndSorting() throws RequesterException
+   {
+      cache.resolve(query(52.52, 13.40, 5), upstream);
+      final StationListResult result = cache.resolve(
+            StationListQuery.of(52.52, 13.40, 5, GasRequestType.E5, StationListRequest.SortingRequestType.PRICE), upstream);
+
+      assertThat(upstreamQueries).hasSize(1);
+      assertThat(ids(result.getStations())).containsExactly("c", "b", "a");
+      assertThat(result.getStations().get(0).getPrice()).hasValue(1.3f);
+   }
+
+   @Test
+   public void separatesRadiusBuckets() throws RequesterException
+   {
+      cache.resolve(query(52.52, 13.40, 5), upstream);
+      cache.resolve(query(52.52, 13.40, 6), upstream);
+
+      assertThat(upstreamQueries).hasSize(2);
+      assertThat(upstreamQueries.get(1).getRadius()).isGreaterThan(10);
+   }
+
+   @Test
+   public void refetchesStaleResults() throws RequesterException
+   {
+      cache.resolve(query(52.52, 13.40, 5), upstream);
+      clock.advance(Duration.ofMinutes(5));
+      cache.resolve(query(52.52, 13.40, 5), upstream);
+      assertThat(upstreamQueries).hasSize(1);
+
+      clock.advance(Duration.ofSeconds(1));
+      cache.resolve(query(52.52, 13.40, 5), upstream);
+      assertThat(upstreamQueries).hasSize(2);
+   }
+
+   @Test
+   public void evictsLeastRecentlyUsed() throws RequesterException
+   {
+      cache.resolve(query(52.52, 13.40, 5), upstream);
+      cache.resolve(query(52.62, 13.40, 5), upstream);
+      cache.resolve(query(52.52, 13.40, 5), upstream);
+      cache.resolve(query(52.72, 13.40, 5), upstream);
+      assertThat(cache.size()).isEqualTo(2);
+      assertThat(upstreamQueries).hasSize(3);
+
+      cache.resolve(query(52.52, 13.40, 5), upstream);
+      assertThat(upstreamQueries).hasSize(3);
+      cache.resolve(query(52.62, 13.40, 5), upstream);
+      assertThat(upstreamQueries).hasSize(4);
+
+      cache.clear();
+      assertThat(cache.size()).isEqualTo(0);
+   }
+
+   @Test
+   public void capsSupersetAtMaximumRadius() throws RequesterException
+   {
+      cache.resolve(query(52.5249, 13.4049, 22), upstream);
+      cache.resolve(query(52.5251, 13.4051, 21), upstream);
+
+      assertThat(upstreamQueries).hasSize(1);
+      assertThat(upstreamQueries.get(0).getLat()).isCloseTo(52.525, within(1e-9));
+      assertThat(upstreamQueries.get(0).getRadius()).isEqualTo(25);
+   }
+
+   @Test
+   public void cachesExactCircleOfMaximumRadius() throws RequesterException
+   {
+      final StationListQuery query = query(52.52, 13.40, 25);
+      final StationListResult first = cache.resolve(query, upstream);
+      final StationListResult second = cache.resolve(query, upstream);
+
+      assertThat(upstreamQueries).containsExactly(query);
+      assertThat(cache.size()).isEqualTo(1);
+      assertThat(ids(second.getStations())).isEqualTo(ids(first.getStations()));
+   }
+
+   @Test
+   public void sharesConcurrentMisses() throws Exception
+   {
+      final CountDownLatch fetching = new CountDownLatch(1);
+      final CountDownLatch release = new CountDownLatch(1);
+      final List<StationListQuery> fetched = Collections.synchronizedList(new ArrayList<>());
+      final StationListResolver.Upstream blocking = query ->
+      {
+         fetched.add(query);
+         fetching.countDown();
+         try
+         {
+            release.await(5, TimeUnit.SECONDS);
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+         }
+         return upstream.fetch(query);
+      };
+
+      final List<List<String>> results = Collections.synchronizedList(new ArrayList<>());
+      final Runnable resolve = () ->
+      {
+         try
+         {
+            results.add(ids(cache.resolve(query(52.52, 13.40, 5), blocking).getStations()));
+         }
+         catch (RequesterException e)
+         {
+            throw new IllegalStateException(e);
+         }
+      };
+      final Thread first = new Thread(resolve);
+      final Thread second = new Thread(resolve);
+      first.start();
+      assertThat(fetching.await(5, TimeUnit.SECONDS)).isTrue();
+      second.start();
+      while (second.getState() != Thread.State.WAITING && second.isAlive())
+      {
+         Thread.sleep(1);
+      }
+      release.countDown();
+      first.join(5000);
+      second.join(5000);
+
+      assertThat(fetched).hasSize(1);
+      assertThat(results).hasSize(2);
+      assertThat(results.get(0)).isEqualTo(results.get(1));
+   }
+
+   @Test
+   public void doesNotCacheFailedResults() throws RequesterException, IOException
+   {
+      final StationListResult failed = GsonMapper.getInstance().fromJson(ResourceLoader.readString("fail_response.json"), StationListResult.class);
+      assertThat(cache.resolve(query(52.52, 13.40, 5), query -> failed)).isSameAs(failed);
+      assertThat(cache.size()).isEqualTo(0);
+   }
+
+   private static StationListQuery query(final double lat, final double lng, final double radius)
+   {
+      return StationListQuery.of(lat, lng, radius, GasRequestType.ALL, StationListRequest.SortingRequestType.DISTANCE);
+   }
+
+   private static List<String> ids(final List<Station> stations)
+   {
+      return stations.stream().map(Station::getId).collect(Collectors.toList());
+   }
+}
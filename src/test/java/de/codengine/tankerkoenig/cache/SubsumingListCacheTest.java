@@ -0,0 +1,214 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListRequest;
+import de.codengine.tankerkoenig.models.requests.StationListResolver;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+import de.codengine.tankerkoenig.utils.MutableClock;
+import de.codengine.tankerkoenig.utils.ResourceLoader;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class SubsumingListCacheTest
+{
+   private MutableClock clock;
+   private SubsumingListCache cache;
+   private List<StationListQuery> upstreamQueries;
+   private StationListResolver.Upstream upstream;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      clock = new MutableClock(Instant.parse("2017-06-01T10:00:00Z"));
+      cache = new SubsumingListCache(10, Duration.ofMinutes(5), 3, clock);
+      upstreamQueries = new ArrayList<>();
+      upstream = query ->
+      {
+         upstreamQueries.add(query);
+         return StationFixtures.create()
+               .with("a", 52.52, 13.40, 1.5f, 1.4f, 1.1f)
+               .with("b", 52.538, 13.40, 1.4f, 1.3f, 1.2f)
+               .with("c", 52.56, 13.40, 1.3f, 1.2f, 1.1f)
+               .toResult();
+      };
+   }
+
+   @After
+   public void tearDown() throws Exception
+   {
+      clock = null;
+      cache = null;
+      upstreamQueries = null;
+      upstream = null;
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(SubsumingListCache.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> new SubsumingListCache(0.5, Duration.ZERO, 1, clock)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new SubsumingListCache(26, Duration.ZERO, 1, clock)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new SubsumingListCache(10, null, 1, clock)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new SubsumingListCache(10, Duration.ofMinutes(-1), 1, clock)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new SubsumingListCache(10, Duration.ZERO, 0, clock)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new SubsumingListCache(10, Duration.ZERO, 1, null)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void fetchesWithFetchRadius() throws RequesterException
+   {
+      final StationListResult result = cache.resolve(query(52.52, 13.40, 3), upstream);
+
+      assertThat(upstreamQueries).containsExactly(query(52.52, 13.40, 10));
+      assertThat(ids(result.getStations())).containsExactly("a", "b");
+      assertThat(cache.size()).isEqualTo(1);
+   }
+
+   @Test
+   public void fetchesLargerQueriesWithTheirRadius() throws RequesterException
+   {
+      cache.resolve(query(52.52, 13.40, 20), upstream);
+      assertThat(upstreamQueries).containsExactly(query(52.52, 13.40, 20));
+   }
+
+   @Test
+   public void answersContainedQueries() throws RequesterException
+   {
+      cache.resolve(query(52.52, 13.40, 5), upstream);
+
+      final StationListResult result = cache.resolve(
+            StationListQuery.of(52.55, 13.40, 4, GasRequestType.E5, StationListRequest.SortingRequestType.PRICE), upstream);
+      assertThat(upstreamQueries).hasSize(1);
+      assertThat(ids(result.getStations())).containsExactly("c", "b", "a");
+      assertThat(result.getStations().get(0).getLocation().getDistance()).hasValue(1.1);
+
+      // Touches the border of the cached circle
+      cache.resolve(query(52.55, 13.40, 7), upstream);
+      assertThat(upstreamQueries).hasSize(2);
+   }
+
+   @Test
+   public void ignoresStaleResults() throws RequesterException
+   {
+      cache.resolve(query(52.52, 13.40, 5), upstream);
+      clock.advance(Duration.ofMinutes(5));
+      cache.resolve(query(52.52, 13.40, 5), upstream);
+      assertThat(upstreamQueries).hasSize(1);
+
+      clock.advance(Duration.ofSeconds(1));
+      cache.resolve(query(52.52, 13.40, 5), upstream);
+      assertThat(upstreamQueries).hasSize(2);
+      assertThat(cache.size()).isEqualTo(1);
+   }
+
+   @Test
+   public void prefersFreshestContainingResult() throws RequesterException
+   {
+      final List<StationListResult> results = new ArrayList<>();
+      final StationListResolver.Upstream countingUpstream = query ->
+      {
+         final StationListResult result = upstream.fetch(query);
+         results.add(result);
+         return result;
+      };
+
+      cache.resolve(query(52.52, 13.40, 5), countingUpstream);
+      clock.advance(Duration.ofMinutes(1));
+      cache.resolve(query(52.60, 13.40, 5), countingUpstream);
+      assertThat(cache.size()).isEqualTo(2);
+
+      final StationListResult result = cache.resolve(query(52.56, 13.40, 1), countingUpstream);
+      assertThat(results).hasSize(2);
+      assertThat(result.getStations()).containsExactly(results.get(1).getStations().get(2));
+   }
+
+   @Test
+   public void removesContainedResults() throws RequesterException
+   {
+      cache.resolve(query(52.52, 13.40, 5), upstream);
+      cache.resolve(query(52.70, 13.40, 5), upstream);
+      cache.resolve(query(52.52, 13.40, 20), upstream);
+
+      assertThat(cache.size()).isEqualTo(2);
+   }
+
+   @Test
+   public void evictsOldestResults() throws RequesterException
+   {
+      cache.resolve(query(52.52, 13.40, 1), upstream);
+      cache.resolve(query(52.82, 13.40, 1), upstream);
+      cache.resolve(query(53.12, 13.40, 1), upstream);
+      cache.resolve(query(53.42, 13.40, 1), upstream);
+      assertThat(cache.size()).isEqualTo(3);
+
+      cache.resolve(query(52.52, 13.40, 1), upstream);
+      assertThat(upstreamQueries).hasSize(5);
+
+      cache.clear();
+      assertThat(cache.size()).isEqualTo(0);
+   }
+
+   @Test
+   public void doesNotCacheFailedResults() throws RequesterException, IOException
+   {
+      final StationListResult failed = GsonMapper.getInstance().fromJson(ResourceLoader.readString("fail_response.json"), StationListResult.class);
+      assertThat(cache.resolve(query(52.52, 13.40, 5), query -> failed)).isSameAs(failed);
+      assertThat(cache.size()).isEqualTo(0);
+   }
+
+   private static StationListQuery query(final double lat, final double lng, final double radius)
+   {
+      return StationListQuery.of(lat, lng, radius, GasRequestType.ALL, StationListRequest.SortingRequestType.DISTANCE);
+   }
+
+   private static List<String> ids(final List<Station> stations)
+   {
+      return stations.stream().map(Station::getId).collect(Collectors.toList());
+   }
+}
@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.crawl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.codengine.tankerkoenig.geo.GeoCircle;
+import de.codengine.tankerkoenig.geo.GeoPoint;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.utils.ResourceLoader;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class CrawlCheckpointTest
+{
+   @Rule
+   public final TemporaryFolder folder = new TemporaryFolder();
+
+   private List<GeoCircle> tiles;
+   private Path file;
+
+   @Before
+   public void setUp() throws IOException
+   {
+      tiles = Arrays.asList(GeoCircle.of(GeoPoint.of(52.5, 13.4), 25), GeoCircle.of(GeoPoint.of(52.8, 13.4), 25),
+            GeoCircle.of(GeoPoint.of(53.1, 13.4), 25));
+      file = folder.getRoot().toPath().resolve("crawl.json");
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(CrawlCheckpoint.class).isFinal();
+   }
+
+   @Test
+   public void create()
+   {
+      final CrawlCheckpoint checkpoint = CrawlCheckpoint.create(tiles);
+      assertThat(checkpoint.getCompletedCount()).isEqualTo(0);
+      assertThat(checkpoint.getCalls()).isEqualTo(0);
+      assertThat(checkpoint.getStations()).isEmpty();
+   }
+
+   @Test
+   public void completeDeduplicates()
+   {
+      final CrawlCheckpoint checkpoint = CrawlCheckpoint.create(tiles);
+      checkpoint.complete(0, StationFixtures.create().with("b", 52.5, 13.4, 1.5f, 1.4f, 1.3f).with("a", 52.6, 13.4, 1.5f, 1.4f, 1.3f).toStations());
+      checkpoint.complete(2, StationFixtures.create().with("b", 52.5, 13.4, 1.6f, 1.5f, 1.4f).toStations());
+
+      assertThat(checkpoint.isCompleted(0)).isTrue();
+      assertThat(checkpoint.isCompleted(1)).isFalse();
+      assertThat(checkpoint.isCompleted(2)).isTrue();
+      assertThat(checkpoint.getCompletedCount()).isEqualTo(2);
+      assertThat(checkpoint.getStations()).extracting(Station::getId).containsExactly("a", "b");
+      assertThat(checkpoint.getStations().get(1).getGasPrices().get().getPrice(GasPrices.GasType.E5))
+            .hasValue(1.6f);
+   }
+
+   @Test
+   public void saveAndLoad() throws IOException
+   {
+      final CrawlCheckpoint checkpoint = CrawlCheckpoint.create(tiles);
+      final List<Station> stations = StationFixtures.create()
+            .with("a", 52.5, 13.4, 1.5f, null, 1.3f, false)
+            .with("b", 52.6, 13.5, 1.459f, 1.439f, 1.279f)
+            .toStations();
+      checkpoint.countCall();
+      checkpoint.countCall();
+      checkpoint.complete(1, stations);
+      checkpoint.save(file);
+
+      final CrawlCheckpoint loaded = CrawlCheckpoint.load(file, tiles);
+      assertThat(loaded.getCalls()).isEqualTo(2);
+      assertThat(loaded.isCompleted(0)).isFalse();
+      assertThat(loaded.isCompleted(1)).isTrue();
+      assertThat(loaded.getCompletedCount()).isEqualTo(1);
+      assertThat(loaded.getStations()).isEqualTo(stations);
+      assertThat(folder.getRoot().list()).containsExactly("crawl.json");
+   }
+
+   @Test
+   public void savesListResponse() throws IOException
+   {
+      final CrawlCheckpoint checkpoint = CrawlCheckpoint.create(tiles);
+      checkpoint.complete(0, StationFixtures.create().with("a", 52.5, 13.4, 1.5f, null, 1.3f).toStations());
+
+      final String json = checkpoint.toJson();
+      assertThat(json).startsWith("{\"ok\":true,\"status\":\"ok\",\"crawl\":{\"fingerprint\":" + tiles.hashCode()
+            + ",\"tiles\":3,\"calls\":0,\"completed\":[0]},\"stations\":[{\"id\":\"a\"");
+      assertThat(json).contains("\"e5\":1.5").contains("\"diesel\":1.3").doesNotContain("e10").doesNotContain("null");
+   }
+
+   @Test
+   public void loadRejectsOtherTiles() throws IOException
+   {
+      CrawlCheckpoint.create(tiles).save(file);
+      assertThatThrownBy(() -> CrawlCheckpoint.load(file, tiles.subList(0, 2))).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void loadRejectsOtherFiles() throws IOException
+   {
+      Files.write(file, ResourceLoader.readString("list_all_prices.json").getBytes(StandardCharsets.UTF_8));
+      assertThatThrownBy(() -> CrawlCheckpoint.load(file, tiles)).isExactlyInstanceOf(IOException.class);
+
+      Files.write(file, "{\"crawl\":".getBytes(StandardCharsets.UTF_8));
+      assertThatThrownBy(() -> CrawlCheckpoint.load(file, tiles)).isExactlyInstanceOf(IOException.class);
+   }
+}
@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.crawl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RateLimiterTest
+{
+   private long now;
+   private List<Long> sleeps;
+   private RateLimiter rateLimiter;
+
+   @Before
+   public void setUp()
+   {
+      now = 1000;
+      sleeps = new ArrayList<>();
+      rateLimiter = new RateLimiter(4, () -> now, sleeps::add);
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(RateLimiter.class).isFinal();
+   }
+
+   @Test
+   public void invalidRate()
+   {
+      assertThatThrownBy(() -> new RateLimiter(0)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new RateLimiter(Double.NaN)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void spacesPermits() throws InterruptedException
+   {
+      rateLimiter.acquire();
+      rateLimiter.acquire();
+      rateLimiter.acquire();
+      assertThat(sleeps).containsExactly(250_000_000L, 500_000_000L);
+   }
+
+   @Test
+   public void doesNotAccumulateIdleTime() throws InterruptedException
+   {
+      rateLimiter.acquire();
+      now += 5_000_000_000L;
+      rateLimiter.acquire();
+      assertThat(sleeps).isEmpty();
+
+      now += 100_000_000L;
+      rateLimiter.acquire();
+      assertThat(sleeps).containsExactly(150_000_000L);
+   }
+
+   @Test
+   public void sleeps() throws InterruptedException
+   {
+      final RateLimiter limiter = new RateLimiter(100);
+      final long start = System.nanoTime();
+      for (int i = 0; i < 6; i++)
+      {
+         limiter.acquire();
+      }
+      assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(40_000_000L);
+   }
+}
@@ -0,0 +1,292 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.crawl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.codengine.tankerkoenig.budget.RequestBudget;
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.geo.GeoCircle;
+import de.codengine.tankerkoenig.geo.GeoPoint;
+import de.codengine.tankerkoenig.geo.GeoPolygon;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListResolver;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+import de.codengine.tankerkoenig.utils.ResourceLoader;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class StationCrawlerTest
+{
+   @Rule
+   public final TemporaryFolder folder = new TemporaryFolder();
+
+   private List<GeoCircle> tiles;
+   private Set<StationListQuery> queries;
+   private Set<Double> failingLats;
+   private StationListResolver.Upstream upstream;
+   private Path checkpoint;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      tiles = Arrays.asList(GeoCircle.of(GeoPoint.of(52.5, 13.4), 25), GeoCircle.of(GeoPoint.of(52.8, 13.4), 25),
+            GeoCircle.of(GeoPoint.of(53.1, 13.4), 25), GeoCircle.of(GeoPoint.of(53.4, 13.4), 25));
+      queries = ConcurrentHashMap.newKeySet();
+      failingLats = ConcurrentHashMap.newKeySet();
+      checkpoint = folder.getRoot().toPath().resolve("crawl.json");
+
+      // Every tile contains a station at its center and the one at the center of the next tile
+      upstream = query ->
+      {
+         queries.add(query);
+         if (failingLats.contains(query.getLat()))
+         {
+            throw new RequesterException("Failed", new IOException("Failed"));
+         }
+         final String id = String.valueOf(query.getLat());
+         final double nextLat = Math.round((query.getLat() + 0.3) * 10) / 10.0;
+         return StationFixtures.create()
+               .with(id, query.getLat(), query.getLng(), 1.5f, 1.4f, 1.3f)
+               .with(String.valueOf(nextLat), nextLat, query.getLng(), 1.5f, 1.4f, 1.3f)
+               .toResult();
+      };
+   }
+
+   @After
+   public void tearDown() throws Exception
+   {
+      tiles = null;
+      queries = null;
+      failingLats = null;
+      upstream = null;
+      checkpoint = null;
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(StationCrawler.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      final RateLimiter rateLimiter = new RateLimiter(1000);
+      assertThatThrownBy(() -> new StationCrawler(null, 1, rateLimiter)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new StationCrawler(upstream, 1, null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new StationCrawler(upstream, 0, rateLimiter)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new StationCrawler(upstream, 1, rateLimiter, 0)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new StationCrawler(upstream, 1, rateLimiter, 1, null, -1)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new StationCrawler(upstream, 1, rateLimiter)
+            .crawl(Collections.singletonList(GeoCircle.of(GeoPoint.of(52.5, 13.4), 26)), null))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void plan()
+   {
+      final List<GeoCircle> plan = StationCrawler.plan(StationCrawler.GERMANY);
+      assertThat(plan).hasSize(436);
+      assertThat(plan).allSatisfy(tile -> assertThat(tile.getRadius()).isEqualTo(StationCrawler.MAX_RADIUS));
+   }
+
+   @Test
+   public void crawlsEveryTile() throws IOException, InterruptedException
+   {
+      final CrawlReport report = new StationCrawler(upstream, 3, new RateLimiter(1000)).crawl(tiles, null);
+
+      assertThat(queries).extracting(StationListQuery::getGasRequestType).containsOnly(GasRequestType.ALL);
+      assertThat(queries).extracting(StationListQuery::getRadius).containsOnly(25.0);
+      assertThat(queries).hasSize(4);
+      assertThat(report.getStations()).extracting(Station::getId).containsExactly("52.5", "52.8", "53.1", "53.4", "53.7");
+      assertThat(report.getTileCount()).isEqualTo(4);
+      assertThat(report.getCompletedTileCount()).isEqualTo(4);
+      assertThat(report.getFailedTiles()).isEmpty();
+      assertThat(report.getCoverage()).isEqualTo(1.0);
+      assertThat(report.isComplete()).isTrue();
+      assertThat(report.getCalls()).isEqualTo(4);
+      assertThat(report.getTotalCalls()).isEqualTo(4);
+      assertThat(report).hasToString("CrawlReport{stations=5, tiles=4/4, failedTiles=0, calls=4, totalCalls=4}");
+   }
+
+   @Test
+   public void crawlsArea() throws IOException, InterruptedException
+   {
+      final CrawlReport report = new StationCrawler(upstream, 2, new RateLimiter(1000))
+            .crawl(GeoPolygon.rectangle(52.5, 13.4, 52.6, 13.5), null);
+      assertThat(report.isComplete()).isTrue();
+      assertThat(report.getCalls()).isEqualTo(report.getTileCount());
+   }
+
+   @Test
+   public void reportsFailedTiles() throws IOException, InterruptedException
+   {
+      failingLats.add(52.8);
+      final StationListResult failed = GsonMapper.getInstance().fromJson(ResourceLoader.readString("fail_response.json"), StationListResult.class);
+      final StationListResolver.Upstream failing = query -> query.getLat() == 53.4 ? failed : upstream.fetch(query);
+
+      final CrawlReport report = new StationCrawler(failing, 2, new RateLimiter(1000)).crawl(tiles, null);
+
+      assertThat(report.getFailedTiles()).containsExactly(tiles.get(1), tiles.get(3));
+      assertThat(report.getCompletedTileCount()).isEqualTo(2);
+      assertThat(report.getCoverage()).isEqualTo(0.5);
+      assertThat(report.isComplete()).isFalse();
+      assertThat(report.getCalls()).isEqualTo(4);
+      assertThat(report.getStations()).extracting(Station::getId).containsExactly("52.5", "52.8", "53.1", "53.4");
+   }
+
+   @Test
+   public void resumesFromCheckpoint() throws IOException, InterruptedException
+   {
+      failingLats.add(53.1);
+      failingLats.add(53.4);
+      final CrawlReport first = new StationCrawler(upstream, 1, new RateLimiter(1000), 1).crawl(tiles, checkpoint);
+      assertThat(first.getCompletedTileCount()).isEqualTo(2);
+      assertThat(Files.exists(checkpoint)).isTrue();
+
+      failingLats.clear();
+      queries.clear();
+      final CrawlReport second = new StationCrawler(upstream, 2, new RateLimiter(1000)).crawl(tiles, checkpoint);
+
+      assertThat(queries).extracting(StationListQuery::getLat).containsOnly(53.1, 53.4);
+      assertThat(second.isComplete()).isTrue();
+      assertThat(second.getCalls()).isEqualTo(2);
+      assertThat(second.getTotalCalls()).isEqualTo(6);
+      assertThat(second.getStations()).extracting(Station::getId).containsExactly("52.5", "52.8", "53.1", "53.4", "53.7");
+
+      queries.clear();
+      final CrawlReport third = new StationCrawler(upstream, 2, new RateLimiter(1000)).crawl(tiles, checkpoint);
+      assertThat(queries).isEmpty();
+      assertThat(third.getCalls()).isEqualTo(0);
+      assertThat(third.getStations()).isEqualTo(second.getStations());
+   }
+
+   @Test
+   public void defersTilesIfBudgetRunsLow() throws IOException, InterruptedException
+   {
+      final RequestBudget budget = new RequestBudget(3);
+      final StationListResolver.Upstream budgeted = query ->
+      {
+         assertThat(budget.tryAcquire("list.php")).isTrue();
+         return upstream.fetch(query);
+      };
+
+      final CrawlReport report = new StationCrawler(budgeted, 1, new RateLimiter(1000), 10, budget, 1).crawl(tiles, null);
+
+      assertThat(queries).hasSize(2);
+      assertThat(report.getCompletedTileCount()).isEqualTo(2);
+      assertThat(report.getFailedTiles()).hasSize(2);
+      assertThat(report.getCalls()).isEqualTo(2);
+      assertThat(budget.getRemaining()).isEqualTo(1);
+   }
+
+   @Test
+   public void defersTilesWithoutWaitingForRateLimit() throws IOException, InterruptedException
+   {
+      final RequestBudget budget = new RequestBudget(1);
+      final long start = System.nanoTime();
+      final CrawlReport report = new StationCrawler(upstream, 1, new RateLimiter(1), 10, budget, 1).crawl(tiles, null);
+
+      assertThat(queries).isEmpty();
+      assertThat(report.getFailedTiles()).hasSize(4);
+      assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(900));
+   }
+
+   @Test
+   public void savesCheckpointPeriodically() throws IOException, InterruptedException
+   {
+      final AtomicInteger saved = new AtomicInteger();
+      final StationListResolver.Upstream observing = query ->
+      {
+         if (Files.exists(checkpoint))
+         {
+            saved.incrementAndGet();
+         }
+         return upstream.fetch(query);
+      };
+
+      new StationCrawler(observing, 1, new RateLimiter(1000), 2).crawl(tiles, checkpoint);
+      // The checkpoint exists after the second tile
+      assertThat(saved.get()).isEqualTo(2);
+   }
+
+   @Test
+   public void rethrowsRuntimeExceptions()
+   {
+      final StationListResolver.Upstream broken = query ->
+      {
+         throw new IllegalStateException("Broken");
+      };
+      assertThatThrownBy(() -> new StationCrawler(broken, 2, new RateLimiter(1000)).crawl(tiles, null))
+            .isExactlyInstanceOf(IllegalStateException.class)
+            .hasMessage("Broken");
+   }
+
+   @Test
+   public void limitsParallelism() throws IOException, InterruptedException
+   {
+      final AtomicInteger running = new AtomicInteger();
+      final Set<Integer> concurrency = Collections.synchronizedSet(new HashSet<>());
+      final StationListResolver.Upstream slow = query ->
+      {
+         concurrency.add(running.incrementAndGet());
+         try
+         {
+            Thread.sleep(20);
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+         }
+         running.decrementAndGet();
+         return upstream.fetch(query);
+      };
+
+      new StationCrawler(slow, 2, new RateLimiter(1000)).crawl(tiles, null);
+      assertThat(concurrency).allSatisfy(value -> assertThat(value).isLessThanOrEqualTo(2));
+   }
+}
@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.geo;
+
+import static de.codengine.tankerkoenig.utils.CustomAsserts.testPrivateConstructor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CircleCoverTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(CircleCover.class).isFinal();
+   }
+
+   @Test
+   public void privateConstructor()
+   {
+      assertThatThrownBy(() -> testPrivateConstructor(CircleCover.class))
+            .isExactlyInstanceOf(InvocationTargetException.class)
+            .hasCauseExactlyInstanceOf(UnsupportedOperationException.class);
+   }
+
+   @Test
+   public void invalidRadius()
+   {
+      assertThatThrownBy(() -> CircleCover.hexagonal(GeoPolygon.rectangle(52, 13, 53, 14), 0))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void coversEveryPoint()
+   {
+      final GeoPolygon area = GeoPolygon.of(GeoPoint.of(47.3, 7.5), GeoPoint.of(48.0, 10.0), GeoPoint.of(55.0, 9.0),
+            GeoPoint.of(54.0, 14.0), GeoPoint.of(50.5, 12.0));
+      final List<GeoCircle> circles = CircleCover.hexagonal(area, 25);
+
+      assertThat(circles).allSatisfy(circle -> assertThat(circle.getRadius()).isEqualTo(25.0));
+      assertThat(circles).allSatisfy(circle -> assertThat(area.intersects(circle)).isTrue());
+
+      final Random random = new Random(42);
+      for (int i = 0; i < 10000; i++)
+      {
+         final double lat = area.getMinLat() + random.nextDouble() * (area.getMaxLat() - area.getMinLat());
+         final double lng = area.getMinLng() + random.nextDouble() * (area.getMaxLng() - area.getMinLng());
+         if (area.contains(lat, lng))
+         {
+            assertThat(circles.stream().anyMatch(circle -> circle.contains(lat, lng))).as("%s,%s", lat, lng).isTrue();
+         }
+      }
+   }
+
+   @Test
+   public void coversGermanyWithFewCircles()
+   {
+      final GeoPolygon germany = GeoPolygon.rectangle(47.27, 5.86, 55.06, 15.05);
+      final List<GeoCircle> circles = CircleCover.hexagonal(germany, 25);
+
+      // About 600,000 km² with 1,624 km² per circle of an ideal hexagonal cover
+      assertThat(circles.size()).isBetween(370, 520);
+      assertThat(circles.stream().anyMatch(circle -> circle.contains(47.27, 5.86))).isTrue();
+      assertThat(circles.stream().anyMatch(circle -> circle.contains(55.06, 15.05))).isTrue();
+   }
+
+   @Test
+   public void coversSmallAreasWithOneCircle()
+   {
+      final List<GeoCircle> circles = CircleCover.hexagonal(GeoPolygon.rectangle(52.50, 13.40, 52.51, 13.41), 25);
+      assertThat(circles).isNotEmpty();
+      assertThat(circles.stream().anyMatch(circle -> circle.contains(52.505, 13.405))).isTrue();
+   }
+
+   @Test
+   public void invalidCorridor()
+   {
+      final GeoPolyline line = GeoPolyline.of(GeoPoint.of(52, 13), GeoPoint.of(53, 13));
+      assertThatThrownBy(() -> CircleCover.corridor(line, -1, 25)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> CircleCover.corridor(line, 5, 0)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void coversCorridorAlongLine()
+   {
+      // Berlin - Hamburg - Hanover
+      final GeoPolyline route = GeoPolyline.of(GeoPoint.of(52.52, 13.40), GeoPoint.of(53.55, 9.99), GeoPoint.of(52.37, 9.73));
+      final List<GeoCircle> circles = CircleCover.corridor(route, 5, 25);
+
+      // About 390 km with circles every 48 km
+      assertThat(circles.size()).isBetween(9, 12);
+      assertThat(circles.get(0).getCenter()).isEqualTo(GeoPoint.of(52.52, 13.40));
+      assertCovers(circles, route, 5);
+   }
+
+   @Test
+   public void coversWideCorridorWithLattice()
+   {
+      final GeoPolyline route = GeoPolyline.of(GeoPoint.of(52.52, 13.40), GeoPoint.of(53.55, 9.99));
+      final List<GeoCircle> circles = CircleCover.corridor(route, 30, 25);
+
+      assertThat(circles.size()).isGreaterThan(route.getVertices().size());
+      assertThat(circles).allSatisfy(circle -> assertThat(route.distanceTo(circle.getCenter().getLat(), circle.getCenter().getLng()))
+            .isLessThanOrEqualTo(55.0));
+      assertCovers(circles, route, 30);
+   }
+
+   private static void assertCovers(final List<GeoCircle> circles, final GeoPolyline route, final double buffer)
+   {
+      final Random random = new Random(42);
+      final double margin = 0.5;
+      for (int i = 0; i < 20000; i++)
+      {
+         final double lat = route.getMinLat() - margin + random.nextDouble() * (route.getMaxLat() - route.getMinLat() + 2 * margin);
+         final double lng = route.getMinLng() - margin + random.nextDouble() * (route.getMaxLng() - route.getMinLng() + 2 * margin);
+         if (route.distanceTo(lat, lng) <= buffer)
+         {
+            assertThat(circles.stream().anyMatch(circle -> circle.contains(lat, lng))).as("%s,%s", lat, lng).isTrue();
+         }
+      }
+   }
+}
@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DistanceKernelTest
+{
+   private double[] lats;
+   private double[] lngs;
+   private DistanceKernel kernel;
+
+   @Before
+   public void setUp()
+   {
+      final Random random = new Random(42);
+      lats = new double[1000];
+      lngs = new double[1000];
+      for (int i = 0; i < lats.length; i++)
+      {
+         lats[i] = 47 + random.nextDouble() * 8;
+         lngs[i] = 6 + random.nextDouble() * 9;
+      }
+      lats[0] = 52.5;
+      lngs[0] = 13.4;
+      kernel = DistanceKernel.of(lats, lngs);
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(DistanceKernel.class).isFinal();
+   }
+
+   @Test
+   public void differentLengths()
+   {
+      assertThatThrownBy(() -> DistanceKernel.of(new double[2], new double[1])).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void size()
+   {
+      assertThat(kernel.size()).isEqualTo(1000);
+      assertThat(DistanceKernel.of(new double[0], new double[0]).size()).isEqualTo(0);
+   }
+
+   @Test
+   public void distancesMatchScalarHaversine()
+   {
+      final double[] expected = new double[lats.length];
+      final double[] actual = new double[lats.length];
+      DistanceKernel.distances(52.5, 13.4, lats, lngs, expected);
+      kernel.distances(52.5, 13.4, actual);
+
+      assertThat(actual[0]).isCloseTo(0, within(1e-3));
+      for (int i = 0; i < lats.length; i++)
+      {
+         assertThat(actual[i]).isCloseTo(expected[i], within(1e-3));
+         assertThat(expected[i]).isEqualTo(GeoUtils.distance(52.5, 13.4, lats[i], lngs[i]));
+      }
+   }
+
+   @Test
+   public void distancesOfShortDistances()
+   {
+      final DistanceKernel near = DistanceKernel.of(new double[]{52.5001, 52.501, 52.51}, new double[]{13.4, 13.4, 13.4});
+      final double[] distances = new double[3];
+      near.distances(52.5, 13.4, distances);
+      assertThat(distances[0]).isCloseTo(0.0111, within(1e-3));
+      assertThat(distances[1]).isCloseTo(0.1112, within(1e-3));
+      assertThat(distances[2]).isCloseTo(1.1119, within(1e-3));
+   }
+
+   @Test
+   public void withinRadius()
+   {
+      final int[] indices = new int[lats.length];
+      final double[] distances = new double[lats.length];
+      final int count = kernel.withinRadius(52.5, 13.4, 100, indices, distances);
+
+      int expected = 0;
+      for (int i = 0; i < lats.length; i++)
+      {
+         final double distance = GeoUtils.distance(52.5, 13.4, lats[i], lngs[i]);
+         if (distance <= 100)
+         {
+            assertThat(indices[expected]).isEqualTo(i);
+            assertThat(distances[expected]).isCloseTo(distance, within(1e-3));
+            expected++;
+         }
+      }
+      assertThat(count).isEqualTo(expected).isGreaterThan(0);
+      assertThat(indices[0]).isEqualTo(0);
+   }
+
+   @Test
+   public void withinHugeRadius()
+   {
+      final int[] indices = new int[lats.length];
+      final double[] distances = new double[lats.length];
+      assertThat(kernel.withinRadius(-52.5, -166.6, 1e6, indices, distances)).isEqualTo(lats.length);
+      assertThat(kernel.withinRadius(-52.5, -166.6, 0, indices, distances)).isEqualTo(0);
+   }
+}
@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.Test;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+public class GeoCircleTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(GeoCircle.class).isFinal();
+   }
+
+   @Test
+   public void of()
+   {
+      final GeoCircle circle = GeoCircle.of(GeoPoint.of(52.5, 13.4), 5);
+      assertThat(circle.getCenter()).isEqualTo(GeoPoint.of(52.5, 13.4));
+      assertThat(circle.getRadius()).isEqualTo(5.0);
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> GeoCircle.of(null, 5)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> GeoCircle.of(GeoPoint.of(52.5, 13.4), 0)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void contains()
+   {
+      final GeoCircle circle = GeoCircle.of(GeoPoint.of(52.5, 13.4), 5);
+      assertThat(circle.contains(52.5, 13.4)).isTrue();
+      assertThat(circle.contains(52.54, 13.4)).isTrue();
+      assertThat(circle.contains(52.55, 13.4)).isFalse();
+   }
+
+   @Test
+   public void equalsContract()
+   {
+      EqualsVerifier.forClass(GeoCircle.class).withNonnullFields("center").verify();
+   }
+}
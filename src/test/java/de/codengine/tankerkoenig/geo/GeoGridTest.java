@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+public class GeoGridTest
+{
+   private final GeoGrid grid = GeoGrid.of(0.1);
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(GeoGrid.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> GeoGrid.of(0)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> GeoGrid.of(1.1)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> GeoGrid.of(Double.NaN)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void indexesCells()
+   {
+      assertThat(grid.getCellSize()).isEqualTo(0.1);
+      assertThat(grid.latIndex(52.52)).isEqualTo(1425);
+      assertThat(grid.lngIndex(13.41)).isEqualTo(1934);
+      assertThat(grid.lngIndex(-0.05)).isEqualTo(1799);
+
+      final long cell = grid.cellOf(52.52, 13.41);
+      assertThat(cell).isEqualTo(GeoGrid.cell(1425, 1934));
+      assertThat(GeoGrid.latIndexOf(cell)).isEqualTo(1425);
+      assertThat(GeoGrid.lngIndexOf(cell)).isEqualTo(1934);
+      assertThat(grid.getSouth(cell)).isCloseTo(52.5, within(1e-9));
+      assertThat(grid.getWest(cell)).isCloseTo(13.4, within(1e-9));
+      assertThat(grid.getCenter(cell).getLat()).isCloseTo(52.55, within(1e-9));
+      assertThat(grid.getCenter(cell).getLng()).isCloseTo(13.45, within(1e-9));
+   }
+
+   @Test
+   public void relatesCellsToCircles()
+   {
+      final long cell = grid.cellOf(52.55, 13.45);
+      assertThat(grid.isWithin(cell, 52.55, 13.45, 10)).isTrue();
+      assertThat(grid.isWithin(cell, 52.55, 13.45, 5)).isFalse();
+      assertThat(grid.intersects(cell, 52.55, 13.45, 1)).isTrue();
+      // 1.1 km north of the cell
+      assertThat(grid.intersects(cell, 52.61, 13.45, 1)).isFalse();
+      assertThat(grid.intersects(cell, 52.61, 13.45, 1.2)).isTrue();
+   }
+
+   @Test
+   public void enumeratesCellsOfCircle()
+   {
+      final List<Long> around = new ArrayList<>();
+      grid.forEachCell(52.55, 13.45, 6, around::add);
+      assertThat(around).containsExactly(grid.cellOf(52.45, 13.35), grid.cellOf(52.45, 13.45), grid.cellOf(52.45, 13.55),
+            grid.cellOf(52.55, 13.35), grid.cellOf(52.55, 13.45), grid.cellOf(52.55, 13.55),
+            grid.cellOf(52.65, 13.35), grid.cellOf(52.65, 13.45), grid.cellOf(52.65, 13.55));
+
+      // The corner cells are more than 6 km away from the center of a cell
+      final List<Long> intersecting = new ArrayList<>();
+      grid.forEachIntersecting(52.55, 13.45, 6, intersecting::add);
+      assertThat(intersecting).containsExactly(grid.cellOf(52.45, 13.45), grid.cellOf(52.55, 13.35), grid.cellOf(52.55, 13.45),
+            grid.cellOf(52.55, 13.55), grid.cellOf(52.65, 13.45));
+   }
+
+   @Test
+   public void equalsAndHashCode()
+   {
+      EqualsVerifier.forClass(GeoGrid.class).verify();
+      assertThat(grid).hasToString("GeoGrid{cellSize=0.1}");
+   }
+}
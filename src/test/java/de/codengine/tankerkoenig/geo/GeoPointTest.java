@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.Test;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+public class GeoPointTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(GeoPoint.class).isFinal();
+   }
+
+   @Test
+   public void of()
+   {
+      final GeoPoint point = GeoPoint.of(52.5, 13.4);
+      assertThat(point.getLat()).isEqualTo(52.5);
+      assertThat(point.getLng()).isEqualTo(13.4);
+      assertThat(point).hasToString("GeoPoint{lat=52.5, lng=13.4}");
+   }
+
+   @Test
+   public void invalidCoordinates()
+   {
+      assertThatThrownBy(() -> GeoPoint.of(90.1, 0)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> GeoPoint.of(0, -180.1)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> GeoPoint.of(Double.NaN, 0)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void distanceTo()
+   {
+      assertThat(GeoPoint.of(52.5219, 13.4132).distanceTo(GeoPoint.of(53.5503, 9.9920))).isCloseTo(255.6, within(1.0));
+   }
+
+   @Test
+   public void equalsContract()
+   {
+      EqualsVerifier.forClass(GeoPoint.class).verify();
+   }
+}
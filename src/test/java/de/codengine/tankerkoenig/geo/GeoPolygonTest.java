@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class GeoPolygonTest
+{
+   // An L-shaped polygon around Berlin
+   private final GeoPolygon polygon = GeoPolygon.of(GeoPoint.of(52.4, 13.2), GeoPoint.of(52.4, 13.6), GeoPoint.of(52.5, 13.6),
+         GeoPoint.of(52.5, 13.4), GeoPoint.of(52.6, 13.4), GeoPoint.of(52.6, 13.2));
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(GeoPolygon.class).isFinal();
+   }
+
+   @Test
+   public void invalidVertices()
+   {
+      assertThatThrownBy(() -> GeoPolygon.of((GeoPoint[]) null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> GeoPolygon.of(GeoPoint.of(1, 1), GeoPoint.of(2, 2))).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> GeoPolygon.of(Arrays.asList(GeoPoint.of(1, 1), GeoPoint.of(2, 2), null)))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void bounds()
+   {
+      assertThat(polygon.getVertices()).hasSize(6);
+      assertThat(polygon.getMinLat()).isEqualTo(52.4);
+      assertThat(polygon.getMaxLat()).isEqualTo(52.6);
+      assertThat(polygon.getMinLng()).isEqualTo(13.2);
+      assertThat(polygon.getMaxLng()).isEqualTo(13.6);
+   }
+
+   @Test
+   public void rectangle()
+   {
+      final GeoPolygon rectangle = GeoPolygon.rectangle(47, 5, 55, 15);
+      assertThat(rectangle.getVertices()).containsExactly(GeoPoint.of(47, 5), GeoPoint.of(47, 15), GeoPoint.of(55, 15), GeoPoint.of(55, 5));
+   }
+
+   @Test
+   public void contains()
+   {
+      assertThat(polygon.contains(52.45, 13.3)).isTrue();
+      assertThat(polygon.contains(52.55, 13.3)).isTrue();
+      assertThat(polygon.contains(52.45, 13.5)).isTrue();
+      assertThat(polygon.contains(52.55, 13.5)).isFalse();
+      assertThat(polygon.contains(52.3, 13.3)).isFalse();
+   }
+
+   @Test
+   public void distanceToBoundary()
+   {
+      // 0.05 degrees latitude are about 5.56 km
+      assertThat(polygon.distanceToBoundary(52.45, 13.3)).isCloseTo(5.56, within(0.01));
+      assertThat(polygon.distanceToBoundary(52.35, 13.3)).isCloseTo(5.56, within(0.01));
+      assertThat(polygon.distanceToBoundary(52.4, 13.3)).isEqualTo(0.0);
+      // Outside of the notch, the nearest edge is the western one of the notch
+      assertThat(polygon.distanceToBoundary(52.55, 13.45)).isCloseTo(3.38, within(0.01));
+      // The nearest boundary point is the reflex vertex
+      assertThat(polygon.distanceToBoundary(52.49, 13.39)).isCloseTo(GeoUtils.distance(52.49, 13.39, 52.5, 13.4), within(0.05));
+   }
+
+   @Test
+   public void intersects()
+   {
+      assertThat(polygon.intersects(GeoCircle.of(GeoPoint.of(52.45, 13.3), 1))).isTrue();
+      assertThat(polygon.intersects(GeoCircle.of(GeoPoint.of(52.35, 13.3), 5))).isFalse();
+      assertThat(polygon.intersects(GeoCircle.of(GeoPoint.of(52.35, 13.3), 6))).isTrue();
+      assertThat(polygon.intersects(GeoCircle.of(GeoPoint.of(52.3, 13.0), 100))).isTrue();
+   }
+
+   @Test
+   public void equalsAndHashCode()
+   {
+      final GeoPolygon copy = GeoPolygon.of(polygon.getVertices());
+      assertThat(copy).isEqualTo(polygon);
+      assertThat(copy.hashCode()).isEqualTo(polygon.hashCode());
+      assertThat(copy).isNotEqualTo(GeoPolygon.rectangle(52.4, 13.2, 52.6, 13.6));
+   }
+}
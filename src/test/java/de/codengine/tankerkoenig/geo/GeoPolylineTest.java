@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class GeoPolylineTest
+{
+   private final GeoPolyline line = GeoPolyline.of(GeoPoint.of(52.0, 13.0), GeoPoint.of(52.0, 13.5), GeoPoint.of(52.5, 13.5));
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(GeoPolyline.class).isFinal();
+   }
+
+   @Test
+   public void invalidVertices()
+   {
+      assertThatThrownBy(() -> GeoPolyline.of((GeoPoint[]) null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> GeoPolyline.of(GeoPoint.of(1, 1))).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> GeoPolyline.of(Arrays.asList(GeoPoint.of(1, 1), null))).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void bounds()
+   {
+      assertThat(line.getVertices()).hasSize(3);
+      assertThat(line.getMinLat()).isEqualTo(52.0);
+      assertThat(line.getMaxLat()).isEqualTo(52.5);
+      assertThat(line.getMinLng()).isEqualTo(13.0);
+      assertThat(line.getMaxLng()).isEqualTo(13.5);
+   }
+
+   @Test
+   public void length()
+   {
+      assertThat(line.getLength()).isCloseTo(GeoUtils.distance(52, 13, 52, 13.5) + GeoUtils.distance(52, 13.5, 52.5, 13.5), within(1e-9));
+   }
+
+   @Test
+   public void distanceTo()
+   {
+      assertThat(line.distanceTo(52.0, 13.2)).isCloseTo(0, within(1e-9));
+      assertThat(line.distanceTo(52.1, 13.2)).isCloseTo(11.12, within(0.01));
+      assertThat(line.distanceTo(52.3, 13.6)).isCloseTo(GeoUtils.distance(52.3, 13.6, 52.3, 13.5), within(0.01));
+      assertThat(line.distanceTo(51.9, 12.9)).isCloseTo(GeoUtils.distance(51.9, 12.9, 52.0, 13.0), within(0.05));
+   }
+
+   @Test
+   public void positionOf()
+   {
+      final double firstSegment = GeoUtils.distance(52, 13, 52, 13.5);
+      assertThat(line.positionOf(52.0, 13.0)).isEqualTo(0.0);
+      assertThat(line.positionOf(52.1, 13.25)).isCloseTo(firstSegment / 2, within(0.01));
+      assertThat(line.positionOf(52.25, 13.6)).isCloseTo(firstSegment + GeoUtils.distance(52, 13.5, 52.25, 13.5), within(0.01));
+      assertThat(line.positionOf(53, 13.5)).isCloseTo(line.getLength(), within(1e-9));
+   }
+
+   @Test
+   public void equalsAndHashCode()
+   {
+      final GeoPolyline copy = GeoPolyline.of(line.getVertices());
+      assertThat(copy).isEqualTo(line);
+      assertThat(copy.hashCode()).isEqualTo(line.hashCode());
+      assertThat(copy).isNotEqualTo(GeoPolyline.of(GeoPoint.of(52.0, 13.0), GeoPoint.of(52.0, 13.5)));
+   }
+}
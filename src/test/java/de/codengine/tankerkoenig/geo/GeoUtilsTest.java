@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.geo;
+
+import static de.codengine.tankerkoenig.utils.CustomAsserts.testPrivateConstructor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.Test;
+
+public class GeoUtilsTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(GeoUtils.class).isFinal();
+   }
+
+   @Test
+   public void privateConstructor()
+   {
+      assertThatThrownBy(() -> testPrivateConstructor(GeoUtils.class))
+            .isExactlyInstanceOf(InvocationTargetException.class)
+            .hasCauseExactlyInstanceOf(UnsupportedOperationException.class);
+   }
+
+   @Test
+   public void distance()
+   {
+      // Berlin Alexanderplatz to Hamburg Rathausmarkt
+      assertThat(GeoUtils.distance(52.5219, 13.4132, 53.5503, 9.9920)).isCloseTo(255.6, within(1.0));
+      assertThat(GeoUtils.distance(52.5, 13.4, 52.5, 13.4)).isEqualTo(0.0);
+      assertThat(GeoUtils.distance(0, 0, 0, 180)).isCloseTo(Math.PI * GeoUtils.EARTH_RADIUS_KM, within(1e-6));
+      assertThat(GeoUtils.distance(52.5, 13.4, 53.5, 10.0)).isEqualTo(GeoUtils.distance(53.5, 10.0, 52.5, 13.4));
+   }
+
+   @Test
+   public void roundDistance()
+   {
+      assertThat(GeoUtils.roundDistance(3.54)).isEqualTo(3.5);
+      assertThat(GeoUtils.roundDistance(3.55)).isEqualTo(3.6);
+      assertThat(GeoUtils.roundDistance(0.01)).isEqualTo(0.0);
+   }
+
+   @Test
+   public void deltas()
+   {
+      final double latDelta = GeoUtils.latitudeDelta(10);
+      assertThat(GeoUtils.distance(52, 13, 52 + latDelta, 13)).isCloseTo(10, within(1e-6));
+
+      final double lngDelta = GeoUtils.longitudeDelta(52, 10);
+      assertThat(GeoUtils.distance(52, 13, 52, 13 + lngDelta)).isGreaterThanOrEqualTo(10);
+      assertThat(GeoUtils.longitudeDelta(90, 10)).isEqualTo(180);
+   }
+}
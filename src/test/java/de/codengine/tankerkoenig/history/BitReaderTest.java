@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class BitReaderTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(BitReader.class).isFinal();
+   }
+
+   @Test
+   public void readsRegionOfBuffer()
+   {
+      final ByteBuffer buffer = ByteBuffer.wrap(new byte[]{(byte) 0xFF, (byte) 0b1011_0101, (byte) 0b0110_0000, (byte) 0xFF});
+      final BitReader reader = new BitReader(buffer, 1, 2);
+      assertThat(reader.readBit()).isTrue();
+      assertThat(reader.read(2)).isEqualTo(0b01);
+      assertThat(reader.read(8)).isEqualTo(0xAB);
+      assertThat(reader.read(5)).isEqualTo(0);
+      assertThatThrownBy(() -> reader.read(1)).isExactlyInstanceOf(IllegalStateException.class);
+   }
+
+   @Test
+   public void extendsSign()
+   {
+      final BitWriter writer = new BitWriter();
+      writer.write(-3, 7);
+      writer.write(63, 7);
+      writer.write(-64, 7);
+      writer.write(Long.MIN_VALUE, 64);
+      final byte[] bytes = writer.toByteArray();
+
+      final BitReader reader = new BitReader(ByteBuffer.wrap(bytes), 0, bytes.length);
+      assertThat(reader.readSigned(7)).isEqualTo(-3);
+      assertThat(reader.readSigned(7)).isEqualTo(63);
+      assertThat(reader.readSigned(7)).isEqualTo(-64);
+      assertThat(reader.readSigned(64)).isEqualTo(Long.MIN_VALUE);
+   }
+}
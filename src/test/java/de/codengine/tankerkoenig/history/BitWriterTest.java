@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class BitWriterTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(BitWriter.class).isFinal();
+   }
+
+   @Test
+   public void writesMostSignificantBitFirst()
+   {
+      final BitWriter writer = new BitWriter();
+      writer.writeBit(true);
+      writer.write(0b01, 2);
+      writer.write(0xAB, 8);
+      assertThat(writer.getBitCount()).isEqualTo(11);
+      assertThat(writer.toByteArray()).containsExactly((byte) 0b1011_0101, (byte) 0b0110_0000);
+   }
+
+   @Test
+   public void growsAndRoundTrips()
+   {
+      final BitWriter writer = new BitWriter();
+      for (int i = 0; i < 1000; i++)
+      {
+         writer.write(i, 13);
+         writer.write(-i, 64);
+         writer.writeBit(i % 2 == 0);
+      }
+      final byte[] bytes = writer.toByteArray();
+      assertThat(bytes).hasSize((1000 * 78 + 7) / 8);
+
+      final BitReader reader = new BitReader(ByteBuffer.wrap(bytes), 0, bytes.length);
+      for (int i = 0; i < 1000; i++)
+      {
+         assertThat(reader.read(13)).isEqualTo(i);
+         assertThat(reader.read(64)).isEqualTo(-i);
+         assertThat(reader.readBit()).isEqualTo(i % 2 == 0);
+      }
+   }
+}
@@ -0,0 +1,57 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+public class PriceAggregateTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(PriceAggregate.class).isFinal();
+   }
+
+   @Test
+   public void accessors()
+   {
+      final PriceAggregate aggregate = new PriceAggregate(1.399f, 1.459f, 4.287, 3);
+      assertThat(aggregate.getMin()).isEqualTo(1.399f);
+      assertThat(aggregate.getMax()).isEqualTo(1.459f);
+      assertThat(aggregate.getAverage()).isEqualTo(1.429);
+      assertThat(aggregate.getCount()).isEqualTo(3);
+      assertThat(aggregate).hasToString("PriceAggregate{min=1.399, max=1.459, average=1.4290, count=3}");
+   }
+
+   @Test
+   public void equalsAndHashCode()
+   {
+      EqualsVerifier.forClass(PriceAggregate.class).verify();
+   }
+}
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class PriceBlockTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(PriceBlock.class).isFinal();
+   }
+
+   @Test
+   public void convertsPrices()
+   {
+      assertThat(PriceBlock.toUnits(1.459f)).isEqualTo(1459);
+      assertThat(PriceBlock.toPrice(1459)).isEqualTo(1.459f);
+      assertThat(PriceBlock.toPrice(PriceBlock.toUnits(1.999f))).isEqualTo(1.999f);
+   }
+
+   @Test
+   public void roundTripsIrregularObservations()
+   {
+      final Random random = new Random(42);
+      final List<long[]> observations = new ArrayList<>();
+      long time = 1_500_000_000L;
+      int price = 1459;
+      for (int i = 0; i < 500; i++)
+      {
+         observations.add(new long[]{time, price});
+         // Deltas of all encodings, including equal times
+         final int kind = random.nextInt(5);
+         time += kind == 0 ? 0 : kind == 1 ? 300 : kind == 2 ? random.nextInt(200) : kind == 3 ? random.nextInt(5000) : random.nextInt(100_000_000);
+         price += random.nextBoolean() ? 0 : random.nextBoolean() ? random.nextInt(61) - 30 : random.nextInt(4001) - 2000;
+      }
+
+      final PriceBlock block = new PriceBlock(observations.get(0)[0], (int) observations.get(0)[1]);
+      observations.subList(1, observations.size()).forEach(observation -> block.append(observation[0], (int) observation[1]));
+      assertThat(block.getCount()).isEqualTo(500);
+      assertThat(block.getFirstTime()).isEqualTo(1_500_000_000L);
+      assertThat(block.getLastTime()).isEqualTo(observations.get(499)[0]);
+
+      assertThat(decode(block)).containsExactlyElementsOf(observations.stream().map(o -> o[0] + ":" + o[1]).collect(Collectors.toList()));
+   }
+
+   @Test
+   public void compressesRegularPolls()
+   {
+      // Polled every 5 minutes for a day with 8 price changes of a few cents
+      final PriceBlock block = new PriceBlock(1_500_000_000L, 1459);
+      for (int i = 1; i < 288; i++)
+      {
+         block.append(1_500_000_000L + i * 300, 1459 - (i / 36) * 20);
+      }
+
+      assertThat(decode(block)).hasSize(288);
+      // 16 bytes per observation uncompressed
+      assertThat(block.toByteArray().length).isLessThan(100);
+   }
+
+   private static List<String> decode(final PriceBlock block)
+   {
+      final byte[] bytes = block.toByteArray();
+      final List<String> decoded = new ArrayList<>();
+      PriceBlock.decode(new BitReader(ByteBuffer.wrap(bytes), 0, bytes.length), block.getCount(), block.getFirstTime(),
+            (time, price) -> decoded.add(time + ":" + price));
+      return decoded;
+   }
+}
@@ -0,0 +1,298 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.requests.PricesResult;
+import de.codengine.tankerkoenig.utils.ResourceLoader;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class PriceHistoryTest
+{
+   private final static Instant START = Instant.parse("2017-06-01T06:00:00Z");
+
+   @Rule
+   public final TemporaryFolder folder = new TemporaryFolder();
+
+   private Path directory;
+   private PriceHistory history;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      directory = folder.getRoot().toPath().resolve("history");
+      history = PriceHistory.open(directory, 4, 1024);
+   }
+
+   @After
+   public void tearDown() throws Exception
+   {
+      history.close();
+      history = null;
+      directory = null;
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(PriceHistory.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> PriceHistory.open(null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> PriceHistory.open(directory, 1, 1024)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> PriceHistory.open(directory, 2, 1023)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> history.append("", GasPrices.GasType.E5, START, 1.5f)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> history.append("a", null, START, 1.5f)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> history.append("a", GasPrices.GasType.E5, null, 1.5f)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> history.append("a", GasPrices.GasType.E5, START, 0)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> history.append("a", GasPrices.GasType.E5, START, Float.NaN)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> history.query("a", GasPrices.GasType.E5, null, START)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void queriesRangeOfSeries() throws IOException
+   {
+      for (int i = 0; i < 10; i++)
+      {
+         assertThat(history.append("a", GasPrices.GasType.E10, START.plus(Duration.ofMinutes(5 * i)), 1.4f + i * 0.01f)).isTrue();
+      }
+      history.append("a", GasPrices.GasType.E5, START, 1.5f);
+      history.append("b", GasPrices.GasType.E10, START, 1.3f);
+
+      // Two blocks have been written, two observations are pending
+      final PriceSeries series = history.query("a", GasPrices.GasType.E10, START.plus(Duration.ofMinutes(10)), START.plus(Duration.ofMinutes(45)));
+      assertThat(series.size()).isEqualTo(7);
+      assertThat(series.getTime(0)).isEqualTo(START.plus(Duration.ofMinutes(10)));
+      assertThat(series.getTime(6)).isEqualTo(START.plus(Duration.ofMinutes(40)));
+      assertThat(series.getPrice(0)).isEqualTo(1.42f);
+      assertThat(series.getPrice(6)).isEqualTo(1.48f);
+
+      assertThat(history.query("a", GasPrices.GasType.E10, START, START.plus(Duration.ofHours(1))).size()).isEqualTo(10);
+      assertThat(history.query("a", GasPrices.GasType.E5, START, START.plusSeconds(1)).getPrice(0)).isEqualTo(1.5f);
+      assertThat(history.query("a", GasPrices.GasType.DIESEL, START, START.plusSeconds(1)).isEmpty()).isTrue();
+      assertThat(history.query("c", GasPrices.GasType.E10, START, START.plusSeconds(1)).isEmpty()).isTrue();
+      // Nanos are rounded towards the range
+      assertThat(history.query("a", GasPrices.GasType.E10, START.plusNanos(1), START.plus(Duration.ofMinutes(5)).plusNanos(1)).size()).isEqualTo(1);
+
+      assertThat(history.getObservationCount()).isEqualTo(12);
+      assertThat(history.getSeriesCount()).isEqualTo(3);
+   }
+
+   @Test
+   public void rejectsOutOfOrderObservations() throws IOException
+   {
+      assertThat(history.append("a", GasPrices.GasType.E10, START, 1.4f)).isTrue();
+      assertThat(history.append("a", GasPrices.GasType.E10, START, 1.41f)).isTrue();
+      assertThat(history.append("a", GasPrices.GasType.E10, START.minusSeconds(1), 1.42f)).isFalse();
+      assertThat(history.append("a", GasPrices.GasType.E5, START.minusSeconds(1), 1.42f)).isTrue();
+      assertThat(history.getObservationCount()).isEqualTo(3);
+   }
+
+   @Test
+   public void notifiesListenersOfAppendedObservations() throws IOException
+   {
+      final List<String> observations = new ArrayList<>();
+      final PriceHistory.ObservationListener listener = (stationId, gasType, epochSecond, price) ->
+            observations.add(stationId + " " + gasType + " " + epochSecond + " " + price);
+      assertThatThrownBy(() -> history.addListener(null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      history.addListener(listener);
+
+      history.append("b", GasPrices.GasType.E5, START, 1.5f);
+      history.append("a", GasPrices.GasType.E5, START.plusSeconds(60), 1.459f);
+      // Rejected observations are not reported
+      history.append("a", GasPrices.GasType.E5, START, 1.4f);
+      history.removeListener(listener);
+      history.append("c", GasPrices.GasType.E5, START, 1.4f);
+
+      assertThat(observations).containsExactly("b E5 1496296800 1.5", "a E5 1496296860 1.459");
+      assertThat(history.getStationIds()).containsExactly("a", "b", "c");
+   }
+
+   @Test
+   public void notifiesListenersOutsideOfLock() throws Exception
+   {
+      final CountDownLatch notified = new CountDownLatch(1);
+      final CountDownLatch release = new CountDownLatch(1);
+      final List<String> observations = new CopyOnWriteArrayList<>();
+      history.addListener((stationId, gasType, epochSecond, price) ->
+      {
+         notified.countDown();
+         try
+         {
+            release.await();
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+         }
+         observations.add(stationId);
+      });
+
+      final ExecutorService executor = Executors.newSingleThreadExecutor();
+      try
+      {
+         final Future<Boolean> appending = executor.submit(() -> history.append("a", GasPrices.GasType.E5, START, 1.5f));
+         assertThat(notified.await(1, TimeUnit.SECONDS)).isTrue();
+
+         // The blocked listener neither blocks queries nor appends, whose observations are delivered in order
+         assertThat(history.query("a", GasPrices.GasType.E5, START, START.plusSeconds(1)).size()).isEqualTo(1);
+         assertThat(history.append("b", GasPrices.GasType.E5, START, 1.4f)).isTrue();
+         assertThat(observations).isEmpty();
+
+         release.countDown();
+         assertThat(appending.get(1, TimeUnit.SECONDS)).isTrue();
+         assertThat(observations).containsExactly("a", "b");
+      }
+      finally
+      {
+         release.countDown();
+         executor.shutdown();
+      }
+   }
+
+   @Test
+   public void appendsResults() throws IOException
+   {
+      final PricesResult prices = GsonMapper.getInstance().fromJson("{\"ok\":true,\"prices\":{"
+            + "\"a\":{\"status\":\"open\",\"e5\":1.5,\"e10\":1.4,\"diesel\":1.2},"
+            + "\"b\":{\"status\":\"closed\",\"e5\":false,\"e10\":false,\"diesel\":false},"
+            + "\"c\":{\"status\":\"open\",\"e5\":1.55,\"e10\":false,\"diesel\":1.25}}}", PricesResult.class);
+      assertThat(history.append(prices, START)).isEqualTo(5);
+
+      assertThat(history.append(StationFixtures.create()
+            .with("a", 52.5, 13.4, 1.49f, 1.39f, 1.19f)
+            .with("d", 52.6, 13.4, 1.48f, 1.38f, 1.18f)
+            .toResult(), START.plusSeconds(60))).isEqualTo(6);
+
+      final PricesResult failed = GsonMapper.getInstance().fromJson(ResourceLoader.readString("fail_response.json"), PricesResult.class);
+      assertThat(history.append(failed, START.plusSeconds(120))).isEqualTo(0);
+
+      final PriceSeries series = history.query("a", GasPrices.GasType.DIESEL, START, START.plusSeconds(120));
+      assertThat(series.size()).isEqualTo(2);
+      assertThat(series.getPrice(0)).isEqualTo(1.2f);
+      assertThat(series.getPrice(1)).isEqualTo(1.19f);
+      assertThat(history.query("c", GasPrices.GasType.E10, START, START.plusSeconds(120)).isEmpty()).isTrue();
+   }
+
+   @Test
+   public void persistsAcrossReopening() throws IOException
+   {
+      for (int i = 0; i < 6; i++)
+      {
+         history.append("a", GasPrices.GasType.E10, START.plusSeconds(300 * i), 1.4f);
+      }
+      history.close();
+      assertThatThrownBy(() -> history.append("a", GasPrices.GasType.E10, START, 1.4f)).isExactlyInstanceOf(IllegalStateException.class);
+
+      history = PriceHistory.open(directory, 4, 1024);
+      assertThat(history.getObservationCount()).isEqualTo(6);
+      assertThat(history.query("a", GasPrices.GasType.E10, START, START.plus(Duration.ofHours(1))).size()).isEqualTo(6);
+      assertThat(history.append("a", GasPrices.GasType.E10, START.plusSeconds(1), 1.4f)).isFalse();
+      assertThat(history.append("a", GasPrices.GasType.E10, START.plusSeconds(1800), 1.39f)).isTrue();
+      assertThat(history.query("a", GasPrices.GasType.E10, START, START.plus(Duration.ofHours(1))).size()).isEqualTo(7);
+   }
+
+   @Test
+   public void truncatesTornRecord() throws IOException
+   {
+      for (int i = 0; i < 8; i++)
+      {
+         history.append("a", GasPrices.GasType.E10, START.plusSeconds(300 * i), 1.4f + i * 0.01f);
+      }
+      history.close();
+
+      final Path segment = directory.resolve("segment-000000.dat");
+      final long size = Files.size(segment);
+      try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE))
+      {
+         channel.truncate(size - 3);
+      }
+
+      history = PriceHistory.open(directory, 4, 1024);
+      assertThat(history.getObservationCount()).isEqualTo(4);
+      assertThat(history.getSize()).isLessThan(size - 3);
+      assertThat(history.query("a", GasPrices.GasType.E10, START, START.plus(Duration.ofHours(1))).size()).isEqualTo(4);
+      assertThat(history.append("a", GasPrices.GasType.E10, START.plus(Duration.ofHours(1)), 1.5f)).isTrue();
+      history.flush();
+      assertThat(history.query("a", GasPrices.GasType.E10, START, START.plus(Duration.ofHours(2))).size()).isEqualTo(5);
+   }
+
+   @Test
+   public void rollsOverSegments() throws IOException
+   {
+      for (int i = 0; i < 2000; i++)
+      {
+         history.append("station" + (i % 20), GasPrices.GasType.E5, START.plusSeconds(60 * i), 1.4f + (i % 7) * 0.01f);
+      }
+      history.flush();
+      assertThat(history.getSegmentCount()).isGreaterThan(1);
+
+      // Full segments are mapped, while the blocks of the growing last segment are read
+      assertThat(history.query("station3", GasPrices.GasType.E5, START, START.plus(Duration.ofDays(2))).size()).isEqualTo(100);
+      for (int i = 2000; i < 2020; i++)
+      {
+         history.append("station" + (i % 20), GasPrices.GasType.E5, START.plusSeconds(60 * i), 1.4f);
+      }
+      history.flush();
+      assertThat(history.query("station3", GasPrices.GasType.E5, START, START.plus(Duration.ofDays(2))).size()).isEqualTo(101);
+
+      history.close();
+      history = PriceHistory.open(directory, 4, 1024);
+      assertThat(history.getObservationCount()).isEqualTo(2020);
+      final PriceSeries series = history.query("station3", GasPrices.GasType.E5, START, START.plus(Duration.ofDays(2)));
+      assertThat(series.size()).isEqualTo(101);
+      assertThat(series.getTime(99)).isEqualTo(START.plusSeconds(60 * 1983));
+      assertThat(series.getPrice(99)).isEqualTo(1.4f + (1983 % 7) * 0.01f);
+   }
+}
@@ -0,0 +1,287 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+
+public class PriceRollupsTest
+{
+   private final static Instant START = Instant.parse("2017-06-01T06:00:00Z");
+   private final static ZoneId ZONE = ZoneId.of("Europe/Berlin");
+
+   @Rule
+   public final TemporaryFolder folder = new TemporaryFolder();
+
+   private PriceHistory history;
+   private PriceRollups rollups;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      history = PriceHistory.open(folder.getRoot().toPath().resolve("history"), 4, 1024);
+      rollups = new PriceRollups();
+      history.addListener(rollups);
+   }
+
+   @After
+   public void tearDown() throws Exception
+   {
+      history.close();
+      history = null;
+      rollups = null;
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(PriceRollups.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      final ForkJoinPool pool = ForkJoinPool.commonPool();
+      assertThatThrownBy(() -> new PriceRollups(0, 1, ZONE, pool)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new PriceRollups(1, 0, ZONE, pool)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new PriceRollups(1, 1, null, pool)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new PriceRollups(1, 1, ZONE, null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> rollups.aggregate(null, GasPrices.GasType.E5, PriceRollups.Tier.HOURLY, START, START))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> rollups.series(PriceRollups.Dimension.BRAND, GasPrices.GasType.E5, PriceRollups.Tier.DAILY, START, null))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void maintainsHourlyRollupsWhileAppending() throws IOException
+   {
+      history.append("a", GasPrices.GasType.E10, START, 1.40f);
+      history.append("a", GasPrices.GasType.E10, START.plus(Duration.ofMinutes(30)), 1.44f);
+      history.append("a", GasPrices.GasType.E10, START.plus(Duration.ofMinutes(60)), 1.42f);
+      history.append("a", GasPrices.GasType.E5, START, 1.50f);
+      history.append("b", GasPrices.GasType.E10, START.plus(Duration.ofMinutes(10)), 1.38f);
+
+      final Map<String, PriceAggregate> aggregates = rollups.aggregate(PriceRollups.Dimension.STATION, GasPrices.GasType.E10,
+            PriceRollups.Tier.HOURLY, START, START.plus(Duration.ofHours(2)));
+      assertThat(aggregates).containsOnlyKeys("a", "b");
+      assertThat(aggregates.get("a").getMin()).isEqualTo(1.40f);
+      assertThat(aggregates.get("a").getMax()).isEqualTo(1.44f);
+      assertThat(aggregates.get("a").getAverage()).isCloseTo(1.42, within(1e-9));
+      assertThat(aggregates.get("a").getCount()).isEqualTo(3);
+      assertThat(aggregates.get("b").getCount()).isEqualTo(1);
+
+      // Only buckets starting within the range are aggregated
+      assertThat(rollups.aggregate(PriceRollups.Dimension.STATION, GasPrices.GasType.E10, PriceRollups.Tier.HOURLY,
+            START.plusSeconds(1), START.plus(Duration.ofHours(2))).get("a").getCount()).isEqualTo(1);
+      assertThat(rollups.aggregate(PriceRollups.Dimension.STATION, GasPrices.GasType.E10, PriceRollups.Tier.HOURLY,
+            START.minus(Duration.ofHours(1)), START)).isEmpty();
+      assertThat(rollups.aggregate(PriceRollups.Dimension.STATION, GasPrices.GasType.DIESEL, PriceRollups.Tier.HOURLY,
+            START, START.plus(Duration.ofHours(2)))).isEmpty();
+
+      final NavigableMap<Instant, PriceAggregate> series = rollups.series(PriceRollups.Dimension.STATION, GasPrices.GasType.E10,
+            PriceRollups.Tier.HOURLY, START, START.plus(Duration.ofHours(2))).get("a");
+      assertThat(series).containsOnlyKeys(START, START.plus(Duration.ofHours(1)));
+      assertThat(series.get(START).getMax()).isEqualTo(1.44f);
+      assertThat(series.get(START.plus(Duration.ofHours(1))).getMin()).isEqualTo(1.42f);
+      assertThat(rollups.size()).isEqualTo(2);
+   }
+
+   @Test
+   public void bucketsDaysInZone() throws IOException
+   {
+      // 23:30 and 00:30 in Berlin
+      history.append("a", GasPrices.GasType.DIESEL, Instant.parse("2017-06-01T21:30:00Z"), 1.20f);
+      history.append("a", GasPrices.GasType.DIESEL, Instant.parse("2017-06-01T22:30:00Z"), 1.10f);
+
+      final Instant day = Instant.parse("2017-05-31T22:00:00Z");
+      final NavigableMap<Instant, PriceAggregate> series = rollups.series(PriceRollups.Dimension.STATION, GasPrices.GasType.DIESEL,
+            PriceRollups.Tier.DAILY, day, day.plus(Duration.ofDays(2))).get("a");
+      assertThat(series).containsOnlyKeys(day, day.plus(Duration.ofDays(1)));
+      assertThat(series.get(day).getMin()).isEqualTo(1.20f);
+      assertThat(series.get(day.plus(Duration.ofDays(1))).getMin()).isEqualTo(1.10f);
+
+      final Map<String, PriceAggregate> aggregates = rollups.aggregate(PriceRollups.Dimension.STATION, GasPrices.GasType.DIESEL,
+            PriceRollups.Tier.DAILY, day, day.plus(Duration.ofDays(1)));
+      assertThat(aggregates.get("a").getCount()).isEqualTo(1);
+   }
+
+   @Test
+   public void groupsByDimension()
+   {
+      rollups.describeAll(stations(
+            station("a", "JET", 10365, "deBE"),
+            station("b", "ARAL", 10365, "deBE"),
+            station("c", "ARAL", 80331, "deBY"),
+            station("d", "", 1067, null)));
+      rollups.onObservation("a", GasPrices.GasType.E5, START.getEpochSecond(), 1.40f);
+      rollups.onObservation("b", GasPrices.GasType.E5, START.getEpochSecond(), 1.44f);
+      rollups.onObservation("c", GasPrices.GasType.E5, START.getEpochSecond(), 1.48f);
+      rollups.onObservation("d", GasPrices.GasType.E5, START.getEpochSecond(), 1.36f);
+      rollups.onObservation("e", GasPrices.GasType.E5, START.getEpochSecond(), 1.30f);
+
+      final Instant to = START.plus(Duration.ofHours(1));
+      final Map<String, PriceAggregate> brands = rollups.aggregate(PriceRollups.Dimension.BRAND, GasPrices.GasType.E5,
+            PriceRollups.Tier.HOURLY, START, to);
+      assertThat(brands).containsOnlyKeys("ARAL", "JET");
+      assertThat(brands.get("ARAL").getMin()).isEqualTo(1.44f);
+      assertThat(brands.get("ARAL").getMax()).isEqualTo(1.48f);
+      assertThat(brands.get("ARAL").getAverage()).isCloseTo(1.46, within(1e-9));
+
+      final Map<String, PriceAggregate> postCodes = rollups.aggregate(PriceRollups.Dimension.POST_CODE, GasPrices.GasType.E5,
+            PriceRollups.Tier.HOURLY, START, to);
+      assertThat(postCodes).containsOnlyKeys("01067", "10365", "80331");
+      assertThat(postCodes.get("10365").getCount()).isEqualTo(2);
+
+      final Map<String, PriceAggregate> states = rollups.aggregate(PriceRollups.Dimension.STATE, GasPrices.GasType.E5,
+            PriceRollups.Tier.HOURLY, START, to);
+      assertThat(states).containsOnlyKeys("deBE", "deBY");
+      assertThat(states.get("deBE").getMax()).isEqualTo(1.44f);
+
+      assertThat(rollups.aggregate(PriceRollups.Dimension.STATION, GasPrices.GasType.E5, PriceRollups.Tier.HOURLY, START, to))
+            .containsOnlyKeys("a", "b", "c", "d", "e");
+   }
+
+   @Test
+   public void retainsLatestBuckets()
+   {
+      final PriceRollups retaining = new PriceRollups(2, 1, ZONE, ForkJoinPool.commonPool());
+      for (int hour = 0; hour < 3; hour++)
+      {
+         retaining.onObservation("a", GasPrices.GasType.E5, START.plus(Duration.ofHours(hour)).getEpochSecond(), 1.40f + hour * 0.01f);
+      }
+      // Older than the retained buckets
+      retaining.onObservation("a", GasPrices.GasType.E5, START.getEpochSecond(), 1.30f);
+
+      final Instant to = START.plus(Duration.ofHours(3));
+      final NavigableMap<Instant, PriceAggregate> series = retaining.series(PriceRollups.Dimension.STATION, GasPrices.GasType.E5,
+            PriceRollups.Tier.HOURLY, START, to).get("a");
+      assertThat(series).containsOnlyKeys(START.plus(Duration.ofHours(1)), START.plus(Duration.ofHours(2)));
+
+      final PriceAggregate daily = retaining.aggregate(PriceRollups.Dimension.STATION, GasPrices.GasType.E5,
+            PriceRollups.Tier.DAILY, Instant.parse("2017-05-31T22:00:00Z"), to).get("a");
+      assertThat(daily.getCount()).isEqualTo(4);
+      assertThat(daily.getMin()).isEqualTo(1.30f);
+   }
+
+   @Test
+   public void replaysHistory() throws IOException
+   {
+      for (int i = 0; i < 20; i++)
+      {
+         history.append("a", GasPrices.GasType.E10, START.plus(Duration.ofMinutes(15 * i)), 1.40f + (i % 4) * 0.01f);
+         history.append("b", GasPrices.GasType.DIESEL, START.plus(Duration.ofMinutes(15 * i)), 1.20f + (i % 3) * 0.01f);
+      }
+
+      final PriceRollups replayed = new PriceRollups();
+      assertThat(replayed.replay(history, START, START.plus(Duration.ofDays(1)))).isEqualTo(40);
+
+      for (final GasPrices.GasType gasType : GasPrices.GasType.values())
+      {
+         for (final PriceRollups.Tier tier : PriceRollups.Tier.values())
+         {
+            assertThat(replayed.series(PriceRollups.Dimension.STATION, gasType, tier, START.minus(Duration.ofDays(1)), START.plus(Duration.ofDays(1))))
+                  .isEqualTo(rollups.series(PriceRollups.Dimension.STATION, gasType, tier, START.minus(Duration.ofDays(1)), START.plus(Duration.ofDays(1))));
+         }
+      }
+   }
+
+   @Test
+   public void aggregatesManyStationsInParallel()
+   {
+      final ForkJoinPool pool = new ForkJoinPool(4);
+      try
+      {
+         final PriceRollups parallel = new PriceRollups(24, 7, ZONE, pool);
+         final List<String> stations = new ArrayList<>();
+         for (int i = 0; i < 3000; i++)
+         {
+            stations.add(station("s" + i, "Brand " + i % 3, 10000 + i % 7, "deBE"));
+         }
+         parallel.describeAll(stations(stations.toArray(new String[0])));
+         for (int i = 0; i < 3000; i++)
+         {
+            for (int hour = 0; hour < 4; hour++)
+            {
+               parallel.onObservation("s" + i, GasPrices.GasType.E5, START.plus(Duration.ofHours(hour)).getEpochSecond(), 1.300f + (i % 100) * 0.001f);
+            }
+         }
+
+         final Map<String, PriceAggregate> brands = parallel.aggregate(PriceRollups.Dimension.BRAND, GasPrices.GasType.E5,
+               PriceRollups.Tier.HOURLY, START, START.plus(Duration.ofHours(4)));
+         assertThat(brands).containsOnlyKeys("Brand 0", "Brand 1", "Brand 2");
+         assertThat(brands.get("Brand 0").getCount()).isEqualTo(4000);
+         assertThat(brands.get("Brand 0").getMin()).isEqualTo(1.300f);
+         assertThat(brands.get("Brand 0").getMax()).isEqualTo(1.399f);
+
+         final Map<String, PriceAggregate> states = parallel.aggregate(PriceRollups.Dimension.STATE, GasPrices.GasType.E5,
+               PriceRollups.Tier.HOURLY, START, START.plus(Duration.ofHours(4)));
+         assertThat(states.get("deBE").getCount()).isEqualTo(12000);
+         assertThat(states.get("deBE").getAverage()).isCloseTo(1.3495, within(1e-9));
+
+         assertThat(parallel.series(PriceRollups.Dimension.POST_CODE, GasPrices.GasType.E5, PriceRollups.Tier.HOURLY,
+               START, START.plus(Duration.ofHours(4))).get("10000")).hasSize(4);
+      }
+      finally
+      {
+         pool.shutdown();
+      }
+   }
+
+   private static String station(final String id, final String brand, final int postCode, final String state)
+   {
+      return String.format(Locale.ROOT, "{\"id\":\"%s\",\"name\":\"Station %s\",\"brand\":\"%s\",\"street\":\"Street\",\"place\":\"Berlin\","
+            + "\"lat\":52.5,\"lng\":13.4,\"dist\":0.0,\"price\":1.4,\"isOpen\":true,\"houseNumber\":\"1\",\"postCode\":%d%s}",
+            id, id, brand, postCode, state == null ? "" : ",\"state\":\"" + state + "\"");
+   }
+
+   private static List<Station> stations(final String... stations)
+   {
+      return GsonMapper.getInstance().fromJson("{\"ok\":true,\"license\":\"CC BY 4.0\",\"data\":\"MTS-K\",\"status\":\"ok\",\"stations\":["
+            + String.join(",", stations) + "]}", StationListResult.class).getStations();
+   }
+}
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+public class PriceSeriesTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(PriceSeries.class).isFinal();
+   }
+
+   @Test
+   public void accessors()
+   {
+      final PriceSeries series = new PriceSeries("a", GasPrices.GasType.E10, new long[]{1_500_000_000L, 1_500_000_300L},
+            new float[]{1.459f, 1.439f});
+      assertThat(series.getStationId()).isEqualTo("a");
+      assertThat(series.getGasType()).isEqualTo(GasPrices.GasType.E10);
+      assertThat(series.size()).isEqualTo(2);
+      assertThat(series.isEmpty()).isFalse();
+      assertThat(series.getTime(1)).isEqualTo(Instant.ofEpochSecond(1_500_000_300L));
+      assertThat(series.getEpochSecond(0)).isEqualTo(1_500_000_000L);
+      assertThat(series.getPrice(1)).isEqualTo(1.439f);
+      assertThat(series).hasToString("PriceSeries{stationId='a', gasType=E10, size=2, from=2017-07-14T02:40:00Z, to=2017-07-14T02:45:00Z}");
+
+      final PriceSeries empty = new PriceSeries("a", GasPrices.GasType.E5, new long[0], new float[0]);
+      assertThat(empty.isEmpty()).isTrue();
+      assertThat(empty).hasToString("PriceSeries{stationId='a', gasType=E5, size=0}");
+   }
+
+   @Test
+   public void equalsAndHashCode()
+   {
+      EqualsVerifier.forClass(PriceSeries.class).withNonnullFields("stationId", "gasType", "times", "prices").verify();
+   }
+}
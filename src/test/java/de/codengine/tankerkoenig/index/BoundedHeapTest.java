@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class BoundedHeapTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(BoundedHeap.class).isFinal();
+   }
+
+   @Test
+   public void invalidCapacity()
+   {
+      assertThatThrownBy(() -> new BoundedHeap(0)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void keepsSmallestKeys()
+   {
+      final BoundedHeap heap = new BoundedHeap(3);
+      heap.offer(5, 0, 0);
+      heap.offer(1, 0, 1);
+      assertThat(heap.size()).isEqualTo(2);
+
+      heap.offer(4, 0, 2);
+      heap.offer(2, 0, 3);
+      heap.offer(9, 0, 4);
+      assertThat(heap.size()).isEqualTo(3);
+
+      assertThat(heap.drainAscending()).containsExactly(1, 3, 2);
+      assertThat(heap.size()).isEqualTo(0);
+   }
+
+   @Test
+   public void decidesTiesBySecondaryKeyAndValue()
+   {
+      final BoundedHeap heap = new BoundedHeap(3);
+      heap.offer(1, 3, 0);
+      heap.offer(1, 1, 1);
+      heap.offer(1, 2, 3);
+      heap.offer(1, 2, 2);
+      heap.offer(1, 2, 4);
+
+      assertThat(heap.drainAscending()).containsExactly(1, 2, 3);
+   }
+
+   @Test
+   public void matchesFullSort()
+   {
+      final Random random = new Random(42);
+      final double[] keys = random.doubles(1000).map(key -> Math.floor(key * 100)).toArray();
+
+      final BoundedHeap heap = new BoundedHeap(25);
+      for (int i = 0; i < keys.length; i++)
+      {
+         heap.offer(keys[i], 0, i);
+      }
+
+      final int[] expected = IntStream.range(0, keys.length).boxed()
+            .sorted((a, b) -> keys[a] != keys[b] ? Double.compare(keys[a], keys[b]) : Integer.compare(a, b))
+            .limit(25).mapToInt(Integer::intValue).toArray();
+      assertThat(heap.drainAscending()).isEqualTo(expected);
+      assertThat(Arrays.stream(expected).mapToDouble(i -> keys[i]).toArray()).isSorted();
+   }
+}
@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.models.mapper.Projection;
+import de.codengine.tankerkoenig.models.mapper.StationField;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.mapper.StreamingMapper;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class LocatedStationsTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(LocatedStations.class).isFinal();
+   }
+
+   @Test
+   public void of()
+   {
+      final List<Station> stations = StationFixtures.create()
+            .with("a", 52.5, 13.4, 1.5f, 1.4f, 1.3f)
+            .with("b", 52.6, 13.4, 1.5f, 1.4f, 1.3f)
+            .toStations();
+      final LocatedStations located = LocatedStations.of(stations);
+
+      assertThat(located.size()).isEqualTo(2);
+      assertThat(located.getStations()).isEqualTo(stations);
+      assertThat(located.getKernel().size()).isEqualTo(2);
+
+      final double[] distances = new double[2];
+      located.getKernel().distances(52.5, 13.4, distances);
+      assertThat(distances[0]).isCloseTo(0, within(1e-3));
+      assertThat(distances[1]).isCloseTo(11.12, within(0.01));
+   }
+
+   @Test
+   public void skipsStationsWithoutLocation()
+   {
+      final String json = StationFixtures.create().with("a", 52.5, 13.4, 1.5f, 1.4f, 1.3f).toJson();
+      final StationListResult result = StreamingMapper.getInstance().fromJson(json, StationListResult.class, Projection.of(StationField.ID));
+      final List<Station> stations = new ArrayList<>(result.getStations());
+
+      assertThat(stations).hasSize(1);
+      assertThat(LocatedStations.of(stations).size()).isEqualTo(0);
+   }
+}
@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListRequest;
+import de.codengine.tankerkoenig.models.requests.StationListResolver;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+import de.codengine.tankerkoenig.utils.MutableClock;
+import de.codengine.tankerkoenig.utils.ResourceLoader;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class StationIndexResolverTest
+{
+   private MutableClock clock;
+   private StationIndexResolver resolver;
+   private List<StationListQuery> upstreamQueries;
+   private StationListResolver.Upstream upstream;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      clock = new MutableClock(Instant.parse("2017-06-01T10:00:00Z"));
+      resolver = new StationIndexResolver(new StationIndex(Duration.ofMinutes(5), 0.01, clock));
+      upstreamQueries = new ArrayList<>();
+      upstream = query ->
+      {
+         upstreamQueries.add(query);
+         return StationFixtures.create()
+               .with("a", 52.52, 13.40, 1.5f, 1.4f, 1.1f)
+               .with("b", 52.538, 13.40, 1.4f, 1.3f, 1.2f)
+               .with("c", 52.61, 13.40, 1.3f, 1.2f, 1.1f)
+               .toResult();
+      };
+   }
+
+   @After
+   public void tearDown() throws Exception
+   {
+      clock = null;
+      resolver = null;
+      upstreamQueries = null;
+      upstream = null;
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(StationIndexResolver.class).isFinal();
+   }
+
+   @Test
+   public void requiresIndex()
+   {
+      assertThatThrownBy(() -> new StationIndexResolver(null)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void fetchesAllGasTypesOnMiss() throws RequesterException
+   {
+      final StationListQuery query = StationListQuery.of(52.52, 13.40, 15, GasRequestType.E5, StationListRequest.SortingRequestType.PRICE);
+      final StationListResult result = resolver.resolve(query, upstream);
+
+      // The circle is enlarged by the diagonal of a cell
+      assertThat(resolver.getIndex().getCoveringRadius(15)).isBetween(16.5, 16.6);
+      assertThat(upstreamQueries).containsExactly(query.withArea(52.52, 13.40, resolver.getIndex().getCoveringRadius(15))
+            .withGasRequestType(GasRequestType.ALL));
+      assertThat(result.isOk()).isTrue();
+      assertThat(result.getLicense()).hasValue("CC BY 4.0");
+      assertThat(ids(result.getStations())).containsExactly("c", "b", "a");
+      assertThat(result.getStations().get(0).getPrice()).hasValue(1.3f);
+      assertThat(resolver.getIndex().size()).isEqualTo(3);
+   }
+
+   @Test
+   public void answersFromIndex() throws RequesterException
+   {
+      resolver.resolve(StationListQuery.of(52.52, 13.40, 15, GasRequestType.ALL, StationListRequest.SortingRequestType.DISTANCE), upstream);
+
+      final StationListResult result = resolver.resolve(
+            StationListQuery.of(52.53, 13.40, 3, GasRequestType.E10, StationListRequest.SortingRequestType.PRICE), upstream);
+
+      assertThat(upstreamQueries).hasSize(1);
+      assertThat(result.isOk()).isTrue();
+      assertThat(ids(result.getStations())).containsExactly("b", "a");
+      assertThat(result.getStations().get(0).getLocation().getDistance()).hasValue(0.9);
+   }
+
+   @Test
+   public void answersRepeatedQueryFromIndex() throws RequesterException
+   {
+      final StationListQuery query = StationListQuery.of(52.52, 13.40, 5, GasRequestType.E5, StationListRequest.SortingRequestType.DISTANCE);
+      final StationListResult first = resolver.resolve(query, upstream);
+      final StationListResult second = resolver.resolve(query, upstream);
+
+      assertThat(upstreamQueries).hasSize(1);
+      // Stations of the enlarged circle are not returned
+      assertThat(ids(first.getStations())).containsExactly("a", "b");
+      assertThat(ids(second.getStations())).containsExactly("a", "b");
+   }
+
+   @Test
+   public void capsCoveringRadius()
+   {
+      assertThat(resolver.getIndex().getCoveringRadius(25)).isEqualTo(25);
+      assertThat(resolver.getIndex().getCoveringRadius(24.5)).isEqualTo(25);
+   }
+
+   @Test
+   public void fetchesAgainIfStale() throws RequesterException
+   {
+      final StationListQuery query = StationListQuery.of(52.52, 13.40, 15, GasRequestType.ALL, StationListRequest.SortingRequestType.DISTANCE);
+      resolver.resolve(query, upstream);
+      clock.advance(Duration.ofMinutes(6));
+      resolver.resolve(query.withArea(52.52, 13.40, 2), upstream);
+
+      assertThat(upstreamQueries).hasSize(2);
+   }
+
+   @Test
+   public void returnsFailedResults() throws IOException
+   {
+      final StationListResult failed = GsonMapper.getInstance().fromJson(ResourceLoader.readString("fail_response.json"), StationListResult.class);
+      final StationListResult result = resolver.resolve(
+            StationListQuery.of(52.52, 13.40, 15, GasRequestType.ALL, StationListRequest.SortingRequestType.DISTANCE), query -> failed);
+
+      assertThat(result).isSameAs(failed);
+      assertThat(resolver.getIndex().size()).isEqualTo(0);
+   }
+
+   private static List<String> ids(final List<Station> stations)
+   {
+      return stations.stream().map(Station::getId).collect(Collectors.toList());
+   }
+}
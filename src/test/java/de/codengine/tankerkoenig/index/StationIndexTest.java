@@ -0,0 +1,194 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListRequest;
+import de.codengine.tankerkoenig.utils.MutableClock;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class StationIndexTest
+{
+   private MutableClock clock;
+   private StationIndex index;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      clock = new MutableClock(Instant.parse("2017-06-01T10:00:00Z"));
+      index = new StationIndex(Duration.ofMinutes(5), 0.01, clock);
+   }
+
+   @After
+   public void tearDown() throws Exception
+   {
+      clock = null;
+      index = null;
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(StationIndex.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> new StationIndex(null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new StationIndex(Duration.ofMinutes(-1))).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new StationIndex(Duration.ZERO, 0, clock)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new StationIndex(Duration.ZERO, 2, clock)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new StationIndex(Duration.ZERO, 0.1, null)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void emptyIndexAnswersNothing()
+   {
+      assertThat(index.query(query(52.52, 13.40, 1))).isNotPresent();
+      assertThat(index.size()).isEqualTo(0);
+   }
+
+   @Test
+   public void answersQueriesWithinCoveredArea()
+   {
+      index.add(52.52, 13.40, 10, stations());
+      assertThat(index.size()).isEqualTo(4);
+
+      final List<Station> stations = index.query(query(52.52, 13.40, 5)).get();
+      assertThat(ids(stations)).containsExactly("a", "b", "d");
+      assertThat(stations.get(1).getLocation().getDistance()).hasValue(2.0);
+
+      assertThat(ids(index.query(query(52.55, 13.42, 2)).get())).containsExactly("d", "b");
+   }
+
+   @Test
+   public void doesNotAnswerUncoveredArea()
+   {
+      index.add(52.52, 13.40, 10, stations());
+
+      // The cells at the border of the added circle are only partially covered
+      assertThat(index.query(query(52.52, 13.40, 10))).isNotPresent();
+      assertThat(index.query(query(53.55, 10.0, 5))).isNotPresent();
+   }
+
+   @Test
+   public void doesNotAnswerWithStalePrices()
+   {
+      index.add(52.52, 13.40, 10, stations());
+      clock.advance(Duration.ofMinutes(5));
+      assertThat(index.query(query(52.52, 13.40, 5))).isPresent();
+
+      clock.advance(Duration.ofSeconds(1));
+      assertThat(index.query(query(52.52, 13.40, 5))).isNotPresent();
+
+      index.add(52.52, 13.40, 10, stations());
+      assertThat(index.query(query(52.52, 13.40, 5))).isPresent();
+   }
+
+   @Test
+   public void removesMissingStations()
+   {
+      index.add(52.52, 13.40, 10, stations());
+      index.add(52.52, 13.40, 10, StationFixtures.create()
+            .with("a", 52.52, 13.40, 1.5f, 1.4f, 1.1f)
+            .toStations());
+
+      // c lies just outside of the added circle
+      assertThat(index.size()).isEqualTo(2);
+      assertThat(ids(index.query(query(52.52, 13.40, 5)).get())).containsExactly("a");
+   }
+
+   @Test
+   public void keepsStationsOutsideOfAddedCircle()
+   {
+      index.add(52.52, 13.40, 10, stations());
+      index.add(52.70, 13.40, 5, StationFixtures.create().toStations());
+
+      assertThat(index.size()).isEqualTo(4);
+   }
+
+   @Test
+   public void movesStations()
+   {
+      index.add(52.52, 13.40, 10, stations());
+      index.add(52.52, 13.40, 10, StationFixtures.create()
+            .with("a", 52.52, 13.40, 1.5f, 1.4f, 1.1f)
+            .with("b", 52.50, 13.40, 1.4f, 1.3f, 1.2f)
+            .with("c", 52.61, 13.40, 1.3f, 1.2f, 1.1f)
+            .with("d", 52.547, 13.40, null, 1.2f, 1.0f)
+            .toStations());
+
+      assertThat(index.size()).isEqualTo(4);
+      assertThat(ids(index.query(query(52.50, 13.40, 1)).get())).containsExactly("b");
+   }
+
+   @Test
+   public void createsRankerForCoveredArea()
+   {
+      assertThat(index.ranker(52.52, 13.40, 5)).isNotPresent();
+
+      index.add(52.52, 13.40, 10, stations());
+      final StationRanker ranker = index.ranker(52.52, 13.40, 5).get();
+      assertThat(ids(ranker.nearest(52.52, 13.40, 2))).containsExactly("a", "b");
+      assertThat(ids(ranker.cheapest(52.52, 13.40, 5, GasPrices.GasType.DIESEL, 1))).containsExactly("d");
+      assertThat(index.ranker(52.52, 13.40, 10)).isNotPresent();
+   }
+
+   private static List<Station> stations()
+   {
+      return StationFixtures.create()
+            .with("a", 52.52, 13.40, 1.5f, 1.4f, 1.1f)
+            .with("b", 52.538, 13.40, 1.4f, 1.3f, 1.2f)
+            .with("c", 52.61, 13.40, 1.3f, 1.2f, 1.1f)
+            .with("d", 52.547, 13.40, null, 1.2f, 1.0f)
+            .toStations();
+   }
+
+   private static StationListQuery query(final double lat, final double lng, final double radius)
+   {
+      return StationListQuery.of(lat, lng, radius, GasRequestType.ALL, StationListRequest.SortingRequestType.DISTANCE);
+   }
+
+   private static List<String> ids(final List<Station> stations)
+   {
+      return stations.stream().map(Station::getId).collect(Collectors.toList());
+   }
+}
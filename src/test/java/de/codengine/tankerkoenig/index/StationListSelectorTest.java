@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.index;
+
+import static de.codengine.tankerkoenig.utils.CustomAsserts.testPrivateConstructor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListRequest;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class StationListSelectorTest
+{
+   private List<Station> stations;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      stations = StationFixtures.create()
+            .with("c", 52.61, 13.40, 1.3f, 1.2f, 1.1f)
+            .with("b", 52.538, 13.40, 1.4f, 1.3f, 1.2f)
+            .with("a", 52.52, 13.40, 1.5f, 1.4f, 1.1f)
+            .with("d", 52.547, 13.40, null, 1.2f, 1.0f)
+            .toStations();
+   }
+
+   @After
+   public void tearDown() throws Exception
+   {
+      stations = null;
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(StationListSelector.class).isFinal();
+   }
+
+   @Test
+   public void privateConstructor()
+   {
+      assertThatThrownBy(() -> testPrivateConstructor(StationListSelector.class))
+            .isExactlyInstanceOf(InvocationTargetException.class)
+            .hasCauseExactlyInstanceOf(UnsupportedOperationException.class);
+   }
+
+   @Test
+   public void allGasTypes()
+   {
+      final List<Station> selected = StationListSelector.select(stations,
+            StationListQuery.of(52.52, 13.40, 5, GasRequestType.ALL, StationListRequest.SortingRequestType.PRICE));
+
+      assertThat(ids(selected)).containsExactly("a", "b", "d");
+      assertThat(selected.get(0).getLocation().getDistance()).hasValue(0.0);
+      assertThat(selected.get(1).getLocation().getDistance()).hasValue(2.0);
+      assertThat(selected.get(2).getLocation().getDistance()).hasValue(3.0);
+      assertThat(selected.get(1).getPrice()).isNotPresent();
+      assertThat(selected.get(1).getGasPrices().get().getPrice(GasPrices.GasType.E5)).hasValue(1.4f);
+   }
+
+   @Test
+   public void sortByPrice()
+   {
+      final List<Station> selected = StationListSelector.select(stations,
+            StationListQuery.of(52.52, 13.40, 5, GasRequestType.E5, StationListRequest.SortingRequestType.PRICE));
+
+      assertThat(ids(selected)).containsExactly("b", "a", "d");
+      assertThat(selected.get(0).getPrice()).hasValue(1.4f);
+      assertThat(selected.get(0).getGasPrices()).isNotPresent();
+      assertThat(selected.get(2).getPrice()).isNotPresent();
+   }
+
+   @Test
+   public void sortByPriceWithEqualPrices()
+   {
+      final List<Station> selected = StationListSelector.select(stations,
+            StationListQuery.of(52.52, 13.40, 15, GasRequestType.DIESEL, StationListRequest.SortingRequestType.PRICE));
+
+      assertThat(ids(selected)).containsExactly("d", "a", "c", "b");
+   }
+
+   @Test
+   public void sortByDistance()
+   {
+      final List<Station> selected = StationListSelector.select(stations,
+            StationListQuery.of(52.61, 13.40, 25, GasRequestType.E10, StationListRequest.SortingRequestType.DISTANCE));
+
+      assertThat(ids(selected)).containsExactly("c", "d", "b", "a");
+      assertThat(selected.get(3).getPrice()).hasValue(1.4f);
+      assertThat(selected.get(3).getLocation().getDistance()).hasValue(10.0);
+   }
+
+   @Test
+   public void doesNotModifySuppliedStations()
+   {
+      StationListSelector.select(stations, StationListQuery.of(52.61, 13.40, 25, GasRequestType.E5, StationListRequest.SortingRequestType.DISTANCE));
+      assertThat(stations.get(0).getLocation().getDistance()).hasValue(0.0);
+      assertThat(stations.get(0).getPrice()).isNotPresent();
+   }
+
+   private static List<String> ids(final List<Station> stations)
+   {
+      return stations.stream().map(Station::getId).collect(Collectors.toList());
+   }
+}
@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class StationRankerTest
+{
+   private StationRanker ranker;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      ranker = StationRanker.of(StationFixtures.create()
+            .with("a", 52.52, 13.40, 1.50f, 1.45f, 1.20f)
+            .with("b", 52.53, 13.40, 1.40f, 1.35f, 1.10f)
+            .with("c", 52.56, 13.40, 1.30f, 1.25f, 1.10f)
+            .with("d", 52.54, 13.40, null, 1.30f, 1.00f, false)
+            .with("e", 52.80, 13.40, 1.20f, 1.10f, 0.90f)
+            .toStations());
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(StationRanker.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> ranker.nearest(52.52, 13.40, 0)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> ranker.cheapest(52.52, 13.40, 0, GasPrices.GasType.E5, 1)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> ranker.cheapest(52.52, 13.40, 5, null, 1)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> ranker.lowestCost(52.52, 13.40, 5, GasPrices.GasType.E5, -1, 1))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void nearest()
+   {
+      assertThat(ranker.size()).isEqualTo(5);
+
+      final List<Station> nearest = ranker.nearest(52.52, 13.40, 3);
+      assertThat(ids(nearest)).containsExactly("a", "b", "d");
+      assertThat(nearest.get(1).getLocation().getDistance()).hasValue(1.1);
+      assertThat(nearest.get(2).getGasPrices().get().getPrice(GasPrices.GasType.DIESEL)).hasValue(1.00f);
+
+      assertThat(ids(ranker.nearest(52.52, 13.40, 10))).containsExactly("a", "b", "d", "c", "e");
+   }
+
+   @Test
+   public void cheapestSkipsClosedStationsAndStationsWithoutPrice()
+   {
+      final List<Station> cheapest = ranker.cheapest(52.52, 13.40, 10, GasPrices.GasType.E5, 5);
+      assertThat(ids(cheapest)).containsExactly("c", "b", "a");
+      assertThat(cheapest.get(0).getLocation().getDistance()).hasValue(4.4);
+      assertThat(cheapest.get(0).getPrice()).hasValue(1.30f);
+      assertThat(cheapest.get(0).getGasPrices()).isNotPresent();
+   }
+
+   @Test
+   public void cheapestDecidesTiesByDistance()
+   {
+      assertThat(ids(ranker.cheapest(52.52, 13.40, 10, GasPrices.GasType.DIESEL, 2))).containsExactly("b", "c");
+   }
+
+   @Test
+   public void lowestCostPenalizesDistance()
+   {
+      assertThat(ids(ranker.lowestCost(52.52, 13.40, 10, GasPrices.GasType.E5, 0, 1))).containsExactly("c");
+      assertThat(ids(ranker.lowestCost(52.52, 13.40, 10, GasPrices.GasType.E5, 0.05, 1))).containsExactly("b");
+      assertThat(ids(ranker.lowestCost(52.52, 13.40, 50, GasPrices.GasType.E5, 0.001, 2))).containsExactly("e", "c");
+   }
+
+   private static List<String> ids(final List<Station> stations)
+   {
+      return stations.stream().map(Station::getId).collect(Collectors.toList());
+   }
+}
@@ -31,6 +31,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.io.IOException;
 import java.time.DayOfWeek;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -121,6 +122,19 @@ public class DetailJsonMappingTest extends MapperTest
 
       assertThat(overrides.get(0)).isEqualTo("13.01.2016, 08:00:00 - 13.01.2016, 19:00:00: geöffnet");
       assertThat(overrides.get(1)).isEqualTo("13.02.2016, 08:00:00 - 13.02.2016, 19:00:00: geöffnet");
+
+      final Optional<List<OpeningTimeOverride>> optParsedOverrides = station.getOpeningTimeOverrides();
+      assertThat(optParsedOverrides).isPresent();
+      final List<OpeningTimeOverride> parsedOverrides = optParsedOverrides.get();
+      assertThat(parsedOverrides).hasSize(2);
+      assertThat(parsedOverrides.get(0).getStart()).isEqualTo(LocalDateTime.of(2016, 1, 13, 8, 0));
+      assertThat(parsedOverrides.get(0).getEnd()).isEqualTo(LocalDateTime.of(2016, 1, 13, 19, 0));
+      assertThat(parsedOverrides.get(0).isOpen()).isTrue();
+      assertThat(parsedOverrides.get(1).getStart()).isEqualTo(LocalDateTime.of(2016, 2, 13, 8, 0));
+
+      assertThat(station.getOpeningSchedule()).isPresent();
+      assertThat(station.getOpeningSchedule().get().getStatus(LocalDateTime.of(2016, 1, 13, 3, 0)))
+            .isEqualTo(OpeningSchedule.Status.OPEN);
    }
 
    @Test
@@ -134,6 +148,7 @@ public class DetailJsonMappingTest extends MapperTest
 
       assertThat(station.getOpeningTimes()).isNotPresent();
       assertThat(station.getOverridingOpeningTimes()).isNotPresent();
+      assertThat(station.getOpeningTimeOverrides()).isNotPresent();
    }
 
    @Test
@@ -84,8 +84,11 @@ public class GsonMapperUtilTest
       JsonObject jsonElement = new JsonObject();
       jsonElement.addProperty("foo", 9.99f);
       jsonElement.addProperty("fooNull", (Float) null);
+      jsonElement.addProperty("fooFalse", false);
       assertThat(GsonMapperUtil.getAsFloat(jsonElement, "foo", 0f))
             .isEqualTo(9.99f);
+      assertThat(GsonMapperUtil.getAsFloat(jsonElement, "fooFalse", 1.23f))
+            .isEqualTo(1.23f);
       assertThat(GsonMapperUtil.getAsFloat(jsonElement, "fooNull", 1.23f))
             .isEqualTo(1.23f);
       assertThat(GsonMapperUtil.getAsFloat(jsonElement, "notExisting", 1.23f))
@@ -121,4 +121,23 @@ public class LocationTest
 
       assertThat(location.getState()).isPresent().hasValue(State.deHE);
    }
-}
\ No newline at end of file
+
+   @Test
+   public void withDistance()
+   {
+      location.setLat(52.5);
+      location.setLng(13.4);
+      location.setDistance(1.0);
+      location.setStreetName("Street");
+      location.setHouseNumber("1");
+      location.setZipCode(10365);
+      location.setCity("Berlin");
+      location.setState(State.deBE);
+
+      final Location copy = location.withDistance(2.5);
+      assertThat(copy).isNotSameAs(location);
+      assertThat(copy.getDistance()).hasValue(2.5);
+      assertThat(location.getDistance()).hasValue(1.0);
+      assertThat(copy).isEqualToIgnoringGivenFields(location, "distance");
+   }
+}
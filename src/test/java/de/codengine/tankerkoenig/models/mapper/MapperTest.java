@@ -24,10 +24,32 @@
 
 package de.codengine.tankerkoenig.models.mapper;
 
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Runs the mapping tests against every {@link JsonMapper} implementation
+ */
+@RunWith(Parameterized.class)
 public abstract class MapperTest
 {
+   @Parameterized.Parameter
+   public JsonMapper mapper;
+
+   @Parameterized.Parameters(name = "{0}")
+   public static Collection<Object[]> mappers()
+   {
+      return Arrays.asList(new Object[][]{
+            {GsonMapper.getInstance()},
+            {StreamingMapper.getInstance()}
+      });
+   }
+
    protected JsonMapper getMapper()
    {
-      return GsonMapper.getInstance();
+      return mapper;
    }
 }
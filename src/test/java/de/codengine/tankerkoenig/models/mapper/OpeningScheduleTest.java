@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import org.junit.Test;
+
+public class OpeningScheduleTest
+{
+   // 2017-06-05 is a Monday
+   private static final LocalDateTime MONDAY_NOON = LocalDateTime.of(2017, 6, 5, 12, 0);
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(OpeningSchedule.class).isFinal();
+   }
+
+   @Test
+   public void unknownWithoutInformation()
+   {
+      final OpeningSchedule schedule = OpeningSchedule.of(null, null, null);
+      assertThat(schedule.getStatus(MONDAY_NOON)).isEqualTo(OpeningSchedule.Status.UNKNOWN);
+      assertThat(schedule.isOpen(MONDAY_NOON)).isFalse();
+   }
+
+   @Test
+   public void wholeDay()
+   {
+      final OpeningSchedule schedule = OpeningSchedule.of(true, null, null);
+      assertThat(schedule.getStatus(MONDAY_NOON)).isEqualTo(OpeningSchedule.Status.OPEN);
+      assertThat(schedule.getStatus(MONDAY_NOON.withHour(3))).isEqualTo(OpeningSchedule.Status.OPEN);
+   }
+
+   @Test
+   public void regularOpeningTimes()
+   {
+      final OpeningSchedule schedule = OpeningSchedule.of(false, Arrays.asList(
+            new OpeningTime("Mo-Fr", EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), "06:00:00", "22:00:00", false),
+            new OpeningTime("Sa", EnumSet.of(DayOfWeek.SATURDAY), "08:00:00", "20:00:00", false)
+      ), null);
+
+      assertThat(schedule.getStatus(MONDAY_NOON.withHour(5).withMinute(59))).isEqualTo(OpeningSchedule.Status.CLOSED);
+      assertThat(schedule.getStatus(MONDAY_NOON.withHour(6))).isEqualTo(OpeningSchedule.Status.OPEN);
+      assertThat(schedule.getStatus(MONDAY_NOON.withHour(21).withMinute(59))).isEqualTo(OpeningSchedule.Status.OPEN);
+      assertThat(schedule.getStatus(MONDAY_NOON.withHour(22))).isEqualTo(OpeningSchedule.Status.CLOSED);
+      assertThat(schedule.getStatus(MONDAY_NOON.plusDays(5).withHour(7))).isEqualTo(OpeningSchedule.Status.CLOSED);
+      assertThat(schedule.getStatus(MONDAY_NOON.plusDays(5).withHour(8))).isEqualTo(OpeningSchedule.Status.OPEN);
+      assertThat(schedule.getStatus(MONDAY_NOON.plusDays(6))).isEqualTo(OpeningSchedule.Status.CLOSED);
+   }
+
+   @Test
+   public void openedOverMidnight()
+   {
+      final OpeningSchedule schedule = OpeningSchedule.of(false, Collections.singletonList(
+            new OpeningTime("So", EnumSet.of(DayOfWeek.SUNDAY), "20:00:00", "02:00:00", false)
+      ), null);
+
+      assertThat(schedule.getStatus(MONDAY_NOON.plusDays(6).withHour(23))).isEqualTo(OpeningSchedule.Status.OPEN);
+      assertThat(schedule.getStatus(MONDAY_NOON.withHour(1))).isEqualTo(OpeningSchedule.Status.OPEN);
+      assertThat(schedule.getStatus(MONDAY_NOON.withHour(2))).isEqualTo(OpeningSchedule.Status.CLOSED);
+   }
+
+   @Test
+   public void fullDayEndingAt2359()
+   {
+      final OpeningSchedule schedule = OpeningSchedule.of(false, Collections.singletonList(
+            new OpeningTime("Mo", EnumSet.of(DayOfWeek.MONDAY), "00:00:00", "23:59:00", false)
+      ), null);
+
+      assertThat(schedule.getStatus(MONDAY_NOON.withHour(23).withMinute(59))).isEqualTo(OpeningSchedule.Status.OPEN);
+   }
+
+   @Test
+   public void ignoresUnparsableOpeningTimes()
+   {
+      final OpeningSchedule schedule = OpeningSchedule.of(false, Arrays.asList(
+            new OpeningTime("Foo", null, "06:00:00", "22:00:00", false),
+            new OpeningTime("Mo", EnumSet.of(DayOfWeek.MONDAY), "foo", "22:00:00", false)
+      ), null);
+
+      assertThat(schedule.getStatus(MONDAY_NOON)).isEqualTo(OpeningSchedule.Status.UNKNOWN);
+   }
+
+   @Test
+   public void overridesTakePrecedence()
+   {
+      final OpeningTimeOverride closed = new OpeningTimeOverride("closed", MONDAY_NOON.withHour(10), MONDAY_NOON.withHour(14), false);
+      final OpeningTimeOverride opened = new OpeningTimeOverride("opened", MONDAY_NOON.plusDays(6).withHour(8), MONDAY_NOON.plusDays(6).withHour(12), true);
+
+      final OpeningSchedule schedule = OpeningSchedule.of(true, Collections.singletonList(
+            new OpeningTime("Mo-Sa", EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.SATURDAY), "06:00:00", "22:00:00", false)
+      ), Arrays.asList(opened, closed));
+
+      assertThat(schedule.getStatus(MONDAY_NOON.withHour(9))).isEqualTo(OpeningSchedule.Status.OPEN);
+      assertThat(schedule.getStatus(MONDAY_NOON)).isEqualTo(OpeningSchedule.Status.CLOSED);
+      assertThat(schedule.getStatus(MONDAY_NOON.withHour(14))).isEqualTo(OpeningSchedule.Status.OPEN);
+
+      final OpeningSchedule regularSchedule = OpeningSchedule.of(false, Collections.singletonList(
+            new OpeningTime("Mo-Sa", EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.SATURDAY), "06:00:00", "22:00:00", false)
+      ), Arrays.asList(opened, closed));
+
+      assertThat(regularSchedule.getStatus(MONDAY_NOON.plusDays(6).withHour(9))).isEqualTo(OpeningSchedule.Status.OPEN);
+      assertThat(regularSchedule.getStatus(MONDAY_NOON.plusDays(6).withHour(13))).isEqualTo(OpeningSchedule.Status.CLOSED);
+   }
+
+   @Test
+   public void nextNotClosed()
+   {
+      final OpeningSchedule schedule = OpeningSchedule.of(false, Arrays.asList(
+            new OpeningTime("Mo-Fr", EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), "06:00:00", "22:00:00", false)
+      ), Collections.singletonList(new OpeningTimeOverride("closed", MONDAY_NOON.plusDays(1).withHour(5), MONDAY_NOON.plusDays(1).withHour(9), false)));
+
+      final LocalDateTime week = MONDAY_NOON.plusDays(7);
+      assertThat(schedule.nextNotClosed(MONDAY_NOON.withHour(23), week)).hasValue(MONDAY_NOON.plusDays(1).withHour(9));
+      assertThat(schedule.nextNotClosed(MONDAY_NOON.plusDays(4).withHour(22), week)).hasValue(MONDAY_NOON.plusDays(7).withHour(6));
+      assertThat(schedule.nextNotClosed(MONDAY_NOON.plusDays(4).withHour(22), MONDAY_NOON.plusDays(6))).isEmpty();
+
+      // Without regular opening times, the status is unknown after the override
+      final OpeningSchedule overrideOnly = OpeningSchedule.of(false, null,
+            Collections.singletonList(new OpeningTimeOverride("closed", MONDAY_NOON.withHour(1), MONDAY_NOON.withHour(7), false)));
+      assertThat(overrideOnly.nextNotClosed(MONDAY_NOON.withHour(1), week)).hasValue(MONDAY_NOON.withHour(7));
+   }
+
+   @Test
+   public void parseMinuteOfDay()
+   {
+      assertThat(OpeningSchedule.parseMinuteOfDay("05:30:00", false)).isEqualTo(330);
+      assertThat(OpeningSchedule.parseMinuteOfDay("05:30", false)).isEqualTo(330);
+      assertThat(OpeningSchedule.parseMinuteOfDay("24:00:00", true)).isEqualTo(1440);
+      assertThat(OpeningSchedule.parseMinuteOfDay("23:59:00", true)).isEqualTo(1440);
+      assertThat(OpeningSchedule.parseMinuteOfDay("23:59:00", false)).isEqualTo(1439);
+      assertThat(OpeningSchedule.parseMinuteOfDay(null, false)).isEqualTo(-1);
+      assertThat(OpeningSchedule.parseMinuteOfDay("foo", false)).isEqualTo(-1);
+   }
+}
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+public class OpeningTimeOverrideTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(OpeningTimeOverride.class).isFinal();
+   }
+
+   @Test
+   public void parseOpened()
+   {
+      final String text = "13.01.2016, 08:00:00 - 13.01.2016, 19:00:00: geöffnet";
+      final Optional<OpeningTimeOverride> override = OpeningTimeOverride.parse(text);
+      assertThat(override).isPresent();
+      assertThat(override.get().getText()).isEqualTo(text);
+      assertThat(override.get().getStart()).isEqualTo(LocalDateTime.of(2016, 1, 13, 8, 0));
+      assertThat(override.get().getEnd()).isEqualTo(LocalDateTime.of(2016, 1, 13, 19, 0));
+      assertThat(override.get().isOpen()).isTrue();
+   }
+
+   @Test
+   public void parseClosed()
+   {
+      final Optional<OpeningTimeOverride> override = OpeningTimeOverride.parse("24.12.2017, 14:00:00 - 26.12.2017, 06:00:00: geschlossen");
+      assertThat(override).isPresent();
+      assertThat(override.get().getStart()).isEqualTo(LocalDateTime.of(2017, 12, 24, 14, 0));
+      assertThat(override.get().getEnd()).isEqualTo(LocalDateTime.of(2017, 12, 26, 6, 0));
+      assertThat(override.get().isOpen()).isFalse();
+   }
+
+   @Test
+   public void parseInvalid()
+   {
+      assertThat(OpeningTimeOverride.parse(null)).isNotPresent();
+      assertThat(OpeningTimeOverride.parse("")).isNotPresent();
+      assertThat(OpeningTimeOverride.parse("Wegen Umbau geschlossen")).isNotPresent();
+      assertThat(OpeningTimeOverride.parse("13.01.2016, 08:00:00 - 13.01.2016, 19:00:00: foo")).isNotPresent();
+      assertThat(OpeningTimeOverride.parse("32.01.2016, 08:00:00 - 13.01.2016, 19:00:00: geöffnet")).isNotPresent();
+      assertThat(OpeningTimeOverride.parse("13.01.2016, 19:00:00 - 13.01.2016, 08:00:00: geöffnet")).isNotPresent();
+   }
+
+   @Test
+   public void covers()
+   {
+      final OpeningTimeOverride override = new OpeningTimeOverride("foo", LocalDateTime.of(2016, 1, 13, 8, 0), LocalDateTime.of(2016, 1, 13, 19, 0), false);
+      assertThat(override.covers(LocalDateTime.of(2016, 1, 13, 7, 59))).isFalse();
+      assertThat(override.covers(LocalDateTime.of(2016, 1, 13, 8, 0))).isTrue();
+      assertThat(override.covers(LocalDateTime.of(2016, 1, 13, 18, 59))).isTrue();
+      assertThat(override.covers(LocalDateTime.of(2016, 1, 13, 19, 0))).isFalse();
+   }
+
+   @Test
+   public void testEquals()
+   {
+      EqualsVerifier.forClass(OpeningTimeOverride.class).verify();
+   }
+}
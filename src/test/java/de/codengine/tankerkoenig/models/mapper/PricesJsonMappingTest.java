@@ -103,6 +103,16 @@ public class PricesJsonMappingTest extends MapperTest
             .isNull();
    }
 
+   @Test
+   public void unavailablePrices()
+   {
+      final String pricesContent = "{\"ok\": true, \"prices\": {\"a\": {\"status\": \"open\", \"e5\": false, \"e10\": 1.1, \"diesel\": null}}}";
+      final GasPrices gasPrices = getMapper().fromJson(pricesContent, PricesResult.class).getGasPrice("a").get();
+      assertThat(gasPrices.getPrice(GasPrices.GasType.E5)).isNotPresent();
+      assertThat(gasPrices.getPrice(GasPrices.GasType.E10)).isPresent().hasValue(1.1f);
+      assertThat(gasPrices.getPrice(GasPrices.GasType.DIESEL)).isNotPresent();
+   }
+
    @Test
    public void withError() throws IOException
    {
@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import de.codengine.tankerkoenig.models.requests.PricesResult;
+import de.codengine.tankerkoenig.models.requests.StationDetailResult;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+import de.codengine.tankerkoenig.utils.ResourceLoader;
+
+public class ProjectedJsonMappingTest extends MapperTest
+{
+   @Test
+   public void listWithIdLocationAndPrices() throws IOException
+   {
+      final String listContent = ResourceLoader.readString("list_all_prices.json");
+      final Projection projection = Projection.of(StationField.ID, StationField.LOCATION, StationField.PRICES)
+            .withGasTypes(GasPrices.GasType.E5);
+      final StationListResult result = getMapper().fromJson(listContent, StationListResult.class, projection);
+
+      assertThat(result.isOk()).isTrue();
+      final List<Station> stations = result.getStations();
+      assertThat(stations).hasSize(2);
+
+      final Station first = stations.get(0);
+      assertThat(first.getId()).isEqualTo("51d4b660-a095-1aa0-e100-80009459e03a");
+      assertThat(first.getName()).isNotPresent();
+      assertThat(first.getBrand()).isNotPresent();
+      assertThat(first.isOpen()).isFalse();
+      assertThat(first.getLocation().getLat()).isEqualTo(52.5262);
+      assertThat(first.getLocation().getLng()).isEqualTo(13.4886);
+      assertThat(first.getLocation().getDistance()).isPresent().hasValue(3.5);
+      assertThat(first.getLocation().getStreetName()).isNull();
+      assertThat(first.getLocation().getZipCode()).isNull();
+      assertThat(first.getGasPrices()).isPresent();
+      assertThat(first.getGasPrices().get().getPrice(GasPrices.GasType.E5)).isPresent().hasValue(1.289f);
+      assertThat(first.getGasPrices().get().hasPrice(GasPrices.GasType.E10)).isFalse();
+   }
+
+   @Test
+   public void listWithoutLocation() throws IOException
+   {
+      final String listContent = ResourceLoader.readString("list_one_price.json");
+      final StationListResult result = getMapper().fromJson(listContent, StationListResult.class, Projection.of(StationField.ID, StationField.PRICES));
+
+      final Station first = result.getStations().get(0);
+      assertThat(first.getId()).isEqualTo("51d4b660-a095-1aa0-e100-80009459e03a");
+      assertThat(first.getPrice()).isPresent().hasValue(1.009f);
+      assertThat(first.getLocation()).isNull();
+   }
+
+   @Test
+   public void pricesWithGasTypes() throws IOException
+   {
+      final String pricesContent = ResourceLoader.readString("prices.json");
+      final PricesResult result = getMapper().fromJson(pricesContent, PricesResult.class, Projection.ALL.withGasTypes(GasPrices.GasType.DIESEL));
+
+      final GasPrices first = result.getGasPrice("1723edea-8e01-4de3-8c5e-ca227a49e2c3").get();
+      assertThat(first.getStatus()).isEqualTo(GasPrices.Status.OPEN);
+      assertThat(first.getPrice(GasPrices.GasType.DIESEL)).isPresent().hasValue(1.234f);
+      assertThat(first.hasPrice(GasPrices.GasType.E5)).isFalse();
+
+      final GasPrices second = result.getGasPrice("51d4b660-a095-1aa0-e100-80009459e03a").get();
+      assertThat(second.getStatus()).isEqualTo(GasPrices.Status.CLOSED);
+      assertThat(second.hasPrices()).isFalse();
+
+      final GasPrices third = result.getGasPrice("c9dc3f9b-e10a-47b4-a3fe-451b2cb1daad").get();
+      assertThat(third.getStatus()).isEqualTo(GasPrices.Status.NOT_FOUND);
+   }
+
+   @Test
+   public void completeProjectionUsesDefaultMapping() throws IOException
+   {
+      final String listContent = ResourceLoader.readString("list_all_prices.json");
+      final StationListResult result = getMapper().fromJson(listContent, StationListResult.class, Projection.ALL);
+      assertThat(result.getStations().get(0).getName()).isPresent().hasValue("JET BERLIN HERZBERGSTR. 27");
+   }
+
+   @Test
+   public void streamingAdapterMatchesDeserializer() throws IOException
+   {
+      final Gson streamingGson = new GsonBuilder()
+            .registerTypeAdapter(Station.class, new StationTypeAdapter(Projection.ALL))
+            .registerTypeAdapter(GasPrices.class, new GasPricesTypeAdapter(Projection.ALL))
+            .create();
+
+      final String detailContent = ResourceLoader.readString("detail.json");
+      final Station expected = getMapper().fromJson(detailContent, StationDetailResult.class).getStation();
+      final Station actual = streamingGson.fromJson(detailContent, StationDetailResult.class).getStation();
+
+      assertThat(actual.getId()).isEqualTo(expected.getId());
+      assertThat(actual.getName()).isEqualTo(expected.getName());
+      assertThat(actual.getBrand()).isEqualTo(expected.getBrand());
+      assertThat(actual.isOpen()).isEqualTo(expected.isOpen());
+      assertThat(actual.isWholeDay()).isEqualTo(expected.isWholeDay());
+      assertThat(actual.getOpeningTimes()).isEqualTo(expected.getOpeningTimes());
+      assertThat(actual.getOverridingOpeningTimes()).isEqualTo(expected.getOverridingOpeningTimes());
+      assertThat(actual.getOpeningTimeOverrides()).isEqualTo(expected.getOpeningTimeOverrides());
+      assertThat(actual.getLocation().getState()).isEqualTo(expected.getLocation().getState());
+      assertThat(actual.getLocation().getZipCode()).isEqualTo(expected.getLocation().getZipCode());
+      assertThat(actual.getLocation().getHouseNumber()).isEqualTo(expected.getLocation().getHouseNumber());
+      for (final GasPrices.GasType gasType : GasPrices.GasType.values())
+      {
+         assertThat(actual.getGasPrices().get().getPrice(gasType)).isEqualTo(expected.getGasPrices().get().getPrice(gasType));
+      }
+   }
+}
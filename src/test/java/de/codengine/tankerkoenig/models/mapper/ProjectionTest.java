@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class ProjectionTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(Projection.class).isFinal();
+   }
+
+   @Test
+   public void all()
+   {
+      assertThat(Projection.ALL.isComplete()).isTrue();
+      assertThat(Projection.ALL.getFields()).containsExactly(StationField.values());
+      assertThat(Projection.ALL.getGasTypes()).containsExactly(GasPrices.GasType.values());
+   }
+
+   @Test
+   public void of()
+   {
+      final Projection projection = Projection.of(StationField.ID, StationField.LOCATION);
+      assertThat(projection.isComplete()).isFalse();
+      assertThat(projection.includes(StationField.ID)).isTrue();
+      assertThat(projection.includes(StationField.LOCATION)).isTrue();
+      assertThat(projection.includes(StationField.NAME)).isFalse();
+      assertThat(projection.getGasTypes()).containsExactly(GasPrices.GasType.values());
+
+      assertThat(Projection.of(StationField.values())).isEqualTo(Projection.ALL);
+      assertThat(Projection.of().getFields()).isEmpty();
+   }
+
+   @Test
+   public void withGasTypes()
+   {
+      final Projection projection = Projection.of(StationField.PRICES).withGasTypes(GasPrices.GasType.DIESEL);
+      assertThat(projection.includes(StationField.PRICES)).isTrue();
+      assertThat(projection.includes(GasPrices.GasType.DIESEL)).isTrue();
+      assertThat(projection.includes(GasPrices.GasType.E5)).isFalse();
+      assertThat(projection.isComplete()).isFalse();
+      assertThat(Projection.of().withGasTypes(GasPrices.GasType.E5).getFields()).isEmpty();
+   }
+
+   @Test
+   public void testEquals()
+   {
+      assertThat(Projection.of(StationField.ID)).isEqualTo(Projection.of(StationField.ID));
+      assertThat(Projection.of(StationField.ID).hashCode()).isEqualTo(Projection.of(StationField.ID).hashCode());
+      assertThat(Projection.of(StationField.ID)).isNotEqualTo(Projection.of(StationField.NAME));
+      assertThat(Projection.of(StationField.ID)).isNotEqualTo(Projection.of(StationField.ID).withGasTypes(GasPrices.GasType.E5));
+   }
+}
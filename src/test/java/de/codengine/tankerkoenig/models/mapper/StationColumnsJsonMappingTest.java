@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.models.requests.StationColumnsResult;
+import de.codengine.tankerkoenig.utils.ResourceLoader;
+
+public class StationColumnsJsonMappingTest extends MapperTest
+{
+   @Test
+   public void allPrices() throws IOException
+   {
+      final String listContent = ResourceLoader.readString("list_all_prices.json");
+      final StationColumnsResult result = getMapper().fromJson(listContent, StationColumnsResult.class);
+
+      assertThat(result.isOk()).isTrue();
+      final StationColumns columns = result.getColumns();
+      assertThat(columns.size()).isEqualTo(2);
+      assertThat(columns.getIds()).containsExactly("51d4b660-a095-1aa0-e100-80009459e03a", "1c4f126b-1f3c-4b38-9692-05c400ea8e61");
+      assertThat(columns.getLatitudes()).containsExactly(52.5262, 52.533901);
+      assertThat(columns.getLongitudes()).containsExactly(13.4886, 13.4451);
+      assertThat(columns.getDistances()).containsExactly(3.5, 1.5);
+      assertThat(columns.getOpenFlags()).containsExactly(true, false);
+      assertThat(columns.getPrices(GasPrices.GasType.E5)).containsExactly(1.289f, 1.289f);
+      assertThat(columns.getPrices(GasPrices.GasType.E10)).containsExactly(1.269f, Float.NaN);
+      assertThat(columns.getPrices(GasPrices.GasType.DIESEL)).containsExactly(Float.NaN, 1.029f);
+      assertThat(columns.getPrices()).containsExactly(Float.NaN, Float.NaN);
+   }
+
+   @Test
+   public void onePrice() throws IOException
+   {
+      final String listContent = ResourceLoader.readString("list_one_price.json");
+      final StationColumns columns = getMapper().fromJson(listContent, StationColumnsResult.class).getColumns();
+
+      assertThat(columns.size()).isEqualTo(2);
+      assertThat(columns.getPrices()).containsExactly(1.009f, 1.009f);
+      assertThat(columns.getPrices(GasPrices.GasType.E5)).containsExactly(Float.NaN, Float.NaN);
+   }
+
+   @Test
+   public void empty() throws IOException
+   {
+      final String listContent = ResourceLoader.readString("list_empty.json");
+      final StationColumnsResult result = getMapper().fromJson(listContent, StationColumnsResult.class);
+      assertThat(result.getColumns().size()).isEqualTo(0);
+   }
+
+   @Test
+   public void failure() throws IOException
+   {
+      final String failContent = ResourceLoader.readString("fail_response.json");
+      final StationColumnsResult result = getMapper().fromJson(failContent, StationColumnsResult.class);
+      assertThat(result.isOk()).isFalse();
+      assertThat(result.getColumns().size()).isEqualTo(0);
+   }
+
+   @Test
+   public void growsBeyondInitialCapacity()
+   {
+      final StringBuilder json = new StringBuilder("{\"ok\":true,\"stations\":[");
+      for (int i = 0; i < 100; i++)
+      {
+         json.append(i == 0 ? "" : ",")
+               .append("{\"id\":\"").append(i).append("\",\"dist\":").append(i)
+               .append(",\"e5\":").append(i % 2 == 0 ? "false" : "1.5").append("}");
+      }
+      json.append("]}");
+
+      final StationColumns columns = getMapper().fromJson(json.toString(), StationColumnsResult.class).getColumns();
+      assertThat(columns.size()).isEqualTo(100);
+      assertThat(columns.getIds()[99]).isEqualTo("99");
+      assertThat(columns.getDistances()[42]).isEqualTo(42.0);
+      assertThat(columns.getPrices(GasPrices.GasType.E5)[42]).isNaN();
+      assertThat(columns.getPrices(GasPrices.GasType.E5)[43]).isEqualTo(1.5f);
+      assertThat(columns.getLatitudes()[0]).isNaN();
+   }
+}
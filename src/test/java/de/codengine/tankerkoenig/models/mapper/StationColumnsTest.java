@@ -0,0 +1,183 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StationColumnsTest
+{
+   private StationColumns columns;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      final float[][] gasPrices = new float[GasPrices.GasType.values().length][];
+      gasPrices[GasPrices.GasType.E5.ordinal()] = new float[]{1.5f, Float.NaN, 1.3f, 1.4f};
+      gasPrices[GasPrices.GasType.E10.ordinal()] = new float[]{1.4f, 1.2f, Float.NaN, 1.3f};
+      gasPrices[GasPrices.GasType.DIESEL.ordinal()] = new float[]{1.1f, 1.1f, 1.0f, Float.NaN};
+
+      columns = new StationColumns(4,
+            new String[]{"a", "b", "c", "d"},
+            new double[]{52.52, 52.60, 53.55, 52.50},
+            new double[]{13.40, 13.40, 10.00, 13.40},
+            new double[]{0.0, 8.9, Double.NaN, 2.2},
+            new float[]{Float.NaN, Float.NaN, Float.NaN, Float.NaN},
+            gasPrices,
+            new boolean[]{true, false, true, true});
+   }
+
+   @After
+   public void tearDown() throws Exception
+   {
+      columns = null;
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(StationColumns.class).isFinal();
+   }
+
+   @Test
+   public void empty()
+   {
+      final StationColumns empty = StationColumns.empty();
+      assertThat(empty.size()).isEqualTo(0);
+      assertThat(empty.newIndex()).isEmpty();
+      assertThat(empty.getPrices(GasPrices.GasType.E5)).isEmpty();
+   }
+
+   @Test
+   public void newIndex()
+   {
+      assertThat(columns.newIndex()).containsExactly(0, 1, 2, 3);
+   }
+
+   @Test
+   public void filterOpen()
+   {
+      final int[] index = columns.newIndex();
+      assertThat(columns.filterOpen(index, index.length)).isEqualTo(3);
+      assertThat(Arrays.copyOf(index, 3)).containsExactly(0, 2, 3);
+
+      // Only the first count entries are considered
+      final int[] partial = columns.newIndex();
+      assertThat(columns.filterOpen(partial, 2)).isEqualTo(1);
+      assertThat(partial[0]).isEqualTo(0);
+   }
+
+   @Test
+   public void filterMaxPrice()
+   {
+      final float[] e5 = columns.getPrices(GasPrices.GasType.E5);
+      final int[] index = columns.newIndex();
+      assertThat(columns.filterMaxPrice(e5, 1.4f, index, index.length)).isEqualTo(2);
+      assertThat(Arrays.copyOf(index, 2)).containsExactly(2, 3);
+
+      final int[] available = columns.newIndex();
+      assertThat(columns.filterMaxPrice(e5, Float.POSITIVE_INFINITY, available, available.length)).isEqualTo(3);
+      assertThat(Arrays.copyOf(available, 3)).containsExactly(0, 2, 3);
+   }
+
+   @Test
+   public void filterWithinRadius()
+   {
+      final int[] index = columns.newIndex();
+      // b is about 8.9 km, c (Hamburg) about 255 km north of a
+      assertThat(columns.filterWithinRadius(52.52, 13.40, 5, index, index.length)).isEqualTo(2);
+      assertThat(Arrays.copyOf(index, 2)).containsExactly(0, 3);
+
+      final int[] wide = columns.newIndex();
+      assertThat(columns.filterWithinRadius(52.52, 13.40, 9, wide, wide.length)).isEqualTo(3);
+      assertThat(Arrays.copyOf(wide, 3)).containsExactly(0, 1, 3);
+   }
+
+   @Test
+   public void sortByDistance()
+   {
+      final int[] index = columns.newIndex();
+      columns.sortByDistance(index, index.length);
+      assertThat(index).containsExactly(0, 3, 1, 2);
+   }
+
+   @Test
+   public void sortByPrice()
+   {
+      final int[] index = columns.newIndex();
+      columns.sortByPrice(columns.getPrices(GasPrices.GasType.DIESEL), index, index.length);
+      assertThat(index).containsExactly(2, 0, 1, 3);
+   }
+
+   @Test
+   public void filterThenSort()
+   {
+      final float[] e10 = columns.getPrices(GasPrices.GasType.E10);
+      final int[] index = columns.newIndex();
+      int count = columns.filterOpen(index, index.length);
+      count = columns.filterMaxPrice(e10, Float.POSITIVE_INFINITY, index, count);
+      columns.sortByPrice(e10, index, count);
+      assertThat(Arrays.copyOf(index, count)).containsExactly(3, 0);
+   }
+
+   @Test
+   public void sortMatchesReferenceSort()
+   {
+      final Random random = new Random(42);
+      for (final int size : new int[]{0, 1, 2, 15, 16, 17, 100, 1000})
+      {
+         final double[] keys = new double[size];
+         final float[] floatKeys = new float[size];
+         for (int i = 0; i < size; i++)
+         {
+            // Few distinct values to exercise equal keys, some NaN
+            keys[i] = random.nextInt(10) == 0 ? Double.NaN : random.nextInt(50) / 10.0;
+            floatKeys[i] = (float) keys[i];
+         }
+
+         final int[] expected = IntStream.range(0, size).boxed()
+               .sorted(Comparator.<Integer>comparingDouble(i -> Double.isNaN(keys[i]) ? Double.POSITIVE_INFINITY : keys[i])
+                     .thenComparingInt(i -> i))
+               .mapToInt(Integer::intValue)
+               .toArray();
+
+         final int[] index = IntStream.range(0, size).toArray();
+         IndexSorter.sort(index, size, keys);
+         assertThat(index).containsExactly(expected);
+
+         final int[] floatIndex = IntStream.range(0, size).toArray();
+         IndexSorter.sort(floatIndex, size, floatKeys);
+         assertThat(floatIndex).containsExactly(expected);
+      }
+   }
+}
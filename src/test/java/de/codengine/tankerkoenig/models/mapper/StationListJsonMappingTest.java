@@ -30,12 +30,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import org.junit.Test;
 
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
 import de.codengine.tankerkoenig.models.requests.Result;
+import de.codengine.tankerkoenig.models.requests.StationListRequest;
 import de.codengine.tankerkoenig.models.requests.StationListResult;
 import de.codengine.tankerkoenig.utils.ResourceLoader;
 
@@ -197,4 +200,52 @@ public class StationListJsonMappingTest extends MapperTest
       final StationListResult result = getMapper().fromJson(complaintContent, StationListResult.class);
       assertDefaultFailedResponseAsserts(result);
    }
-}
\ No newline at end of file
+
+   @Test
+   public void withStations() throws IOException
+   {
+      final String listContent = ResourceLoader.readString("list_all_prices.json");
+      final StationListResult result = getMapper().fromJson(listContent, StationListResult.class);
+      final List<Station> stations = new ArrayList<>(result.getStations().subList(0, 1));
+
+      final StationListResult copy = result.withStations(stations);
+      stations.clear();
+
+      assertThat(copy.isOk()).isEqualTo(result.isOk());
+      assertThat(copy.getStatus()).isEqualTo(result.getStatus());
+      assertThat(copy.getMessage()).isEqualTo(result.getMessage());
+      assertThat(copy.getLicense()).isEqualTo(result.getLicense());
+      assertThat(copy.getData()).isEqualTo(result.getData());
+      assertThat(copy.getStations()).containsExactly(result.getStations().get(0));
+      assertThat(result.getStations()).hasSize(2);
+   }
+
+   @Test
+   public void stationsForGasType() throws IOException
+   {
+      final String listContent = ResourceLoader.readString("list_all_prices.json");
+      final StationListResult result = getMapper().fromJson(listContent, StationListResult.class);
+      final String first = "51d4b660-a095-1aa0-e100-80009459e03a";
+      final String second = "1c4f126b-1f3c-4b38-9692-05c400ea8e61";
+
+      assertThat(result.getStations(GasRequestType.ALL, StationListRequest.SortingRequestType.PRICE)).isEqualTo(result.getStations());
+
+      final List<Station> e5 = result.getStations(GasRequestType.E5, StationListRequest.SortingRequestType.PRICE);
+      assertThat(e5).extracting(Station::getId).containsExactly(second, first);
+      assertThat(e5.get(0).getPrice()).hasValue(1.289f);
+      assertThat(e5.get(0).getGasPrices()).isNotPresent();
+      assertThat(e5.get(0).getLocation().getDistance()).hasValue(1.5);
+      assertThat(result.getStations(GasRequestType.E5, StationListRequest.SortingRequestType.PRICE)).isSameAs(e5);
+
+      assertThat(result.getStations(GasRequestType.E10, StationListRequest.SortingRequestType.PRICE))
+            .extracting(Station::getId).containsExactly(first, second);
+      assertThat(result.getStations(GasRequestType.DIESEL, StationListRequest.SortingRequestType.PRICE))
+            .extracting(Station::getId).containsExactly(second, first);
+      assertThat(result.getStations(GasRequestType.DIESEL, StationListRequest.SortingRequestType.DISTANCE))
+            .extracting(Station::getId).containsExactly(first, second);
+
+      assertThatThrownBy(() -> result.getStations(null, StationListRequest.SortingRequestType.PRICE))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> e5.clear()).isInstanceOf(UnsupportedOperationException.class);
+   }
+}
@@ -27,7 +27,10 @@ package de.codengine.tankerkoenig.models.mapper;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import org.assertj.core.util.Lists;
 import org.junit.After;
@@ -35,6 +38,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.internal.util.collections.Sets;
 
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
 import de.codengine.tankerkoenig.utils.FluentMap;
 import nl.jqno.equalsverifier.EqualsVerifier;
 import nl.jqno.equalsverifier.Warning;
@@ -136,6 +140,25 @@ public class StationTest
       assertThat(station.getOverridingOpeningTimes()).isPresent().hasValue(overridingOpeningTimes);
    }
 
+   @Test
+   public void getOpeningTimeOverrides()
+   {
+      assertThat(station.getOpeningTimeOverrides()).isNotPresent();
+      final OpeningTimeOverride override = new OpeningTimeOverride("foo", LocalDateTime.of(2016, 1, 13, 8, 0), LocalDateTime.of(2016, 1, 13, 19, 0), true);
+      List<OpeningTimeOverride> overrides = Lists.newArrayList(override);
+      station.setOpeningTimeOverrides(overrides);
+      assertThat(station.getOpeningTimeOverrides()).isPresent().hasValue(overrides);
+   }
+
+   @Test
+   public void getOpeningSchedule()
+   {
+      assertThat(station.getOpeningSchedule()).isNotPresent();
+      final OpeningSchedule schedule = OpeningSchedule.of(true, null, null);
+      station.setOpeningSchedule(schedule);
+      assertThat(station.getOpeningSchedule()).isPresent().hasValue(schedule);
+   }
+
    @Test
    public void getWholeDay()
    {
@@ -160,4 +183,40 @@ public class StationTest
             .suppress(Warning.NONFINAL_FIELDS)
             .verify();
    }
-}
\ No newline at end of file
+
+   @Test
+   public void toListEntry()
+   {
+      final Location location = new Location();
+      location.setLat(52.5);
+      station.setId("id");
+      station.setName("Name");
+      station.setOpen(true);
+      station.setLocation(location);
+      final Map<GasPrices.GasType, Float> prices = new EnumMap<>(GasPrices.GasType.class);
+      prices.put(GasPrices.GasType.E5, 1.5f);
+      station.setGasPrices(new GasPrices(prices, null));
+
+      final Station all = station.toListEntry(2.5, GasRequestType.ALL);
+      assertThat(all).isNotSameAs(station);
+      assertThat(all.getId()).isEqualTo("id");
+      assertThat(all.getName()).hasValue("Name");
+      assertThat(all.isOpen()).isTrue();
+      assertThat(all.getLocation().getLat()).isEqualTo(52.5);
+      assertThat(all.getLocation().getDistance()).hasValue(2.5);
+      assertThat(all.getGasPrices()).isEqualTo(station.getGasPrices());
+      assertThat(all.getPrice()).isNotPresent();
+      assertThat(location.getDistance()).isNotPresent();
+
+      final Station e5 = station.toListEntry(1.0, GasRequestType.E5);
+      assertThat(e5.getPrice()).hasValue(1.5f);
+      assertThat(e5.getGasPrices()).isNotPresent();
+      assertThat(station.toListEntry(1.0, GasRequestType.DIESEL).getPrice()).isNotPresent();
+
+      station.setGasPrices(null);
+      station.setLocation(null);
+      final Station withoutPrices = station.toListEntry(1.0, GasRequestType.E10);
+      assertThat(withoutPrices.getPrice()).isNotPresent();
+      assertThat(withoutPrices.getLocation()).isNull();
+   }
+}
@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.mapper;
+
+import static de.codengine.tankerkoenig.utils.CustomAsserts.assertSingleton;
+import static de.codengine.tankerkoenig.utils.CustomAsserts.testPrivateConstructor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.exception.ResponseParsingException;
+import de.codengine.tankerkoenig.models.requests.CorrectionResult;
+import de.codengine.tankerkoenig.models.requests.PricesResult;
+import de.codengine.tankerkoenig.models.requests.StationColumnsResult;
+import de.codengine.tankerkoenig.models.requests.StationDetailResult;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+import de.codengine.tankerkoenig.utils.ResourceLoader;
+
+public class StreamingMapperTest
+{
+   @Test
+   public void isSingleton() throws IllegalAccessException, InstantiationException, InvocationTargetException
+   {
+      assertSingleton(StreamingMapper.class);
+      testPrivateConstructor(StreamingMapper.class);
+   }
+
+   @Test
+   public void getInstance()
+   {
+      final StreamingMapper first = StreamingMapper.getInstance();
+      final StreamingMapper second = StreamingMapper.getInstance();
+      assertThat(first).isSameAs(second);
+   }
+
+   @Test
+   public void matchesGsonMapper() throws IOException
+   {
+      assertSameMapping("list_all_prices.json", StationListResult.class);
+      assertSameMapping("list_one_price.json", StationListResult.class);
+      assertSameMapping("list_empty.json", StationListResult.class);
+      assertSameMapping("detail.json", StationDetailResult.class);
+      assertSameMapping("detail_opened_daily_except_holiday_and_sunday.json", StationDetailResult.class);
+      assertSameMapping("detail_without_times.json", StationDetailResult.class);
+      assertSameMapping("prices.json", PricesResult.class);
+      assertSameMapping("prices_empty.json", PricesResult.class);
+      assertSameMapping("correction.json", CorrectionResult.class);
+      assertSameMapping("fail_response.json", StationDetailResult.class);
+      assertSameMapping("list_all_prices.json", StationColumnsResult.class);
+   }
+
+   @Test
+   public void projection() throws IOException
+   {
+      final String listContent = ResourceLoader.readString("list_all_prices.json");
+      final StationListResult result = StreamingMapper.getInstance()
+            .fromJson(listContent, StationListResult.class, Projection.of(StationField.ID));
+
+      assertThat(result.getStations()).hasSize(2);
+      assertThat(result.getStations().get(0).getId()).isEqualTo("51d4b660-a095-1aa0-e100-80009459e03a");
+      assertThat(result.getStations().get(0).getName()).isNotPresent();
+      assertThat(result.getStations().get(0).getLocation()).isNull();
+   }
+
+   @Test
+   public void nullJson()
+   {
+      assertThat(StreamingMapper.getInstance().fromJson(null, StationListResult.class)).isNull();
+   }
+
+   @Test
+   public void unsupportedClass()
+   {
+      assertThatThrownBy(() -> StreamingMapper.getInstance().fromJson("{}", Station.class))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void malformedJson()
+   {
+      assertThatThrownBy(() -> StreamingMapper.getInstance().fromJson("{\"ok\": true, \"stations\": [", StationListResult.class))
+            .isExactlyInstanceOf(ResponseParsingException.class);
+      assertThatThrownBy(() -> StreamingMapper.getInstance().fromJson("{\"ok\": true, \"stations\": {}}", StationListResult.class))
+            .isExactlyInstanceOf(ResponseParsingException.class);
+   }
+
+   private static void assertSameMapping(final String resource, final Class<?> resultClass) throws IOException
+   {
+      final String content = ResourceLoader.readString(resource);
+      final Object expected = GsonMapper.getInstance().fromJson(content, resultClass);
+      final Object actual = StreamingMapper.getInstance().fromJson(content, resultClass);
+      assertThat(actual).isEqualToComparingFieldByFieldRecursively(expected);
+   }
+}
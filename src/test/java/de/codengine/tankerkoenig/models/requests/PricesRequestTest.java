@@ -40,6 +40,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.Projection;
 import de.codengine.tankerkoenig.utils.FluentMap;
 
 public class PricesRequestTest
@@ -155,4 +157,13 @@ public class PricesRequestTest
       request.execute();
       verify(requester, times(1)).execute(request, request.getResultClass());
    }
-}
\ No newline at end of file
+
+   @Test
+   public void project()
+   {
+      assertThat(request.getProjection()).isEqualTo(Projection.ALL);
+      request.project(GasPrices.GasType.DIESEL);
+      assertThat(request.getProjection().getGasTypes()).containsExactly(GasPrices.GasType.DIESEL);
+      assertThat(request.getProjection().getFields()).isEqualTo(Projection.ALL.getFields());
+   }
+}
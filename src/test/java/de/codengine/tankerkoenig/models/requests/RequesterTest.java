@@ -34,6 +34,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Objects;
@@ -42,11 +43,14 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import de.codengine.tankerkoenig.budget.RequestBudget;
 import de.codengine.tankerkoenig.client.ClientExecutor;
 import de.codengine.tankerkoenig.exception.ClientExecutorException;
 import de.codengine.tankerkoenig.exception.RequestParamException;
 import de.codengine.tankerkoenig.exception.RequesterException;
 import de.codengine.tankerkoenig.models.mapper.JsonMapper;
+import de.codengine.tankerkoenig.models.mapper.Projection;
+import de.codengine.tankerkoenig.models.mapper.StationField;
 import de.codengine.tankerkoenig.utils.FluentMap;
 
 public class RequesterTest
@@ -125,6 +129,107 @@ public class RequesterTest
       verify(jsonMapper).fromJson(argThat(argument -> argument.equals("Result")), argThat(argument -> argument.equals(ResultStub.class)));
    }
 
+   @Test
+   public void executeRequestWithProjection() throws RequesterException
+   {
+      final Projection projection = Projection.of(StationField.ID);
+      final RequestStub request = spy(new RequestStub("123", "http://test/", requester));
+      ResultStub resultStub = new ResultStub();
+
+      when(request.getProjection()).thenReturn(projection);
+      when(clientExecutor.get(any(), any())).thenReturn("Result");
+      when(jsonMapper.fromJson(anyString(), any(), any())).thenReturn(resultStub);
+
+      final ResultStub result = requester.execute(request, ResultStub.class);
+      assertThat(result).isSameAs(resultStub);
+
+      verify(jsonMapper).fromJson(argThat(argument -> argument.equals("Result")), argThat(argument -> argument.equals(ResultStub.class)),
+            argThat(argument -> argument.equals(projection)));
+   }
+
+   @Test
+   public void resolvesStationListRequests() throws RequesterException
+   {
+      final StationListResult upstreamResult = new StationListResult();
+      final StationListResult resolvedResult = new StationListResult();
+      final StationListResolver resolver = (query, upstream) ->
+      {
+         assertThat(query).isEqualTo(StationListQuery.of(52.5, 13.4, 5, GasRequestType.E5, StationListRequest.SortingRequestType.PRICE));
+         assertThat(upstream.fetch(query.withArea(53, 10, 25))).isSameAs(upstreamResult);
+         return resolvedResult;
+      };
+      requester = new Requester(clientExecutor, jsonMapper, resolver);
+      when(clientExecutor.get(any(), any())).thenReturn("Result");
+      when(jsonMapper.fromJson(anyString(), any())).thenReturn(upstreamResult);
+
+      final StationListRequest request = new StationListRequest("123", "http://test/", requester)
+            .setCoordinates(52.5, 13.4)
+            .setGasRequestType(GasRequestType.E5)
+            .setSorting(StationListRequest.SortingRequestType.PRICE);
+
+      assertThat(requester.execute(request, StationListResult.class)).isSameAs(resolvedResult);
+      verify(clientExecutor, times(1)).get(argThat(argument -> argument.equals("http://test/list.php")), argThat(
+            argument -> Objects.equals(argument.get("lat"), 53.0) && Objects.equals(argument.get("rad"), 25.0)
+                  && Objects.equals(argument.get("type"), "e5") && Objects.equals(argument.get("apikey"), "123")
+      ));
+   }
+
+   @Test
+   public void doesNotResolveInvalidOrProjectedRequests() throws RequesterException
+   {
+      final StationListResolver resolver = mock(StationListResolver.class);
+      requester = new Requester(clientExecutor, jsonMapper, resolver);
+
+      final StationListRequest invalid = new StationListRequest("123", "http://test/", requester);
+      assertThatThrownBy(() -> requester.execute(invalid, StationListResult.class))
+            .isExactlyInstanceOf(RequesterException.class)
+            .hasCauseExactlyInstanceOf(RequestParamException.class);
+
+      final StationListResult upstreamResult = new StationListResult();
+      when(clientExecutor.get(any(), any())).thenReturn("Result");
+      when(jsonMapper.fromJson(anyString(), any(), any())).thenReturn(upstreamResult);
+      final StationListRequest projected = new StationListRequest("123", "http://test/", requester)
+            .setCoordinates(52.5, 13.4)
+            .project(StationField.ID);
+      assertThat(requester.execute(projected, StationListResult.class)).isSameAs(upstreamResult);
+
+      verifyZeroInteractions(resolver);
+   }
+
+   @Test
+   public void wrapsExceptionsOfResolver()
+   {
+      requester = new Requester(clientExecutor, jsonMapper, (query, upstream) ->
+      {
+         throw new IllegalStateException("Resolver");
+      });
+      final StationListRequest request = new StationListRequest("123", "http://test/", requester)
+            .setCoordinates(52.5, 13.4);
+
+      assertThatThrownBy(() -> requester.execute(request, StationListResult.class))
+            .isExactlyInstanceOf(RequesterException.class)
+            .hasCauseExactlyInstanceOf(IllegalStateException.class);
+   }
+
+   @Test
+   public void refusesCallsExceedingBudget() throws RequesterException
+   {
+      final RequestBudget budget = new RequestBudget(1);
+      requester = new Requester(clientExecutor, jsonMapper, null, budget);
+      final ResultStub resultStub = new ResultStub();
+      when(clientExecutor.get(any(), any())).thenReturn("Result");
+      when(jsonMapper.fromJson(anyString(), any())).thenReturn(resultStub);
+
+      assertThat(requester.execute(new RequestStub("123", "http://test/", requester), ResultStub.class)).isSameAs(resultStub);
+      assertThat(budget.getUsed("stub.php")).isEqualTo(1);
+
+      assertThatThrownBy(() -> requester.execute(new RequestStub("123", "http://test/", requester), ResultStub.class))
+            .isExactlyInstanceOf(RequesterException.class)
+            .hasMessage("The daily request budget is exhausted")
+            .hasNoCause();
+      verify(clientExecutor, times(1)).get(any(), any());
+   }
+
    @Test
    public void executePostRequest() throws RequesterException
    {
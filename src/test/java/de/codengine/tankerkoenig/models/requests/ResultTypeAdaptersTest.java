@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.requests;
+
+import static de.codengine.tankerkoenig.utils.CustomAsserts.testPrivateConstructor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.mapper.StationColumns;
+
+public class ResultTypeAdaptersTest
+{
+   private TypeAdapter<Station> stationAdapter;
+   private TypeAdapter<GasPrices> gasPricesAdapter;
+   private TypeAdapter<StationColumns> columnsAdapter;
+   private Map<Class<?>, TypeAdapter<?>> adapters;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      stationAdapter = new SkippingAdapter<>();
+      gasPricesAdapter = new SkippingAdapter<>();
+      columnsAdapter = new SkippingAdapter<>();
+      adapters = ResultTypeAdapters.create(stationAdapter, gasPricesAdapter, columnsAdapter);
+   }
+
+   @After
+   public void tearDown() throws Exception
+   {
+      stationAdapter = null;
+      gasPricesAdapter = null;
+      columnsAdapter = null;
+      adapters = null;
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(ResultTypeAdapters.class).isFinal();
+   }
+
+   @Test
+   public void privateConstructor()
+   {
+      assertThatThrownBy(() -> testPrivateConstructor(ResultTypeAdapters.class))
+            .isExactlyInstanceOf(InvocationTargetException.class)
+            .hasCauseExactlyInstanceOf(UnsupportedOperationException.class);
+   }
+
+   @Test
+   public void supportsAllResults()
+   {
+      assertThat(adapters).containsOnlyKeys(StationListResult.class, StationColumnsResult.class, StationDetailResult.class,
+            PricesResult.class, CorrectionResult.class);
+      assertThatThrownBy(() -> adapters.clear()).isInstanceOf(UnsupportedOperationException.class);
+   }
+
+   @Test
+   public void readsEnvelope() throws IOException
+   {
+      final CorrectionResult result = read(CorrectionResult.class,
+            "{\"ok\": false, \"status\": \"error\", \"message\": \"msg\", \"license\": \"lic\", \"data\": \"MTS-K\", \"unknown\": [1, 2]}");
+
+      assertThat(result.isOk()).isFalse();
+      assertThat(result.getStatus()).isPresent().hasValue(Result.ResponseStatus.ERROR);
+      assertThat(result.getMessage()).isPresent().hasValue("msg");
+      assertThat(result.getLicense()).isPresent().hasValue("lic");
+      assertThat(result.getData()).isPresent().hasValue("MTS-K");
+   }
+
+   @Test
+   public void readsValuesWithSuppliedAdapters() throws IOException
+   {
+      final StationListResult list = read(StationListResult.class, "{\"ok\": true, \"stations\": [{}, {}]}");
+      assertThat(list.getStations()).containsExactly(null, null);
+
+      final PricesResult prices = read(PricesResult.class, "{\"ok\": true, \"prices\": {\"a\": {}, \"b\": {}}}");
+      assertThat(prices.getGasPrices()).containsOnlyKeys("a", "b");
+
+      final StationDetailResult detail = read(StationDetailResult.class, "{\"ok\": true, \"station\": null}");
+      assertThat(detail.getStation()).isNull();
+   }
+
+   @Test
+   public void toResponseStatus()
+   {
+      assertThat(ResultTypeAdapters.toResponseStatus("ok")).isEqualTo(Result.ResponseStatus.OK);
+      assertThat(ResultTypeAdapters.toResponseStatus("error")).isEqualTo(Result.ResponseStatus.ERROR);
+      assertThat(ResultTypeAdapters.toResponseStatus("unknown")).isNull();
+      assertThat(ResultTypeAdapters.toResponseStatus(null)).isNull();
+   }
+
+   @Test
+   public void writeUnsupported()
+   {
+      final TypeAdapter<?> adapter = adapters.get(CorrectionResult.class);
+      assertThatThrownBy(() -> adapter.write(new JsonWriter(new StringWriter()), null))
+            .isExactlyInstanceOf(UnsupportedOperationException.class);
+   }
+
+   private <T> T read(final Class<T> resultClass, final String json) throws IOException
+   {
+      return resultClass.cast(adapters.get(resultClass).read(new JsonReader(new StringReader(json))));
+   }
+
+   private static class SkippingAdapter<T> extends TypeAdapter<T>
+   {
+      @Override
+      public void write(final JsonWriter out, final T value)
+      {
+      }
+
+      @Override
+      public T read(final JsonReader in) throws IOException
+      {
+         in.skipValue();
+         return null;
+      }
+   }
+}
@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.models.requests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+public class StationListQueryTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(StationListQuery.class).isFinal();
+   }
+
+   @Test
+   public void of()
+   {
+      final StationListQuery query = StationListQuery.of(52.5, 13.4, 5, GasRequestType.E5, StationListRequest.SortingRequestType.PRICE);
+      assertThat(query.getLat()).isEqualTo(52.5);
+      assertThat(query.getLng()).isEqualTo(13.4);
+      assertThat(query.getRadius()).isEqualTo(5.0);
+      assertThat(query.getGasRequestType()).isEqualTo(GasRequestType.E5);
+      assertThat(query.getSorting()).isEqualTo(StationListRequest.SortingRequestType.PRICE);
+   }
+
+   @Test
+   public void sortingIsDistanceForAllGasTypes()
+   {
+      final StationListQuery query = StationListQuery.of(52.5, 13.4, 5, GasRequestType.ALL, StationListRequest.SortingRequestType.PRICE);
+      assertThat(query.getSorting()).isEqualTo(StationListRequest.SortingRequestType.DISTANCE);
+   }
+
+   @Test
+   public void withArea()
+   {
+      final StationListQuery query = StationListQuery.of(52.5, 13.4, 5, GasRequestType.E5, StationListRequest.SortingRequestType.PRICE)
+            .withArea(53, 10, 25);
+      assertThat(query).isEqualTo(StationListQuery.of(53, 10, 25, GasRequestType.E5, StationListRequest.SortingRequestType.PRICE));
+   }
+
+   @Test
+   public void withGasRequestType()
+   {
+      final StationListQuery query = StationListQuery.of(52.5, 13.4, 5, GasRequestType.E5, StationListRequest.SortingRequestType.PRICE);
+      assertThat(query.withGasRequestType(GasRequestType.ALL))
+            .isEqualTo(StationListQuery.of(52.5, 13.4, 5, GasRequestType.ALL, StationListRequest.SortingRequestType.DISTANCE));
+   }
+
+   @Test
+   public void keepsRequestedSortingForAllGasTypes()
+   {
+      final StationListQuery query = StationListQuery.of(52.5, 13.4, 5, GasRequestType.ALL, StationListRequest.SortingRequestType.PRICE);
+      final StationListQuery e5 = query.withGasRequestType(GasRequestType.E5);
+      assertThat(e5.getSorting()).isEqualTo(StationListRequest.SortingRequestType.PRICE);
+      assertThat(e5).isEqualTo(StationListQuery.of(52.5, 13.4, 5, GasRequestType.E5, StationListRequest.SortingRequestType.PRICE));
+      assertThat(e5.withGasRequestType(GasRequestType.ALL)).isEqualTo(query);
+      assertThat(e5.withGasRequestType(GasRequestType.ALL).hashCode()).isEqualTo(query.hashCode());
+   }
+
+   @Test
+   public void equalsContract()
+   {
+      EqualsVerifier.forClass(StationListQuery.class).verify();
+   }
+
+   @Test
+   public void fromRequest()
+   {
+      final StationListRequest request = new StationListRequest("123", "http://test/", null)
+            .setCoordinates(52.5, 13.4)
+            .setSearchRadius(7)
+            .setGasRequestType(GasRequestType.DIESEL)
+            .setSorting(StationListRequest.SortingRequestType.PRICE);
+
+      final StationListQuery query = request.toQuery();
+      assertThat(query).isEqualTo(StationListQuery.of(52.5, 13.4, 7, GasRequestType.DIESEL, StationListRequest.SortingRequestType.PRICE));
+
+      final StationListRequest copy = request.forQuery(query.withArea(53, 10, 20));
+      assertThat(copy.getApiKey()).isEqualTo("123");
+      assertThat(copy.getBaseUrl()).isEqualTo("http://test/");
+      assertThat(copy.toQuery()).isEqualTo(query.withArea(53, 10, 20));
+   }
+}
@@ -36,6 +36,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import de.codengine.tankerkoenig.exception.RequestParamException;
+import de.codengine.tankerkoenig.models.mapper.Projection;
+import de.codengine.tankerkoenig.models.mapper.StationField;
 import de.codengine.tankerkoenig.utils.FluentMap;
 
 public class StationListRequestTest
@@ -158,4 +160,36 @@ public class StationListRequestTest
       request.setSorting(StationListRequest.SortingRequestType.PRICE);
       request.validate();
    }
-}
\ No newline at end of file
+
+   @Test
+   public void project()
+   {
+      assertThat(request.getProjection()).isEqualTo(Projection.ALL);
+      request.project(StationField.ID, StationField.LOCATION);
+      assertThat(request.getProjection()).isEqualTo(Projection.of(StationField.ID, StationField.LOCATION));
+
+      request.setCoordinates(53, 13);
+      request.project((Projection) null);
+      assertThatThrownBy(request::validate).isExactlyInstanceOf(RequestParamException.class);
+   }
+
+   @Test
+   public void columnar()
+   {
+      request.setCoordinates(55.1, 12.2);
+      request.setGasRequestType(GasRequestType.E5);
+      final StationColumnsRequest columnsRequest = request.columnar();
+
+      assertThat(StationColumnsRequest.class).isFinal();
+      assertThat(columnsRequest.getEndpoint()).isEqualTo("list.php");
+      assertThat(columnsRequest.getMethod()).isEqualTo(Request.Method.GET);
+      assertThat(columnsRequest.getResultClass()).isEqualTo(StationColumnsResult.class);
+      assertThat(columnsRequest.getApiKey()).isEqualTo("123");
+      assertThat(columnsRequest.getBaseUrl()).isEqualTo("http://test/");
+      assertThat(columnsRequest.getRequester()).isSameAs(requester);
+      assertThat(columnsRequest.getRequestParameters()).isEqualTo(request.getRequestParameters());
+
+      request.setSearchRadius(30);
+      assertThatThrownBy(columnsRequest::validate).isExactlyInstanceOf(RequestParamException.class);
+   }
+}
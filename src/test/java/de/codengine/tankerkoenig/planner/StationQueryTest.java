@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.planner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+
+public class StationQueryTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(StationQuery.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> StationQuery.around(91, 13.4, 5)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> StationQuery.around(52.5, 181, 5)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> StationQuery.around(52.5, 13.4, 0.5)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> StationQuery.around(52.5, 13.4, 26)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> StationQuery.ofStations(Collections.emptyList())).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> StationQuery.ofStations("a", null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> StationQuery.ofStations("a", "")).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> StationQuery.around(52.5, 13.4, 5).withOrder(null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> StationQuery.around(52.5, 13.4, 5).withLimit(0)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void around()
+   {
+      final StationQuery query = StationQuery.around(52.5, 13.4, 5);
+      assertThat(query.isArea()).isTrue();
+      assertThat(query.getLat()).isEqualTo(52.5);
+      assertThat(query.getLng()).isEqualTo(13.4);
+      assertThat(query.getRadius()).isEqualTo(5);
+      assertThat(query.getStationIds()).isEmpty();
+      assertThat(query.getGasType()).isNotPresent();
+      assertThat(query.getOrder()).isEqualTo(StationQuery.Order.DISTANCE);
+      assertThat(query.isOpenOnly()).isFalse();
+      assertThat(query.getLimit()).isEqualTo(Integer.MAX_VALUE);
+      assertThat(query.isOpeningTimes()).isFalse();
+   }
+
+   @Test
+   public void ofStations()
+   {
+      final StationQuery query = StationQuery.ofStations(Arrays.asList("b", "a", "b"));
+      assertThat(query.isArea()).isFalse();
+      assertThat(query.getStationIds()).containsExactly("b", "a");
+      assertThat(query.getLat()).isNaN();
+      assertThat(query.toString()).contains("stationIds=[b, a]");
+   }
+
+   @Test
+   public void copies()
+   {
+      final StationQuery query = StationQuery.around(52.5, 13.4, 5);
+      final StationQuery copy = query.withGasType(GasPrices.GasType.DIESEL)
+            .withOrder(StationQuery.Order.PRICE)
+            .withOpenOnly(true)
+            .withLimit(3)
+            .withOpeningTimes(true);
+
+      assertThat(copy.getGasType()).hasValue(GasPrices.GasType.DIESEL);
+      assertThat(copy.getOrder()).isEqualTo(StationQuery.Order.PRICE);
+      assertThat(copy.isOpenOnly()).isTrue();
+      assertThat(copy.getLimit()).isEqualTo(3);
+      assertThat(copy.isOpeningTimes()).isTrue();
+      assertThat(copy.getRadius()).isEqualTo(5);
+      assertThat(query.getGasType()).isNotPresent();
+   }
+}
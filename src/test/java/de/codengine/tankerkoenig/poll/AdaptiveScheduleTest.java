@@ -0,0 +1,191 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Locale;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.requests.PricesResult;
+
+public class AdaptiveScheduleTest
+{
+   private final static Instant START = Instant.parse("2017-06-01T00:00:00Z");
+
+   private AdaptiveSchedule schedule;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      schedule = new AdaptiveSchedule(12, Duration.ofSeconds(10), Duration.ofHours(6), ZoneOffset.UTC);
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(AdaptiveSchedule.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      final Duration minute = Duration.ofMinutes(1);
+      assertThatThrownBy(() -> new AdaptiveSchedule(0)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new AdaptiveSchedule(1, null, minute, ZoneOffset.UTC)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new AdaptiveSchedule(1, Duration.ZERO, minute, ZoneOffset.UTC)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new AdaptiveSchedule(1, minute, Duration.ofSeconds(1), ZoneOffset.UTC))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new AdaptiveSchedule(1, minute, minute, null)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void unknownStationsShareBudget()
+   {
+      assertThat(schedule.getChangesPerHour("a", START)).isCloseTo(1 / 6.0, within(1e-9));
+      assertThat(schedule.nextPoll("a", START)).isEqualTo(Duration.ofMinutes(5));
+      assertThat(schedule.nextPoll("b", START)).isEqualTo(Duration.ofMinutes(10));
+      assertThat(schedule.size()).isEqualTo(2);
+   }
+
+   @Test
+   public void pollsVolatileStationsMoreOften()
+   {
+      // Station a changes on every poll, station b never
+      for (int i = 1; i <= 12 * 24; i++)
+      {
+         final Instant now = START.plus(Duration.ofMinutes(5 * i));
+         schedule.observe("a", prices(1.0f + i * 0.01f), now);
+         schedule.observe("b", prices(1.5f), now);
+      }
+
+      final Instant now = START.plus(Duration.ofDays(1));
+      assertThat(schedule.getChangesPerHour("a", now)).isGreaterThan(5);
+      assertThat(schedule.getChangesPerHour("b", now)).isLessThan(0.05);
+
+      final Duration volatileInterval = schedule.nextPoll("a", now);
+      final Duration stableInterval = schedule.nextPoll("b", now);
+      assertThat(volatileInterval.multipliedBy(10)).isLessThan(stableInterval);
+
+      // Both stations together stay within the budget of 12 polls per hour
+      final double pollsPerHour = 3600.0 / volatileInterval.getSeconds() + 3600.0 / stableInterval.getSeconds();
+      assertThat(pollsPerHour).isLessThanOrEqualTo(12.5);
+   }
+
+   @Test
+   public void learnsRatesByHourOfDay()
+   {
+      // The station changes every 5 minutes between 7 and 8 o'clock only
+      for (int day = 0; day < 5; day++)
+      {
+         for (int i = 1; i <= 12 * 24; i++)
+         {
+            final Instant now = START.plus(Duration.ofDays(day)).plus(Duration.ofMinutes(5 * i));
+            final int hour = now.atZone(ZoneOffset.UTC).getHour();
+            schedule.observe("a", prices(hour == 7 ? 1.0f + (i % 2) * 0.01f : 1.5f), now);
+         }
+      }
+
+      final Instant morning = START.plus(Duration.ofDays(5)).plus(Duration.ofMinutes(7 * 60 + 30));
+      final Instant afternoon = START.plus(Duration.ofDays(5)).plus(Duration.ofHours(15));
+      assertThat(schedule.getChangesPerHour("a", morning)).isGreaterThan(5);
+      assertThat(schedule.getChangesPerHour("a", afternoon)).isLessThan(0.5);
+
+      // Sharing the budget with another station, the station gets a larger share in the morning
+      schedule.nextPoll("b", morning);
+      assertThat(schedule.nextPoll("a", morning)).isLessThan(schedule.nextPoll("a", afternoon));
+   }
+
+   @Test
+   public void sharesBudgetOfEveryHour()
+   {
+      // Station a changes every 5 minutes between 7 and 8 o'clock only, station b every 30 minutes
+      for (int day = 0; day < 5; day++)
+      {
+         for (int i = 1; i <= 12 * 24; i++)
+         {
+            final Instant now = START.plus(Duration.ofDays(day)).plus(Duration.ofMinutes(5 * i));
+            final int hour = now.atZone(ZoneOffset.UTC).getHour();
+            schedule.observe("a", prices(hour == 7 ? 1.0f + (i % 2) * 0.01f : 1.5f), now);
+            schedule.observe("b", prices(1.0f + (i / 6 % 2) * 0.01f), now);
+         }
+      }
+
+      for (int hour = 0; hour < 24; hour++)
+      {
+         final Instant now = START.plus(Duration.ofDays(5)).plus(Duration.ofHours(hour));
+         final double pollsPerHour = 3_600_000.0 / schedule.nextPoll("a", now).toMillis() + 3_600_000.0 / schedule.nextPoll("b", now).toMillis();
+         assertThat(pollsPerHour).isCloseTo(12, within(0.01));
+      }
+
+      // A single station gets the whole budget at any hour
+      schedule.remove("b");
+      assertThat(schedule.nextPoll("a", START.plus(Duration.ofDays(5)).plus(Duration.ofHours(7))).toMillis()).isCloseTo(300_000L, within(1L));
+      assertThat(schedule.nextPoll("a", START.plus(Duration.ofDays(5)).plus(Duration.ofHours(15))).toMillis()).isCloseTo(300_000L, within(1L));
+   }
+
+   @Test
+   public void limitsIntervals()
+   {
+      schedule = new AdaptiveSchedule(12, Duration.ofMinutes(6), Duration.ofMinutes(7), ZoneOffset.UTC);
+      assertThat(schedule.nextPoll("a", START)).isEqualTo(Duration.ofMinutes(6));
+      for (int i = 0; i < 10; i++)
+      {
+         schedule.nextPoll("s" + i, START);
+      }
+      assertThat(schedule.nextPoll("a", START)).isEqualTo(Duration.ofMinutes(7));
+   }
+
+   @Test
+   public void removesStations()
+   {
+      schedule.nextPoll("a", START);
+      schedule.nextPoll("b", START);
+      schedule.remove("a");
+      schedule.remove("unknown");
+
+      assertThat(schedule.size()).isEqualTo(1);
+      assertThat(schedule.nextPoll("b", START)).isEqualTo(Duration.ofMinutes(5));
+
+      schedule.nextPoll("c", START);
+      assertThat(schedule.size()).isEqualTo(2);
+      assertThat(schedule.getChangesPerHour("c", START)).isCloseTo(1 / 6.0, within(1e-9));
+   }
+
+   private static GasPrices prices(final float e5)
+   {
+      final String json = String.format(Locale.ROOT, "{\"ok\":true,\"prices\":{\"x\":{\"status\":\"open\",\"e5\":%s}}}", e5);
+      return GsonMapper.getInstance().fromJson(json, PricesResult.class).getGasPrice("x").get();
+   }
+}
@@ -0,0 +1,184 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.budget.RequestBudget;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.requests.PricesResult;
+import de.codengine.tankerkoenig.utils.MutableClock;
+
+public class BudgetScheduleTest
+{
+   private MutableClock clock;
+   private RequestBudget budget;
+   private BudgetSchedule schedule;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      // 06:00 in Berlin, so 100 calls for 18 hours allow 50 / 18 calls and 500 / 18 station polls per hour
+      clock = new MutableClock(Instant.parse("2017-06-01T04:00:00Z"));
+      budget = new RequestBudget(100, ZoneId.of("Europe/Berlin"), clock);
+      schedule = new BudgetSchedule(PollingSchedule.fixed(Duration.ofMinutes(1)), budget, 0.5);
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(BudgetSchedule.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      final PollingSchedule delegate = PollingSchedule.fixed(Duration.ofMinutes(1));
+      assertThatThrownBy(() -> new BudgetSchedule(null, budget, 0.5)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new BudgetSchedule(delegate, null, 0.5)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new BudgetSchedule(delegate, budget, 0)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new BudgetSchedule(delegate, budget, 1.1)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new BudgetSchedule(delegate, budget, 0.5, Duration.ZERO)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void sharesAvailableRate()
+   {
+      schedule.nextPoll("a", clock.instant());
+      // Two stations share 500 / 18 polls per hour
+      assertThat(seconds(schedule.nextPoll("b", clock.instant()))).isCloseTo(259.2, within(0.01));
+      assertThat(seconds(schedule.nextPoll("a", clock.instant()))).isCloseTo(259.2, within(0.01));
+
+      schedule.remove("b");
+      assertThat(seconds(schedule.nextPoll("a", clock.instant()))).isCloseTo(129.6, within(0.01));
+   }
+
+   @Test
+   public void prefersViewedStations()
+   {
+      schedule.nextPoll("a", clock.instant());
+      for (int i = 0; i < 8; i++)
+      {
+         schedule.view("b", clock.instant());
+      }
+      // Views of stations which are not watched do not claim polls
+      schedule.view("c", clock.instant());
+
+      // The weights are sqrt(1) and sqrt(9)
+      assertThat(seconds(schedule.nextPoll("b", clock.instant()))).isCloseTo(172.8, within(0.01));
+      assertThat(seconds(schedule.nextPoll("a", clock.instant()))).isCloseTo(518.4, within(0.01));
+      assertThat(schedule.getViews("b")).isEqualTo(8);
+      assertThat(schedule.getViews("c")).isEqualTo(1);
+
+      schedule.view("a", clock.instant());
+      assertThat(seconds(schedule.nextPoll("a", clock.instant()))).isCloseTo((Math.sqrt(2) + 3) / (500 / 18.0 * Math.sqrt(2)) * 3600, within(0.01));
+   }
+
+   @Test
+   public void halvesViews()
+   {
+      schedule.nextPoll("b", clock.instant());
+      for (int i = 0; i < 8; i++)
+      {
+         schedule.view("b", clock.instant());
+      }
+      schedule.view("c", clock.instant());
+
+      clock.advance(Duration.ofDays(1));
+      schedule.view("d", clock.instant());
+      assertThat(schedule.getViews("b")).isEqualTo(4);
+      // Forgotten, as it is not watched
+      assertThat(schedule.getViews("c")).isEqualTo(0);
+      assertThat(schedule.getViews("d")).isEqualTo(1);
+   }
+
+   @Test
+   public void keepsLongerIntervals()
+   {
+      final BudgetSchedule hourly = new BudgetSchedule(PollingSchedule.fixed(Duration.ofHours(1)), budget, 0.5);
+      assertThat(hourly.nextPoll("a", clock.instant())).isEqualTo(Duration.ofHours(1));
+   }
+
+   @Test
+   public void waitsForResetIfExhausted()
+   {
+      while (budget.tryAcquire("prices.php"))
+      {
+         // Exhaust
+      }
+      assertThat(schedule.nextPoll("a", clock.instant())).isEqualTo(Duration.ofHours(18));
+
+      clock.advance(Duration.ofHours(18));
+      assertThat(schedule.nextPoll("a", clock.instant())).isLessThan(Duration.ofHours(1));
+   }
+
+   @Test
+   public void pollerKeepsShareOfBudget()
+   {
+      budget = new RequestBudget(1000, ZoneId.of("Europe/Berlin"), clock);
+      schedule = new BudgetSchedule(PollingSchedule.fixed(Duration.ofMinutes(1)), budget, 0.5);
+      final PricesResult prices = GsonMapper.getInstance().fromJson("{\"ok\":true,\"prices\":{}}", PricesResult.class);
+      final PricePoller poller = new PricePoller(stationIds ->
+      {
+         assertThat(budget.tryAcquire("prices.php")).isTrue();
+         return prices;
+      }, Runnable::run, schedule, Duration.ofSeconds(10), 0.1, new Random(42), clock);
+      for (int i = 0; i < 25; i++)
+      {
+         poller.add("s" + i);
+      }
+      tick(poller, Duration.ofHours(2));
+
+      // The schedule assumes calls of 10 stations, which the poller fills even for a sparse watchlist
+      final double plannedCalls = budget.getAvailableRate() * 0.5;
+      final int used = budget.getUsed();
+      tick(poller, Duration.ofHours(1));
+      assertThat((budget.getUsed() - used) / plannedCalls).isBetween(0.85, 1.1);
+   }
+
+   private void tick(final PricePoller poller, final Duration duration)
+   {
+      for (long i = 0; i < duration.getSeconds() / 10; i++)
+      {
+         clock.advance(Duration.ofSeconds(10));
+         poller.tick();
+      }
+   }
+
+   private static double seconds(final Duration duration)
+   {
+      return duration.toMillis() / 1000.0;
+   }
+}
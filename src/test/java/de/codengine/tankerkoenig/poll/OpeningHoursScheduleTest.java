@@ -0,0 +1,195 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.mapper.OpeningSchedule;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.PricesResult;
+import de.codengine.tankerkoenig.models.requests.StationDetailResult;
+import de.codengine.tankerkoenig.utils.MutableClock;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class OpeningHoursScheduleTest
+{
+   // Thursday, 23:00 in Berlin
+   private final static Instant THURSDAY_NIGHT = Instant.parse("2017-06-01T21:00:00Z");
+
+   private OpeningHoursSchedule schedule;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      schedule = new OpeningHoursSchedule(PollingSchedule.fixed(Duration.ofMinutes(10)));
+      schedule.register(station("a"));
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(OpeningHoursSchedule.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      final PollingSchedule delegate = PollingSchedule.fixed(Duration.ofMinutes(10));
+      final ZoneId zone = ZoneId.of("Europe/Berlin");
+      assertThatThrownBy(() -> new OpeningHoursSchedule(null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new OpeningHoursSchedule(delegate, null, zone)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new OpeningHoursSchedule(delegate, Duration.ofMinutes(-1), zone)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new OpeningHoursSchedule(delegate, Duration.ZERO, null)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void registersOnlyStationsWithOpeningTimes()
+   {
+      assertThat(schedule.register(StationFixtures.create().with("b", 52.5, 13.4, 1.5f, 1.4f, 1.3f).toStations().get(0))).isFalse();
+      assertThat(schedule.predict("b", THURSDAY_NIGHT)).isEqualTo(OpeningSchedule.Status.UNKNOWN);
+      assertThat(schedule.predict("a", THURSDAY_NIGHT)).isEqualTo(OpeningSchedule.Status.CLOSED);
+   }
+
+   @Test
+   public void pollsOpenStationsAsDelegated()
+   {
+      final Instant noon = Instant.parse("2017-06-01T10:00:00Z");
+      assertThat(schedule.predict("a", noon)).isEqualTo(OpeningSchedule.Status.OPEN);
+      assertThat(schedule.nextPoll("a", noon)).isEqualTo(Duration.ofMinutes(10));
+      assertThat(schedule.nextPoll("unknown", noon)).isEqualTo(Duration.ofMinutes(10));
+      assertThat(schedule.getAvoidedPolls()).isEqualTo(0);
+   }
+
+   @Test
+   public void pausesClosedStationsUntilOpening()
+   {
+      assertThat(schedule.nextPoll("a", THURSDAY_NIGHT)).isEqualTo(Duration.ofHours(7));
+      assertThat(schedule.getAvoidedPolls()).isEqualTo(41);
+
+      // Closed over the weekend until Monday, 06:00
+      final Instant fridayNight = Instant.parse("2017-06-02T20:30:00Z");
+      assertThat(schedule.nextPoll("a", fridayNight)).isEqualTo(Duration.ofHours(55).plusMinutes(30));
+      assertThat(schedule.getAvoidedPolls()).isEqualTo(41 + 332);
+      assertThat(schedule.getAvoidedCalls()).isEqualTo(37);
+   }
+
+   @Test
+   public void pausesAcrossDaylightSavingTimeChanges()
+   {
+      // Saturday, 23:00 until Monday, 06:00 in Berlin, the clocks are changed on Sunday
+      assertThat(schedule.nextPoll("a", Instant.parse("2017-03-25T22:00:00Z"))).isEqualTo(Duration.ofHours(30));
+      assertThat(schedule.nextPoll("a", Instant.parse("2017-10-28T21:00:00Z"))).isEqualTo(Duration.ofHours(32));
+   }
+
+   @Test
+   public void pausesStationsWithOverrideOnlyUntilOverrideEnds()
+   {
+      // Closed on Friday from 01:00 to 07:00 without regular opening times
+      schedule.register(station("b", "", "\"02.06.2017, 01:00:00 - 02.06.2017, 07:00:00: geschlossen\""));
+      final Instant closing = Instant.parse("2017-06-01T23:00:00Z");
+      assertThat(schedule.predict("b", closing)).isEqualTo(OpeningSchedule.Status.CLOSED);
+      assertThat(schedule.nextPoll("b", closing)).isEqualTo(Duration.ofHours(6));
+      assertThat(schedule.nextPoll("b", closing.plus(Duration.ofHours(6)))).isEqualTo(Duration.ofMinutes(10));
+   }
+
+   @Test
+   public void backsOffStationsObservedClosed()
+   {
+      final Instant noon = Instant.parse("2017-06-01T10:00:00Z");
+      schedule.observe("a", prices("closed"), noon);
+      schedule.observe("b", prices("closed"), noon);
+      assertThat(schedule.nextPoll("a", noon)).isEqualTo(Duration.ofMinutes(30));
+      assertThat(schedule.nextPoll("b", noon)).isEqualTo(Duration.ofMinutes(30));
+      assertThat(schedule.getAvoidedPolls()).isEqualTo(4);
+
+      schedule.observe("b", prices("open"), noon);
+      assertThat(schedule.nextPoll("b", noon)).isEqualTo(Duration.ofMinutes(10));
+
+      schedule.remove("a");
+      assertThat(schedule.predict("a", noon)).isEqualTo(OpeningSchedule.Status.UNKNOWN);
+      assertThat(schedule.nextPoll("a", noon)).isEqualTo(Duration.ofMinutes(10));
+   }
+
+   @Test
+   public void pollerSkipsClosedStations()
+   {
+      final MutableClock clock = new MutableClock(THURSDAY_NIGHT.minus(Duration.ofHours(1)));
+      final List<Instant> polls = new ArrayList<>();
+      final PricePoller poller = new PricePoller(stationIds ->
+      {
+         polls.add(clock.instant());
+         return GsonMapper.getInstance().fromJson("{\"ok\":true,\"prices\":{\"a\":{\"status\":\"open\",\"e5\":1.5}}}", PricesResult.class);
+      }, Runnable::run, schedule, Duration.ofMinutes(1), 0, new Random(42), clock);
+      poller.add("a");
+
+      for (int i = 0; i < 12 * 60; i++)
+      {
+         clock.advance(Duration.ofMinutes(1));
+         poller.tick();
+      }
+
+      // Added at 22:00 when the station closes, so only the randomly offset first poll happens
+      // during the night, after which the station is polled every 10 minutes from 06:00
+      final Instant opening = Instant.parse("2017-06-02T04:00:00Z");
+      assertThat(polls).filteredOn(poll -> poll.isBefore(opening)).hasSize(1);
+      assertThat(polls).filteredOn(poll -> !poll.isBefore(opening)).hasSize(25).startsWith(opening);
+      assertThat(schedule.getAvoidedPolls()).isGreaterThan(0);
+   }
+
+   private static Station station(final String id)
+   {
+      return station(id, "{\"text\":\"Mo-Fr\",\"start\":\"06:00:00\",\"end\":\"22:00:00\"}", "");
+   }
+
+   private static Station station(final String id, final String openingTimes, final String overrides)
+   {
+      final String json = String.format(Locale.ROOT, "{\"ok\":true,\"status\":\"ok\",\"station\":{\"id\":\"%s\",\"name\":\"Station\","
+            + "\"brand\":\"JET\",\"street\":\"Street\",\"houseNumber\":\"1\",\"postCode\":10365,\"place\":\"Berlin\","
+            + "\"openingTimes\":[%s],\"overrides\":[%s],"
+            + "\"wholeDay\":false,\"isOpen\":true,\"e5\":1.5,\"e10\":1.4,\"diesel\":1.2,\"lat\":52.52,\"lng\":13.4,\"state\":null}}",
+            id, openingTimes, overrides);
+      return GsonMapper.getInstance().fromJson(json, StationDetailResult.class).getStation();
+   }
+
+   private static GasPrices prices(final String status)
+   {
+      final String json = "{\"ok\":true,\"prices\":{\"x\":{\"status\":\"" + status + "\",\"e5\":1.5}}}";
+      return GsonMapper.getInstance().fromJson(json, PricesResult.class).getGasPrice("x").get();
+   }
+}
@@ -0,0 +1,173 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.requests.PricesResult;
+
+public class PriceChangeDetectorTest
+{
+   private PriceChangeStream stream;
+   private PriceChangeStream.Subscription subscription;
+   private PriceChangeDetector detector;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      stream = new PriceChangeStream(64);
+      subscription = stream.subscribe();
+      detector = new PriceChangeDetector(stream);
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(PriceChangeDetector.class).isFinal();
+      assertThat(PriceChange.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> new PriceChangeDetector(null)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void emitsFirstObservation()
+   {
+      detector.onPrices("a", prices("open", 1.5f, 1.4f, null));
+
+      final PriceChange change = subscription.poll();
+      assertThat(change.getStationId()).isEqualTo("a");
+      assertThat(change.isFirstObservation()).isTrue();
+      assertThat(change.getPreviousPrice(GasPrices.GasType.E5)).isNotPresent();
+      assertThat(change.getPrice(GasPrices.GasType.E5)).hasValue(1.5f);
+      assertThat(change.getPrice(GasPrices.GasType.DIESEL)).isNotPresent();
+      assertThat(change.isPriceChanged(GasPrices.GasType.DIESEL)).isTrue();
+      assertThat(change.getStatus()).hasValue(GasPrices.Status.OPEN);
+      assertThat(change.getPreviousStatus()).isNotPresent();
+      assertThat(change.isStatusChanged()).isTrue();
+      assertThat(subscription.poll()).isNull();
+      assertThat(detector.size()).isEqualTo(1);
+   }
+
+   @Test
+   public void emitsOnlyChanges()
+   {
+      detector.onPrices("a", prices("open", 1.5f, 1.4f, 1.2f));
+      detector.onPrices("a", prices("open", 1.5f, 1.4f, 1.2f));
+      detector.onPrices("a", prices("open", 1.5f, 1.35f, 1.2f));
+      detector.onPrices("a", prices("closed", 1.5f, 1.35f, 1.2f));
+      detector.onPrices("a", prices("closed", 1.5f, 1.35f, 1.2f));
+
+      final List<PriceChange> changes = new ArrayList<>();
+      assertThat(subscription.drain(changes::add)).isEqualTo(3);
+      assertThat(detector.getObservations()).isEqualTo(5);
+
+      final PriceChange priceChange = changes.get(1);
+      assertThat(priceChange.isFirstObservation()).isFalse();
+      assertThat(priceChange.isPriceChanged(GasPrices.GasType.E10)).isTrue();
+      assertThat(priceChange.isPriceChanged(GasPrices.GasType.E5)).isFalse();
+      assertThat(priceChange.getPreviousPrice(GasPrices.GasType.E10)).hasValue(1.4f);
+      assertThat(priceChange.getPrice(GasPrices.GasType.E10)).hasValue(1.35f);
+      assertThat(priceChange.isStatusChanged()).isFalse();
+      assertThat(priceChange.toString()).isEqualTo("PriceChange{stationId='a', E10=1.4->1.35}");
+
+      final PriceChange statusChange = changes.get(2);
+      assertThat(statusChange.isStatusChanged()).isTrue();
+      assertThat(statusChange.getPreviousStatus()).hasValue(GasPrices.Status.OPEN);
+      assertThat(statusChange.getStatus()).hasValue(GasPrices.Status.CLOSED);
+      assertThat(statusChange.isPriceChanged(GasPrices.GasType.E10)).isFalse();
+      assertThat(statusChange.toString()).isEqualTo("PriceChange{stationId='a', status=OPEN->CLOSED}");
+   }
+
+   @Test
+   public void detectsPricesBecomingUnavailable()
+   {
+      detector.onPrices("a", prices("open", 1.5f, 1.4f, 1.2f));
+      detector.onPrices("a", prices("open", 1.5f, 1.4f, null));
+
+      subscription.poll();
+      final PriceChange change = subscription.poll();
+      assertThat(change.isPriceChanged(GasPrices.GasType.DIESEL)).isTrue();
+      assertThat(change.getPreviousPrice(GasPrices.GasType.DIESEL)).hasValue(1.2f);
+      assertThat(change.getPrice(GasPrices.GasType.DIESEL)).isNotPresent();
+   }
+
+   @Test
+   public void tracksManyStations()
+   {
+      for (int round = 0; round < 2; round++)
+      {
+         for (int i = 0; i < 100; i++)
+         {
+            detector.onPrices("s" + i, prices("open", 1.5f, 1.4f, i % 2 == 0 ? 1.2f + round * 0.01f : 1.2f));
+         }
+      }
+
+      assertThat(detector.size()).isEqualTo(100);
+      assertThat(stream.getPublished()).isEqualTo(150);
+   }
+
+   @Test
+   public void worksAsPollerListener()
+   {
+      final PricePoller poller = new PricePoller(stationIds -> pricesResult("s0"), Runnable::run, Duration.ofSeconds(1),
+            Duration.ofSeconds(1), 0, new Random(42));
+      poller.addListener(detector);
+      poller.add("s0");
+      poller.tick();
+      poller.tick();
+
+      assertThat(stream.getPublished()).isEqualTo(1);
+      assertThat(subscription.poll().getStationId()).isEqualTo("s0");
+   }
+
+   private static GasPrices prices(final String status, final Float e5, final Float e10, final Float diesel)
+   {
+      final String json = String.format(Locale.ROOT, "{\"ok\":true,\"prices\":{\"x\":{\"status\":\"%s\",\"e5\":%s,\"e10\":%s,\"diesel\":%s}}}",
+            status, e5, e10, diesel);
+      return GsonMapper.getInstance().fromJson(json, PricesResult.class).getGasPrice("x").get();
+   }
+
+   private static PricesResult pricesResult(final String id)
+   {
+      return GsonMapper.getInstance().fromJson("{\"ok\":true,\"prices\":{\"" + id + "\":{\"status\":\"open\",\"e5\":1.5}}}",
+            PricesResult.class);
+   }
+}
@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class PriceChangeStreamTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(PriceChangeStream.class).isFinal();
+      assertThat(PriceChangeStream.Subscription.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> new PriceChangeStream(0)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new PriceChangeStream(8).publish(null)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void roundsCapacityToPowerOfTwo()
+   {
+      assertThat(new PriceChangeStream(5).getCapacity()).isEqualTo(8);
+      assertThat(new PriceChangeStream(8).getCapacity()).isEqualTo(8);
+   }
+
+   @Test
+   public void deliversToEverySubscription()
+   {
+      final PriceChangeStream stream = new PriceChangeStream(8);
+      final PriceChangeStream.Subscription first = stream.subscribe();
+      stream.publish(change("a"));
+      final PriceChangeStream.Subscription second = stream.subscribe();
+      stream.publish(change("b"));
+
+      assertThat(ids(first)).containsExactly("a", "b");
+      assertThat(ids(second)).containsExactly("b");
+      assertThat(first.poll()).isNull();
+
+      stream.publish(change("c"));
+      assertThat(ids(first)).containsExactly("c");
+      assertThat(ids(second)).containsExactly("c");
+      assertThat(stream.getPublished()).isEqualTo(3);
+   }
+
+   @Test
+   public void skipsOverwrittenChanges()
+   {
+      final PriceChangeStream stream = new PriceChangeStream(4);
+      final PriceChangeStream.Subscription subscription = stream.subscribe();
+      for (int i = 0; i < 10; i++)
+      {
+         stream.publish(change("s" + i));
+      }
+
+      assertThat(ids(subscription)).containsExactly("s7", "s8", "s9");
+      assertThat(subscription.getLost()).isEqualTo(7);
+   }
+
+   @Test
+   public void deliversConcurrently() throws InterruptedException
+   {
+      final PriceChangeStream stream = new PriceChangeStream(1 << 16);
+      final int count = 50_000;
+      final List<Thread> readers = new ArrayList<>();
+      final List<AtomicReference<List<String>>> received = new ArrayList<>();
+      final CountDownLatch subscribed = new CountDownLatch(3);
+      for (int i = 0; i < 3; i++)
+      {
+         final AtomicReference<List<String>> ids = new AtomicReference<>();
+         received.add(ids);
+         readers.add(new Thread(() ->
+         {
+            final PriceChangeStream.Subscription subscription = stream.subscribe();
+            subscribed.countDown();
+            final List<String> read = new ArrayList<>();
+            while (read.size() < count)
+            {
+               subscription.drain(change -> read.add(change.getStationId()));
+            }
+            ids.set(read);
+         }));
+      }
+      readers.forEach(Thread::start);
+      subscribed.await();
+
+      for (int i = 0; i < count; i++)
+      {
+         stream.publish(change(Integer.toString(i)));
+      }
+      for (final Thread reader : readers)
+      {
+         reader.join(10_000);
+      }
+
+      for (final AtomicReference<List<String>> ids : received)
+      {
+         assertThat(ids.get()).hasSize(count);
+         assertThat(ids.get().get(count - 1)).isEqualTo(Integer.toString(count - 1));
+      }
+   }
+
+   private static PriceChange change(final String stationId)
+   {
+      return new PriceChange(stationId, null, new float[]{Float.NaN, Float.NaN, Float.NaN}, null, null);
+   }
+
+   private static List<String> ids(final PriceChangeStream.Subscription subscription)
+   {
+      final List<String> ids = new ArrayList<>();
+      subscription.drain(change -> ids.add(change.getStationId()));
+      return ids;
+   }
+}
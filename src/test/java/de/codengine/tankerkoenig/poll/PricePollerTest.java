@@ -0,0 +1,332 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.requests.PricesResult;
+import de.codengine.tankerkoenig.utils.MutableClock;
+import de.codengine.tankerkoenig.utils.ResourceLoader;
+
+public class PricePollerTest
+{
+   private List<Collection<String>> calls;
+   private PricePoller.Upstream upstream;
+   private PricePoller poller;
+   private Map<String, GasPrices> delivered;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      calls = new ArrayList<>();
+      upstream = stationIds ->
+      {
+         calls.add(stationIds);
+         return prices(stationIds);
+      };
+      poller = new PricePoller(upstream, Runnable::run, Duration.ofSeconds(60), Duration.ofSeconds(1), 0.1, new Random(42));
+      delivered = new HashMap<>();
+      poller.addListener(delivered::put);
+   }
+
+   @After
+   public void tearDown() throws Exception
+   {
+      calls = null;
+      upstream = null;
+      poller = null;
+      delivered = null;
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(PricePoller.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      final Random random = new Random();
+      final Duration second = Duration.ofSeconds(1);
+      assertThatThrownBy(() -> new PricePoller(null, Duration.ofMinutes(1))).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new PricePoller(upstream, null, second, second, 0, random)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new PricePoller(upstream, Runnable::run, second, Duration.ZERO, 0, random))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new PricePoller(upstream, Runnable::run, second, Duration.ofSeconds(2), 0, random))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new PricePoller(upstream, Runnable::run, second, second, 0.6, random))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new PricePoller(upstream, Runnable::run, second, second, 0, null))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new PricePoller(upstream, Runnable::run, null, second, 0, random, Clock.systemUTC()))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> PollingSchedule.fixed(Duration.ZERO)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> poller.add(null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> poller.addListener(null)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void maintainsWatchlist()
+   {
+      assertThat(poller.add("a")).isTrue();
+      assertThat(poller.add("a")).isFalse();
+      poller.addAll(ids(3));
+      assertThat(poller.size()).isEqualTo(4);
+      assertThat(poller.contains("s1")).isTrue();
+
+      assertThat(poller.remove("s1")).isTrue();
+      assertThat(poller.remove("s1")).isFalse();
+      assertThat(poller.contains("s1")).isFalse();
+      assertThat(poller.size()).isEqualTo(3);
+   }
+
+   @Test
+   public void pollsEveryStationOncePerInterval()
+   {
+      poller.addAll(ids(25));
+      tick(60);
+
+      // Stations polled early in the first interval might be polled again due to the jitter
+      assertThat(delivered).hasSize(25);
+      assertThat(calls.stream().mapToInt(Collection::size).sum()).isBetween(25, 30);
+      assertThat(calls).allMatch(call -> call.size() <= 10);
+      assertThat(poller.getCalls()).isEqualTo(calls.size());
+      assertThat(delivered.get("s3").getPrice(GasPrices.GasType.E5)).hasValue(1.5f);
+
+      // The second interval is shifted by the jitter of at most 6 ticks
+      calls.clear();
+      tick(66);
+      assertThat(calls.stream().flatMap(Collection::stream).distinct().count()).isEqualTo(25);
+   }
+
+   @Test
+   public void spreadsCallsOverInterval()
+   {
+      poller.addAll(ids(600));
+
+      final List<Integer> callsPerTick = new ArrayList<>();
+      for (int i = 0; i < 60; i++)
+      {
+         callsPerTick.add(poller.tick());
+      }
+
+      assertThat(callsPerTick.stream().mapToInt(Integer::intValue).max().getAsInt()).isLessThanOrEqualTo(3);
+      assertThat(callsPerTick.stream().filter(count -> count == 0).count()).isLessThan(10);
+      assertThat(calls.stream().flatMap(Collection::stream).distinct().count()).isEqualTo(600);
+      assertThat(calls.size()).isBetween(60, 66);
+   }
+
+   @Test
+   public void fillsCallsOfSparseWatchlist()
+   {
+      for (final int stations : new int[] { 3, 25, 43 })
+      {
+         calls.clear();
+         poller = new PricePoller(upstream, Runnable::run, Duration.ofSeconds(60), Duration.ofSeconds(1), 0.1, new Random(42));
+         poller.addAll(ids(stations));
+         tick(300);
+
+         // About one call per 10 stations and interval, instead of a call for the stations due at every tick
+         calls.clear();
+         tick(600);
+         final int callsPerInterval = (stations + 9) / 10;
+         assertThat(calls.size()).isLessThanOrEqualTo(10 * callsPerInterval + 3);
+         assertThat(calls.stream().mapToInt(Collection::size).sum()).isBetween(9 * stations, 11 * stations);
+      }
+   }
+
+   @Test
+   public void packsDueStationsIntoCallsOfTen()
+   {
+      poller = new PricePoller(upstream, Runnable::run, Duration.ofSeconds(1), Duration.ofSeconds(1), 0, new Random(42));
+      poller.addAll(ids(25));
+
+      assertThat(poller.tick()).isEqualTo(3);
+      assertThat(calls).extracting(Collection::size).containsExactly(10, 10, 5);
+   }
+
+   @Test
+   public void removedStationsAreNotDeliveredDuringCall()
+   {
+      final List<String> observed = new ArrayList<>();
+      final PollingSchedule schedule = new PollingSchedule()
+      {
+         @Override
+         public Duration nextPoll(final String stationId, final Instant now)
+         {
+            return Duration.ofSeconds(1);
+         }
+
+         @Override
+         public void observe(final String stationId, final GasPrices gasPrices, final Instant now)
+         {
+            observed.add(stationId);
+         }
+      };
+      poller = new PricePoller(stationIds ->
+      {
+         poller.remove("s1");
+         return prices(stationIds);
+      }, Runnable::run, schedule, Duration.ofSeconds(1), 0, new Random(42), Clock.systemUTC());
+      poller.addListener(delivered::put);
+      poller.addAll(ids(3));
+      poller.tick();
+
+      assertThat(observed).containsOnly("s0", "s2");
+      assertThat(delivered).containsOnlyKeys("s0", "s2");
+   }
+
+   @Test
+   public void removedStationsAreNotPolled()
+   {
+      poller.addAll(ids(5));
+      poller.remove("s2");
+      tick(120);
+
+      assertThat(delivered).doesNotContainKey("s2").hasSize(4);
+   }
+
+   @Test
+   public void countsFailedCalls() throws IOException
+   {
+      final PricesResult failed = GsonMapper.getInstance().fromJson(ResourceLoader.readString("fail_response.json"), PricesResult.class);
+      poller = new PricePoller(stationIds ->
+      {
+         if (stationIds.contains("s0"))
+         {
+            throw new RequesterException("Failed", new IllegalStateException());
+         }
+         return failed;
+      }, Runnable::run, Duration.ofSeconds(1), Duration.ofSeconds(1), 0, new Random(42));
+      poller.addListener(delivered::put);
+      poller.addAll(ids(15));
+
+      poller.tick();
+      assertThat(poller.getCalls()).isEqualTo(2);
+      assertThat(poller.getFailedCalls()).isEqualTo(2);
+      assertThat(delivered).isEmpty();
+      assertThat(poller.size()).isEqualTo(15);
+   }
+
+   @Test
+   public void pollsAsScheduled()
+   {
+      final MutableClock clock = new MutableClock(Instant.parse("2017-06-01T10:00:00Z"));
+      final List<String> observed = new ArrayList<>();
+      final PollingSchedule schedule = new PollingSchedule()
+      {
+         @Override
+         public Duration nextPoll(final String stationId, final Instant now)
+         {
+            return stationId.equals("fast") ? Duration.ofSeconds(2) : Duration.ofSeconds(10);
+         }
+
+         @Override
+         public void observe(final String stationId, final GasPrices gasPrices, final Instant now)
+         {
+            assertThat(now).isEqualTo(clock.instant());
+            observed.add(stationId);
+         }
+      };
+      poller = new PricePoller(upstream, Runnable::run, schedule, Duration.ofSeconds(1), 0, new Random(42), clock);
+      poller.add("fast");
+      poller.add("slow");
+      tick(20);
+
+      assertThat(observed.stream().filter("fast"::equals).count()).isEqualTo(10);
+      assertThat(observed.stream().filter("slow"::equals).count()).isEqualTo(2);
+      assertThat(calls.stream().flatMap(Collection::stream).count()).isEqualTo(12);
+   }
+
+   @Test
+   public void startsOnScheduler() throws InterruptedException
+   {
+      final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+      try
+      {
+         poller = new PricePoller(upstream, Runnable::run, Duration.ofMillis(20), Duration.ofMillis(10), 0, new Random(42));
+         poller.add("s0");
+         final ScheduledFuture<?> future = poller.start(scheduler);
+         while (poller.getCalls() == 0)
+         {
+            Thread.sleep(5);
+         }
+         future.cancel(false);
+      }
+      finally
+      {
+         scheduler.shutdown();
+         scheduler.awaitTermination(1, TimeUnit.SECONDS);
+      }
+   }
+
+   private void tick(final int ticks)
+   {
+      for (int i = 0; i < ticks; i++)
+      {
+         poller.tick();
+      }
+   }
+
+   private static List<String> ids(final int count)
+   {
+      return IntStream.range(0, count).mapToObj(i -> "s" + i).collect(Collectors.toList());
+   }
+
+   private static PricesResult prices(final Collection<String> stationIds)
+   {
+      final String prices = stationIds.stream()
+            .map(id -> String.format(Locale.ROOT, "\"%s\":{\"status\":\"open\",\"e5\":1.5,\"e10\":1.4,\"diesel\":1.2}", id))
+            .collect(Collectors.joining(","));
+      return GsonMapper.getInstance().fromJson("{\"ok\":true,\"prices\":{" + prices + "}}", PricesResult.class);
+   }
+}
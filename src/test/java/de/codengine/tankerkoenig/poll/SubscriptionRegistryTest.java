@@ -0,0 +1,217 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.requests.PricesResult;
+
+public class SubscriptionRegistryTest
+{
+   private List<List<String>> calls;
+   private List<String> notifications;
+   private PricePoller.Upstream upstream;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      calls = new ArrayList<>();
+      notifications = new ArrayList<>();
+      upstream = stationIds ->
+      {
+         calls.add(new ArrayList<>(stationIds));
+         return prices(stationIds);
+      };
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(SubscriptionRegistry.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      final SubscriptionRegistry registry = new SubscriptionRegistry();
+      assertThatThrownBy(() -> SubscriptionRegistry.forPoller(null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> registry.subscribe(null, "a")).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> registry.subscribe("alice", "")).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> registry.addListener(null)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void maintainsInvertedIndex()
+   {
+      final SubscriptionRegistry registry = new SubscriptionRegistry();
+      assertThat(registry.subscribe("alice", "a")).isTrue();
+      assertThat(registry.subscribe("alice", "a")).isFalse();
+      registry.subscribeAll("alice", Arrays.asList("b", "c"));
+      registry.subscribeAll("bob", Arrays.asList("c", "a"));
+
+      assertThat(registry.getSubscriptions("alice")).containsExactly("a", "b", "c");
+      assertThat(registry.getSubscriptions("carol")).isEmpty();
+      assertThat(registry.getSubscribers("a")).containsExactly("alice", "bob");
+      assertThat(registry.getSubscribers("b")).containsExactly("alice");
+      assertThat(registry.getUserCount()).isEqualTo(2);
+      assertThat(registry.getStationCount()).isEqualTo(3);
+      assertThat(registry.getSubscriptionCount()).isEqualTo(5);
+
+      assertThat(registry.unsubscribe("alice", "a")).isTrue();
+      assertThat(registry.unsubscribe("alice", "a")).isFalse();
+      assertThat(registry.getSubscribers("a")).containsExactly("bob");
+
+      assertThat(registry.unsubscribeAll("bob")).isEqualTo(2);
+      assertThat(registry.unsubscribeAll("bob")).isEqualTo(0);
+      assertThat(registry.getSubscribers("a")).isEmpty();
+      assertThat(registry.getUserCount()).isEqualTo(1);
+      assertThat(registry.getStationCount()).isEqualTo(2);
+      assertThat(registry.getSubscriptionCount()).isEqualTo(2);
+   }
+
+   @Test
+   public void batchesDeduplicatedStations()
+   {
+      final SubscriptionRegistry registry = new SubscriptionRegistry();
+      for (int user = 0; user < 5; user++)
+      {
+         registry.subscribeAll("user" + user, ids(0, 12));
+      }
+      registry.subscribeAll("user5", ids(10, 15));
+
+      assertThat(registry.getCallsPerRefreshWithoutDeduplication()).isEqualTo(5 * 2 + 1);
+      assertThat(registry.getCallsPerRefresh()).isEqualTo(2);
+      assertThat(registry.batches()).containsExactly(ids(0, 10), ids(10, 15));
+   }
+
+   @Test
+   public void fansOutRefreshToSubscribers() throws RequesterException
+   {
+      final SubscriptionRegistry registry = new SubscriptionRegistry();
+      registry.addListener((userId, stationId, gasPrices) -> notifications.add(userId + ":" + stationId + ":" + gasPrices.getStatus()));
+      registry.subscribeAll("alice", Arrays.asList("a", "b"));
+      registry.subscribeAll("bob", Arrays.asList("b", "missing"));
+
+      assertThat(registry.refresh(upstream)).isEqualTo(1);
+      assertThat(calls).containsExactly(Arrays.asList("a", "b", "missing"));
+      assertThat(notifications).containsExactly("alice:a:OPEN", "alice:b:OPEN", "bob:b:OPEN", "bob:missing:NOT_FOUND");
+   }
+
+   @Test
+   public void propagatesFailedRefresh()
+   {
+      final SubscriptionRegistry registry = new SubscriptionRegistry();
+      registry.subscribe("alice", "a");
+      assertThatThrownBy(() -> registry.refresh(stationIds ->
+      {
+         throw new RequesterException("Failed", null);
+      })).isExactlyInstanceOf(RequesterException.class);
+   }
+
+   @Test
+   public void drivesPollerWatchlist()
+   {
+      final PricePoller poller = new PricePoller(upstream, Runnable::run, Duration.ofMinutes(1), Duration.ofMinutes(1), 0, new Random(42));
+      final SubscriptionRegistry registry = SubscriptionRegistry.forPoller(poller);
+      final SubscriptionRegistry.SubscriberListener listener = (userId, stationId, gasPrices) -> notifications.add(userId + ":" + stationId);
+      registry.addListener(listener);
+
+      registry.subscribeAll("alice", Arrays.asList("a", "b"));
+      registry.subscribe("bob", "b");
+      assertThat(poller.size()).isEqualTo(2);
+
+      poller.tick();
+      assertThat(calls).hasSize(1);
+      assertThat(calls.get(0)).containsExactlyInAnyOrder("a", "b");
+      assertThat(notifications).containsExactlyInAnyOrder("alice:a", "alice:b", "bob:b");
+
+      registry.unsubscribe("alice", "b");
+      assertThat(poller.contains("b")).isTrue();
+      registry.unsubscribeAll("bob");
+      assertThat(poller.contains("b")).isFalse();
+      assertThat(poller.contains("a")).isTrue();
+
+      registry.removeListener(listener);
+      notifications.clear();
+      poller.tick();
+      assertThat(notifications).isEmpty();
+   }
+
+   @Test
+   public void pollerBatchesDeduplicatedStations()
+   {
+      final PricePoller poller = new PricePoller(upstream, Runnable::run, Duration.ofSeconds(60), Duration.ofSeconds(1), 0.1, new Random(42));
+      final SubscriptionRegistry registry = SubscriptionRegistry.forPoller(poller);
+      registry.subscribeAll("alice", ids(0, 15));
+      registry.subscribeAll("bob", ids(5, 20));
+      registry.subscribeAll("carol", ids(10, 25));
+      assertThat(poller.size()).isEqualTo(25);
+      for (int i = 0; i < 300; i++)
+      {
+         poller.tick();
+      }
+
+      // About 3 calls per interval for the 25 distinct stations, instead of 5 for the 45 subscriptions
+      calls.clear();
+      for (int i = 0; i < 600; i++)
+      {
+         poller.tick();
+      }
+      assertThat(calls.size()).isLessThanOrEqualTo(10 * registry.getCallsPerRefresh() + 3);
+      assertThat(calls).allMatch(call -> call.size() == call.stream().distinct().count());
+   }
+
+   private static List<String> ids(final int from, final int to)
+   {
+      final List<String> ids = new ArrayList<>();
+      for (int i = from; i < to; i++)
+      {
+         ids.add(String.format("%02d", i));
+      }
+      return ids;
+   }
+
+   private static PricesResult prices(final Collection<String> stationIds)
+   {
+      final String prices = stationIds.stream()
+            .map(id -> "\"" + id + "\":" + (id.equals("missing") ? "{\"status\":\"not found\"}" : "{\"status\":\"open\",\"e5\":1.5}"))
+            .collect(Collectors.joining(","));
+      return GsonMapper.getInstance().fromJson("{\"ok\":true,\"prices\":{" + prices + "}}", PricesResult.class);
+   }
+}
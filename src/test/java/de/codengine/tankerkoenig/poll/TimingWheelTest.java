@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.poll;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TimingWheelTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(TimingWheel.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> new TimingWheel<String>(0)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new TimingWheel<String>(8).schedule("a", 0)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void roundsSlotCountToPowerOfTwo()
+   {
+      assertThat(new TimingWheel<String>(1).getSlotCount()).isEqualTo(1);
+      assertThat(new TimingWheel<String>(8).getSlotCount()).isEqualTo(8);
+      assertThat(new TimingWheel<String>(9).getSlotCount()).isEqualTo(16);
+   }
+
+   @Test
+   public void returnsItemsWhenDue()
+   {
+      final TimingWheel<String> wheel = new TimingWheel<>(4);
+      wheel.schedule("a", 1);
+      wheel.schedule("b", 3);
+      wheel.schedule("c", 4);
+      wheel.schedule("d", 5);
+      wheel.schedule("e", 13);
+      assertThat(wheel.size()).isEqualTo(5);
+
+      final List<List<String>> ticks = new ArrayList<>();
+      for (int i = 0; i < 13; i++)
+      {
+         ticks.add(wheel.tick());
+      }
+
+      assertThat(ticks.get(0)).containsExactly("a");
+      assertThat(ticks.get(2)).containsExactly("b");
+      assertThat(ticks.get(3)).containsExactly("c");
+      assertThat(ticks.get(4)).containsExactly("d");
+      assertThat(ticks.get(12)).containsExactly("e");
+      assertThat(ticks.stream().mapToInt(List::size).sum()).isEqualTo(5);
+      assertThat(wheel.size()).isEqualTo(0);
+      assertThat(wheel.getTick()).isEqualTo(13);
+   }
+
+   @Test
+   public void schedulesRelativeToCurrentTick()
+   {
+      final TimingWheel<String> wheel = new TimingWheel<>(4);
+      wheel.tick();
+      wheel.tick();
+      wheel.schedule("a", 4);
+
+      assertThat(wheel.tick()).isEmpty();
+      assertThat(wheel.tick()).isEmpty();
+      assertThat(wheel.tick()).isEmpty();
+      assertThat(wheel.tick()).containsExactly("a");
+   }
+
+   @Test
+   public void cancelsItems()
+   {
+      final TimingWheel<String> wheel = new TimingWheel<>(4);
+      final TimingWheel.Timeout a = wheel.schedule("a", 1);
+      final TimingWheel.Timeout b = wheel.schedule("b", 1);
+      final TimingWheel.Timeout c = wheel.schedule("c", 1);
+
+      assertThat(b.cancel()).isTrue();
+      assertThat(b.cancel()).isFalse();
+      assertThat(wheel.size()).isEqualTo(2);
+      assertThat(wheel.tick()).containsExactlyInAnyOrder("a", "c");
+
+      assertThat(a.cancel()).isFalse();
+      assertThat(c.cancel()).isFalse();
+      assertThat(wheel.size()).isEqualTo(0);
+   }
+
+   @Test
+   public void removesItemsDueNext()
+   {
+      final TimingWheel<String> wheel = new TimingWheel<>(4);
+      wheel.tick();
+      final TimingWheel.Timeout a = wheel.schedule("a", 1);
+      wheel.schedule("b", 2);
+      wheel.schedule("c", 3);
+      wheel.schedule("d", 6);
+
+      assertThat(wheel.removeNext(2, 10)).containsExactly("a", "b");
+      assertThat(a.cancel()).isFalse();
+      // Items beyond the ticks or one revolution are kept
+      assertThat(wheel.removeNext(10, 2)).isEmpty();
+      assertThat(wheel.removeNext(10, 10)).containsExactly("c");
+      assertThat(wheel.size()).isEqualTo(1);
+
+      for (int i = 0; i < 5; i++)
+      {
+         assertThat(wheel.tick()).isEmpty();
+      }
+      assertThat(wheel.tick()).containsExactly("d");
+   }
+
+   @Test
+   public void handlesManyItems()
+   {
+      final TimingWheel<Integer> wheel = new TimingWheel<>(64);
+      for (int i = 0; i < 100_000; i++)
+      {
+         wheel.schedule(i, 1 + i % 600);
+      }
+
+      int due = 0;
+      for (int i = 0; i < 600; i++)
+      {
+         final List<Integer> items = wheel.tick();
+         assertThat(items).hasSize(100_000 / 600 + (i < 100_000 % 600 ? 1 : 0));
+         due += items.size();
+      }
+      assertThat(due).isEqualTo(100_000);
+   }
+}
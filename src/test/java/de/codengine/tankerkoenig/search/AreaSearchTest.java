@@ -0,0 +1,214 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.geo.GeoPoint;
+import de.codengine.tankerkoenig.geo.GeoPolygon;
+import de.codengine.tankerkoenig.geo.GeoPolyline;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListRequest;
+import de.codengine.tankerkoenig.models.requests.StationListResolver;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+import de.codengine.tankerkoenig.utils.ResourceLoader;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class AreaSearchTest
+{
+   private StationDensity density;
+   private List<StationListQuery> queries;
+   private StationListResolver.Upstream upstream;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      density = new StationDensity();
+      queries = new ArrayList<>();
+      upstream = query ->
+      {
+         queries.add(query);
+         return StationFixtures.create()
+               .with("inside", 52.52, 13.40, 1.5f, 1.4f, 1.3f)
+               .with("outside", 52.70, 13.40, 1.5f, 1.4f, 1.3f)
+               .toResult();
+      };
+   }
+
+   @After
+   public void tearDown() throws Exception
+   {
+      density = null;
+      queries = null;
+      upstream = null;
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(AreaSearch.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> new AreaSearch(null, density)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new AreaSearch(upstream, null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new AreaSearch(upstream, density, 0)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void searchesPolygon() throws Exception
+   {
+      final GeoPolygon area = GeoPolygon.rectangle(52.45, 13.3, 52.6, 13.5);
+      final AreaSearch search = new AreaSearch(upstream, density);
+
+      final SearchPlan plan = search.plan(area);
+      assertThat(plan.getRadius()).isEqualTo(AreaSearch.MAX_RADIUS);
+      assertThat(plan.getSkippedCircleCount()).isEqualTo(0);
+      assertThat(plan.getCircles()).isNotEmpty();
+      assertThat(plan).hasToString("SearchPlan{circles=" + plan.getCircles().size() + ", skippedCircles=0, radius=25.0}");
+
+      final AreaSearchResult result = search.execute(plan);
+      assertThat(queries).extracting(StationListQuery::getGasRequestType).containsOnly(GasRequestType.ALL);
+      assertThat(queries).hasSize(plan.getCircles().size());
+      assertThat(result.getCalls()).isEqualTo(plan.getCircles().size());
+      assertThat(result.getStations()).extracting(Station::getId).containsExactly("inside");
+      assertThat(result.isComplete()).isTrue();
+      assertThat(density.size()).isGreaterThan(0);
+   }
+
+   @Test
+   public void searchesCorridor() throws Exception
+   {
+      final GeoPolyline route = GeoPolyline.of(GeoPoint.of(52.52, 13.0), GeoPoint.of(52.52, 14.0));
+      final AreaSearchResult result = new AreaSearch(upstream, density).search(route, 5);
+
+      // 68 km route with 5 km buffer
+      assertThat(result.getCalls()).isEqualTo(3);
+      assertThat(result.getStations()).extracting(Station::getId).containsExactly("inside");
+   }
+
+   @Test
+   public void skipsCirclesKnownToBeEmpty() throws Exception
+   {
+      // A dense grid of empty responses over the North Sea
+      for (double lat = 53.5; lat <= 55.5; lat += 0.15)
+      {
+         for (double lng = 4; lng <= 8; lng += 0.25)
+         {
+            density.observe(StationListQuery.of(lat, lng, 25, GasRequestType.ALL, StationListRequest.SortingRequestType.DISTANCE),
+                  StationFixtures.create().toResult());
+         }
+      }
+
+      final AreaSearch search = new AreaSearch(upstream, density);
+      final SearchPlan plan = search.plan(GeoPolygon.rectangle(54.4, 5.9, 54.6, 6.1));
+      assertThat(plan.getCircles()).isEmpty();
+      assertThat(plan.getSkippedCircleCount()).isGreaterThan(0);
+      assertThat(search.execute(plan).getStations()).isEmpty();
+      assertThat(queries).isEmpty();
+
+      // Circles near the coast are still searched
+      assertThat(search.plan(GeoPolygon.rectangle(53.4, 5.9, 53.6, 6.1)).getCircles()).isNotEmpty();
+   }
+
+   @Test
+   public void reducesRadiusInDenseAreas() throws Exception
+   {
+      final StationFixtures stations = StationFixtures.create();
+      for (int i = 0; i < 100; i++)
+      {
+         stations.with("s" + i, 52.51 + i * 0.0005, 13.41, 1.5f, 1.4f, 1.3f);
+      }
+      density.observe(StationListQuery.of(52.5, 13.4, 20, GasRequestType.ALL, StationListRequest.SortingRequestType.DISTANCE),
+            stations.toResult());
+
+      final GeoPolygon area = GeoPolygon.rectangle(52.45, 13.3, 52.6, 13.5);
+      assertThat(new AreaSearch(upstream, density).plan(area).getRadius()).isEqualTo(AreaSearch.MAX_RADIUS);
+
+      // 80 stations within a cell of 19 km² allow about 1.2 km for 20 stations
+      final SearchPlan plan = new AreaSearch(upstream, density, 20).plan(area);
+      assertThat(plan.getRadius()).isBetween(1.1, 1.4);
+      assertThat(plan.getCircles()).allSatisfy(circle -> assertThat(circle.getRadius()).isEqualTo(plan.getRadius()));
+   }
+
+   @Test
+   public void reportsFailedCircles() throws Exception
+   {
+      final StationListResult failed = GsonMapper.getInstance().fromJson(ResourceLoader.readString("fail_response.json"), StationListResult.class);
+      final AreaSearch search = new AreaSearch(query -> failed, density);
+      final SearchPlan plan = search.plan(GeoPolygon.rectangle(52.45, 13.3, 52.6, 13.5));
+
+      final AreaSearchResult result = search.execute(plan);
+      assertThat(result.isComplete()).isFalse();
+      assertThat(result.getFailedCircles()).isEqualTo(plan.getCircles());
+      assertThat(result.getStations()).isEmpty();
+      assertThat(density.size()).isEqualTo(0);
+   }
+
+   @Test
+   public void reportsCirclesOfFailedCalls() throws Exception
+   {
+      final GeoPolygon area = GeoPolygon.rectangle(52.45, 13.3, 52.6, 13.5);
+      final AreaSearch search = new AreaSearch(query ->
+      {
+         if (queries.isEmpty())
+         {
+            queries.add(query);
+            throw new RequesterException("Timeout", null);
+         }
+         return upstream.fetch(query);
+      }, density, 5);
+      final SearchPlan plan = search.plan(area);
+      assertThat(plan.getCircles().size()).isGreaterThan(1);
+
+      final AreaSearchResult result = search.execute(plan);
+      assertThat(queries).hasSize(plan.getCircles().size());
+      assertThat(result.isComplete()).isFalse();
+      assertThat(result.getFailedCircles()).containsExactly(plan.getCircles().get(0));
+      assertThat(result.getStations()).extracting(Station::getId).containsExactly("inside");
+   }
+
+   @Test
+   public void coversArea()
+   {
+      final SearchPlan plan = new AreaSearch(upstream, density).plan(GeoPolygon.rectangle(52.45, 13.3, 52.6, 13.5));
+      assertThat(plan.covers(52.5, 13.4)).isTrue();
+      assertThat(plan.covers(52.7, 13.4)).isFalse();
+   }
+}
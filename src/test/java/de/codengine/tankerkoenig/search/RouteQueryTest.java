@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.geo.GeoPoint;
+import de.codengine.tankerkoenig.geo.GeoPolyline;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+
+public class RouteQueryTest
+{
+   private final GeoPolyline route = GeoPolyline.of(GeoPoint.of(52.5, 13.0), GeoPoint.of(52.5, 14.0));
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(RouteQuery.class).isFinal();
+   }
+
+   @Test
+   public void of()
+   {
+      final RouteQuery query = RouteQuery.of(route, 5, GasPrices.GasType.DIESEL);
+      assertThat(query.getRoute()).isEqualTo(route);
+      assertThat(query.getBuffer()).isEqualTo(5.0);
+      assertThat(query.getGasType()).isEqualTo(GasPrices.GasType.DIESEL);
+      assertThat(query.getDetourPenalty()).isEqualTo(0.0);
+      assertThat(query.isOpenOnly()).isTrue();
+      assertThat(query.getLimit()).isEqualTo(Integer.MAX_VALUE);
+   }
+
+   @Test
+   public void with()
+   {
+      final RouteQuery query = RouteQuery.of(route, 5, GasPrices.GasType.DIESEL)
+            .withDetourPenalty(0.01)
+            .withOpenOnly(false)
+            .withLimit(3);
+      assertThat(query.getDetourPenalty()).isEqualTo(0.01);
+      assertThat(query.isOpenOnly()).isFalse();
+      assertThat(query.getLimit()).isEqualTo(3);
+      assertThat(query.getBuffer()).isEqualTo(5.0);
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> RouteQuery.of(null, 5, GasPrices.GasType.E5)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> RouteQuery.of(route, 5, null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> RouteQuery.of(route, -1, GasPrices.GasType.E5)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> RouteQuery.of(route, 26, GasPrices.GasType.E5)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> RouteQuery.of(route, 5, GasPrices.GasType.E5).withDetourPenalty(-1))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> RouteQuery.of(route, 5, GasPrices.GasType.E5).withLimit(0)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+}
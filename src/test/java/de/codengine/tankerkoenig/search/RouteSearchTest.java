@@ -0,0 +1,195 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.exception.RequesterException;
+import de.codengine.tankerkoenig.geo.GeoPoint;
+import de.codengine.tankerkoenig.geo.GeoPolyline;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListResolver;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class RouteSearchTest
+{
+   // 68 km west to east through Berlin
+   private final GeoPolyline route = GeoPolyline.of(GeoPoint.of(52.5, 13.0), GeoPoint.of(52.5, 14.0));
+
+   private ExecutorService executor;
+   private List<StationListQuery> queries;
+   private StationListResolver.Upstream upstream;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      executor = Executors.newFixedThreadPool(2);
+      queries = new CopyOnWriteArrayList<>();
+      upstream = query ->
+      {
+         queries.add(query);
+         return StationFixtures.create()
+               .with("onRoute", 52.5, 13.2, 1.45f, 1.40f, 1.30f)
+               .with("nearby", 52.53, 13.5, 1.40f, 1.35f, 1.28f)
+               .with("closed", 52.5, 13.6, 1.20f, 1.20f, 1.10f, false)
+               .with("noDiesel", 52.5, 13.7, 1.30f, 1.20f, null)
+               .with("farAway", 52.7, 13.5, 1.00f, 1.00f, 1.00f)
+               .toResult();
+      };
+   }
+
+   @After
+   public void tearDown() throws Exception
+   {
+      executor.shutdownNow();
+      executor.awaitTermination(1, TimeUnit.SECONDS);
+      executor = null;
+      queries = null;
+      upstream = null;
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(RouteSearch.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> new RouteSearch(upstream, new StationDensity(), null)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new RouteSearch(null, new StationDensity(), executor)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void ranksStationsAlongRoute() throws Exception
+   {
+      final RouteSearchResult result = new RouteSearch(upstream, new StationDensity(), executor)
+            .search(RouteQuery.of(route, 5, GasPrices.GasType.DIESEL))
+            .get(5, TimeUnit.SECONDS);
+
+      assertThat(queries).hasSize(3);
+      assertThat(result.isFinished()).isTrue();
+      assertThat(result.getCompletedCalls()).isEqualTo(3);
+      assertThat(result.getTotalCalls()).isEqualTo(3);
+      assertThat(result.getFailedCircles()).isEmpty();
+      assertThat(result.getStations()).extracting(station -> station.getStation().getId()).containsExactly("nearby", "onRoute");
+
+      final RouteStation nearby = result.getStations().get(0);
+      assertThat(nearby.getPrice()).isEqualTo(1.28f);
+      assertThat(nearby.getDistanceToRoute()).isCloseTo(3.34, within(0.01));
+      assertThat(nearby.getDetour()).isEqualTo(2 * nearby.getDistanceToRoute());
+      assertThat(nearby.getRoutePosition()).isCloseTo(route.getLength() / 2, within(0.01));
+      assertThat(nearby.getCost()).isCloseTo(1.28, within(1e-6));
+      assertThat(nearby.toString()).startsWith("RouteStation{id=nearby, distanceToRoute=");
+   }
+
+   @Test
+   public void appliesDetourPenalty() throws Exception
+   {
+      final RouteSearchResult result = new RouteSearch(upstream, new StationDensity(), executor)
+            .search(RouteQuery.of(route, 5, GasPrices.GasType.DIESEL).withDetourPenalty(0.01))
+            .get(5, TimeUnit.SECONDS);
+
+      assertThat(result.getStations()).extracting(station -> station.getStation().getId()).containsExactly("onRoute", "nearby");
+      assertThat(result.getStations().get(1).getCost()).isCloseTo(1.28 + 0.01 * 2 * 3.34, within(0.001));
+   }
+
+   @Test
+   public void includesClosedStationsAndLimits() throws Exception
+   {
+      final RouteSearchResult result = new RouteSearch(upstream, new StationDensity(), executor)
+            .search(RouteQuery.of(route, 5, GasPrices.GasType.E10).withOpenOnly(false).withLimit(2))
+            .get(5, TimeUnit.SECONDS);
+
+      assertThat(result.getStations()).extracting(station -> station.getStation().getId()).containsExactly("closed", "noDiesel");
+   }
+
+   @Test
+   public void publishesIntermediateRankings() throws Exception
+   {
+      final List<RouteSearchResult> updates = new CopyOnWriteArrayList<>();
+      final RouteSearchResult result = new RouteSearch(upstream, new StationDensity(), executor)
+            .search(RouteQuery.of(route, 5, GasPrices.GasType.DIESEL), updates::add)
+            .get(5, TimeUnit.SECONDS);
+
+      assertThat(updates).hasSize(3);
+      assertThat(updates).extracting(RouteSearchResult::getCompletedCalls).containsExactly(1, 2, 3);
+      assertThat(updates.get(0).isFinished()).isFalse();
+      assertThat(updates.get(0).getStations()).isNotEmpty();
+      assertThat(updates.get(2).getStations()).isEqualTo(result.getStations());
+   }
+
+   @Test
+   public void reportsFailedCalls() throws Exception
+   {
+      final StationListResolver.Upstream failing = query ->
+      {
+         if (query.getLng() > 13.4)
+         {
+            throw new RequesterException("Failed", new IOException());
+         }
+         return upstream.fetch(query);
+      };
+
+      final RouteSearchResult result = new RouteSearch(failing, new StationDensity(), executor)
+            .search(RouteQuery.of(route, 5, GasPrices.GasType.DIESEL))
+            .get(5, TimeUnit.SECONDS);
+
+      assertThat(result.isFinished()).isTrue();
+      assertThat(result.getFailedCircles()).hasSize(2);
+      assertThat(result.getStations()).extracting(station -> station.getStation().getId()).containsExactly("nearby", "onRoute");
+   }
+
+   @Test
+   public void failsOnRuntimeExceptions()
+   {
+      final StationListResolver.Upstream broken = query ->
+      {
+         throw new IllegalStateException("Broken");
+      };
+
+      assertThatThrownBy(() -> new RouteSearch(broken, new StationDensity(), executor)
+            .search(RouteQuery.of(route, 5, GasPrices.GasType.DIESEL))
+            .join())
+            .isExactlyInstanceOf(CompletionException.class)
+            .hasCauseExactlyInstanceOf(IllegalStateException.class);
+   }
+}
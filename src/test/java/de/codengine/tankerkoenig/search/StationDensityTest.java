@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.geo.GeoCircle;
+import de.codengine.tankerkoenig.geo.GeoPoint;
+import de.codengine.tankerkoenig.geo.GeoUtils;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.requests.GasRequestType;
+import de.codengine.tankerkoenig.models.requests.StationListQuery;
+import de.codengine.tankerkoenig.models.requests.StationListRequest;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+import de.codengine.tankerkoenig.utils.ResourceLoader;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class StationDensityTest
+{
+   private StationDensity density;
+
+   @Before
+   public void setUp()
+   {
+      density = new StationDensity();
+      density.observe(query(52.5, 13.4, 20), StationFixtures.create()
+            .with("a", 52.52, 13.42, 1.5f, 1.4f, 1.3f)
+            .with("b", 52.53, 13.43, 1.5f, 1.4f, 1.3f)
+            .with("c", 52.6, 13.7, 1.5f, 1.4f, 1.3f)
+            .toResult());
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(StationDensity.class).isFinal();
+   }
+
+   @Test
+   public void invalidCellSize()
+   {
+      assertThatThrownBy(() -> new StationDensity(0)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new StationDensity(1.5)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void observesCellsWithinCircle()
+   {
+      final double cellArea = GeoUtils.distance(52.5, 13.4, 52.55, 13.4) * GeoUtils.distance(52.525, 13.4, 52.525, 13.45);
+      assertThat(density.getDensity(52.52, 13.42).getAsDouble()).isCloseTo(2 / cellArea, within(1e-6));
+      assertThat(density.getDensity(52.45, 13.35)).hasValue(0.0);
+      // Not completely within the circle
+      assertThat(density.getDensity(52.65, 13.75)).isEmpty();
+      assertThat(density.getDensity(40, 10)).isEmpty();
+      // 48 cells of 19 km² lie completely within the circle of 1257 km²
+      assertThat(density.size()).isEqualTo(48);
+   }
+
+   @Test
+   public void maxDensity()
+   {
+      assertThat(density.getMaxDensity(52.4, 13.3, 52.6, 13.5)).isEqualTo(density.getDensity(52.52, 13.42).getAsDouble());
+      assertThat(density.getMaxDensity(52.4, 13.3, 52.49, 13.39)).isEqualTo(0.0);
+      assertThat(density.getMaxDensity(52.45, 13.35, 52.49, 13.39)).isEqualTo(0.0);
+      assertThat(density.getMaxDensity(40, 10, 41, 11)).isEqualTo(0.0);
+   }
+
+   @Test
+   public void isKnownEmpty()
+   {
+      assertThat(density.isKnownEmpty(GeoCircle.of(GeoPoint.of(52.45, 13.35), 1))).isTrue();
+      assertThat(density.isKnownEmpty(GeoCircle.of(GeoPoint.of(52.52, 13.42), 1))).isFalse();
+      assertThat(density.isKnownEmpty(GeoCircle.of(GeoPoint.of(52.45, 13.35), 30))).isFalse();
+   }
+
+   @Test
+   public void newerObservationsReplaceOlderOnes()
+   {
+      density.observe(query(52.5, 13.4, 20), StationFixtures.create().toResult());
+      assertThat(density.getDensity(52.52, 13.42)).hasValue(0.0);
+   }
+
+   @Test
+   public void ignoresFailedResults() throws IOException
+   {
+      final StationListResult failed = GsonMapper.getInstance().fromJson(ResourceLoader.readString("fail_response.json"), StationListResult.class);
+      density.observe(query(40, 10, 20), failed);
+      assertThat(density.getDensity(40, 10)).isEmpty();
+   }
+
+   private static StationListQuery query(final double lat, final double lng, final double radius)
+   {
+      return StationListQuery.of(lat, lng, radius, GasRequestType.ALL, StationListRequest.SortingRequestType.DISTANCE);
+   }
+}
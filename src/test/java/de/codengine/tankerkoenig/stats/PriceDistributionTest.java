@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PriceDistributionTest
+{
+   @Test
+   public void isFinal()
+   {
+      assertThat(PriceDistribution.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      final PriceDistribution distribution = new PriceDistribution();
+      assertThatThrownBy(() -> distribution.add(0)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> distribution.add(Float.NaN)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> distribution.add(Float.POSITIVE_INFINITY)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> distribution.getQuantile(-0.1)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> distribution.getQuantile(1.1)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void answersQuantilesAndRanks()
+   {
+      final PriceDistribution distribution = new PriceDistribution();
+      assertThat(distribution.isEmpty()).isTrue();
+      assertThat(distribution.getQuantile(0.5)).isNaN();
+      assertThat(distribution.getRank(1.5f)).isNaN();
+      assertThat(distribution).hasToString("PriceDistribution{count=0}");
+
+      for (final float price : new float[]{1.539f, 1.459f, 1.499f, 1.459f, 1.519f})
+      {
+         distribution.add(price);
+      }
+      assertThat(distribution.getCount()).isEqualTo(5);
+      assertThat(distribution.getQuantile(0)).isEqualTo(1.459f);
+      assertThat(distribution.getQuantile(0.4)).isEqualTo(1.459f);
+      assertThat(distribution.getQuantile(0.41)).isEqualTo(1.499f);
+      assertThat(distribution.getQuantile(0.5)).isEqualTo(1.499f);
+      assertThat(distribution.getQuantile(1)).isEqualTo(1.539f);
+
+      assertThat(distribution.getRank(1.4f)).isEqualTo(0);
+      assertThat(distribution.getRank(1.459f)).isEqualTo(0.4);
+      assertThat(distribution.getRank(1.5f)).isEqualTo(0.6);
+      assertThat(distribution.getRank(1.6f)).isEqualTo(1);
+      assertThat(distribution).hasToString("PriceDistribution{count=5, min=1.459, median=1.499, max=1.539}");
+   }
+
+   @Test
+   public void removesPrices()
+   {
+      final PriceDistribution distribution = new PriceDistribution();
+      distribution.add(1.459f);
+      distribution.add(1.499f);
+      assertThat(distribution.getQuantile(0)).isEqualTo(1.459f);
+
+      assertThat(distribution.remove(1.459f)).isTrue();
+      assertThat(distribution.remove(1.459f)).isFalse();
+      assertThat(distribution.remove(1.2f)).isFalse();
+      assertThat(distribution.remove(1.8f)).isFalse();
+      assertThat(distribution.getCount()).isEqualTo(1);
+      assertThat(distribution.getQuantile(0)).isEqualTo(1.499f);
+      assertThat(distribution.getRank(1.459f)).isEqualTo(0);
+   }
+
+   @Test
+   public void mergesDistributions()
+   {
+      final PriceDistribution first = new PriceDistribution();
+      first.add(1.459f);
+      first.add(1.479f);
+      final PriceDistribution second = new PriceDistribution();
+      second.add(1.299f);
+      second.add(1.699f);
+
+      final PriceDistribution merged = first.copy();
+      merged.merge(second);
+      merged.merge(new PriceDistribution());
+      assertThat(merged.getCount()).isEqualTo(4);
+      assertThat(merged.getQuantile(0)).isEqualTo(1.299f);
+      assertThat(merged.getQuantile(0.5)).isEqualTo(1.459f);
+      assertThat(merged.getQuantile(0.75)).isEqualTo(1.479f);
+      assertThat(merged.getQuantile(1)).isEqualTo(1.699f);
+
+      // The copy is independent
+      assertThat(first.getCount()).isEqualTo(2);
+      final PriceDistribution empty = new PriceDistribution();
+      empty.merge(first);
+      assertThat(empty.getQuantile(1)).isEqualTo(1.479f);
+   }
+
+   @Test
+   public void matchesSortedPrices()
+   {
+      final Random random = new Random(42);
+      final PriceDistribution distribution = new PriceDistribution();
+      final float[] prices = new float[1000];
+      for (int i = 0; i < prices.length; i++)
+      {
+         prices[i] = (1200 + random.nextInt(600)) / 1000f;
+         distribution.add(prices[i]);
+      }
+      Arrays.sort(prices);
+
+      for (final double share : new double[]{0.01, 0.1, 0.25, 0.5, 0.9, 0.999})
+      {
+         assertThat(distribution.getQuantile(share)).isEqualTo(prices[(int) Math.ceil(share * prices.length) - 1]);
+      }
+      assertThat(distribution.getRank(prices[99])).isGreaterThanOrEqualTo(0.1);
+      assertThat(distribution.getRank(prices[99] - 0.001f)).isLessThan(0.1);
+   }
+}
@@ -0,0 +1,174 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Locale;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.codengine.tankerkoenig.geo.GeoCircle;
+import de.codengine.tankerkoenig.geo.GeoPoint;
+import de.codengine.tankerkoenig.models.mapper.GasPrices;
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.requests.PricesResult;
+import de.codengine.tankerkoenig.poll.PriceChangeDetector;
+import de.codengine.tankerkoenig.poll.PriceChangeStream;
+import de.codengine.tankerkoenig.utils.StationFixtures;
+
+public class RegionalPricesTest
+{
+   private RegionalPrices regionalPrices;
+   private PriceChangeDetector detector;
+   private PriceChangeStream.Subscription subscription;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      regionalPrices = new RegionalPrices();
+      final PriceChangeStream stream = new PriceChangeStream(64);
+      subscription = stream.subscribe();
+      detector = new PriceChangeDetector(stream);
+
+      // "a" and "b" share a cell in Berlin, "c" is in the neighboring cell to the north
+      regionalPrices.locateAll(StationFixtures.create()
+            .with("a", 52.52, 13.41, 1.8f, 1.75f, 1.3f)
+            .with("b", 52.55, 13.45, 1.8f, 1.75f, 1.3f)
+            .with("c", 52.62, 13.41, 1.8f, 1.75f, 1.3f)
+            .toStations());
+   }
+
+   @Test
+   public void isFinal()
+   {
+      assertThat(RegionalPrices.class).isFinal();
+   }
+
+   @Test
+   public void invalidArguments()
+   {
+      assertThatThrownBy(() -> new RegionalPrices(0)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> new RegionalPrices(2)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> regionalPrices.getDistribution(null, 52.5, 13.4)).isExactlyInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> regionalPrices.getDistribution(GasPrices.GasType.E5, null)).isExactlyInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   public void tracksCurrentPricesPerCell()
+   {
+      observe("a", "open", 1.459, 1.399, 1.199);
+      observe("b", "open", 1.479, 1.419, 1.219);
+      observe("c", "open", 1.499, 1.439, 1.239);
+
+      PriceDistribution distribution = regionalPrices.getDistribution(GasPrices.GasType.E10, 52.5, 13.4);
+      assertThat(distribution.getCount()).isEqualTo(2);
+      assertThat(distribution.getQuantile(0)).isEqualTo(1.399f);
+      assertThat(distribution.getRank(1.419f)).isEqualTo(1);
+
+      // The changed price replaces the previous price of the station
+      observe("a", "open", 1.459, 1.449, 1.199);
+      distribution = regionalPrices.getDistribution(GasPrices.GasType.E10, 52.5, 13.4);
+      assertThat(distribution.getCount()).isEqualTo(2);
+      assertThat(distribution.getQuantile(0)).isEqualTo(1.419f);
+      assertThat(distribution.getQuantile(1)).isEqualTo(1.449f);
+
+      assertThat(regionalPrices.getDistribution(GasPrices.GasType.E10, 52.65, 13.4).getQuantile(0)).isEqualTo(1.439f);
+      assertThat(regionalPrices.getDistribution(GasPrices.GasType.E10, 48.1, 11.5).isEmpty()).isTrue();
+      assertThat(regionalPrices.size()).isEqualTo(3);
+   }
+
+   @Test
+   public void withdrawsClosedStations()
+   {
+      observe("a", "open", 1.459, 1.399, 1.199);
+      observe("b", "open", 1.479, 1.419, 1.219);
+      observe("a", "closed", 1.459, 1.399, 1.199);
+      assertThat(regionalPrices.getDistribution(GasPrices.GasType.DIESEL, 52.5, 13.4).getQuantile(0)).isEqualTo(1.219f);
+
+      observe("b", "closed", 1.479, 1.419, 1.219);
+      assertThat(regionalPrices.getDistribution(GasPrices.GasType.DIESEL, 52.5, 13.4).isEmpty()).isTrue();
+
+      observe("a", "open", 1.459, 1.399, 1.199);
+      assertThat(regionalPrices.getDistribution(GasPrices.GasType.DIESEL, 52.5, 13.4).getCount()).isEqualTo(1);
+   }
+
+   @Test
+   public void keepsPricesUntilStationIsLocated()
+   {
+      observe("new", "open", 1.459, 1.399, 1.199);
+      assertThat(regionalPrices.getDistribution(GasPrices.GasType.E5, 52.5, 13.4).isEmpty()).isTrue();
+
+      regionalPrices.locate("new", 52.51, 13.42);
+      assertThat(regionalPrices.getDistribution(GasPrices.GasType.E5, 52.5, 13.4).getQuantile(0)).isEqualTo(1.459f);
+
+      // Moving the station moves its prices
+      regionalPrices.locate("new", 52.61, 13.42);
+      assertThat(regionalPrices.getDistribution(GasPrices.GasType.E5, 52.5, 13.4).isEmpty()).isTrue();
+      assertThat(regionalPrices.getDistribution(GasPrices.GasType.E5, 52.65, 13.4).getCount()).isEqualTo(1);
+   }
+
+   @Test
+   public void mergesCellsOfArea()
+   {
+      observe("a", "open", 1.459, 1.399, 1.199);
+      observe("b", "open", 1.479, 1.419, 1.219);
+      observe("c", "open", 1.499, 1.439, 1.239);
+
+      final PriceDistribution small = regionalPrices.getDistribution(GasPrices.GasType.E5, GeoCircle.of(GeoPoint.of(52.52, 13.41), 2));
+      assertThat(small.getCount()).isEqualTo(2);
+
+      final PriceDistribution wide = regionalPrices.getDistribution(GasPrices.GasType.E5, GeoCircle.of(GeoPoint.of(52.52, 13.41), 15));
+      assertThat(wide.getCount()).isEqualTo(3);
+      assertThat(wide.getQuantile(0.5)).isEqualTo(1.479f);
+      assertThat(wide.getRank(1.459f)).isLessThan(0.5);
+   }
+
+   @Test
+   public void tellsCheapestShareOfArea()
+   {
+      for (int i = 0; i < 20; i++)
+      {
+         regionalPrices.locate("s" + i, 52.5 + i * 0.004, 13.4);
+         observe("s" + i, "open", 1.5 + i * 0.01, 1.45 + i * 0.01, 1.2 + i * 0.01);
+      }
+
+      final PriceDistribution area = regionalPrices.getDistribution(GasPrices.GasType.E10, GeoCircle.of(GeoPoint.of(52.54, 13.4), 10));
+      assertThat(area.getCount()).isEqualTo(20);
+      assertThat(area.getRank(1.46f)).isLessThanOrEqualTo(0.1);
+      assertThat(area.getRank(1.47f)).isGreaterThan(0.1);
+      assertThat(area.getQuantile(0.1)).isEqualTo(1.46f);
+   }
+
+   private void observe(final String stationId, final String status, final double e5, final double e10, final double diesel)
+   {
+      final String json = String.format(Locale.ROOT, "{\"ok\":true,\"prices\":{\"%s\":{\"status\":\"%s\",\"e5\":%.3f,\"e10\":%.3f,\"diesel\":%.3f}}}",
+            stationId, status, e5, e10, diesel);
+      detector.onPrices(stationId, GsonMapper.getInstance().fromJson(json, PricesResult.class).getGasPrice(stationId).get());
+      subscription.drain(regionalPrices::onChange);
+   }
+}
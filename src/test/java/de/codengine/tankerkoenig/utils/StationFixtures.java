@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Stefan Hueg (Codengine)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.codengine.tankerkoenig.utils;
+
+import java.util.List;
+import java.util.Locale;
+
+import de.codengine.tankerkoenig.models.mapper.GsonMapper;
+import de.codengine.tankerkoenig.models.mapper.Station;
+import de.codengine.tankerkoenig.models.requests.StationListResult;
+
+/**
+ * Builds station list results, as the models can only be created by the mappers
+ */
+public class StationFixtures
+{
+   private final StringBuilder stations = new StringBuilder();
+
+   public static StationFixtures create()
+   {
+      return new StationFixtures();
+   }
+
+   /**
+    * Adds an open station with all prices, unavailable prices are null
+    */
+   public StationFixtures with(final String id, final double lat, final double lng, final Float e5, final Float e10, final Float diesel)
+   {
+      return with(id, lat, lng, e5, e10, diesel, true);
+   }
+
+   public StationFixtures with(final String id, final double lat, final double lng, final Float e5, final Float e10, final Float diesel,
+         final boolean open)
+   {
+      stations.append(stations.length() == 0 ? "" : ",")
+            .append(String.format(Locale.ROOT, "{\"id\":\"%s\",\"name\":\"Station %s\",\"brand\":\"JET\",\"street\":\"Street\",\"place\":\"Berlin\","
+                  + "\"lat\":%s,\"lng\":%s,\"dist\":0.0,\"e5\":%s,\"e10\":%s,\"diesel\":%s,\"isOpen\":%b,\"houseNumber\":\"1\",\"postCode\":10365}",
+                  id, id, lat, lng, e5, e10, diesel, open));
+      return this;
+   }
+
+   public String toJson()
+   {
+      return "{\"ok\":true,\"license\":\"CC BY 4.0\",\"data\":\"MTS-K\",\"status\":\"ok\",\"stations\":[" + stations + "]}";
+   }
+
+   public StationListResult toResult()
+   {
+      return GsonMapper.getInstance().fromJson(toJson(), StationListResult.class);
+   }
+
+   public List<Station> toStations()
+   {
+      return toResult().getStations();
+   }
+}